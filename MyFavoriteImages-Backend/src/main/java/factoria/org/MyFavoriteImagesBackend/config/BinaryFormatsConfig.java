@@ -0,0 +1,58 @@
+package factoria.org.MyFavoriteImagesBackend.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import factoria.org.MyFavoriteImagesBackend.infra.tracing.Span;
+import factoria.org.MyFavoriteImagesBackend.infra.tracing.Tracer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * Binary encodings of the API payloads, chosen with {@code Accept: application/cbor} or
+ * {@code Accept: application/x-jackson-smile} (and accepted as request bodies with the same content types).
+ * Both use the mapper settings of the JSON converter and replace the default converters in place, which sit after
+ * JSON, so requests without an explicit Accept header keep getting JSON.
+ */
+@Configuration
+public class BinaryFormatsConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter mappingJackson2CborHttpMessageConverter(Jackson2ObjectMapperBuilder builder, Tracer tracer) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build()) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+                Span span = tracer.startSpan("cbor.write");
+                try {
+                    super.writeInternal(object, type, outputMessage);
+                } finally {
+                    tracer.endSpan(span);
+                }
+            }
+        };
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter mappingJackson2SmileHttpMessageConverter(Jackson2ObjectMapperBuilder builder, Tracer tracer) {
+        //Image lists repeat owner names and roles, which Smile can back-reference like it does for field names
+        SmileFactory factory = new SmileFactory().configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, true);
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(factory).build()) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+                Span span = tracer.startSpan("smile.write");
+                try {
+                    super.writeInternal(object, type, outputMessage);
+                } finally {
+                    tracer.endSpan(span);
+                }
+            }
+        };
+    }
+}
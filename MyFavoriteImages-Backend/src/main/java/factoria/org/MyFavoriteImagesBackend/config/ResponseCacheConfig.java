@@ -0,0 +1,30 @@
+package factoria.org.MyFavoriteImagesBackend.config;
+
+import factoria.org.MyFavoriteImagesBackend.domain.services.ImageViewService;
+import factoria.org.MyFavoriteImagesBackend.domain.services.TrendingService;
+import factoria.org.MyFavoriteImagesBackend.infra.cache.ResponseCacheFilter;
+import factoria.org.MyFavoriteImagesBackend.infra.cache.SerializedResponseCache;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ResponseCacheConfig {
+
+    @Bean
+    public FilterRegistrationBean<ResponseCacheFilter> responseCacheFilter(SerializedResponseCache cache, ImageViewService imageViewService,
+                                                                           TrendingService trendingService) {
+        ResponseCacheFilter filter = new ResponseCacheFilter(cache, imageId -> {
+            imageViewService.recordView(imageId);
+            trendingService.recordView(imageId);
+        });
+        FilterRegistrationBean<ResponseCacheFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setName("responseCacheFilter");
+        registration.addUrlPatterns("/api/v1/images/*", "/api/v1/users/*");
+        //Behind the security chain and its exit tracing filter
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 2);
+        registration.setEnabled(cache.isEnabled());
+        return registration;
+    }
+}
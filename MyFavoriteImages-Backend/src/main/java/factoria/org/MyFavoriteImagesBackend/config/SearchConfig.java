@@ -0,0 +1,22 @@
+package factoria.org.MyFavoriteImagesBackend.config;
+
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.search.ImageSearchIndex;
+import factoria.org.MyFavoriteImagesBackend.infra.search.InMemoryImageSearchIndex;
+import factoria.org.MyFavoriteImagesBackend.infra.search.PostgresImageSearchIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class SearchConfig {
+
+    @Bean
+    public ImageSearchIndex imageSearchIndex(@Value("${spring.datasource.url}") String datasourceUrl, FavoriteImageRepository imageRepository) {
+        if (DatabaseDriver.fromJdbcUrl(datasourceUrl) == DatabaseDriver.POSTGRESQL) {
+            return new PostgresImageSearchIndex(imageRepository);
+        }
+        return new InMemoryImageSearchIndex(imageRepository);
+    }
+}
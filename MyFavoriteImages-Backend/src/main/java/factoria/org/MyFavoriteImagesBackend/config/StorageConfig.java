@@ -0,0 +1,39 @@
+package factoria.org.MyFavoriteImagesBackend.config;
+
+import factoria.org.MyFavoriteImagesBackend.infra.storage.BlobStore;
+import factoria.org.MyFavoriteImagesBackend.infra.storage.LocalFileBlobStore;
+import factoria.org.MyFavoriteImagesBackend.infra.storage.PackFileBlobStore;
+import factoria.org.MyFavoriteImagesBackend.infra.storage.TieredBlobStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+@EnableScheduling
+public class StorageConfig {
+
+    @Bean
+    public LocalFileBlobStore looseFileBlobStore(@Value("${images.storage.path:data/blobs}") String storagePath) throws IOException {
+        return new LocalFileBlobStore(Path.of(storagePath));
+    }
+
+    @Bean
+    public PackFileBlobStore packFileBlobStore(@Value("${images.storage.path:data/blobs}") String storagePath,
+                                               @Value("${images.storage.pack.segment-size:64MB}") DataSize segmentSize,
+                                               @Value("${images.storage.pack.compaction-threshold:0.5}") double compactionThreshold) throws IOException {
+        return new PackFileBlobStore(Path.of(storagePath, "packs"), segmentSize.toBytes(), compactionThreshold);
+    }
+
+    @Bean
+    @Primary
+    public BlobStore blobStore(LocalFileBlobStore looseFileBlobStore, PackFileBlobStore packFileBlobStore,
+                               @Value("${images.storage.pack.max-blob-size:256KB}") DataSize maxPackedBlobSize) {
+        return new TieredBlobStore(packFileBlobStore, looseFileBlobStore, maxPackedBlobSize.toBytes());
+    }
+}
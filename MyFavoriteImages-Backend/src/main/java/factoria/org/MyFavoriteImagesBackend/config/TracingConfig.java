@@ -0,0 +1,80 @@
+package factoria.org.MyFavoriteImagesBackend.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import factoria.org.MyFavoriteImagesBackend.infra.tracing.Span;
+import factoria.org.MyFavoriteImagesBackend.infra.tracing.Tracer;
+import factoria.org.MyFavoriteImagesBackend.infra.tracing.TracingFilter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    public FilterRegistrationBean<TracingFilter> requestTracingFilter(Tracer tracer) {
+        return tracingFilter(tracer, TracingFilter.Stage.REQUEST, Ordered.HIGHEST_PRECEDENCE);
+    }
+
+    @Bean
+    public FilterRegistrationBean<TracingFilter> securityChainEntryTracingFilter(Tracer tracer) {
+        return tracingFilter(tracer, TracingFilter.Stage.BEFORE_SECURITY, SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+    }
+
+    @Bean
+    public FilterRegistrationBean<TracingFilter> securityChainExitTracingFilter(Tracer tracer) {
+        return tracingFilter(tracer, TracingFilter.Stage.AFTER_SECURITY, SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+    }
+
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper, Tracer tracer) {
+        return new MappingJackson2HttpMessageConverter(objectMapper) {
+            @Override
+            protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+                Span span = tracer.startSpan("json.write");
+                try {
+                    super.writeInternal(object, type, outputMessage);
+                } finally {
+                    tracer.endSpan(span);
+                }
+            }
+        };
+    }
+
+    @Bean
+    public static BeanPostProcessor jwtDecoderTracingPostProcessor(ObjectProvider<Tracer> tracer) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof JwtDecoder jwtDecoder) {
+                    return (JwtDecoder) token -> {
+                        Span span = tracer.getObject().startSpan("jwt.decode");
+                        try {
+                            return jwtDecoder.decode(token);
+                        } finally {
+                            tracer.getObject().endSpan(span);
+                        }
+                    };
+                }
+                return bean;
+            }
+        };
+    }
+
+    private FilterRegistrationBean<TracingFilter> tracingFilter(Tracer tracer, TracingFilter.Stage stage, int order) {
+        FilterRegistrationBean<TracingFilter> registration = new FilterRegistrationBean<>(new TracingFilter(tracer, stage));
+        registration.setName("tracingFilter" + stage.name());
+        registration.setOrder(order);
+        return registration;
+    }
+}
@@ -9,10 +9,13 @@ import com.nimbusds.jose.proc.SecurityContext;
 import factoria.org.MyFavoriteImagesBackend.config.security.exceptions.CustomBasicAuthenticationEntryPoint;
 import factoria.org.MyFavoriteImagesBackend.config.security.exceptions.CustomBearerTokenAccessDeniedHandler;
 import factoria.org.MyFavoriteImagesBackend.config.security.exceptions.CustomBearerTokenAuthenticationEntryPoint;
+import factoria.org.MyFavoriteImagesBackend.infra.profiling.ProfiledPasswordEncoder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationManager;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
@@ -27,6 +30,7 @@ import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
 import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
 import java.security.KeyPair;
@@ -72,10 +76,14 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.DELETE, this.baseUrl + "/images/**").hasAnyAuthority("ROLE_admin", "ROLE_user")
                         .requestMatchers(HttpMethod.GET, this.baseUrl + "/users/{userId}/images/**").hasAnyAuthority("ROLE_admin", "ROLE_user")
                         .requestMatchers(HttpMethod.DELETE, this.baseUrl + "/users/{userId}/images/{imageId}/**").hasAnyAuthority("ROLE_admin", "ROLE_user")
+                        .requestMatchers(HttpMethod.PUT, this.baseUrl + "/users/{userId}/images/{imageId}/position").hasAnyAuthority("ROLE_admin", "ROLE_user")
                         .requestMatchers(HttpMethod.GET, this.baseUrl + "/users/**").hasAnyAuthority("ROLE_admin")
                         .requestMatchers(HttpMethod.POST, this.baseUrl + "/users/**").hasAnyAuthority("ROLE_admin")
                         .requestMatchers(HttpMethod.PUT, this.baseUrl + "/users/**").hasAnyAuthority("ROLE_admin")
                         .requestMatchers(HttpMethod.DELETE, this.baseUrl + "/users/**").hasAnyAuthority("ROLE_admin")
+                        .requestMatchers(HttpMethod.GET, this.baseUrl + "/traces/**").hasAnyAuthority("ROLE_admin")
+                        .requestMatchers(HttpMethod.GET, this.baseUrl + "/changes").access(changeFeedAccess())
+                        .requestMatchers(this.baseUrl + "/admin/**").hasAnyAuthority("ROLE_admin")
                         .requestMatchers(AntPathRequestMatcher.antMatcher("/h2-console/**")).permitAll()
                         .anyRequest().authenticated()
                 )
@@ -90,9 +98,23 @@ public class SecurityConfig {
                 .build();
     }
 
+    /**
+     * The whole change feed is for admins. Users may follow the feed of a single user; ChangeController makes sure
+     * that it is their own.
+     */
+    private static AuthorizationManager<RequestAuthorizationContext> changeFeedAccess() {
+        AuthorizationManager<RequestAuthorizationContext> admin = AuthorityAuthorizationManager.hasAnyAuthority("ROLE_admin");
+        AuthorizationManager<RequestAuthorizationContext> user = AuthorityAuthorizationManager.hasAnyAuthority("ROLE_admin", "ROLE_user");
+        return (authentication, context) -> {
+            //A blank userId binds to null and returns the whole feed
+            String userId = context.getRequest().getParameter("userId");
+            return userId == null || userId.isBlank() ? admin.check(authentication, context) : user.check(authentication, context);
+        };
+    }
+
     @Bean
     public PasswordEncoder passwordEncoder(){
-        return new BCryptPasswordEncoder(12);
+        return new ProfiledPasswordEncoder(new BCryptPasswordEncoder(12));
     }
 
     @Bean
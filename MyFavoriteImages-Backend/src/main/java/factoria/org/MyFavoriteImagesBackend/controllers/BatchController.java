@@ -0,0 +1,39 @@
+package factoria.org.MyFavoriteImagesBackend.controllers;
+
+import factoria.org.MyFavoriteImagesBackend.infra.batch.BatchDispatcher;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.BatchRequestDto;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.BatchResponseDto;
+import factoria.org.MyFavoriteImagesBackend.infra.results.Result;
+import factoria.org.MyFavoriteImagesBackend.infra.results.StatusCode;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/batch")
+public class BatchController {
+    private final BatchDispatcher batchDispatcher;
+
+    public BatchController(BatchDispatcher batchDispatcher) {
+        this.batchDispatcher = batchDispatcher;
+    }
+
+    /**
+     * Runs several image and user requests in one round trip; every operation gets its own status and body. A rolled
+     * back atomic batch answers with a failed dependency, as none of its operations took effect.
+     */
+    @PostMapping
+    public Result dispatchBatch(@Valid @RequestBody BatchRequestDto batchRequestDto, HttpServletRequest request, HttpServletResponse response) {
+        BatchResponseDto batchResponse = this.batchDispatcher.dispatch(batchRequestDto, request, response);
+        if (!batchResponse.committed()) {
+            response.setStatus(HttpStatus.FAILED_DEPENDENCY.value());
+            return new Result(false, StatusCode.FAILED_DEPENDENCY, "Batch Rolled Back", batchResponse);
+        }
+        return new Result(true, StatusCode.SUCCESS, "Batch Success", batchResponse);
+    }
+}
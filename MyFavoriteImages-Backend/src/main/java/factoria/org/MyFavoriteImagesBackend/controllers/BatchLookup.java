@@ -0,0 +1,29 @@
+package factoria.org.MyFavoriteImagesBackend.controllers;
+
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.BatchItemDto;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.InvalidArgumentException;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared rules of the {@code ?ids=} lookups: a bounded number of ids, answered in request order.
+ */
+final class BatchLookup {
+    static final int MAX_IDS = 100;
+
+    private BatchLookup() {
+    }
+
+    static void checkSize(List<Long> ids) {
+        if (ids.size() > MAX_IDS) {
+            throw new InvalidArgumentException("At most " + MAX_IDS + " ids can be requested at once, got " + ids.size());
+        }
+    }
+
+    static <T> List<BatchItemDto<T>> inRequestOrder(List<Long> ids, Map<Long, T> found) {
+        return ids.stream()
+                .map(id -> new BatchItemDto<>(id, found.containsKey(id), found.get(id)))
+                .toList();
+    }
+}
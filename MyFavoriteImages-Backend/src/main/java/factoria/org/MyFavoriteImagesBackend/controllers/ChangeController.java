@@ -0,0 +1,51 @@
+package factoria.org.MyFavoriteImagesBackend.controllers;
+
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImageUser;
+import factoria.org.MyFavoriteImagesBackend.domain.services.ChangeLogService;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.ChangeFeedDto;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageUserRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.results.Result;
+import factoria.org.MyFavoriteImagesBackend.infra.results.StatusCode;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/changes")
+public class ChangeController {
+    private final ChangeLogService changeLogService;
+    private final FavoriteImageUserRepository userRepository;
+
+    public ChangeController(ChangeLogService changeLogService, FavoriteImageUserRepository userRepository) {
+        this.changeLogService = changeLogService;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Changes after {@code since}, optionally restricted to one user and its images, for incremental client sync.
+     * Without {@code userId} only admins get the feed (see SecurityConfig); other users only get their own.
+     */
+    @GetMapping
+    public Result findChanges(@RequestParam(defaultValue = "0") long since,
+                              @RequestParam(required = false) Long userId,
+                              @RequestParam(defaultValue = "100") int limit,
+                              Authentication authentication) {
+        if (userId != null && !isAdmin(authentication) && !isCaller(userId, authentication)) {
+            throw new AccessDeniedException("Only the changes of your own user can be followed");
+        }
+        ChangeFeedDto changes = this.changeLogService.findChanges(Math.max(since, 0), userId, Math.max(1, Math.min(limit, 1000)));
+        return new Result(true, StatusCode.SUCCESS, "Find All Success", changes);
+    }
+
+    private boolean isCaller(Long userId, Authentication authentication) {
+        return this.userRepository.findByUsername(authentication.getName())
+                .map(FavoriteImageUser::getId)
+                .filter(userId::equals)
+                .isPresent();
+    }
+
+    private static boolean isAdmin(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(authority -> authority.getAuthority().equals("ROLE_admin"));
+    }
+}
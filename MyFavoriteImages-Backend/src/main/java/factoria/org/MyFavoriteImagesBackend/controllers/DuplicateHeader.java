@@ -0,0 +1,22 @@
+package factoria.org.MyFavoriteImagesBackend.controllers;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Flags a created or uploaded image as a probable duplicate without changing the response body.
+ */
+final class DuplicateHeader {
+    static final String NAME = "X-Duplicate-Of";
+
+    private DuplicateHeader() {
+    }
+
+    static void write(HttpServletResponse response, List<Long> duplicateIds) {
+        if (!duplicateIds.isEmpty()) {
+            response.setHeader(NAME, duplicateIds.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package factoria.org.MyFavoriteImagesBackend.controllers;
+
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.domain.services.ImageContentService;
+import factoria.org.MyFavoriteImagesBackend.domain.services.ImageSimilarityService;
+import factoria.org.MyFavoriteImagesBackend.domain.services.ThumbnailService;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.ImageContentDto;
+import factoria.org.MyFavoriteImagesBackend.infra.results.Result;
+import factoria.org.MyFavoriteImagesBackend.infra.results.StatusCode;
+import factoria.org.MyFavoriteImagesBackend.infra.storage.BlobResponseWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/v1/images")
+public class FavoriteImageContentController {
+    private final ImageContentService contentService;
+    private final ThumbnailService thumbnailService;
+    private final BlobResponseWriter blobResponseWriter;
+    private final ImageSimilarityService imageSimilarityService;
+
+    public FavoriteImageContentController(ImageContentService contentService, ThumbnailService thumbnailService, BlobResponseWriter blobResponseWriter,
+                                          ImageSimilarityService imageSimilarityService) {
+        this.contentService = contentService;
+        this.thumbnailService = thumbnailService;
+        this.blobResponseWriter = blobResponseWriter;
+        this.imageSimilarityService = imageSimilarityService;
+    }
+
+    @PostMapping(value = "/{imageId}/content", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Result uploadImageContent(@PathVariable Long imageId, @RequestParam("file") MultipartFile file,
+                                     HttpServletResponse response) throws IOException {
+        try (InputStream content = file.getInputStream()) {
+            FavoriteImage image = this.contentService.storeContent(imageId, file.getContentType(), content);
+            DuplicateHeader.write(response, this.imageSimilarityService.findDuplicates(image));
+            ImageContentDto contentDto = new ImageContentDto(image.getId(), image.getContentType(), image.getContentLength(), image.getContentSha256());
+            return new Result(true, StatusCode.SUCCESS, "Upload Success", contentDto);
+        }
+    }
+
+    @GetMapping("/{imageId}/content")
+    public void downloadImageContent(@PathVariable Long imageId, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageContentService.Content content = this.contentService.findContent(imageId);
+        this.blobResponseWriter.write(request, response, content.location(), content.contentType(), content.etag());
+    }
+
+    @GetMapping("/{imageId}/thumbnail")
+    public void downloadThumbnail(@PathVariable Long imageId, @RequestParam(defaultValue = "256") int size,
+                                  HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ThumbnailService.Thumbnail thumbnail = this.thumbnailService.findThumbnail(imageId, size);
+        this.blobResponseWriter.write(request, response, thumbnail.location(), thumbnail.contentType(), thumbnail.etag());
+    }
+}
@@ -4,19 +4,35 @@ import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
 import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImageUser;
 import factoria.org.MyFavoriteImagesBackend.domain.services.AuthService;
 import factoria.org.MyFavoriteImagesBackend.domain.services.FavoriteImageService;
+import factoria.org.MyFavoriteImagesBackend.domain.services.ImageSearchService;
+import factoria.org.MyFavoriteImagesBackend.domain.services.ImageSimilarityService;
+import factoria.org.MyFavoriteImagesBackend.domain.services.ImageViewService;
+import factoria.org.MyFavoriteImagesBackend.domain.services.TrendingService;
+import factoria.org.MyFavoriteImagesBackend.infra.cache.ResponseCacheFilter;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.BatchItemDto;
 import factoria.org.MyFavoriteImagesBackend.infra.dtos.ImageDto;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.ImageFields;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.PageDto;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.TrendingDto;
 import factoria.org.MyFavoriteImagesBackend.infra.dtos.converters.ImageDtoToImageConverter;
 import factoria.org.MyFavoriteImagesBackend.infra.dtos.converters.ImageToImageDtoConverter;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.InvalidArgumentException;
 import factoria.org.MyFavoriteImagesBackend.infra.exceptions.UserNameNotFoundException;
 import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageUserRepository;
 import factoria.org.MyFavoriteImagesBackend.infra.results.Result;
 import factoria.org.MyFavoriteImagesBackend.infra.results.StatusCode;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.boot.convert.DurationStyle;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -26,23 +42,54 @@ public class FavoriteImageController {
     private final ImageToImageDtoConverter imageToImageDtoConverter;
     private final ImageDtoToImageConverter imageDtoToImageConverter;
     private final FavoriteImageUserRepository userRepository;
+    private final ImageSearchService imageSearchService;
+    private final ImageSimilarityService imageSimilarityService;
+    private final ImageViewService imageViewService;
+    private final TrendingService trendingService;
 
-    public FavoriteImageController(FavoriteImageService imageService, ImageToImageDtoConverter imageToImageDtoConverter, ImageDtoToImageConverter imageDtoToImageConverter, FavoriteImageUserRepository userRepository) {
+    public FavoriteImageController(FavoriteImageService imageService, ImageToImageDtoConverter imageToImageDtoConverter, ImageDtoToImageConverter imageDtoToImageConverter, FavoriteImageUserRepository userRepository, ImageSearchService imageSearchService, ImageSimilarityService imageSimilarityService, ImageViewService imageViewService, TrendingService trendingService) {
         this.imageService = imageService;
         this.imageToImageDtoConverter = imageToImageDtoConverter;
         this.imageDtoToImageConverter = imageDtoToImageConverter;
         this.userRepository = userRepository;
+        this.imageSearchService = imageSearchService;
+        this.imageSimilarityService = imageSimilarityService;
+        this.imageViewService = imageViewService;
+        this.trendingService = trendingService;
     }
 
+    /**
+     * Image lookups accept {@code fields} and {@code expand=owner} to return only part of each image.
+     */
     @GetMapping("/{imageId}")
-    public Result findImageById(@PathVariable Long imageId){
+    public Result findImageById(@PathVariable Long imageId,
+                                @RequestParam(required = false) String fields,
+                                @RequestParam(required = false) String expand){
+        ImageFields imageFields = ImageFields.parse(fields, expand);
         FavoriteImage foundImage = this.imageService.findById(imageId);
+        this.imageViewService.recordView(imageId);
+        this.trendingService.recordView(imageId);
+        if (imageFields != null) {
+            return new Result(true, StatusCode.SUCCESS, "Find One Success", this.imageToImageDtoConverter.convert(foundImage, imageFields));
+        }
         ImageDto imageDto = this.imageToImageDtoConverter.convert(foundImage);
+        ResponseCacheFilter.ownedBy(imageDto.owner() != null ? imageDto.owner().id() : null);
         return new Result(true, StatusCode.SUCCESS, "Find One Success", imageDto);
     }
 
+    @GetMapping("/{imageId}/views")
+    public Result countImageViews(@PathVariable Long imageId) {
+        FavoriteImage foundImage = this.imageService.findById(imageId);
+        return new Result(true, StatusCode.SUCCESS, "Find One Success", this.imageViewService.countViews(foundImage));
+    }
+
     @GetMapping
-    public Result findAllImages() {
+    public Result findAllImages(@RequestParam(required = false) String fields,
+                                @RequestParam(required = false) String expand) {
+        ImageFields imageFields = ImageFields.parse(fields, expand);
+        if (imageFields != null) {
+            return new Result(true, StatusCode.SUCCESS, "Find All Success", this.imageService.findProjected(imageFields, null));
+        }
         List<FavoriteImage> foundImages = this.imageService.findAll();
         List<ImageDto> imagesDto = foundImages.stream()
                 .map(this.imageToImageDtoConverter::convert)
@@ -50,8 +97,74 @@ public class FavoriteImageController {
         return new Result(true, StatusCode.SUCCESS, "Find All Success", imagesDto);
     }
 
+    /**
+     * Looks up several images at once, e.g. {@code ?ids=1,2,3}. Entries follow the order of the ids and mark the
+     * ones that do not exist instead of failing the whole request.
+     */
+    @GetMapping(params = "ids")
+    public Result findImagesByIds(@RequestParam List<Long> ids,
+                                  @RequestParam(required = false) String fields,
+                                  @RequestParam(required = false) String expand) {
+        BatchLookup.checkSize(ids);
+        ImageFields imageFields = ImageFields.parse(fields, expand);
+        Map<Long, Object> imagesDto = new HashMap<>();
+        this.imageService.findAllById(ids).forEach((imageId, image) -> {
+            this.imageViewService.recordView(imageId);
+            this.trendingService.recordView(imageId);
+            imagesDto.put(imageId, imageFields != null
+                    ? this.imageToImageDtoConverter.convert(image, imageFields)
+                    : this.imageToImageDtoConverter.convert(image));
+        });
+        List<BatchItemDto<Object>> items = BatchLookup.inRequestOrder(ids, imagesDto);
+        return new Result(true, StatusCode.SUCCESS, "Find All Success", items);
+    }
+
+    /**
+     * Most viewed images, or most added URLs with {@code by=adds}, over a window such as 15m, 1h or 1d.
+     */
+    @GetMapping("/trending")
+    public Result findTrendingImages(@RequestParam(defaultValue = "1h") String window,
+                                     @RequestParam(defaultValue = "views") String by,
+                                     @RequestParam(defaultValue = "10") int limit) {
+        Duration windowDuration;
+        TrendingService.Metric metric;
+        try {
+            windowDuration = DurationStyle.detectAndParse(window);
+            metric = TrendingService.Metric.valueOf(by.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException exception) {
+            throw new InvalidArgumentException("Invalid trending window " + window + " or ranking " + by);
+        }
+        List<TrendingDto> trending = this.trendingService.findTrending(metric, windowDuration, Math.max(1, limit));
+        return new Result(true, StatusCode.SUCCESS, "Find All Success", trending);
+    }
+
+    @GetMapping("/search")
+    public Result searchImages(@RequestParam("q") String query,
+                               @RequestParam(defaultValue = "0") int page,
+                               @RequestParam(defaultValue = "20") int size) {
+        int pageSize = Math.max(1, Math.min(size, 100));
+        List<FavoriteImage> foundImages = this.imageSearchService.search(query, (long) Math.max(page, 0) * pageSize, pageSize + 1);
+        List<ImageDto> imagesDto = foundImages.stream()
+                .limit(pageSize)
+                .map(this.imageToImageDtoConverter::convert)
+                .collect(Collectors.toList());
+        return new Result(true, StatusCode.SUCCESS, "Search Success", new PageDto<>(imagesDto, page, pageSize, foundImages.size() > pageSize));
+    }
+
+    @GetMapping("/{imageId}/similar")
+    public Result findSimilarImages(@PathVariable Long imageId,
+                                    @RequestParam(defaultValue = "10") int maxDistance,
+                                    @RequestParam(defaultValue = "20") int limit) {
+        List<FavoriteImage> similarImages = this.imageSimilarityService.findSimilar(imageId,
+                Math.max(0, Math.min(maxDistance, 64)), Math.max(1, Math.min(limit, 100)));
+        List<ImageDto> imagesDto = similarImages.stream()
+                .map(this.imageToImageDtoConverter::convert)
+                .collect(Collectors.toList());
+        return new Result(true, StatusCode.SUCCESS, "Find Similar Success", imagesDto);
+    }
+
     @PostMapping
-    public Result addImage(@RequestBody @Valid ImageDto myFavoriteImageDto) {
+    public Result addImage(@RequestBody @Valid ImageDto myFavoriteImageDto, HttpServletResponse response) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String userName = authentication.getName();
         FavoriteImageUser userEntity = userRepository.findByUsername(userName).orElseThrow( () -> new UserNameNotFoundException(userName));
@@ -59,6 +172,8 @@ public class FavoriteImageController {
         assert newImage != null;
         newImage.setOwner(userEntity);
         FavoriteImage savedImage = this.imageService.save(newImage);
+        this.trendingService.recordAdd(savedImage);
+        DuplicateHeader.write(response, this.imageSimilarityService.findDuplicates(savedImage));
 
         ImageDto savedImageDto = this.imageToImageDtoConverter.convert(savedImage);
         return new Result(true, StatusCode.SUCCESS, "Add Success", savedImageDto );
@@ -1,15 +1,28 @@
 package factoria.org.MyFavoriteImagesBackend.controllers;
 
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
 import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImageUser;
 import factoria.org.MyFavoriteImagesBackend.domain.services.FavoriteImageService;
 import factoria.org.MyFavoriteImagesBackend.domain.services.FavoriteImageUserService;
+import factoria.org.MyFavoriteImagesBackend.domain.services.ImageOrderService;
+import factoria.org.MyFavoriteImagesBackend.domain.services.ImageTagService;
+import factoria.org.MyFavoriteImagesBackend.domain.services.UserDirectoryService;
+import factoria.org.MyFavoriteImagesBackend.domain.services.UserPurgeService;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.BatchItemDto;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.CursorPageDto;
 import factoria.org.MyFavoriteImagesBackend.infra.dtos.ImageDto;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.ImageFields;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.KeysetPageDto;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.PageDto;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.PositionDto;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.PurgeStatusDto;
 import factoria.org.MyFavoriteImagesBackend.infra.dtos.UserDto;
 import factoria.org.MyFavoriteImagesBackend.infra.dtos.converters.ImageToImageDtoConverter;
 import factoria.org.MyFavoriteImagesBackend.infra.dtos.converters.UserDtoToUserConverter;
 import factoria.org.MyFavoriteImagesBackend.infra.dtos.converters.UserToUserDtoConverter;
 import factoria.org.MyFavoriteImagesBackend.infra.results.Result;
 import factoria.org.MyFavoriteImagesBackend.infra.results.StatusCode;
+import factoria.org.MyFavoriteImagesBackend.infra.search.TitleSuggestionIndex;
 import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.*;
 
@@ -27,11 +40,26 @@ public class FavoriteImageUserController {
 
     private final ImageToImageDtoConverter imageToImageDtoConverter;
 
-    public FavoriteImageUserController(FavoriteImageUserService userService, UserToUserDtoConverter userToUserDtoConverter, UserDtoToUserConverter userDtoToUserConverter, ImageToImageDtoConverter imageToImageDtoConverter) {
+    private final TitleSuggestionIndex titleSuggestionIndex;
+
+    private final ImageTagService imageTagService;
+
+    private final ImageOrderService imageOrderService;
+
+    private final UserPurgeService userPurgeService;
+
+    private final UserDirectoryService userDirectoryService;
+
+    public FavoriteImageUserController(FavoriteImageUserService userService, UserToUserDtoConverter userToUserDtoConverter, UserDtoToUserConverter userDtoToUserConverter, ImageToImageDtoConverter imageToImageDtoConverter, TitleSuggestionIndex titleSuggestionIndex, ImageTagService imageTagService, ImageOrderService imageOrderService, UserPurgeService userPurgeService, UserDirectoryService userDirectoryService) {
         this.userService = userService;
         this.userToUserDtoConverter = userToUserDtoConverter;
         this.userDtoToUserConverter = userDtoToUserConverter;
         this.imageToImageDtoConverter = imageToImageDtoConverter;
+        this.titleSuggestionIndex = titleSuggestionIndex;
+        this.imageTagService = imageTagService;
+        this.imageOrderService = imageOrderService;
+        this.userPurgeService = userPurgeService;
+        this.userDirectoryService = userDirectoryService;
     }
 
     @GetMapping("/{userId}")
@@ -41,13 +69,32 @@ public class FavoriteImageUserController {
         return new Result(true, StatusCode.SUCCESS, "Find One Success", userDto);
     }
 
+    /**
+     * One page of users whose username starts with {@code username}, optionally filtered by {@code enabled} and
+     * {@code role}, sorted by {@code createdAt} or {@code imageCount}. The {@code next} cursor of a page is passed
+     * back as {@code after} to get the following one.
+     */
     @GetMapping
-    public Result findAllUsers() {
-        List<FavoriteImageUser> foundUsers = this.userService.findAll();
-        List<UserDto> usersDto = foundUsers.stream()
-                .map(this.userToUserDtoConverter::convert)
-                .collect(Collectors.toList());
-        return new Result(true, StatusCode.SUCCESS, "Find All Success", usersDto);
+    public Result findAllUsers(@RequestParam(required = false) String username,
+                               @RequestParam(required = false) Boolean enabled,
+                               @RequestParam(required = false) String role,
+                               @RequestParam(defaultValue = "createdAt") String sort,
+                               @RequestParam(defaultValue = "desc") String direction,
+                               @RequestParam(required = false) String after,
+                               @RequestParam(defaultValue = "20") int size) {
+        int pageSize = Math.max(1, Math.min(size, 100));
+        CursorPageDto<UserDto> foundUsers = this.userDirectoryService.search(username, enabled, role, sort, direction, after, pageSize);
+        return new Result(true, StatusCode.SUCCESS, "Find All Success", foundUsers);
+    }
+
+    /**
+     * Looks up several users at once, e.g. {@code ?ids=1,2,3}, in the order of the ids with not found markers.
+     */
+    @GetMapping(params = "ids")
+    public Result findUsersByIds(@RequestParam List<Long> ids) {
+        BatchLookup.checkSize(ids);
+        List<BatchItemDto<UserDto>> items = BatchLookup.inRequestOrder(ids, this.userDirectoryService.findAllById(ids));
+        return new Result(true, StatusCode.SUCCESS, "Find All Success", items);
     }
 
     @PostMapping
@@ -75,17 +122,83 @@ public class FavoriteImageUserController {
         return new Result(true, StatusCode.SUCCESS, "Delete Success");
     }
 
+    /**
+     * Progress of purging a deleted user's images. Once the purge has finished the user is gone and this returns 404.
+     */
+    @GetMapping("/{userId}/purge")
+    public Result findPurgeStatus(@PathVariable Long userId) {
+        PurgeStatusDto status = this.userPurgeService.findStatus(userId);
+        return new Result(true, StatusCode.SUCCESS, "Find One Success", status);
+    }
+
+    /**
+     * Without parameters returns all images of the user in gallery order. With tag parameters returns one page of
+     * the images having every {@code tag}, at least one {@code anyTag} and no {@code excludeTag}. Otherwise with
+     * {@code size} or {@code after} returns one keyset page in gallery order, continuing after image {@code after}.
+     */
     @GetMapping("/{userId}/images")
-    public Result getUserImages(@PathVariable Long userId) {
+    public Result getUserImages(@PathVariable Long userId,
+                                @RequestParam(required = false) List<String> tag,
+                                @RequestParam(required = false) List<String> anyTag,
+                                @RequestParam(required = false) List<String> excludeTag,
+                                @RequestParam(defaultValue = "0") int page,
+                                @RequestParam(required = false) Integer size,
+                                @RequestParam(required = false) Long after,
+                                @RequestParam(required = false) String fields,
+                                @RequestParam(required = false) String expand) {
+        int pageSize = size == null ? 20 : Math.max(1, Math.min(size, 100));
+        ImageFields imageFields = ImageFields.parse(fields, expand);
+        if (tag != null || anyTag != null || excludeTag != null) {
+            List<FavoriteImage> foundImages = this.imageTagService.filterOwnerImages(userId, tag, anyTag, excludeTag,
+                    (long) Math.max(page, 0) * pageSize, pageSize + 1);
+            List<Object> imagesDto = foundImages.stream()
+                    .limit(pageSize)
+                    .map(image -> toDto(image, imageFields))
+                    .collect(Collectors.toList());
+            return new Result(true, StatusCode.SUCCESS, "Find All Success", new PageDto<>(imagesDto, page, pageSize, foundImages.size() > pageSize));
+        }
+        if (size != null || after != null) {
+            List<FavoriteImage> foundImages = this.imageOrderService.findPage(userId, after, pageSize + 1);
+            List<Object> imagesDto = foundImages.stream()
+                    .limit(pageSize)
+                    .map(image -> toDto(image, imageFields))
+                    .collect(Collectors.toList());
+            Long next = foundImages.size() > pageSize ? foundImages.get(pageSize - 1).getId() : null;
+            return new Result(true, StatusCode.SUCCESS, "Find All Success", new KeysetPageDto<>(imagesDto, pageSize, next));
+        }
+        if (imageFields != null) {
+            return new Result(true, StatusCode.SUCCESS, "Find All Success", this.userService.getUserImages(userId, imageFields));
+        }
         List<ImageDto> imagesDto = this.userService.getUserImages(userId).stream()
                 .map(this.imageToImageDtoConverter::convert)
                 .collect(Collectors.toList());
         return new Result(true, StatusCode.SUCCESS, "Find All Success", imagesDto);
     }
 
+    @GetMapping("/{userId}/images/suggest")
+    public Result suggestImageTitles(@PathVariable Long userId, @RequestParam String prefix, @RequestParam(defaultValue = "10") int limit) {
+        List<TitleSuggestionIndex.Suggestion> suggestions = this.titleSuggestionIndex.suggest(userId, prefix, Math.min(limit, 50));
+        return new Result(true, StatusCode.SUCCESS, "Suggest Success", suggestions);
+    }
+
+    /**
+     * Moves the image right after image {@code after} or right before image {@code before} of the same gallery.
+     */
+    @PutMapping("/{userId}/images/{imageId}/position")
+    public Result moveImage(@PathVariable Long userId, @PathVariable Long imageId, @RequestBody PositionDto positionDto) {
+        FavoriteImage movedImage = this.imageOrderService.move(userId, imageId, positionDto.after(), positionDto.before());
+        return new Result(true, StatusCode.SUCCESS, "Updated Success", this.imageToImageDtoConverter.convert(movedImage));
+    }
+
     @DeleteMapping("/{userId}/images/{imageId}")
     public Result deleteImageByUser(@PathVariable Long userId, @PathVariable Long imageId) {
         this.userService.deleteImageByUser(userId, imageId);
         return new Result(true, StatusCode.SUCCESS, "Delete Success");
     }
+
+    private Object toDto(FavoriteImage image, ImageFields imageFields) {
+        return imageFields != null
+                ? this.imageToImageDtoConverter.convert(image, imageFields)
+                : this.imageToImageDtoConverter.convert(image);
+    }
 }
@@ -0,0 +1,32 @@
+package factoria.org.MyFavoriteImagesBackend.controllers;
+
+import factoria.org.MyFavoriteImagesBackend.domain.services.ImageTagService;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.TagsDto;
+import factoria.org.MyFavoriteImagesBackend.infra.results.Result;
+import factoria.org.MyFavoriteImagesBackend.infra.results.StatusCode;
+import jakarta.validation.Valid;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/v1/images/{imageId}/tags")
+public class ImageTagController {
+    private final ImageTagService tagService;
+
+    public ImageTagController(ImageTagService tagService) {
+        this.tagService = tagService;
+    }
+
+    @GetMapping
+    public Result findTags(@PathVariable Long imageId) {
+        Set<String> tags = this.tagService.findTags(imageId);
+        return new Result(true, StatusCode.SUCCESS, "Find All Success", new TagsDto(tags));
+    }
+
+    @PutMapping
+    public Result updateTags(@PathVariable Long imageId, @Valid @RequestBody TagsDto tagsDto) {
+        Set<String> tags = this.tagService.updateTags(imageId, tagsDto.tags());
+        return new Result(true, StatusCode.SUCCESS, "Updated Success", new TagsDto(tags));
+    }
+}
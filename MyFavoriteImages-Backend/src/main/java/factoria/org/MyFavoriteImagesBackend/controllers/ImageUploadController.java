@@ -0,0 +1,82 @@
+package factoria.org.MyFavoriteImagesBackend.controllers;
+
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.domain.services.ChunkedUploadService;
+import factoria.org.MyFavoriteImagesBackend.domain.services.ImageSimilarityService;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.ImageContentDto;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.UploadDto;
+import factoria.org.MyFavoriteImagesBackend.infra.results.Result;
+import factoria.org.MyFavoriteImagesBackend.infra.results.StatusCode;
+import factoria.org.MyFavoriteImagesBackend.infra.storage.UploadSession;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/v1/images/{imageId}/uploads")
+public class ImageUploadController {
+    private final ChunkedUploadService uploadService;
+    private final ImageSimilarityService imageSimilarityService;
+
+    public ImageUploadController(ChunkedUploadService uploadService, ImageSimilarityService imageSimilarityService) {
+        this.uploadService = uploadService;
+        this.imageSimilarityService = imageSimilarityService;
+    }
+
+    @PostMapping
+    public Result initiateUpload(@PathVariable Long imageId, @RequestParam String contentType,
+                                 @RequestParam(required = false) String sha256, Authentication authentication,
+                                 HttpServletResponse response) {
+        Optional<FavoriteImage> attached = this.uploadService.attachIfStored(imageId, contentType, sha256, authentication.getName());
+        if (attached.isPresent()) {
+            FavoriteImage image = attached.get();
+            DuplicateHeader.write(response, this.imageSimilarityService.findDuplicates(image));
+            return new Result(true, StatusCode.SUCCESS, "Upload Success",
+                    new UploadDto(null, image.getId(), image.getContentType(), image.getContentLength(), true));
+        }
+        UploadSession session = this.uploadService.initiate(imageId, contentType);
+        return new Result(true, StatusCode.SUCCESS, "Upload Initiated", toDto(session));
+    }
+
+    @GetMapping("/{uploadId}")
+    public Result findUpload(@PathVariable Long imageId, @PathVariable String uploadId) {
+        UploadSession session = this.uploadService.findUpload(imageId, uploadId);
+        return new Result(true, StatusCode.SUCCESS, "Find One Success", toDto(session));
+    }
+
+    /**
+     * The chunk is the raw request body, read straight from the servlet input stream so nothing is buffered.
+     */
+    @PutMapping("/{uploadId}")
+    public Result uploadChunk(@PathVariable Long imageId, @PathVariable String uploadId, @RequestParam long offset,
+                              HttpServletRequest request) throws IOException {
+        try (InputStream chunk = request.getInputStream()) {
+            UploadSession session = this.uploadService.appendChunk(imageId, uploadId, offset, chunk);
+            return new Result(true, StatusCode.SUCCESS, "Chunk Success", toDto(session));
+        }
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public Result completeUpload(@PathVariable Long imageId, @PathVariable String uploadId,
+                                 @RequestParam(required = false) String sha256, HttpServletResponse response) {
+        FavoriteImage image = this.uploadService.complete(imageId, uploadId, sha256);
+        DuplicateHeader.write(response, this.imageSimilarityService.findDuplicates(image));
+        ImageContentDto contentDto = new ImageContentDto(image.getId(), image.getContentType(), image.getContentLength(), image.getContentSha256());
+        return new Result(true, StatusCode.SUCCESS, "Upload Success", contentDto);
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public Result abortUpload(@PathVariable Long imageId, @PathVariable String uploadId) {
+        this.uploadService.abort(imageId, uploadId);
+        return new Result(true, StatusCode.SUCCESS, "Delete Success");
+    }
+
+    private UploadDto toDto(UploadSession session) {
+        return new UploadDto(session.getId(), session.getImageId(), session.getContentType(), session.getSize(), false);
+    }
+}
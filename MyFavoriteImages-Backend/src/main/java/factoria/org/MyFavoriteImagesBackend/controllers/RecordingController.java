@@ -0,0 +1,54 @@
+package factoria.org.MyFavoriteImagesBackend.controllers;
+
+import factoria.org.MyFavoriteImagesBackend.infra.profiling.RecordingManager;
+import factoria.org.MyFavoriteImagesBackend.infra.results.Result;
+import factoria.org.MyFavoriteImagesBackend.infra.results.StatusCode;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/v1/admin/recordings")
+public class RecordingController {
+    private final RecordingManager recordingManager;
+
+    public RecordingController(RecordingManager recordingManager) {
+        this.recordingManager = recordingManager;
+    }
+
+    @GetMapping
+    public Result findAllRecordings() {
+        return new Result(true, StatusCode.SUCCESS, "Find All Success", this.recordingManager.findAll());
+    }
+
+    @PostMapping
+    public Result startRecording(@RequestParam(required = false) Duration maxDuration) throws IOException, ParseException {
+        return new Result(true, StatusCode.SUCCESS, "Recording Started", this.recordingManager.start(maxDuration));
+    }
+
+    @PostMapping("/{recordingId}/stop")
+    public Result stopRecording(@PathVariable Long recordingId) {
+        return new Result(true, StatusCode.SUCCESS, "Recording Stopped", this.recordingManager.stop(recordingId));
+    }
+
+    @GetMapping("/{recordingId}")
+    public ResponseEntity<Resource> downloadRecording(@PathVariable Long recordingId) throws IOException {
+        Path file = this.recordingManager.export(recordingId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(file.getFileName().toString())
+                        .build()
+                        .toString())
+                .body(new FileSystemResource(file));
+    }
+}
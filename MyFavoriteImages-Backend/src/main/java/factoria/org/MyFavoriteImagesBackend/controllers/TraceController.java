@@ -0,0 +1,23 @@
+package factoria.org.MyFavoriteImagesBackend.controllers;
+
+import factoria.org.MyFavoriteImagesBackend.infra.results.Result;
+import factoria.org.MyFavoriteImagesBackend.infra.results.StatusCode;
+import factoria.org.MyFavoriteImagesBackend.infra.tracing.TraceExporter;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/traces")
+public class TraceController {
+    private final TraceExporter traceExporter;
+
+    public TraceController(TraceExporter traceExporter) {
+        this.traceExporter = traceExporter;
+    }
+
+    @GetMapping
+    public Result findRecentTraces() {
+        return new Result(true, StatusCode.SUCCESS, "Find All Success", this.traceExporter.recentTraces());
+    }
+}
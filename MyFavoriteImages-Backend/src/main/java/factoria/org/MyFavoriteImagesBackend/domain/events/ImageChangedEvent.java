@@ -0,0 +1,37 @@
+package factoria.org.MyFavoriteImagesBackend.domain.events;
+
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+
+/**
+ * Published by the services whenever a FavoriteImage is created, updated or deleted.
+ * Listeners that keep in-memory structures should use {@code @TransactionalEventListener}
+ * so they only see committed changes.
+ */
+public record ImageChangedEvent(ChangeType type, FavoriteImage image) {
+
+    public static ImageChangedEvent created(FavoriteImage image) {
+        return new ImageChangedEvent(ChangeType.CREATED, image);
+    }
+
+    public static ImageChangedEvent updated(FavoriteImage image) {
+        return new ImageChangedEvent(ChangeType.UPDATED, image);
+    }
+
+    public static ImageChangedEvent deleted(FavoriteImage image) {
+        return new ImageChangedEvent(ChangeType.DELETED, image);
+    }
+
+    public Long imageId() {
+        return this.image.getId();
+    }
+
+    public Long ownerId() {
+        return this.image.getOwner() != null ? this.image.getOwner().getId() : null;
+    }
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
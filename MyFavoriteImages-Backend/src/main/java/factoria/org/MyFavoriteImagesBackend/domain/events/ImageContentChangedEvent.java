@@ -0,0 +1,7 @@
+package factoria.org.MyFavoriteImagesBackend.domain.events;
+
+/**
+ * Published by ImageContentService when an image is pointed at new stored content.
+ */
+public record ImageContentChangedEvent(Long imageId, String contentKey) {
+}
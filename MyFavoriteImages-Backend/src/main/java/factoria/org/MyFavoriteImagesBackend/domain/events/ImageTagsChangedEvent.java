@@ -0,0 +1,9 @@
+package factoria.org.MyFavoriteImagesBackend.domain.events;
+
+import java.util.Set;
+
+/**
+ * Published by ImageTagService with the complete new tag set of an image.
+ */
+public record ImageTagsChangedEvent(Long imageId, Long ownerId, Set<String> tags) {
+}
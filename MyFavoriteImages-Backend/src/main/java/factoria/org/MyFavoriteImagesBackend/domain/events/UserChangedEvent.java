@@ -0,0 +1,20 @@
+package factoria.org.MyFavoriteImagesBackend.domain.events;
+
+/**
+ * Published by FavoriteImageUserService when a user is created, updated or deleted. Image changes are announced
+ * separately through ImageChangedEvent.
+ */
+public record UserChangedEvent(ImageChangedEvent.ChangeType type, Long userId) {
+
+    public static UserChangedEvent created(Long userId) {
+        return new UserChangedEvent(ImageChangedEvent.ChangeType.CREATED, userId);
+    }
+
+    public static UserChangedEvent updated(Long userId) {
+        return new UserChangedEvent(ImageChangedEvent.ChangeType.UPDATED, userId);
+    }
+
+    public static UserChangedEvent deleted(Long userId) {
+        return new UserChangedEvent(ImageChangedEvent.ChangeType.DELETED, userId);
+    }
+}
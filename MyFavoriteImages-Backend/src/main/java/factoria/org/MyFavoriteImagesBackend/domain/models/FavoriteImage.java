@@ -5,6 +5,14 @@ import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
 import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Images of a soft-deleted user are only hidden by the lookups that are not scoped to a live owner, see
+ * FavoriteImageRepository.OWNER_NOT_DELETED, until the purger removes them.
+ */
 @Entity
 public class FavoriteImage implements Serializable {
     @Id
@@ -12,7 +20,24 @@ public class FavoriteImage implements Serializable {
     private Long id;
     private String title;
     private String description;
+    @ManyToOne(fetch = FetchType.EAGER)
+    @JoinColumn(name = "url_id")
+    private ImageUrl imageUrl;
+    @Transient
     private String url;
+    private String contentKey;
+    private String contentType;
+    private Long contentLength;
+    private String contentSha256;
+    private Long perceptualHash;
+    @Column(insertable = false, updatable = false)
+    private long viewCount;
+    @Column(nullable = false, length = 64)
+    private String sortKey;
+    @ElementCollection
+    @CollectionTable(name = "image_tag", joinColumns = @JoinColumn(name = "image_id"))
+    @Column(name = "tag")
+    private Set<String> tags = new HashSet<>();
     @ManyToOne
     @OnDelete(action = OnDeleteAction.CASCADE)
     private FavoriteImageUser owner;
@@ -45,11 +70,92 @@ public class FavoriteImage implements Serializable {
     }
 
     public String getUrl() {
+        if (this.url == null && this.imageUrl != null) {
+            return this.imageUrl.getUrl();
+        }
         return url;
     }
 
     public void setUrl(String url) {
         this.url = url;
+        if (this.imageUrl != null && !Objects.equals(this.imageUrl.getUrl(), url)) {
+            this.imageUrl = null;
+        }
+    }
+
+    public ImageUrl getImageUrl() {
+        return imageUrl;
+    }
+
+    public void setImageUrl(ImageUrl imageUrl) {
+        this.imageUrl = imageUrl;
+        if (imageUrl != null) {
+            this.url = imageUrl.getUrl();
+        }
+    }
+
+    public String getContentKey() {
+        return contentKey;
+    }
+
+    public void setContentKey(String contentKey) {
+        this.contentKey = contentKey;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public Long getContentLength() {
+        return contentLength;
+    }
+
+    public void setContentLength(Long contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    public String getContentSha256() {
+        return contentSha256;
+    }
+
+    public void setContentSha256(String contentSha256) {
+        this.contentSha256 = contentSha256;
+    }
+
+    public Long getPerceptualHash() {
+        return perceptualHash;
+    }
+
+    public void setPerceptualHash(Long perceptualHash) {
+        this.perceptualHash = perceptualHash;
+    }
+
+    public long getViewCount() {
+        return viewCount;
+    }
+
+    public String getSortKey() {
+        return sortKey;
+    }
+
+    public void setSortKey(String sortKey) {
+        this.sortKey = sortKey;
+    }
+
+    public Set<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(Set<String> tags) {
+        this.tags = tags;
+    }
+
+    public boolean hasContent() {
+        return this.contentKey != null;
     }
 
     public FavoriteImageUser getOwner() {
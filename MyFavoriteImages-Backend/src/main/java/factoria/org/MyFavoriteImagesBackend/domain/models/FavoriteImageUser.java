@@ -1,12 +1,22 @@
 package factoria.org.MyFavoriteImagesBackend.domain.models;
 
 import jakarta.persistence.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.SQLDelete;
+import org.hibernate.annotations.SQLRestriction;
 
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Deleting a user only stamps deleted_at; the row and its images are removed in batches by UserPurgeService.
+ * Its username is free again at once on PostgreSQL, where the unique index only covers live users.
+ */
 @Entity
+@SQLDelete(sql = "update favorite_image_user set deleted_at = current_timestamp where id = ?")
+@SQLRestriction("deleted_at is null")
 public class FavoriteImageUser implements Serializable {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -15,7 +25,12 @@ public class FavoriteImageUser implements Serializable {
     private String password;
     private boolean enabled;
     private String roles;
+    @Column(insertable = false, updatable = false)
+    private Instant createdAt;
+    @Column(insertable = false, updatable = false)
+    private int imageCount;
     @OneToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE}, mappedBy = "owner", fetch=FetchType.EAGER)
+    @OrderBy("sortKey, id")
     private List<FavoriteImage> images = new ArrayList<>();
 
     public FavoriteImageUser() {
@@ -61,6 +76,14 @@ public class FavoriteImageUser implements Serializable {
         this.roles = roles;
     }
 
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getImageCount() {
+        return imageCount;
+    }
+
     public List<FavoriteImage> getImages() {
         return images;
     }
@@ -74,7 +97,11 @@ public class FavoriteImageUser implements Serializable {
         this.images.add(image);
     }
 
+    /**
+     * Counts the image list when it is loaded, otherwise falls back to the stored count so that an owner fetched
+     * without its images is not loaded again just to be counted.
+     */
     public Integer getNumberOfImages() {
-        return this.images.size();
+        return Hibernate.isInitialized(this.images) ? this.images.size() : this.imageCount;
     }
 }
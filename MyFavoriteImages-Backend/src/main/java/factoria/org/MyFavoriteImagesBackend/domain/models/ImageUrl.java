@@ -0,0 +1,31 @@
+package factoria.org.MyFavoriteImagesBackend.domain.models;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+
+@Entity
+@Immutable
+public class ImageUrl implements Serializable {
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+    @Column(length = 2048)
+    private String url;
+
+    public ImageUrl() {
+    }
+
+    public ImageUrl(String url) {
+        this.url = url;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+}
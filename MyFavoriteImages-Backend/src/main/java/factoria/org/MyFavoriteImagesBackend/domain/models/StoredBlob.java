@@ -0,0 +1,52 @@
+package factoria.org.MyFavoriteImagesBackend.domain.models;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * A blob in the store and the number of images referencing it. New blobs are keyed by the SHA-256 of
+ * their content, so identical uploads share one blob.
+ */
+@Entity
+public class StoredBlob implements Serializable {
+    @Id
+    @Column(length = 128)
+    private String blobKey;
+    @Column(length = 64)
+    private String sha256;
+    private long length;
+    private int refCount;
+    private Instant unreferencedSince;
+
+    public StoredBlob() {
+    }
+
+    public StoredBlob(String blobKey, String sha256, long length) {
+        this.blobKey = blobKey;
+        this.sha256 = sha256;
+        this.length = length;
+        this.refCount = 1;
+    }
+
+    public String getBlobKey() {
+        return blobKey;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public int getRefCount() {
+        return refCount;
+    }
+
+    public Instant getUnreferencedSince() {
+        return unreferencedSince;
+    }
+}
@@ -0,0 +1,72 @@
+package factoria.org.MyFavoriteImagesBackend.domain.models;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Pending or finished thumbnail generation for one image. There is at most one job per image, so a new
+ * request for the same image replaces the content key of the job instead of queueing more work.
+ */
+@Entity
+public class ThumbnailJob implements Serializable {
+    @Id
+    private Long imageId;
+    @Column(length = 128)
+    private String contentKey;
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private Status status;
+    private int attempts;
+    private Instant updatedAt;
+
+    public ThumbnailJob() {
+    }
+
+    public ThumbnailJob(Long imageId) {
+        this.imageId = imageId;
+    }
+
+    public Long getImageId() {
+        return imageId;
+    }
+
+    public String getContentKey() {
+        return contentKey;
+    }
+
+    public void setContentKey(String contentKey) {
+        this.contentKey = contentKey;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public enum Status {
+        PENDING,
+        DONE,
+        FAILED
+    }
+}
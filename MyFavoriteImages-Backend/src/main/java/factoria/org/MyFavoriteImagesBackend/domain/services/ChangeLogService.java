@@ -0,0 +1,195 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.domain.events.UserChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.ChangeDto;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.ChangeFeedDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Monotonic feed of image and user changes for client-side caches. Every change event is appended to change_log
+ * from inside the transaction that made the change, so an entry exists if and only if the change committed.
+ * <p>
+ * Insert ids follow the start of a change, not its commit, so a long transaction could commit entries behind a
+ * cursor that has already moved on. Entries are therefore held until the transaction is about to commit and then
+ * numbered from the commit_seq counter in change_log_state. The counter row stays locked until the commit, so the
+ * next transaction only gets its numbers once the previous one is visible; commit_seq is the cursor clients poll
+ * with and every poll sees a gap-free prefix of it.
+ * <p>
+ * Compaction drops entries superseded by a newer entry of the same entity, so the log keeps one entry per live
+ * entity, and drops deletions older than the retention. Cursors from before the newest dropped deletion may have
+ * missed it; such polls are answered with {@code reset} and the client reloads.
+ */
+@Service
+public class ChangeLogService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ChangeLogService.class);
+    private static final String IMAGE = "image";
+    private static final String USER = "user";
+    private static final String RESERVE_SQL = "update change_log_state set commit_seq = commit_seq + ? where id = 1";
+    private static final String RESERVED_SQL = "select commit_seq from change_log_state where id = 1";
+    private static final String INSERT_SQL = "insert into change_log (entity_type, entity_id, owner_id, change_type, changed_at, commit_seq) values (?, ?, ?, ?, ?, ?)";
+    private static final String FEED_SQL = "select commit_seq, entity_type, entity_id, owner_id, change_type, changed_at from change_log where commit_seq > ? order by commit_seq limit ?";
+    private static final String OWNER_FEED_SQL = "select commit_seq, entity_type, entity_id, owner_id, change_type, changed_at from change_log where owner_id = ? and commit_seq > ? order by commit_seq limit ?";
+    private static final String HORIZON_SQL = "select horizon from change_log_state where id = 1";
+    private static final String COMPACT_SUPERSEDED_SQL = """
+            delete from change_log where id in (
+                select c.id from change_log c
+                where c.changed_at < ?
+                  and exists (select 1 from change_log n
+                              where n.entity_type = c.entity_type and n.entity_id = c.entity_id and n.commit_seq > c.commit_seq and n.changed_at < ?)
+                order by c.commit_seq
+                limit ?)""";
+    private static final String EXPIRED_DELETIONS_SQL = "select commit_seq from change_log where change_type = 'DELETED' and changed_at < ? order by commit_seq limit ?";
+    private static final String DELETE_ENTRY_SQL = "delete from change_log where commit_seq = ?";
+    private static final String RAISE_HORIZON_SQL = "update change_log_state set horizon = greatest(horizon, ?) where id = 1";
+
+    private static final RowMapper<ChangeDto> CHANGE_MAPPER = (resultSet, rowNumber) -> new ChangeDto(
+            resultSet.getLong("commit_seq"),
+            resultSet.getString("entity_type"),
+            resultSet.getLong("entity_id"),
+            resultSet.getObject("owner_id", Long.class),
+            resultSet.getString("change_type"),
+            resultSet.getTimestamp("changed_at").toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration compactAfter;
+    private final Duration retention;
+    private final int batchSize;
+
+    public ChangeLogService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            @Value("${changes.compact-after:PT10M}") Duration compactAfter,
+                            @Value("${changes.retention:P30D}") Duration retention,
+                            @Value("${changes.compaction.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.compactAfter = compactAfter;
+        this.retention = retention;
+        this.batchSize = batchSize;
+    }
+
+    @EventListener
+    public void onImageChanged(ImageChangedEvent event) {
+        append(IMAGE, event.imageId(), event.ownerId(), event.type());
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        append(USER, event.userId(), event.userId(), event.type());
+    }
+
+    /**
+     * Returns up to {@code limit} changes after the cursor, optionally only those of one owner's images and the
+     * owner itself. Several changes of the same entity within the page collapse into the latest one.
+     */
+    public ChangeFeedDto findChanges(long since, Long ownerId, int limit) {
+        long horizon = this.jdbcTemplate.queryForObject(HORIZON_SQL, Long.class);
+        if (since < horizon) {
+            return new ChangeFeedDto(List.of(), horizon, true, true);
+        }
+        List<ChangeDto> entries = ownerId == null
+                ? this.jdbcTemplate.query(FEED_SQL, CHANGE_MAPPER, since, limit + 1)
+                : this.jdbcTemplate.query(OWNER_FEED_SQL, CHANGE_MAPPER, ownerId, since, limit + 1);
+        Map<String, ChangeDto> latest = new LinkedHashMap<>();
+        long cursor = since;
+        for (ChangeDto entry : entries.subList(0, Math.min(limit, entries.size()))) {
+            String entity = entry.entity() + ":" + entry.id();
+            latest.remove(entity);
+            latest.put(entity, entry);
+            cursor = entry.cursor();
+        }
+        return new ChangeFeedDto(new ArrayList<>(latest.values()), cursor, entries.size() > limit, false);
+    }
+
+    @Scheduled(fixedDelayString = "${changes.compaction.interval-ms:60000}", initialDelayString = "${changes.compaction.interval-ms:60000}")
+    public void compact() {
+        Timestamp compactBefore = Timestamp.from(Instant.now().minus(this.compactAfter));
+        int superseded = this.jdbcTemplate.update(COMPACT_SUPERSEDED_SQL, compactBefore, compactBefore, this.batchSize);
+        Integer expired = this.transactionTemplate.execute(status -> {
+            List<Long> ids = this.jdbcTemplate.queryForList(EXPIRED_DELETIONS_SQL, Long.class,
+                    Timestamp.from(Instant.now().minus(this.retention)), this.batchSize);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            this.jdbcTemplate.batchUpdate(DELETE_ENTRY_SQL, ids.stream().map(id -> new Object[]{id}).toList());
+            this.jdbcTemplate.update(RAISE_HORIZON_SQL, ids.get(ids.size() - 1));
+            return ids.size();
+        });
+        if (superseded > 0 || (expired != null && expired > 0)) {
+            LOGGER.info("Compacted the change log: {} superseded entries and {} expired deletions", superseded, expired);
+        }
+    }
+
+    private void append(String entityType, Long entityId, Long ownerId, ImageChangedEvent.ChangeType type) {
+        if (entityId == null) {
+            return;
+        }
+        Object[] entry = {entityType, entityId, ownerId, type.name(), Timestamp.from(Instant.now())};
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            this.transactionTemplate.executeWithoutResult(status -> insert(List.of(entry)));
+            return;
+        }
+        //Synchronizations are suspended with their transaction, so an inner transaction collects its own entries
+        PendingEntries pending = TransactionSynchronizationManager.getSynchronizations().stream()
+                .filter(synchronization -> synchronization instanceof PendingEntries entries && entries.belongsTo(this))
+                .map(PendingEntries.class::cast)
+                .findFirst()
+                .orElseGet(() -> {
+                    PendingEntries entries = new PendingEntries();
+                    TransactionSynchronizationManager.registerSynchronization(entries);
+                    return entries;
+                });
+        pending.entries.add(entry);
+    }
+
+    /**
+     * Numbers the entries of the committing transaction. The counter update keeps its row locked until the commit.
+     */
+    private void insert(List<Object[]> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        this.jdbcTemplate.update(RESERVE_SQL, entries.size());
+        long commitSeq = this.jdbcTemplate.queryForObject(RESERVED_SQL, Long.class) - entries.size();
+        List<Object[]> rows = new ArrayList<>(entries.size());
+        for (Object[] entry : entries) {
+            Object[] row = Arrays.copyOf(entry, entry.length + 1);
+            row[entry.length] = ++commitSeq;
+            rows.add(row);
+        }
+        this.jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    private class PendingEntries implements TransactionSynchronization {
+        private final List<Object[]> entries = new ArrayList<>();
+
+        boolean belongsTo(ChangeLogService service) {
+            return ChangeLogService.this == service;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            insert(this.entries);
+        }
+    }
+}
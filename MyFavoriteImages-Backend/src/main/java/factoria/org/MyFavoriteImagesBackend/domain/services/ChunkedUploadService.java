@@ -0,0 +1,112 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ChecksumMismatchException;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.InvalidArgumentException;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.UploadConflictException;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.storage.UploadSession;
+import factoria.org.MyFavoriteImagesBackend.infra.storage.UploadSessionStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Resumable uploads: the client initiates an upload for an image, PUTs chunks at increasing offsets, asks for
+ * the current offset after a dropped connection and completes the upload once every byte has been sent.
+ */
+@Service
+public class ChunkedUploadService {
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-fA-F]{64}");
+
+    private final FavoriteImageRepository imageRepository;
+    private final UploadSessionStore sessionStore;
+    private final ImageContentService contentService;
+    private final long maxSize;
+
+    public ChunkedUploadService(FavoriteImageRepository imageRepository, UploadSessionStore sessionStore, ImageContentService contentService,
+                                @Value("${images.uploads.max-size:1GB}") DataSize maxSize) {
+        this.imageRepository = imageRepository;
+        this.sessionStore = sessionStore;
+        this.contentService = contentService;
+        this.maxSize = maxSize.toBytes();
+    }
+
+    /**
+     * Returns the image directly when the client announced the SHA-256 of content the user already owns, so
+     * that content is not transferred again. Any other SHA-256 leads to a normal upload, which tells the client
+     * nothing about what else is stored.
+     */
+    public Optional<FavoriteImage> attachIfStored(Long imageId, String contentType, String sha256, String username) {
+        if (sha256 == null) {
+            return Optional.empty();
+        }
+        if (!SHA256.matcher(sha256).matches()) {
+            throw new InvalidArgumentException("sha256 must be 64 hexadecimal characters");
+        }
+        return this.contentService.attachExistingContent(imageId, sha256, contentType, username);
+    }
+
+    public UploadSession initiate(Long imageId, String contentType) {
+        String imageContentType = ImageContentService.requireImageContentType(contentType);
+        if (!this.imageRepository.existsById(imageId)) {
+            throw new ObjectNotFoundException("image", imageId);
+        }
+        return this.sessionStore.create(imageId, imageContentType);
+    }
+
+    public UploadSession findUpload(Long imageId, String uploadId) {
+        return this.sessionStore.find(uploadId)
+                .filter(session -> session.getImageId().equals(imageId))
+                .orElseThrow(() -> new ObjectNotFoundException("upload", uploadId));
+    }
+
+    public UploadSession appendChunk(Long imageId, String uploadId, long offset, InputStream chunk) {
+        UploadSession session = findUpload(imageId, uploadId);
+        try {
+            if (!session.append(offset, chunk, this.maxSize)) {
+                throw new UploadConflictException(uploadId, session.getSize());
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return session;
+    }
+
+    public FavoriteImage complete(Long imageId, String uploadId, String expectedSha256) {
+        UploadSession session = findUpload(imageId, uploadId);
+        try {
+            String sha256 = session.seal();
+            if (sha256 == null) {
+                throw new UploadConflictException(uploadId, session.getSize());
+            }
+            boolean attached = false;
+            try {
+                if (expectedSha256 != null && !expectedSha256.equalsIgnoreCase(sha256)) {
+                    throw new ChecksumMismatchException(expectedSha256, sha256);
+                }
+                FavoriteImage image = this.contentService.attachContent(imageId, session.getDataFile(), session.getContentType(), session.getSize(), sha256);
+                attached = true;
+                this.sessionStore.discard(session);
+                return image;
+            } finally {
+                if (!attached) {
+                    session.unseal();
+                }
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    public void abort(Long imageId, String uploadId) {
+        this.sessionStore.discard(findUpload(imageId, uploadId));
+    }
+}
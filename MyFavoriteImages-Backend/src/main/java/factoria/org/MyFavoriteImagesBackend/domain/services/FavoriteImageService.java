@@ -1,33 +1,70 @@
 package factoria.org.MyFavoriteImagesBackend.domain.services;
 
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageChangedEvent;
 import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.ImageFields;
 import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
 import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.UrlDictionary;
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class FavoriteImageService {
     private final FavoriteImageRepository imageRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UrlDictionary urlDictionary;
+    private final ImageOrderService orderService;
 
-    public FavoriteImageService(FavoriteImageRepository favoriteImageRepository) {
+    public FavoriteImageService(FavoriteImageRepository favoriteImageRepository, ApplicationEventPublisher eventPublisher, UrlDictionary urlDictionary,
+                                ImageOrderService orderService) {
         this.imageRepository = favoriteImageRepository;
+        this.eventPublisher = eventPublisher;
+        this.urlDictionary = urlDictionary;
+        this.orderService = orderService;
     }
 
     public FavoriteImage findById(Long imageId) {
-        return this.imageRepository.findById(imageId)
+        return this.imageRepository.findVisibleById(imageId)
                 .orElseThrow(() -> new ObjectNotFoundException("image", imageId));
     }
 
+    /**
+     * Loads the images with one IN query; ids without an image are absent from the result.
+     */
+    public Map<Long, FavoriteImage> findAllById(Collection<Long> imageIds) {
+        List<FavoriteImage> images = imageIds.isEmpty() ? List.of() : this.imageRepository.findAllByIdIn(Set.copyOf(imageIds));
+        return images.stream().collect(Collectors.toMap(FavoriteImage::getId, Function.identity()));
+    }
+
     public List<FavoriteImage> findAll() {
-        return this.imageRepository.findAll();
+        return this.imageRepository.findAllVisible();
+    }
+
+    /**
+     * Images reduced to the requested fields, read straight from the requested columns. With an owner id only
+     * that owner's images, in gallery order.
+     */
+    public List<Map<String, Object>> findProjected(ImageFields fields, Long ownerId) {
+        return this.imageRepository.findProjected(fields, ownerId);
     }
 
     public FavoriteImage save(FavoriteImage newImage) {
-        return this.imageRepository.save(newImage);
+        newImage.setImageUrl(this.urlDictionary.intern(newImage.getUrl()));
+        //New images go to the end of the owner's gallery
+        newImage.setSortKey(newImage.getOwner() != null ? this.orderService.keyAtEnd(newImage.getOwner().getId()) : SortKeys.after(null));
+        FavoriteImage savedImage = this.imageRepository.save(newImage);
+        this.eventPublisher.publishEvent(ImageChangedEvent.created(savedImage));
+        return savedImage;
     }
 
     public FavoriteImage update(Long imageId, FavoriteImage updatedImage) {
@@ -36,14 +73,18 @@ public class FavoriteImageService {
                     oldImage.setTitle(updatedImage.getTitle());
                     oldImage.setDescription(updatedImage.getDescription());
                     oldImage.setUrl(updatedImage.getUrl());
-                    return this.imageRepository.save(oldImage);
+                    oldImage.setImageUrl(this.urlDictionary.intern(updatedImage.getUrl()));
+                    FavoriteImage savedImage = this.imageRepository.save(oldImage);
+                    this.eventPublisher.publishEvent(ImageChangedEvent.updated(savedImage));
+                    return savedImage;
                 })
                 .orElseThrow(() -> new ObjectNotFoundException("image", imageId));
     }
 
     public void delete(Long imageId) {
-        this.imageRepository.findById(imageId)
+        FavoriteImage image = this.imageRepository.findById(imageId)
                 .orElseThrow(() -> new ObjectNotFoundException("image", imageId));
         this.imageRepository.deleteById(imageId);
+        this.eventPublisher.publishEvent(ImageChangedEvent.deleted(image));
     }
 }
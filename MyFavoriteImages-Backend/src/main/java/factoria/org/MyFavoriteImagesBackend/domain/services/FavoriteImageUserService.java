@@ -1,12 +1,17 @@
 package factoria.org.MyFavoriteImagesBackend.domain.services;
 
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.domain.events.UserChangedEvent;
 import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
 import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImageUser;
 import factoria.org.MyFavoriteImagesBackend.infra.MyUserPrincipal;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.ImageFields;
 import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
 import factoria.org.MyFavoriteImagesBackend.infra.exceptions.UserNameNotFoundException;
 import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageUserRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.UrlDictionary;
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -14,6 +19,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Service
@@ -22,11 +28,15 @@ public class FavoriteImageUserService implements UserDetailsService {
     private final FavoriteImageUserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final FavoriteImageService imageService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UrlDictionary urlDictionary;
 
-    public FavoriteImageUserService(FavoriteImageUserRepository userRepository, PasswordEncoder passwordEncoder, FavoriteImageService imageService) {
+    public FavoriteImageUserService(FavoriteImageUserRepository userRepository, PasswordEncoder passwordEncoder, FavoriteImageService imageService, ApplicationEventPublisher eventPublisher, UrlDictionary urlDictionary) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.imageService = imageService;
+        this.eventPublisher = eventPublisher;
+        this.urlDictionary = urlDictionary;
     }
 
     public FavoriteImageUser findById(Long userId) {
@@ -40,7 +50,17 @@ public class FavoriteImageUserService implements UserDetailsService {
 
     public FavoriteImageUser save(FavoriteImageUser newUser) {
         newUser.setPassword(this.passwordEncoder.encode(newUser.getPassword()));
-        return this.userRepository.save(newUser);
+        String sortKey = null;
+        for (FavoriteImage image : newUser.getImages()) {
+            image.setImageUrl(this.urlDictionary.intern(image.getUrl()));
+            sortKey = SortKeys.after(sortKey);
+            image.setSortKey(sortKey);
+        }
+        FavoriteImageUser savedUser = this.userRepository.save(newUser);
+        this.eventPublisher.publishEvent(UserChangedEvent.created(savedUser.getId()));
+        //Images cascaded with a new user bypass FavoriteImageService, so announce them here
+        savedUser.getImages().forEach(image -> this.eventPublisher.publishEvent(ImageChangedEvent.created(image)));
+        return savedUser;
     }
 
     public FavoriteImageUser update(Long userId, FavoriteImageUser updatedUser) {
@@ -49,15 +69,21 @@ public class FavoriteImageUserService implements UserDetailsService {
                     oldUser.setUsername(updatedUser.getUsername());
                     oldUser.setEnabled(updatedUser.isEnabled());
                     oldUser.setRoles(updatedUser.getRoles());
-                    return this.userRepository.save(oldUser);
+                    FavoriteImageUser savedUser = this.userRepository.save(oldUser);
+                    this.eventPublisher.publishEvent(UserChangedEvent.updated(userId));
+                    return savedUser;
                 })
                 .orElseThrow(() -> new ObjectNotFoundException("user", userId));
     }
 
+    /**
+     * Soft-deletes the user: it is hidden from lookups and login right away, its images are purged later.
+     */
     public void delete(Long userId) {
         this.userRepository.findById(userId)
                 .orElseThrow(() -> new ObjectNotFoundException("user", userId));
         this.userRepository.deleteById(userId);
+        this.eventPublisher.publishEvent(UserChangedEvent.deleted(userId));
     }
 
     public List<FavoriteImage> getUserImages(Long userId) {
@@ -66,6 +92,16 @@ public class FavoriteImageUserService implements UserDetailsService {
 
     }
 
+    /**
+     * Sparse variant that neither loads the user nor its images as entities.
+     */
+    public List<Map<String, Object>> getUserImages(Long userId, ImageFields fields) {
+        if (!this.userRepository.existsById(userId)) {
+            throw new ObjectNotFoundException("user", userId);
+        }
+        return this.imageService.findProjected(fields, userId);
+    }
+
     public void deleteImageByUser(Long userId, Long imageId) {
         FavoriteImageUser foundUser = findById(userId);
         FavoriteImage imageToRemove = foundUser.getImages().stream()
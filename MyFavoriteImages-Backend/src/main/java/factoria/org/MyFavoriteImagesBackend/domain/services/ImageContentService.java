@@ -0,0 +1,200 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageContentChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.UnsupportedContentTypeException;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.storage.BlobLocation;
+import factoria.org.MyFavoriteImagesBackend.infra.storage.BlobStore;
+import factoria.org.MyFavoriteImagesBackend.infra.storage.ChannelCopier;
+import factoria.org.MyFavoriteImagesBackend.infra.storage.ContentAddressedStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Stores and locates the bytes of images. Uploads are streamed to disk before any transaction is opened,
+ * so a slow client never holds a database connection; only the final metadata update is transactional.
+ */
+@Service
+public class ImageContentService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImageContentService.class);
+    //Raster formats only: SVG and anything else a browser could run as a document stays out
+    private static final Set<String> IMAGE_CONTENT_TYPES = Set.of("image/png", "image/jpeg", "image/gif", "image/webp", "image/avif");
+    private static final String FALLBACK_CONTENT_TYPE = "application/octet-stream";
+
+    private final FavoriteImageRepository imageRepository;
+    private final BlobStore blobStore;
+    private final ContentAddressedStore contentStore;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    public ImageContentService(FavoriteImageRepository imageRepository, BlobStore blobStore, ContentAddressedStore contentStore,
+                               ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager) {
+        this.imageRepository = imageRepository;
+        this.blobStore = blobStore;
+        this.contentStore = contentStore;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public FavoriteImage storeContent(Long imageId, String contentType, InputStream content) {
+        String imageContentType = requireImageContentType(contentType);
+        if (!this.imageRepository.existsById(imageId)) {
+            throw new ObjectNotFoundException("image", imageId);
+        }
+        Path tempFile = null;
+        try {
+            tempFile = this.blobStore.createTempFile();
+            MessageDigest digest = sha256();
+            long length;
+            try (FileChannel target = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                length = ChannelCopier.copy(Channels.newChannel(content), target, digest);
+                target.force(false);
+            }
+            FavoriteImage image = attachContent(imageId, tempFile, imageContentType, length, HexFormat.of().formatHex(digest.digest()));
+            tempFile = null;
+            return image;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        } finally {
+            deleteQuietly(tempFile);
+        }
+    }
+
+    /**
+     * Moves a fully received file into the content-addressed store and makes it the content of the image.
+     */
+    public FavoriteImage attachContent(Long imageId, Path file, String contentType, long length, String sha256) throws IOException {
+        this.contentStore.store(sha256, file, length);
+        return assignContent(imageId, sha256, contentType, length, sha256);
+    }
+
+    /**
+     * Points the image at content that is already stored, without any upload. Knowing a SHA-256 proves nothing,
+     * so this only happens when the user already owns an image with that content; otherwise, and when the blob
+     * is gone, returns empty and the bytes have to be uploaded.
+     */
+    public Optional<FavoriteImage> attachExistingContent(Long imageId, String sha256, String contentType, String username) {
+        String imageContentType = requireImageContentType(contentType);
+        if (!this.imageRepository.existsById(imageId)) {
+            throw new ObjectNotFoundException("image", imageId);
+        }
+        String key = sha256.toLowerCase(Locale.ROOT);
+        if (!this.imageRepository.existsByOwnerUsernameAndContentKey(username, key)) {
+            return Optional.empty();
+        }
+        return this.contentStore.acquire(key)
+                .map(blob -> assignContent(imageId, key, imageContentType, blob.getLength(), key));
+    }
+
+    /**
+     * Expects one reference to {@code key} to be held already; it is handed to the image, and the reference
+     * to the previous content is dropped in the same transaction.
+     */
+    private FavoriteImage assignContent(Long imageId, String key, String contentType, long length, String sha256) {
+        try {
+            return this.transactionTemplate.execute(status -> {
+                FavoriteImage image = this.imageRepository.findById(imageId)
+                        .orElseThrow(() -> new ObjectNotFoundException("image", imageId));
+                if (image.hasContent()) {
+                    this.contentStore.release(image.getContentKey());
+                }
+                image.setContentKey(key);
+                image.setContentType(contentType);
+                image.setContentLength(length);
+                image.setContentSha256(sha256);
+                //Reuse the perceptual hash when the same bytes were already hashed for another image
+                image.setPerceptualHash(this.imageRepository.findPerceptualHashesByContentKey(key, PageRequest.of(0, 1))
+                        .stream().findFirst().orElse(null));
+                FavoriteImage savedImage = this.imageRepository.save(image);
+                this.eventPublisher.publishEvent(new ImageContentChangedEvent(imageId, key));
+                return savedImage;
+            });
+        } catch (RuntimeException exception) {
+            this.contentStore.release(key);
+            throw exception;
+        }
+    }
+
+    /**
+     * Returns the bare media type, without parameters, of a supported raster image type.
+     */
+    public static String requireImageContentType(String contentType) {
+        String mediaType = contentType == null ? null : contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+        if (mediaType == null || !IMAGE_CONTENT_TYPES.contains(mediaType)) {
+            throw new UnsupportedContentTypeException(contentType);
+        }
+        return mediaType;
+    }
+
+    public Content findContent(Long imageId) {
+        FavoriteImage image = this.imageRepository.findVisibleById(imageId)
+                .orElseThrow(() -> new ObjectNotFoundException("image", imageId));
+        if (!image.hasContent()) {
+            throw new ObjectNotFoundException("image content", imageId);
+        }
+        try {
+            BlobLocation location = this.contentStore.locate(image.getContentKey())
+                    .orElseThrow(() -> new ObjectNotFoundException("image content", imageId));
+            //Content stored before the type list was narrowed is served as plain bytes
+            String contentType = IMAGE_CONTENT_TYPES.contains(image.getContentType()) ? image.getContentType() : FALLBACK_CONTENT_TYPE;
+            return new Content(location, contentType, "\"" + image.getContentSha256() + "\"");
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    /**
+     * Runs inside the deleting transaction, so the reference is only dropped if the delete commits.
+     */
+    @EventListener
+    public void onImageChanged(ImageChangedEvent event) {
+        if (event.type() == ImageChangedEvent.ChangeType.DELETED && event.image().hasContent()) {
+            this.contentStore.release(event.image().getContentKey());
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException exception) {
+                LOGGER.warn("Could not delete temporary file {}", file, exception);
+            }
+        }
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    public record Content(BlobLocation location, String contentType, String etag) {
+    }
+}
@@ -0,0 +1,193 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.InvalidArgumentException;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageUserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * User-defined order of a gallery. Every image has a fractional sort key, so moving an image between two others
+ * rewrites only the moved image. Keys get longer as images are squeezed into the same spot; owners whose keys
+ * pass the configured length are rebalanced in the background, which spreads fresh short keys over the gallery
+ * in its current order with one batched statement. A move whose key would not fit the sort_key column, or whose
+ * neighbours share a key, rebalances the gallery right away instead.
+ * <p>
+ * Appends, moves and rebalances of one gallery lock the owner's row first, so two images appended concurrently
+ * never get the same key and a rebalance never overwrites a key that a concurrent move computed from the old keys.
+ */
+@Service
+public class ImageOrderService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImageOrderService.class);
+    private static final String UPDATE_SORT_KEY_SQL = "update favorite_image set sort_key = ? where id = ?";
+    private static final String LOCK_OWNER_SQL = "select id from favorite_image_user where id = ? for update";
+    private static final int SORT_KEY_COLUMN_LENGTH = 64;
+
+    private final FavoriteImageRepository imageRepository;
+    private final FavoriteImageUserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxKeyLength;
+    private final Set<Long> ownersToRebalance = ConcurrentHashMap.newKeySet();
+
+    public ImageOrderService(FavoriteImageRepository imageRepository, FavoriteImageUserRepository userRepository, JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                             @Value("${images.ordering.max-key-length:24}") int maxKeyLength) {
+        this.imageRepository = imageRepository;
+        this.userRepository = userRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.maxKeyLength = maxKeyLength;
+    }
+
+    /**
+     * Places the image right after {@code afterImageId} or right before {@code beforeImageId}; with neither the
+     * image moves to the end. When both are given they must be neighbours in that order.
+     */
+    public FavoriteImage move(Long userId, Long imageId, Long afterImageId, Long beforeImageId) {
+        FavoriteImage movedImage = this.transactionTemplate.execute(status -> {
+            lockGallery(userId);
+            FavoriteImage image = findOwnedImage(userId, imageId);
+            String lower = afterImageId == null ? null : findOwnedImage(userId, afterImageId).getSortKey();
+            String upper = beforeImageId == null ? null : findOwnedImage(userId, beforeImageId).getSortKey();
+            String sortKey;
+            boolean spread = false;
+            if (lower == null && upper == null) {
+                sortKey = SortKeys.after(this.imageRepository.findLastSortKeyExcluding(userId, imageId));
+            } else {
+                if (lower != null && upper == null && beforeImageId == null) {
+                    upper = this.imageRepository.findSortKeyAfter(userId, lower, imageId);
+                } else if (lower == null && afterImageId == null) {
+                    lower = this.imageRepository.findSortKeyBefore(userId, upper, imageId);
+                }
+                if (lower != null && upper != null && lower.compareTo(upper) > 0) {
+                    throw new InvalidArgumentException("Image " + afterImageId + " is not right before image " + beforeImageId);
+                }
+                //Neighbours that share a key (from before appends were locked) leave no room between them
+                spread = lower != null && lower.equals(upper);
+                sortKey = spread ? null : SortKeys.between(lower, upper);
+            }
+            if (spread || sortKey.length() > SORT_KEY_COLUMN_LENGTH) {
+                sortKey = spreadKeysAround(userId, imageId, afterImageId, beforeImageId);
+            }
+            image.setSortKey(sortKey);
+            return saveMoved(image);
+        });
+        if (Objects.requireNonNull(movedImage).getSortKey().length() > this.maxKeyLength) {
+            this.ownersToRebalance.add(userId);
+        }
+        return movedImage;
+    }
+
+    /**
+     * Returns a key after the last image of the owner's gallery. Locks the gallery first, so it must run in the
+     * transaction that saves the new image.
+     */
+    String keyAtEnd(Long ownerId) {
+        lockGallery(ownerId);
+        return SortKeys.after(this.imageRepository.findLastSortKey(ownerId));
+    }
+
+    /**
+     * Returns up to {@code limit} images of the user in gallery order, continuing after the given image.
+     */
+    public List<FavoriteImage> findPage(Long userId, Long afterImageId, int limit) {
+        if (!this.userRepository.existsById(userId)) {
+            throw new ObjectNotFoundException("user", userId);
+        }
+        if (afterImageId == null) {
+            return this.imageRepository.findOrderedByOwner(userId, PageRequest.of(0, limit));
+        }
+        FavoriteImage lastImage = findOwnedImage(userId, afterImageId);
+        return this.imageRepository.findOrderedByOwnerAfter(userId, lastImage.getSortKey(), lastImage.getId(), PageRequest.of(0, limit));
+    }
+
+    @Scheduled(fixedDelayString = "${images.ordering.rebalance-interval-ms:300000}", initialDelayString = "${images.ordering.rebalance-interval-ms:300000}")
+    public void rebalancePending() {
+        for (Long ownerId : List.copyOf(this.ownersToRebalance)) {
+            this.ownersToRebalance.remove(ownerId);
+            try {
+                rebalance(ownerId);
+            } catch (RuntimeException exception) {
+                LOGGER.warn("Could not rebalance the gallery order of user {}", ownerId, exception);
+                this.ownersToRebalance.add(ownerId);
+            }
+        }
+    }
+
+    public void rebalance(Long ownerId) {
+        this.transactionTemplate.executeWithoutResult(status -> {
+            lockGallery(ownerId);
+            List<Long> imageIds = this.imageRepository.findIdsByOwnerInOrder(ownerId);
+            spreadKeys(imageIds);
+            LOGGER.info("Rebalanced the gallery order of user {} ({} images)", ownerId, imageIds.size());
+        });
+    }
+
+    /**
+     * Rebalances the gallery with the image already in its new place and returns the image's new key. Must run in
+     * the transaction of the move, after the gallery was locked.
+     */
+    private String spreadKeysAround(Long ownerId, Long imageId, Long afterImageId, Long beforeImageId) {
+        List<Long> imageIds = new ArrayList<>(this.imageRepository.findIdsByOwnerInOrder(ownerId));
+        imageIds.remove(imageId);
+        int position = afterImageId != null ? imageIds.indexOf(afterImageId) + 1
+                : beforeImageId != null ? imageIds.indexOf(beforeImageId)
+                : imageIds.size();
+        if (afterImageId != null && beforeImageId != null && imageIds.indexOf(beforeImageId) != position) {
+            throw new InvalidArgumentException("Image " + afterImageId + " is not right before image " + beforeImageId);
+        }
+        imageIds.add(position, imageId);
+        List<String> keys = spreadKeys(imageIds);
+        LOGGER.info("Rebalanced the gallery order of user {} ({} images) to make room for image {}", ownerId, imageIds.size(), imageId);
+        return keys.get(position);
+    }
+
+    private List<String> spreadKeys(List<Long> imageIds) {
+        List<String> keys = SortKeys.spread(imageIds.size());
+        List<Object[]> batch = new ArrayList<>(imageIds.size());
+        for (int index = 0; index < imageIds.size(); index++) {
+            batch.add(new Object[]{keys.get(index), imageIds.get(index)});
+        }
+        this.jdbcTemplate.batchUpdate(UPDATE_SORT_KEY_SQL, batch);
+        return keys;
+    }
+
+    private void lockGallery(Long ownerId) {
+        this.jdbcTemplate.queryForList(LOCK_OWNER_SQL, Long.class, ownerId);
+    }
+
+    /**
+     * Announces the move so views of the gallery order (cached image lists) are refreshed.
+     */
+    private FavoriteImage saveMoved(FavoriteImage image) {
+        FavoriteImage savedImage = this.imageRepository.save(image);
+        this.eventPublisher.publishEvent(ImageChangedEvent.updated(savedImage));
+        return savedImage;
+    }
+
+    private FavoriteImage findOwnedImage(Long userId, Long imageId) {
+        return this.imageRepository.findById(imageId)
+                .filter(image -> image.getOwner() != null && userId.equals(image.getOwner().getId()))
+                .orElseThrow(() -> new ObjectNotFoundException("image", imageId));
+    }
+}
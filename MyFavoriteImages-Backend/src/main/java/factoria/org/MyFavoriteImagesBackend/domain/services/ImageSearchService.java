@@ -0,0 +1,38 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.search.ImageSearchIndex;
+import jakarta.transaction.Transactional;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class ImageSearchService {
+    private final ImageSearchIndex searchIndex;
+    private final FavoriteImageRepository imageRepository;
+
+    public ImageSearchService(ImageSearchIndex searchIndex, FavoriteImageRepository imageRepository) {
+        this.searchIndex = searchIndex;
+        this.imageRepository = imageRepository;
+    }
+
+    /**
+     * Returns up to {@code limit} matching images in rank order, skipping the first {@code offset}.
+     */
+    public List<FavoriteImage> search(String query, long offset, int limit) {
+        List<Long> rankedIds = this.searchIndex.search(query, offset, limit);
+        Map<Long, FavoriteImage> imagesById = this.imageRepository.findAllVisibleById(rankedIds).stream()
+                .collect(Collectors.toMap(FavoriteImage::getId, Function.identity()));
+        return rankedIds.stream()
+                .map(imagesById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
@@ -0,0 +1,85 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.ImageHash;
+import factoria.org.MyFavoriteImagesBackend.infra.search.PerceptualHashIndex;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class ImageSimilarityService {
+    private final FavoriteImageRepository imageRepository;
+    private final PerceptualHashIndex hashIndex;
+    private final int duplicateDistance;
+
+    public ImageSimilarityService(FavoriteImageRepository imageRepository, PerceptualHashIndex hashIndex,
+                                  @Value("${images.similarity.duplicate-distance:4}") int duplicateDistance) {
+        this.imageRepository = imageRepository;
+        this.hashIndex = hashIndex;
+        this.duplicateDistance = duplicateDistance;
+    }
+
+    /**
+     * Returns up to {@code limit} other images whose perceptual hash differs in at most {@code maxDistance} bits,
+     * closest first. Images whose content has not been hashed yet have no similar images.
+     */
+    public List<FavoriteImage> findSimilar(Long imageId, int maxDistance, int limit) {
+        FavoriteImage image = this.imageRepository.findVisibleById(imageId)
+                .orElseThrow(() -> new ObjectNotFoundException("image", imageId));
+        Long hash = hashOf(image);
+        if (hash == null) {
+            return List.of();
+        }
+        List<Long> rankedIds = this.hashIndex.search(hash, maxDistance, limit + 1).stream()
+                .map(PerceptualHashIndex.Match::imageId)
+                .filter(id -> !id.equals(imageId))
+                .limit(limit)
+                .toList();
+        Map<Long, FavoriteImage> imagesById = this.imageRepository.findAllVisibleById(rankedIds).stream()
+                .collect(Collectors.toMap(FavoriteImage::getId, Function.identity()));
+        return rankedIds.stream()
+                .map(imagesById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * Returns the ids of the owner's other images that are likely the same picture: same URL, same bytes,
+     * or a perceptual hash within the duplicate distance.
+     */
+    public List<Long> findDuplicates(FavoriteImage image) {
+        if (image.getId() == null || image.getOwner() == null) {
+            return List.of();
+        }
+        Long ownerId = image.getOwner().getId();
+        TreeSet<Long> duplicateIds = new TreeSet<>();
+        Long urlId = image.getImageUrl() == null ? null : image.getImageUrl().getId();
+        if (urlId != null || image.getContentKey() != null) {
+            this.imageRepository.findSameSourceByOwner(ownerId, image.getId(), urlId, image.getContentKey())
+                    .forEach(duplicate -> duplicateIds.add(duplicate.getId()));
+        }
+        Long hash = hashOf(image);
+        if (hash != null) {
+            this.hashIndex.search(hash, this.duplicateDistance, Integer.MAX_VALUE).stream()
+                    .filter(match -> ownerId.equals(match.ownerId()) && !match.imageId().equals(image.getId()))
+                    .forEach(match -> duplicateIds.add(match.imageId()));
+        }
+        return List.copyOf(duplicateIds);
+    }
+
+    private Long hashOf(FavoriteImage image) {
+        ImageHash indexed = this.hashIndex.find(image.getId());
+        return indexed != null ? indexed.hash() : image.getPerceptualHash();
+    }
+}
@@ -0,0 +1,104 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageTagsChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageUserRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.search.IdBitmap;
+import factoria.org.MyFavoriteImagesBackend.infra.search.ImageTagIndex;
+import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class ImageTagService {
+    //Matches up to this many are ordered with an IN list instead of a scan of the whole gallery
+    private static final int IN_LIST_LIMIT = 1000;
+
+    private final FavoriteImageRepository imageRepository;
+    private final FavoriteImageUserRepository userRepository;
+    private final ImageTagIndex tagIndex;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ImageTagService(FavoriteImageRepository imageRepository, FavoriteImageUserRepository userRepository, ImageTagIndex tagIndex,
+                           ApplicationEventPublisher eventPublisher) {
+        this.imageRepository = imageRepository;
+        this.userRepository = userRepository;
+        this.tagIndex = tagIndex;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public Set<String> findTags(Long imageId) {
+        FavoriteImage image = this.imageRepository.findById(imageId)
+                .orElseThrow(() -> new ObjectNotFoundException("image", imageId));
+        return new TreeSet<>(image.getTags());
+    }
+
+    /**
+     * Replaces the tags of the image. Tags are trimmed and lower-cased so filters match regardless of spelling.
+     */
+    public Set<String> updateTags(Long imageId, Collection<String> tags) {
+        FavoriteImage image = this.imageRepository.findById(imageId)
+                .orElseThrow(() -> new ObjectNotFoundException("image", imageId));
+        Set<String> normalizedTags = normalize(tags);
+        image.getTags().retainAll(normalizedTags);
+        image.getTags().addAll(normalizedTags);
+        this.imageRepository.save(image);
+        Long ownerId = image.getOwner() != null ? image.getOwner().getId() : null;
+        this.eventPublisher.publishEvent(new ImageTagsChangedEvent(imageId, ownerId, Set.copyOf(normalizedTags)));
+        return normalizedTags;
+    }
+
+    /**
+     * Returns one page of the owner's images matching the tag filter, in gallery order. The bitmap decides which
+     * images match. When few images match, their ids are read off the bitmap and only those are put in gallery
+     * order by the database; otherwise the owner's ids are read in order through the (owner_id, sort_key, id)
+     * index and checked against the bitmap.
+     */
+    public List<FavoriteImage> filterOwnerImages(Long ownerId, Collection<String> allOf, Collection<String> anyOf,
+                                                 Collection<String> noneOf, long offset, int limit) {
+        if (!this.userRepository.existsById(ownerId)) {
+            throw new ObjectNotFoundException("user", ownerId);
+        }
+        IdBitmap matches = this.tagIndex.filter(ownerId, normalize(allOf), normalize(anyOf), normalize(noneOf));
+        if (matches.isEmpty()) {
+            return List.of();
+        }
+        List<Long> orderedIds = matches.cardinality() <= IN_LIST_LIMIT
+                ? this.imageRepository.findIdsByOwnerInOrder(ownerId, matches.page(0, IN_LIST_LIMIT))
+                : this.imageRepository.findIdsByOwnerInOrder(ownerId).stream().filter(matches::contains).toList();
+        List<Long> ids = orderedIds.stream()
+                .skip(offset)
+                .limit(limit)
+                .toList();
+        Map<Long, FavoriteImage> imagesById = this.imageRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(FavoriteImage::getId, Function.identity()));
+        return ids.stream()
+                .map(imagesById::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    static Set<String> normalize(Collection<String> tags) {
+        if (tags == null) {
+            return new TreeSet<>();
+        }
+        return tags.stream()
+                .filter(Objects::nonNull)
+                .map(tag -> tag.trim().toLowerCase(Locale.ROOT))
+                .filter(tag -> !tag.isEmpty())
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+}
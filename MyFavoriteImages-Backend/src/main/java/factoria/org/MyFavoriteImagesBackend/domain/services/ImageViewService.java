@@ -0,0 +1,105 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts image views in memory and adds them to favorite_image.view_count in one batched statement per interval,
+ * so the number of database writes follows the number of distinct images viewed, not the number of views.
+ * <p>
+ * Counters are never reset: the flush writes the growth of the count since the last successful flush, so a failed
+ * flush is simply retried with a larger delta on the next run. Views are added to a LongAdder without any lock. A
+ * counter idle for a whole interval is first marked retired and dropped only if no view arrived before the mark;
+ * a view that finds its counter retired takes itself back and is added to a fresh counter instead.
+ */
+@Service
+public class ImageViewService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImageViewService.class);
+    private static final String INCREMENT_SQL = "update favorite_image set view_count = view_count + ? where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    public ImageViewService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void recordView(Long imageId) {
+        while (true) {
+            Counter counter = this.counters.computeIfAbsent(imageId, id -> new Counter());
+            counter.views.increment();
+            if (!counter.retired) {
+                return;
+            }
+            //The flush is dropping this counter; retry once it is gone or kept
+            counter.views.decrement();
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Returns the stored count plus views not flushed yet.
+     */
+    public long countViews(FavoriteImage image) {
+        Counter counter = this.counters.get(image.getId());
+        return image.getViewCount() + (counter == null ? 0 : counter.views.sum() - counter.flushed);
+    }
+
+    @Scheduled(fixedDelayString = "${images.views.flush-interval-ms:5000}", initialDelayString = "${images.views.flush-interval-ms:5000}")
+    public synchronized void flush() {
+        List<Counter> flushedCounters = new ArrayList<>();
+        List<Object[]> batch = new ArrayList<>();
+        //Ids are visited in ascending order so concurrent flushes from several instances lock rows in the same order
+        this.counters.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(entry -> {
+            Counter counter = entry.getValue();
+            long total = counter.views.sum();
+            if (total == counter.flushed) {
+                //Views counted before the mark are seen by the second read; the counter is then kept and flushed next time
+                counter.retired = true;
+                if (counter.views.sum() == counter.flushed) {
+                    this.counters.remove(entry.getKey(), counter);
+                } else {
+                    counter.retired = false;
+                }
+                return;
+            }
+            flushedCounters.add(counter);
+            batch.add(new Object[]{total - counter.flushed, entry.getKey()});
+            counter.pending = total;
+        });
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            this.jdbcTemplate.batchUpdate(INCREMENT_SQL, batch);
+            flushedCounters.forEach(counter -> counter.flushed = counter.pending);
+        } catch (DataAccessException exception) {
+            //Counters with unflushed views are never dropped, so the next flush writes these views again
+            LOGGER.warn("Could not flush view counts of {} images, retrying on next flush", batch.size(), exception);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private static final class Counter {
+        private final LongAdder views = new LongAdder();
+        private volatile long flushed;
+        private volatile boolean retired;
+        private long pending;
+    }
+}
@@ -0,0 +1,102 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fractional sort keys: base-62 digit strings read as fractions between 0 and 1 and compared as plain strings.
+ * There is always a key between two different keys, so moving an item only rewrites the moved item's key.
+ * Keys never end in the zero digit, which keeps room before every key.
+ */
+final class SortKeys {
+    static final String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final int APPEND_DIGITS = 3;
+
+    private SortKeys() {
+    }
+
+    /**
+     * Returns a key strictly between {@code lower} and {@code upper}; null stands for the start or end of the list.
+     */
+    static String between(String lower, String upper) {
+        String start = lower == null ? "" : lower;
+        if (upper != null && start.compareTo(upper) >= 0) {
+            throw new IllegalArgumentException("Sort key " + lower + " is not before " + upper);
+        }
+        return midpoint(start, upper);
+    }
+
+    /**
+     * Returns a key after {@code lower} by adding one unit in its third or last digit. Unlike halving the space
+     * that is left, this keeps keys short when items are appended one after another, as new images are.
+     */
+    static String after(String lower) {
+        if (lower == null || lower.isEmpty()) {
+            return "1";
+        }
+        char[] digits = (lower + "0".repeat(Math.max(0, APPEND_DIGITS - lower.length()))).toCharArray();
+        for (int index = digits.length - 1; index >= 0; index--) {
+            int digit = DIGITS.indexOf(digits[index]);
+            if (digit < DIGITS.length() - 1) {
+                digits[index] = DIGITS.charAt(digit + 1);
+                return new String(digits, 0, index + 1);
+            }
+        }
+        return lower + "1";
+    }
+
+    /**
+     * Returns {@code count} ascending keys spread evenly over the first half of the key space, leaving the second
+     * half for appends.
+     */
+    static List<String> spread(int count) {
+        int length = 1;
+        long space = SortKeys.DIGITS.length();
+        while (space / SortKeys.DIGITS.length() < 2L * (count + 1)) {
+            space *= SortKeys.DIGITS.length();
+            length++;
+        }
+        long step = space / 2 / (count + 1);
+        List<String> keys = new ArrayList<>(count);
+        for (int index = 1; index <= count; index++) {
+            keys.add(encode(step * index, length));
+        }
+        return keys;
+    }
+
+    private static String midpoint(String lower, String upper) {
+        if (upper != null) {
+            int common = 0;
+            while (common < upper.length() && (common < lower.length() ? lower.charAt(common) : '0') == upper.charAt(common)) {
+                common++;
+            }
+            if (common > 0) {
+                return upper.substring(0, common)
+                        + midpoint(lower.length() > common ? lower.substring(common) : "", upper.substring(common));
+            }
+        }
+        int lowerDigit = lower.isEmpty() ? 0 : DIGITS.indexOf(lower.charAt(0));
+        int upperDigit = upper == null ? DIGITS.length() : DIGITS.indexOf(upper.charAt(0));
+        if (upperDigit - lowerDigit > 1) {
+            return String.valueOf(DIGITS.charAt((lowerDigit + upperDigit + 1) / 2));
+        }
+        if (upper != null && upper.length() > 1) {
+            return upper.substring(0, 1);
+        }
+        return DIGITS.charAt(lowerDigit) + midpoint(lower.isEmpty() ? "" : lower.substring(1), null);
+    }
+
+    private static String encode(long value, int length) {
+        char[] digits = new char[length];
+        long remaining = value;
+        for (int index = length - 1; index >= 0; index--) {
+            digits[index] = DIGITS.charAt((int) (remaining % DIGITS.length()));
+            remaining /= DIGITS.length();
+        }
+        int end = length;
+        while (end > 1 && digits[end - 1] == '0') {
+            end--;
+        }
+        return new String(digits, 0, end);
+    }
+}
@@ -0,0 +1,278 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageContentChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.domain.models.ThumbnailJob;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
+import factoria.org.MyFavoriteImagesBackend.infra.imaging.ImageResizer;
+import factoria.org.MyFavoriteImagesBackend.infra.imaging.PerceptualHasher;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.ImageHash;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.ThumbnailJobRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.search.PerceptualHashIndex;
+import factoria.org.MyFavoriteImagesBackend.infra.storage.BlobLocation;
+import factoria.org.MyFavoriteImagesBackend.infra.storage.BlobRemovedEvent;
+import factoria.org.MyFavoriteImagesBackend.infra.storage.BlobStore;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates fixed-size thumbnails off the request thread whenever an image gets new content.
+ * <p>
+ * Work goes through a bounded queue. Requests for an image that is already queued only replace the content
+ * key the queued task will read, so a burst of uploads for one image costs one generation. Every request is
+ * also recorded as a thumbnail_job row; rows left pending because the queue was full or the process stopped
+ * are picked up again by a periodic sweep and at startup.
+ * Thumbnails are derived from content, so they are stored in the blob store under the source's key and
+ * shared by every image with the same bytes.
+ * The perceptual hash used for duplicate detection is computed from the same decoded image, so the source is
+ * read at most once per content.
+ */
+@Service
+public class ThumbnailService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ThumbnailService.class);
+    private static final int MAX_ATTEMPTS = 3;
+    private static final List<String> FORMATS = List.of("jpeg", "png");
+
+    private final FavoriteImageRepository imageRepository;
+    private final ThumbnailJobRepository jobRepository;
+    private final BlobStore blobStore;
+    private final ImageResizer imageResizer;
+    private final PerceptualHasher perceptualHasher;
+    private final PerceptualHashIndex hashIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final int[] sizes;
+    private final int queueCapacity;
+    private final Map<Long, String> pending = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    public ThumbnailService(FavoriteImageRepository imageRepository, ThumbnailJobRepository jobRepository, BlobStore blobStore,
+                            ImageResizer imageResizer, PerceptualHasher perceptualHasher, PerceptualHashIndex hashIndex,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${images.thumbnails.sizes:128,256,512}") int[] sizes,
+                            @Value("${images.thumbnails.threads:2}") int threads,
+                            @Value("${images.thumbnails.queue-capacity:1000}") int queueCapacity) {
+        this.imageRepository = imageRepository;
+        this.jobRepository = jobRepository;
+        this.blobStore = blobStore;
+        this.imageResizer = imageResizer;
+        this.perceptualHasher = perceptualHasher;
+        this.hashIndex = hashIndex;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        //Content changes arrive after commit, when the finished transaction is still bound but never flushed again
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.sizes = Arrays.stream(sizes).sorted().toArray();
+        this.queueCapacity = queueCapacity;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "thumbnail-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onContentChanged(ImageContentChangedEvent event) {
+        this.hashIndex.remove(event.imageId());
+        schedule(event.imageId(), event.contentKey());
+    }
+
+    @EventListener
+    public void onBlobRemoved(BlobRemovedEvent event) {
+        for (int size : this.sizes) {
+            for (String format : FORMATS) {
+                try {
+                    this.blobStore.delete(variantKey(event.key(), size, format));
+                } catch (IOException exception) {
+                    LOGGER.warn("Could not delete thumbnail of {}", event.key(), exception);
+                }
+            }
+        }
+    }
+
+    public void schedule(Long imageId, String contentKey) {
+        this.transactionTemplate.executeWithoutResult(status -> {
+            ThumbnailJob job = this.jobRepository.findById(imageId).orElseGet(() -> new ThumbnailJob(imageId));
+            job.setContentKey(contentKey);
+            job.setStatus(ThumbnailJob.Status.PENDING);
+            job.setAttempts(0);
+            job.setUpdatedAt(Instant.now());
+            this.jobRepository.save(job);
+        });
+        enqueue(imageId, contentKey);
+    }
+
+    /**
+     * Returns the stored thumbnail of the smallest configured size that covers the requested one. When it has not
+     * been generated yet, generation is requested and the caller gets a not-found error.
+     */
+    public Thumbnail findThumbnail(Long imageId, int requestedSize) {
+        FavoriteImage image = this.imageRepository.findVisibleById(imageId)
+                .orElseThrow(() -> new ObjectNotFoundException("image", imageId));
+        if (!image.hasContent()) {
+            throw new ObjectNotFoundException("image content", imageId);
+        }
+        int size = snapSize(requestedSize);
+        try {
+            for (String format : FORMATS) {
+                String key = variantKey(image.getContentKey(), size, format);
+                Optional<BlobLocation> location = this.blobStore.locate(key);
+                if (location.isPresent()) {
+                    return new Thumbnail(location.get(), "image/" + format, "\"" + key + "\"");
+                }
+            }
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        boolean failed = this.jobRepository.findById(imageId)
+                .filter(job -> job.getStatus() == ThumbnailJob.Status.FAILED && image.getContentKey().equals(job.getContentKey()))
+                .isPresent();
+        if (!failed) {
+            enqueue(imageId, image.getContentKey());
+        }
+        throw new ObjectNotFoundException("thumbnail", imageId);
+    }
+
+    /**
+     * Re-queues jobs that are still pending, e.g. after a restart or when the queue was full.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${images.thumbnails.resume-interval-ms:60000}", initialDelayString = "${images.thumbnails.resume-interval-ms:60000}")
+    public void resumePending() {
+        int room = this.queueCapacity - this.executor.getQueue().size();
+        if (room <= 0) {
+            return;
+        }
+        this.jobRepository.findByStatusOrderByUpdatedAt(ThumbnailJob.Status.PENDING, PageRequest.of(0, room))
+                .forEach(job -> enqueue(job.getImageId(), job.getContentKey()));
+    }
+
+    /**
+     * Schedules images stored before perceptual hashes existed, as far as the queue has room.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillPerceptualHashes() {
+        int room = this.queueCapacity - this.executor.getQueue().size();
+        if (room > 0) {
+            this.imageRepository.findUnhashedContent(PageRequest.of(0, room))
+                    .forEach(image -> schedule(image.getId(), image.getContentKey()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    int snapSize(int requestedSize) {
+        for (int size : this.sizes) {
+            if (size >= requestedSize) {
+                return size;
+            }
+        }
+        return this.sizes[this.sizes.length - 1];
+    }
+
+    private void enqueue(Long imageId, String contentKey) {
+        if (this.pending.put(imageId, contentKey) != null) {
+            return;
+        }
+        try {
+            this.executor.execute(() -> generate(imageId));
+        } catch (RejectedExecutionException exception) {
+            this.pending.remove(imageId, contentKey);
+            LOGGER.debug("Thumbnail queue full, image {} stays pending", imageId);
+        }
+    }
+
+    private void generate(Long imageId) {
+        String contentKey = this.pending.remove(imageId);
+        if (contentKey == null) {
+            return;
+        }
+        try {
+            generateDerivatives(contentKey);
+            this.jobRepository.finish(imageId, contentKey, ThumbnailJob.Status.DONE, 0, Instant.now());
+        } catch (Exception exception) {
+            LOGGER.warn("Could not generate thumbnails for image {}", imageId, exception);
+            this.jobRepository.finish(imageId, contentKey, ThumbnailJob.Status.PENDING, 1, Instant.now());
+            this.jobRepository.findById(imageId)
+                    .filter(job -> job.getAttempts() >= MAX_ATTEMPTS && job.getStatus() == ThumbnailJob.Status.PENDING)
+                    .ifPresent(job -> this.jobRepository.finish(imageId, contentKey, ThumbnailJob.Status.FAILED, 0, Instant.now()));
+        }
+    }
+
+    private void generateDerivatives(String contentKey) throws IOException {
+        List<ImageHash> images = this.imageRepository.findHashesByContentKey(contentKey);
+        Long knownHash = images.stream().map(ImageHash::hash).filter(Objects::nonNull).findFirst().orElse(null);
+        boolean variantsMissing = !Arrays.stream(this.sizes).allMatch(size -> hasVariant(contentKey, size));
+        BufferedImage source = null;
+        if (knownHash == null || variantsMissing) {
+            try (InputStream content = this.blobStore.open(contentKey)) {
+                source = this.imageResizer.read(content);
+            }
+        }
+        long hash = knownHash != null ? knownHash : this.perceptualHasher.hash(source);
+        if (images.stream().anyMatch(image -> image.hash() == null)) {
+            this.transactionTemplate.executeWithoutResult(status -> this.imageRepository.updatePerceptualHash(contentKey, hash));
+        }
+        images.forEach(image -> this.hashIndex.add(image.id(), image.ownerId(), hash));
+        if (!variantsMissing) {
+            return;
+        }
+        for (int size : this.sizes) {
+            if (hasVariant(contentKey, size)) {
+                continue;
+            }
+            Path tempFile = this.blobStore.createTempFile();
+            try {
+                String contentType = this.imageResizer.writeVariant(source, size, tempFile);
+                this.blobStore.put(variantKey(contentKey, size, contentType.substring("image/".length())), tempFile);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+    }
+
+    private boolean hasVariant(String contentKey, int size) {
+        return FORMATS.stream().anyMatch(format -> this.blobStore.contains(variantKey(contentKey, size, format)));
+    }
+
+    private static String variantKey(String contentKey, int size, String format) {
+        return "thumb-" + contentKey + "-" + size + "-" + format;
+    }
+
+    public record Thumbnail(BlobLocation location, String contentType, String etag) {
+    }
+}
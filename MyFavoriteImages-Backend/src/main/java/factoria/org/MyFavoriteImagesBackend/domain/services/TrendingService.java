@@ -0,0 +1,86 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.domain.models.ImageUrl;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.TrendingDto;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.InvalidArgumentException;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.ImageUrlRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.trending.SlidingTopK;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Ranks images by recent views and URLs by recent adds without storing individual events. Both are tracked in
+ * sliding windows of Count-Min sketches with small top-K summaries, so memory is fixed by configuration and a
+ * query only looks at the summaries.
+ */
+@Service
+public class TrendingService {
+    public enum Metric {
+        VIEWS, ADDS
+    }
+
+    private final FavoriteImageRepository imageRepository;
+    private final ImageUrlRepository urlRepository;
+    private final SlidingTopK views;
+    private final SlidingTopK adds;
+    private final int capacity;
+
+    public TrendingService(FavoriteImageRepository imageRepository, ImageUrlRepository urlRepository,
+                           @Value("${images.trending.bucket-duration:PT5M}") Duration bucketDuration,
+                           @Value("${images.trending.buckets:288}") int buckets,
+                           @Value("${images.trending.sketch-width:512}") int sketchWidth,
+                           @Value("${images.trending.sketch-depth:4}") int sketchDepth,
+                           @Value("${images.trending.capacity:64}") int capacity) {
+        this.imageRepository = imageRepository;
+        this.urlRepository = urlRepository;
+        this.views = new SlidingTopK(Clock.systemUTC(), bucketDuration, buckets, sketchWidth, sketchDepth, capacity);
+        this.adds = new SlidingTopK(Clock.systemUTC(), bucketDuration, buckets, sketchWidth, sketchDepth, capacity);
+        this.capacity = capacity;
+    }
+
+    public void recordView(Long imageId) {
+        this.views.add(imageId);
+    }
+
+    public void recordAdd(FavoriteImage image) {
+        if (image.getImageUrl() != null && image.getImageUrl().getId() != null) {
+            this.adds.add(image.getImageUrl().getId());
+        }
+    }
+
+    public List<TrendingDto> findTrending(Metric metric, Duration window, int limit) {
+        SlidingTopK tracker = metric == Metric.VIEWS ? this.views : this.adds;
+        if (window.isNegative() || window.isZero() || window.compareTo(tracker.maxWindow()) > 0) {
+            throw new InvalidArgumentException("Window must be positive and at most " + tracker.maxWindow());
+        }
+        List<SlidingTopK.Entry> entries = tracker.top(window, Math.min(limit, this.capacity));
+        List<Long> keys = entries.stream().map(SlidingTopK.Entry::key).toList();
+        if (metric == Metric.VIEWS) {
+            Map<Long, FavoriteImage> imagesById = this.imageRepository.findAllVisibleById(keys).stream()
+                    .collect(Collectors.toMap(FavoriteImage::getId, Function.identity()));
+            return entries.stream()
+                    .filter(entry -> imagesById.containsKey(entry.key()))
+                    .map(entry -> {
+                        FavoriteImage image = imagesById.get(entry.key());
+                        return new TrendingDto(image.getId(), image.getTitle(), image.getUrl(), entry.count());
+                    })
+                    .toList();
+        }
+        Map<Long, String> urlsById = this.urlRepository.findAllById(keys).stream()
+                .collect(Collectors.toMap(ImageUrl::getId, ImageUrl::getUrl));
+        return entries.stream()
+                .map(entry -> urlsById.get(entry.key()) == null ? null : new TrendingDto(null, null, urlsById.get(entry.key()), entry.count()))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
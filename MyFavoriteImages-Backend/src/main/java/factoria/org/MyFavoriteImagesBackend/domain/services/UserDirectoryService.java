@@ -0,0 +1,134 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.CursorPageDto;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.UserDto;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.InvalidArgumentException;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.DirectoryEntry;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageUserRepository;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Admin listing of users. Rows come back as projections, so image collections are never loaded, and the sortable
+ * image count is a stored column kept in step with image creates and deletes. Pages are addressed by an opaque
+ * cursor holding the sort, the sort value and the id of the last row, so paging deep into the directory costs the
+ * same as the first page.
+ */
+@Service
+public class UserDirectoryService {
+    //Sortable attributes and how their value is read back from a cursor
+    private static final Map<String, Function<String, Object>> SORT_ATTRIBUTES = Map.of(
+            "createdAt", Instant::parse,
+            "imageCount", Integer::valueOf);
+
+    private final FavoriteImageUserRepository userRepository;
+
+    public UserDirectoryService(FavoriteImageUserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Returns up to {@code limit} users after the position in {@code after}, a cursor from an earlier page of the
+     * same sort, or the first page when it is null.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<UserDto> search(String usernamePrefix, Boolean enabled, String role, String sort, String direction, String after,
+                                         int limit) {
+        Function<String, Object> sortValueParser = SORT_ATTRIBUTES.get(sort);
+        if (sortValueParser == null) {
+            throw new InvalidArgumentException("Unknown sort " + sort + ", expected one of " + SORT_ATTRIBUTES.keySet());
+        }
+        String normalizedDirection = direction.toLowerCase(Locale.ROOT);
+        if (!normalizedDirection.equals("asc") && !normalizedDirection.equals("desc")) {
+            throw new InvalidArgumentException("Unknown direction " + direction + ", expected asc or desc");
+        }
+        Object afterSortValue = null;
+        Long afterId = null;
+        if (after != null) {
+            String[] position = decodeCursor(after, sort + "," + normalizedDirection);
+            afterSortValue = parse(sortValueParser, position[0], after);
+            afterId = parse(Long::valueOf, position[1], after);
+        }
+        String normalizedRole = role == null ? null : role.trim();
+        List<DirectoryEntry> entries = this.userRepository.findDirectoryPage(usernamePrefix, enabled, normalizedRole, sort,
+                normalizedDirection.equals("asc"), afterSortValue, afterId, limit + 1);
+        List<UserDto> users = entries.stream()
+                .limit(limit)
+                .map(DirectoryEntry::user)
+                .toList();
+        String next = null;
+        if (entries.size() > limit) {
+            DirectoryEntry last = entries.get(limit - 1);
+            next = encodeCursor(sort + "," + normalizedDirection + "," + last.sortValue() + "," + last.user().id());
+        }
+        return new CursorPageDto<>(users, limit, next);
+    }
+
+    /**
+     * Loads the users with one IN query; ids without a user are absent from the result.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, UserDto> findAllById(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        return this.userRepository.findDirectoryEntriesByIdIn(Set.copyOf(userIds)).stream()
+                .collect(Collectors.toMap(UserDto::id, Function.identity()));
+    }
+
+    private static String encodeCursor(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the sort value and id of a cursor made for the given sort and direction.
+     */
+    private static String[] decodeCursor(String cursor, String sortAndDirection) {
+        String position;
+        try {
+            position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException exception) {
+            throw new InvalidArgumentException("Invalid cursor " + cursor);
+        }
+        if (!position.startsWith(sortAndDirection + ",")) {
+            throw new InvalidArgumentException("Cursor " + cursor + " does not belong to sort " + sortAndDirection);
+        }
+        String[] parts = position.substring(sortAndDirection.length() + 1).split(",", -1);
+        if (parts.length != 2) {
+            throw new InvalidArgumentException("Invalid cursor " + cursor);
+        }
+        return parts;
+    }
+
+    private static <T> T parse(Function<String, T> parser, String value, String cursor) {
+        try {
+            return parser.apply(value);
+        } catch (RuntimeException exception) {
+            throw new InvalidArgumentException("Invalid cursor " + cursor);
+        }
+    }
+
+    /**
+     * Runs inside the transaction that adds or deletes the image, so the count never drifts from the rows.
+     */
+    @EventListener
+    public void onImageChanged(ImageChangedEvent event) {
+        if (event.ownerId() == null || event.type() == ImageChangedEvent.ChangeType.UPDATED) {
+            return;
+        }
+        this.userRepository.addToImageCount(event.ownerId(), event.type() == ImageChangedEvent.ChangeType.CREATED ? 1 : -1);
+    }
+}
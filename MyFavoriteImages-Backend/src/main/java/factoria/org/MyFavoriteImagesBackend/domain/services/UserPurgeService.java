@@ -0,0 +1,100 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImageUser;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.PurgeStatusDto;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Removes the images of soft-deleted users in bounded batches, one batch per run, so a user with a huge gallery
+ * never turns into one long transaction holding row locks. The run interval is the throttle. Each batch
+ * announces its images as deleted, which releases their blobs and updates the in-memory indexes exactly as a
+ * single delete would. Once no image is left the user row itself is removed.
+ * <p>
+ * Deleted users are invisible to JPA, so everything here goes through plain JDBC.
+ */
+@Service
+public class UserPurgeService {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UserPurgeService.class);
+    private static final String NEXT_USER_SQL = "select id from favorite_image_user where deleted_at is not null order by deleted_at, id limit 1";
+    private static final String NEXT_IMAGES_SQL = "select id, content_key from favorite_image where owner_id = ? order by id limit ?";
+    private static final String DELETE_IMAGE_SQL = "delete from favorite_image where id = ?";
+    private static final String COUNT_PURGED_SQL = "update favorite_image_user set purged_images = purged_images + ? where id = ?";
+    private static final String DELETE_USER_SQL = "delete from favorite_image_user where id = ? and deleted_at is not null";
+    private static final String STATUS_SQL = """
+            select u.deleted_at, u.purged_images, (select count(*) from favorite_image i where i.owner_id = u.id)
+            from favorite_image_user u
+            where u.id = ? and u.deleted_at is not null""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public UserPurgeService(JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                            @Value("${users.purge.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${users.purge.interval-ms:1000}", initialDelayString = "${users.purge.interval-ms:1000}")
+    public void purgeNextBatch() {
+        List<Long> userIds = this.jdbcTemplate.queryForList(NEXT_USER_SQL, Long.class);
+        if (!userIds.isEmpty()) {
+            purgeBatch(userIds.get(0));
+        }
+    }
+
+    /**
+     * Deletes up to one batch of the user's images, or the user row once the images are gone.
+     * Returns the number of images deleted.
+     */
+    public int purgeBatch(Long userId) {
+        Integer purged = this.transactionTemplate.execute(status -> {
+            FavoriteImageUser owner = new FavoriteImageUser();
+            owner.setId(userId);
+            List<FavoriteImage> images = this.jdbcTemplate.query(NEXT_IMAGES_SQL, (resultSet, rowNumber) -> {
+                FavoriteImage image = new FavoriteImage();
+                image.setId(resultSet.getLong("id"));
+                image.setContentKey(resultSet.getString("content_key"));
+                image.setOwner(owner);
+                return image;
+            }, userId, this.batchSize);
+            if (images.isEmpty()) {
+                if (this.jdbcTemplate.update(DELETE_USER_SQL, userId) == 1) {
+                    LOGGER.info("Finished purging user {}", userId);
+                }
+                return 0;
+            }
+            images.forEach(image -> this.eventPublisher.publishEvent(ImageChangedEvent.deleted(image)));
+            this.jdbcTemplate.batchUpdate(DELETE_IMAGE_SQL, images.stream().map(image -> new Object[]{image.getId()}).toList());
+            this.jdbcTemplate.update(COUNT_PURGED_SQL, images.size(), userId);
+            return images.size();
+        });
+        return purged == null ? 0 : purged;
+    }
+
+    public PurgeStatusDto findStatus(Long userId) {
+        return this.jdbcTemplate.query(STATUS_SQL, (resultSet, rowNumber) -> {
+                    Timestamp deletedAt = resultSet.getTimestamp(1);
+                    return new PurgeStatusDto(userId, deletedAt.toInstant(), resultSet.getLong(2), resultSet.getLong(3));
+                }, userId).stream()
+                .findFirst()
+                .orElseThrow(() -> new ObjectNotFoundException("deleted user", userId));
+    }
+}
@@ -11,13 +11,21 @@ import org.springframework.stereotype.Component;
 @Component
 public class DBDataInitializer implements CommandLineRunner {
     private final FavoriteImageUserService userService;
+    private final FavoriteImageUserRepository userRepository;
 
-    public DBDataInitializer(FavoriteImageUserService userService) {
+    public DBDataInitializer(FavoriteImageUserService userService, FavoriteImageUserRepository userRepository) {
         this.userService = userService;
+        this.userRepository = userRepository;
     }
 
     @Override
     public void run(String... args) throws Exception {
+        //The schema now survives restarts, so sample data is only charged into an empty database; soft-deleted
+        //users still hold their usernames until purged
+        if (this.userRepository.countIncludingDeleted() > 0) {
+            return;
+        }
+
         //Images to be charged once the application starts
         FavoriteImage image1 = new FavoriteImage();
         image1.setId(1L);
@@ -0,0 +1,239 @@
+package factoria.org.MyFavoriteImagesBackend.infra.batch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.BatchOperationDto;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.BatchRequestDto;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.BatchResponseDto;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.BatchResultDto;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.InvalidArgumentException;
+import factoria.org.MyFavoriteImagesBackend.infra.results.Result;
+import factoria.org.MyFavoriteImagesBackend.infra.results.StatusCode;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.access.WebInvocationPrivilegeEvaluator;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.DispatcherServlet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Runs the operations of a composite request through the DispatcherServlet, so they reach the same controllers,
+ * validation and exception handling as standalone requests. The batch request itself passes the security filter
+ * chain once; each operation is then checked against the same URL rules with the already authenticated caller
+ * before it is dispatched.
+ */
+@Component
+public class BatchDispatcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchDispatcher.class);
+    private static final List<String> ALLOWED_PATHS = List.of("/api/v1/images", "/api/v1/users");
+    private static final Set<String> ALLOWED_METHODS = Set.of("GET", "POST", "PUT", "DELETE");
+    //Image bytes would be buffered whole in memory and then dropped from the combined response
+    private static final Pattern BINARY_PATH = Pattern.compile("/api/v1/images/[^/]+/(content|thumbnail|uploads)(/.*)?");
+
+    private final DispatcherServlet dispatcherServlet;
+    private final WebInvocationPrivilegeEvaluator privilegeEvaluator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final int maxOperations;
+
+    public BatchDispatcher(DispatcherServlet dispatcherServlet, WebInvocationPrivilegeEvaluator privilegeEvaluator, ObjectMapper objectMapper,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${api.batch.max-operations:20}") int maxOperations,
+                           @Value("${api.batch.threads:4}") int threads) {
+        this.dispatcherServlet = dispatcherServlet;
+        this.privilegeEvaluator = privilegeEvaluator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxOperations = maxOperations;
+        AtomicInteger threadNumber = new AtomicInteger();
+        //A full pool runs the operation on the request thread, which slows that batch down instead of failing it
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(threads * 4), runnable -> {
+            Thread thread = new Thread(runnable, "batch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public BatchResponseDto dispatch(BatchRequestDto batch, HttpServletRequest request, HttpServletResponse response) {
+        List<BatchOperationDto> operations = batch.operations();
+        if (operations.size() > this.maxOperations) {
+            throw new InvalidArgumentException("At most " + this.maxOperations + " operations can be sent in one batch, got " + operations.size());
+        }
+        if (batch.atomic() && batch.parallel()) {
+            throw new InvalidArgumentException("An atomic batch runs in one transaction and cannot be parallel");
+        }
+        operations.forEach(BatchDispatcher::checkOperation);
+        if (batch.atomic()) {
+            return dispatchAtomically(operations, request, response);
+        }
+        return new BatchResponseDto(true, batch.parallel()
+                ? dispatchInParallel(operations, request, response)
+                : operations.stream().map(operation -> dispatchOne(operation, request, response)).toList());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Stops at the first operation that fails and rolls everything back; the operations after it are not run. When
+     * the batch rolls back, the operations that had succeeded report that their changes were undone.
+     */
+    private BatchResponseDto dispatchAtomically(List<BatchOperationDto> operations, HttpServletRequest request, HttpServletResponse response) {
+        List<BatchResultDto> results = new ArrayList<>(operations.size());
+        boolean committed;
+        try {
+            committed = Boolean.TRUE.equals(this.transactionTemplate.execute(status -> {
+                for (BatchOperationDto operation : operations) {
+                    BatchResultDto result = dispatchOne(operation, request, response);
+                    results.add(result);
+                    if (result.status() >= 400) {
+                        status.setRollbackOnly();
+                        return false;
+                    }
+                }
+                return true;
+            }));
+        } catch (TransactionException exception) {
+            LOGGER.warn("Atomic batch of {} operations was rolled back", operations.size(), exception);
+            committed = false;
+        }
+        if (!committed) {
+            BatchResultDto rolledBack = new BatchResultDto(HttpStatus.FAILED_DEPENDENCY.value(), Map.of(),
+                    this.objectMapper.valueToTree(new Result(false, StatusCode.FAILED_DEPENDENCY, "Rolled back with the batch")));
+            results.replaceAll(result -> result.status() < 400 ? rolledBack : result);
+        }
+        while (results.size() < operations.size()) {
+            results.add(new BatchResultDto(HttpStatus.FAILED_DEPENDENCY.value(), Map.of(), null));
+        }
+        return new BatchResponseDto(committed, results);
+    }
+
+    /**
+     * Consecutive reads do not depend on each other and run concurrently. A write waits for the reads before it
+     * and runs alone, so later operations still observe it.
+     */
+    private List<BatchResultDto> dispatchInParallel(List<BatchOperationDto> operations, HttpServletRequest request, HttpServletResponse response) {
+        BatchResultDto[] results = new BatchResultDto[operations.size()];
+        List<Future<BatchResultDto>> reads = new ArrayList<>();
+        int firstRead = 0;
+        for (int index = 0; index <= operations.size(); index++) {
+            boolean read = index < operations.size() && isRead(operations.get(index));
+            if (read) {
+                BatchOperationDto operation = operations.get(index);
+                reads.add(this.executor.submit(DelegatingSecurityContextCallable.create(() -> dispatchOne(operation, request, response),
+                        SecurityContextHolder.getContext())));
+                continue;
+            }
+            for (int readIndex = 0; readIndex < reads.size(); readIndex++) {
+                results[firstRead + readIndex] = await(reads.get(readIndex));
+            }
+            reads.clear();
+            if (index < operations.size()) {
+                results[index] = dispatchOne(operations.get(index), request, response);
+            }
+            firstRead = index + 1;
+        }
+        return Arrays.asList(results);
+    }
+
+    private BatchResultDto dispatchOne(BatchOperationDto operation, HttpServletRequest request, HttpServletResponse response) {
+        String method = operation.method().toUpperCase(Locale.ROOT);
+        String path = pathOf(operation.path());
+        int queryIndex = operation.path().indexOf('?');
+        String queryString = queryIndex < 0 ? null : operation.path().substring(queryIndex + 1);
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!this.privilegeEvaluator.isAllowed(request.getContextPath(), path, method, authentication)) {
+            return new BatchResultDto(StatusCode.FORBIDDEN, Map.of(),
+                    this.objectMapper.valueToTree(new Result(false, StatusCode.FORBIDDEN, "Access denied")));
+        }
+        try {
+            byte[] body = operation.body() == null || operation.body().isNull() ? null : this.objectMapper.writeValueAsBytes(operation.body());
+            SubRequest subRequest = new SubRequest(request, method, path, queryString, body);
+            BufferedResponse subResponse = new BufferedResponse(response);
+            this.dispatcherServlet.service(subRequest, subResponse);
+            return new BatchResultDto(subResponse.getStatus(), subResponse.getHeaderValues(), readBody(subResponse));
+        } catch (ServletException | IOException | RuntimeException exception) {
+            LOGGER.warn("Batch operation {} {} failed", method, path, exception);
+            return new BatchResultDto(StatusCode.INTERNAL_SERVER_ERROR, Map.of(),
+                    this.objectMapper.valueToTree(new Result(false, StatusCode.INTERNAL_SERVER_ERROR, "Server internal error", exception.getMessage())));
+        }
+    }
+
+    /**
+     * Operations answer with JSON; anything else, such as image bytes, is left out of the combined response.
+     */
+    private JsonNode readBody(BufferedResponse subResponse) throws IOException {
+        byte[] content = subResponse.getContentAsByteArray();
+        String contentType = subResponse.getContentType();
+        if (content.length == 0 || contentType == null || !contentType.contains("json")) {
+            return null;
+        }
+        return this.objectMapper.readTree(content);
+    }
+
+    private static BatchResultDto await(Future<BatchResultDto> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for batch operations", exception);
+        } catch (ExecutionException exception) {
+            throw new IllegalStateException(exception.getCause());
+        }
+    }
+
+    private static boolean isRead(BatchOperationDto operation) {
+        return operation.method().equalsIgnoreCase("GET");
+    }
+
+    private static String pathOf(String target) {
+        int queryIndex = target.indexOf('?');
+        return queryIndex < 0 ? target : target.substring(0, queryIndex);
+    }
+
+    private static void checkOperation(BatchOperationDto operation) {
+        String method = operation.method().toUpperCase(Locale.ROOT);
+        if (!ALLOWED_METHODS.contains(method)) {
+            throw new InvalidArgumentException("Unsupported batch method " + operation.method());
+        }
+        String path = pathOf(operation.path());
+        //The path is matched by the security rules as is, so anything a servlet container would normalize is refused
+        boolean allowed = ALLOWED_PATHS.stream().anyMatch(prefix -> path.equals(prefix) || path.startsWith(prefix + "/"));
+        if (!allowed || path.contains("..") || path.contains("//") || path.contains(";") || path.contains("%") || path.contains("#")) {
+            throw new InvalidArgumentException("Batch operations must target " + ALLOWED_PATHS + ", got " + operation.path());
+        }
+        if (BINARY_PATH.matcher(path).matches()) {
+            throw new InvalidArgumentException("Image content, thumbnails and uploads cannot be batched, got " + operation.path());
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package factoria.org.MyFavoriteImagesBackend.infra.batch;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Keeps status, headers and body of a batch operation in memory instead of writing them to the batch response.
+ */
+final class BufferedResponse extends HttpServletResponseWrapper {
+    private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+    private final HttpHeaders headers = new HttpHeaders();
+    private int status = SC_OK;
+    private String contentType;
+    private Charset charset = StandardCharsets.UTF_8;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    BufferedResponse(HttpServletResponse response) {
+        super(response);
+    }
+
+    byte[] getContentAsByteArray() {
+        if (this.writer != null) {
+            this.writer.flush();
+        }
+        return this.content.toByteArray();
+    }
+
+    /**
+     * First value of every header except the content headers, which describe the buffered body only.
+     */
+    Map<String, String> getHeaderValues() {
+        Map<String, String> values = new LinkedHashMap<>();
+        this.headers.forEach((name, list) -> {
+            if (!name.equalsIgnoreCase(HttpHeaders.CONTENT_TYPE) && !name.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH)) {
+                values.put(name, list.get(0));
+            }
+        });
+        return values;
+    }
+
+    @Override
+    public int getStatus() {
+        return this.status;
+    }
+
+    @Override
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    @Override
+    public void sendError(int status) {
+        this.status = status;
+    }
+
+    @Override
+    public void sendError(int status, String message) {
+        this.status = status;
+    }
+
+    @Override
+    public void sendRedirect(String location) {
+        this.status = SC_FOUND;
+        setHeader(HttpHeaders.LOCATION, location);
+    }
+
+    @Override
+    public String getContentType() {
+        return this.contentType;
+    }
+
+    @Override
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+        if (contentType != null) {
+            this.headers.set(HttpHeaders.CONTENT_TYPE, contentType);
+            int charsetIndex = contentType.toLowerCase(Locale.ROOT).indexOf("charset=");
+            if (charsetIndex >= 0) {
+                this.charset = Charset.forName(contentType.substring(charsetIndex + "charset=".length()).trim());
+            }
+        }
+    }
+
+    @Override
+    public String getCharacterEncoding() {
+        return this.charset.name();
+    }
+
+    @Override
+    public void setCharacterEncoding(String charset) {
+        this.charset = Charset.forName(charset);
+    }
+
+    @Override
+    public void setContentLength(int length) {
+    }
+
+    @Override
+    public void setContentLengthLong(long length) {
+    }
+
+    @Override
+    public boolean containsHeader(String name) {
+        return this.headers.containsKey(name);
+    }
+
+    @Override
+    public String getHeader(String name) {
+        return this.headers.getFirst(name);
+    }
+
+    @Override
+    public Collection<String> getHeaders(String name) {
+        List<String> values = this.headers.get(name);
+        return values == null ? List.of() : new ArrayList<>(values);
+    }
+
+    @Override
+    public Collection<String> getHeaderNames() {
+        return new ArrayList<>(this.headers.keySet());
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+            setContentType(value);
+        } else {
+            this.headers.set(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+            setContentType(value);
+        } else {
+            this.headers.add(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        setHeader(name, String.valueOf(value));
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        addHeader(name, String.valueOf(value));
+    }
+
+    @Override
+    public void setDateHeader(String name, long date) {
+        this.headers.setDate(name, date);
+    }
+
+    @Override
+    public void addDateHeader(String name, long date) {
+        this.headers.add(name, HttpHeaders.formatDate(date));
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() {
+        if (this.outputStream == null) {
+            this.outputStream = new ServletOutputStream() {
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setWriteListener(WriteListener writeListener) {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public void write(int value) {
+                    content.write(value);
+                }
+
+                @Override
+                public void write(byte[] buffer, int offset, int length) {
+                    content.write(buffer, offset, length);
+                }
+            };
+        }
+        return this.outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() {
+        if (this.writer == null) {
+            this.writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), this.charset));
+        }
+        return this.writer;
+    }
+
+    @Override
+    public void flushBuffer() {
+        if (this.writer != null) {
+            this.writer.flush();
+        }
+    }
+
+    @Override
+    public void setBufferSize(int size) {
+    }
+
+    @Override
+    public boolean isCommitted() {
+        return false;
+    }
+
+    @Override
+    public void reset() {
+        resetBuffer();
+        this.headers.clear();
+        this.status = SC_OK;
+        this.contentType = null;
+    }
+
+    @Override
+    public void resetBuffer() {
+        flushBuffer();
+        this.content.reset();
+    }
+}
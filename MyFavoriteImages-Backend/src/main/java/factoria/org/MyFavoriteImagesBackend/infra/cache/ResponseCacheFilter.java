@@ -0,0 +1,144 @@
+package factoria.org.MyFavoriteImagesBackend.infra.cache;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.LongConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves {@code GET /api/v1/images/{id}} and {@code GET /api/v1/users/{id}/images} from the
+ * SerializedResponseCache. Only plain JSON requests are cached: any query parameter (paging, tags, sparse fields)
+ * or an Accept header asking for another format goes straight to the controller. Runs after the security chain,
+ * so a hit is authorized like any other request.
+ * <p>
+ * An image response is only stored once the controller names its owner through {@link #ownedBy}, which lets a
+ * change to the owner drop every cached image embedding it.
+ */
+public class ResponseCacheFilter extends OncePerRequestFilter {
+    private static final Pattern IMAGE_PATH = Pattern.compile("/api/v1/images/(\\d+)");
+    private static final Pattern USER_IMAGES_PATH = Pattern.compile("/api/v1/users/(\\d+)/images");
+    private static final String OWNER_ATTRIBUTE = ResponseCacheFilter.class.getName() + ".owner";
+    private static final Long NO_OWNER = -1L;
+
+    private final SerializedResponseCache cache;
+    private final LongConsumer imageHitListener;
+
+    /**
+     * @param imageHitListener called with the image id on every image hit, as the controller is skipped
+     */
+    public ResponseCacheFilter(SerializedResponseCache cache, LongConsumer imageHitListener) {
+        this.cache = cache;
+        this.imageHitListener = imageHitListener;
+    }
+
+    /**
+     * Marks the image response of the current request as cacheable under the given owner, which may be null.
+     */
+    public static void ownedBy(Long ownerId) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(OWNER_ATTRIBUTE, ownerId == null ? NO_OWNER : ownerId, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !this.cache.isEnabled() || !HttpMethod.GET.matches(request.getMethod()) || request.getQueryString() != null || !acceptsJson(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Matcher imageMatcher = IMAGE_PATH.matcher(path);
+        Matcher userImagesMatcher = USER_IMAGES_PATH.matcher(path);
+        Long imageId = imageMatcher.matches() ? Long.valueOf(imageMatcher.group(1)) : null;
+        Long userId = imageId == null && userImagesMatcher.matches() ? Long.valueOf(userImagesMatcher.group(1)) : null;
+        if (imageId == null && userId == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        String key = imageId != null ? SerializedResponseCache.imageTag(imageId) : "images-of-" + SerializedResponseCache.ownerTag(userId);
+
+        SerializedResponseCache.Entry entry = this.cache.pin(key);
+        if (entry != null) {
+            try {
+                if (imageId != null) {
+                    this.imageHitListener.accept(imageId);
+                }
+                response.setStatus(HttpServletResponse.SC_OK);
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.setContentLength(entry.length());
+                this.cache.writeTo(entry, response.getOutputStream());
+            } finally {
+                this.cache.unpin(entry);
+            }
+            return;
+        }
+
+        long stamp = this.cache.stamp();
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, wrapper);
+            Set<String> tags = tags(request, imageId, userId);
+            if (tags != null && wrapper.getStatus() == HttpServletResponse.SC_OK && isJson(wrapper.getContentType())) {
+                this.cache.put(key, wrapper.getContentAsByteArray(), tags, stamp);
+            }
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private static Set<String> tags(HttpServletRequest request, Long imageId, Long userId) {
+        if (userId != null) {
+            return Set.of(SerializedResponseCache.ownerTag(userId));
+        }
+        Object owner = request.getAttribute(OWNER_ATTRIBUTE);
+        if (owner == null) {
+            return null;
+        }
+        Set<String> tags = new HashSet<>();
+        tags.add(SerializedResponseCache.imageTag(imageId));
+        if (!NO_OWNER.equals(owner)) {
+            tags.add(SerializedResponseCache.ownerTag((Long) owner));
+        }
+        return tags;
+    }
+
+    private static boolean acceptsJson(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return true;
+        }
+        try {
+            List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+            return mediaTypes.stream().allMatch(mediaType -> mediaType.isCompatibleWith(MediaType.APPLICATION_JSON));
+        } catch (InvalidMediaTypeException exception) {
+            return false;
+        }
+    }
+
+    private static boolean isJson(String contentType) {
+        try {
+            return contentType != null && MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+        } catch (InvalidMediaTypeException exception) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package factoria.org.MyFavoriteImagesBackend.infra.cache;
+
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.domain.events.UserChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Response bodies already serialized to JSON, kept off-heap so hits neither re-serialize nor allocate and the
+ * cached bytes are invisible to the garbage collector.
+ * <p>
+ * The capacity is split into fixed-size chunks carved out of a few large direct buffers (slabs). An entry owns
+ * as many chunks as its body needs, taken from a free list, and entries are evicted in LRU order until enough
+ * chunks are free. Readers pin an entry while they copy it out; an entry evicted or invalidated while pinned
+ * gives its chunks back when the last reader unpins it.
+ * <p>
+ * Entries carry tags (the image, the owner) and are dropped when a committed change touches one of their tags.
+ * A miss notes a stamp before building the response; the body is only stored if none of its tags was invalidated
+ * since, so a response built from data that changed in the meantime never reaches the cache.
+ */
+@Component
+public class SerializedResponseCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SerializedResponseCache.class);
+    private static final int MAX_SLAB_SIZE = 64 * 1024 * 1024;
+    private static final int STAMP_STRIPES = 1024;
+
+    private final int chunkSize;
+    private final int chunksPerSlab;
+    private final ByteBuffer[] slabs;
+    private final int[] freeChunks;
+    private int freeCount;
+    private final int maxEntryChunks;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Set<String>> keysByTag = new HashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLongArray invalidatedAt = new AtomicLongArray(STAMP_STRIPES);
+    private final ThreadLocal<byte[]> scratch;
+
+    public SerializedResponseCache(@Value("${images.response-cache.capacity:64MB}") DataSize capacity,
+                                   @Value("${images.response-cache.chunk-size:4KB}") DataSize chunkSize) {
+        this.chunkSize = (int) chunkSize.toBytes();
+        this.chunksPerSlab = Math.max(1, MAX_SLAB_SIZE / this.chunkSize);
+        int chunks = (int) Math.min(Integer.MAX_VALUE, capacity.toBytes() / this.chunkSize);
+        int slabCount = (chunks + this.chunksPerSlab - 1) / this.chunksPerSlab;
+        this.slabs = new ByteBuffer[slabCount];
+        for (int slab = 0; slab < slabCount; slab++) {
+            int slabChunks = Math.min(this.chunksPerSlab, chunks - slab * this.chunksPerSlab);
+            this.slabs[slab] = ByteBuffer.allocateDirect(slabChunks * this.chunkSize);
+        }
+        this.freeChunks = new int[chunks];
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            this.freeChunks[chunk] = chunks - 1 - chunk;
+        }
+        this.freeCount = chunks;
+        //One oversized entry should not flush most of the cache
+        this.maxEntryChunks = Math.max(1, chunks / 8);
+        this.scratch = ThreadLocal.withInitial(() -> new byte[this.chunkSize]);
+        if (chunks > 0) {
+            LOGGER.info("Response cache holds {} chunks of {} bytes in {} slabs", chunks, this.chunkSize, slabCount);
+        }
+    }
+
+    public boolean isEnabled() {
+        return this.freeChunks.length > 0;
+    }
+
+    /**
+     * Stamp to hand to {@link #put} for a response that is about to be built.
+     */
+    public long stamp() {
+        return this.sequence.get();
+    }
+
+    /**
+     * Returns the entry pinned for reading, or null. Every returned entry must be passed to {@link #unpin}.
+     */
+    synchronized Entry pin(String key) {
+        Entry entry = this.entries.get(key);
+        if (entry != null) {
+            entry.pins++;
+        }
+        return entry;
+    }
+
+    synchronized void unpin(Entry entry) {
+        entry.pins--;
+        if (entry.removed && entry.pins == 0) {
+            release(entry.chunks);
+        }
+    }
+
+    /**
+     * Copies the entry to the stream one chunk at a time through a per-thread buffer.
+     */
+    void writeTo(Entry entry, OutputStream outputStream) throws IOException {
+        byte[] buffer = this.scratch.get();
+        int remaining = entry.length;
+        for (int chunk : entry.chunks) {
+            int length = Math.min(remaining, this.chunkSize);
+            this.slabs[chunk / this.chunksPerSlab].get((chunk % this.chunksPerSlab) * this.chunkSize, buffer, 0, length);
+            outputStream.write(buffer, 0, length);
+            remaining -= length;
+        }
+    }
+
+    /**
+     * Stores the body unless it does not fit or one of its tags changed after {@code stamp} was taken.
+     */
+    public boolean put(String key, byte[] body, Set<String> tags, long stamp) {
+        int needed = Math.max(1, (body.length + this.chunkSize - 1) / this.chunkSize);
+        if (needed > this.maxEntryChunks || isStale(tags, stamp)) {
+            return false;
+        }
+        int[] chunks = allocate(needed);
+        if (chunks == null) {
+            return false;
+        }
+        for (int index = 0; index < chunks.length; index++) {
+            int offset = index * this.chunkSize;
+            int chunk = chunks[index];
+            this.slabs[chunk / this.chunksPerSlab].put((chunk % this.chunksPerSlab) * this.chunkSize, body, offset,
+                    Math.min(this.chunkSize, body.length - offset));
+        }
+        synchronized (this) {
+            if (isStale(tags, stamp)) {
+                release(chunks);
+                return false;
+            }
+            Entry previous = this.entries.remove(key);
+            if (previous != null) {
+                remove(previous);
+            }
+            Entry entry = new Entry(key, chunks, body.length, Set.copyOf(tags));
+            this.entries.put(key, entry);
+            for (String tag : entry.tags) {
+                this.keysByTag.computeIfAbsent(tag, ignored -> new HashSet<>()).add(key);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Drops every entry carrying the tag and keeps responses built before now from being stored.
+     */
+    public void invalidate(String tag) {
+        long stamp = this.sequence.incrementAndGet();
+        this.invalidatedAt.accumulateAndGet(stripe(tag), stamp, Math::max);
+        synchronized (this) {
+            Set<String> keys = this.keysByTag.remove(tag);
+            if (keys == null) {
+                return;
+            }
+            for (String key : keys) {
+                Entry entry = this.entries.remove(key);
+                if (entry != null) {
+                    remove(entry);
+                }
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImageChanged(ImageChangedEvent event) {
+        invalidate(imageTag(event.imageId()));
+        //Owners are embedded in every image of theirs, and their image count changes with each create and delete
+        if (event.ownerId() != null) {
+            invalidate(ownerTag(event.ownerId()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(ownerTag(event.userId()));
+    }
+
+    static String imageTag(Long imageId) {
+        return "image:" + imageId;
+    }
+
+    static String ownerTag(Long ownerId) {
+        return "owner:" + ownerId;
+    }
+
+    private boolean isStale(Set<String> tags, long stamp) {
+        for (String tag : tags) {
+            if (this.invalidatedAt.get(stripe(tag)) > stamp) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private synchronized int[] allocate(int needed) {
+        Iterator<Entry> eldest = this.entries.values().iterator();
+        while (this.freeCount < needed && eldest.hasNext()) {
+            Entry entry = eldest.next();
+            eldest.remove();
+            remove(entry);
+        }
+        if (this.freeCount < needed) {
+            return null;
+        }
+        int[] chunks = new int[needed];
+        for (int index = 0; index < needed; index++) {
+            chunks[index] = this.freeChunks[--this.freeCount];
+        }
+        return chunks;
+    }
+
+    /**
+     * Unlinks an entry already taken out of {@code entries}; its chunks return now or on the last unpin.
+     */
+    private void remove(Entry entry) {
+        entry.removed = true;
+        for (String tag : entry.tags) {
+            Set<String> keys = this.keysByTag.get(tag);
+            if (keys != null && keys.remove(entry.key) && keys.isEmpty()) {
+                this.keysByTag.remove(tag);
+            }
+        }
+        if (entry.pins == 0) {
+            release(entry.chunks);
+        }
+    }
+
+    private synchronized void release(int[] chunks) {
+        for (int chunk : chunks) {
+            this.freeChunks[this.freeCount++] = chunk;
+        }
+    }
+
+    private static int stripe(String tag) {
+        return (tag.hashCode() & Integer.MAX_VALUE) % STAMP_STRIPES;
+    }
+
+    static final class Entry {
+        private final String key;
+        private final int[] chunks;
+        private final int length;
+        private final Set<String> tags;
+        private int pins;
+        private boolean removed;
+
+        private Entry(String key, int[] chunks, int length, Set<String> tags) {
+            this.key = key;
+            this.chunks = chunks;
+            this.length = length;
+            this.tags = tags;
+        }
+
+        int length() {
+            return this.length;
+        }
+    }
+}
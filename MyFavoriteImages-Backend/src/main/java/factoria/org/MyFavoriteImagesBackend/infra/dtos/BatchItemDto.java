@@ -0,0 +1,9 @@
+package factoria.org.MyFavoriteImagesBackend.infra.dtos;
+
+/**
+ * One entry of a batch lookup; {@code found} is false and {@code data} null when the id does not exist.
+ */
+public record BatchItemDto<T>(Long id,
+                              boolean found,
+                              T data) {
+}
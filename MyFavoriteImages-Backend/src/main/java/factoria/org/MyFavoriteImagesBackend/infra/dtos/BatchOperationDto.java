@@ -0,0 +1,14 @@
+package factoria.org.MyFavoriteImagesBackend.infra.dtos;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import jakarta.validation.constraints.NotEmpty;
+
+/**
+ * One sub-request of a batch: an HTTP method, a path with optional query string and an optional JSON body.
+ */
+public record BatchOperationDto(@NotEmpty(message = "method is required")
+                                String method,
+                                @NotEmpty(message = "path is required")
+                                String path,
+                                JsonNode body) {
+}
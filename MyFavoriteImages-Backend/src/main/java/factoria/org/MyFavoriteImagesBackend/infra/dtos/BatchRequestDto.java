@@ -0,0 +1,16 @@
+package factoria.org.MyFavoriteImagesBackend.infra.dtos;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * With {@code atomic} the operations run in one transaction that is rolled back on the first failure. With
+ * {@code parallel} consecutive GET operations run concurrently; writes still run alone and in order.
+ */
+public record BatchRequestDto(@NotEmpty(message = "operations are required")
+                              List<@Valid BatchOperationDto> operations,
+                              boolean atomic,
+                              boolean parallel) {
+}
@@ -0,0 +1,10 @@
+package factoria.org.MyFavoriteImagesBackend.infra.dtos;
+
+import java.util.List;
+
+/**
+ * Results in the order of the operations. {@code committed} is false when an atomic batch was rolled back.
+ */
+public record BatchResponseDto(boolean committed,
+                               List<BatchResultDto> results) {
+}
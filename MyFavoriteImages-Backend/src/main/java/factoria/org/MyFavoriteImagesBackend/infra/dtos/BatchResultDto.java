@@ -0,0 +1,10 @@
+package factoria.org.MyFavoriteImagesBackend.infra.dtos;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Map;
+
+public record BatchResultDto(int status,
+                             Map<String, String> headers,
+                             JsonNode body) {
+}
@@ -0,0 +1,14 @@
+package factoria.org.MyFavoriteImagesBackend.infra.dtos;
+
+import java.time.Instant;
+
+/**
+ * One entry of the change feed. {@code entity} is image or user, {@code type} is CREATED, UPDATED or DELETED.
+ */
+public record ChangeDto(long cursor,
+                        String entity,
+                        Long id,
+                        Long ownerId,
+                        String type,
+                        Instant changedAt) {
+}
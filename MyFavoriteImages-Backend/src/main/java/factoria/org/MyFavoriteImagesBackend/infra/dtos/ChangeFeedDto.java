@@ -0,0 +1,13 @@
+package factoria.org.MyFavoriteImagesBackend.infra.dtos;
+
+import java.util.List;
+
+/**
+ * Changes after the requested cursor; {@code cursor} is passed back as {@code since} on the next poll. With
+ * {@code reset} the client has fallen behind the compacted log and must reload its lists before continuing.
+ */
+public record ChangeFeedDto(List<ChangeDto> changes,
+                            long cursor,
+                            boolean hasMore,
+                            boolean reset) {
+}
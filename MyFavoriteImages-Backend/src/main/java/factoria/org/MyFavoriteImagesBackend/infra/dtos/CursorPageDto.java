@@ -0,0 +1,12 @@
+package factoria.org.MyFavoriteImagesBackend.infra.dtos;
+
+import java.util.List;
+
+/**
+ * Page of a keyset-paginated list whose position is more than an id; {@code next} is an opaque cursor passed back
+ * as {@code after} to get the following page and is null on the last one.
+ */
+public record CursorPageDto<T>(List<T> content,
+                               int size,
+                               String next) {
+}
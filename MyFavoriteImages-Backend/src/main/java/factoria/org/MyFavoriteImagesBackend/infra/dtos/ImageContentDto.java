@@ -0,0 +1,4 @@
+package factoria.org.MyFavoriteImagesBackend.infra.dtos;
+
+public record ImageContentDto(Long imageId, String contentType, Long contentLength, String sha256) {
+}
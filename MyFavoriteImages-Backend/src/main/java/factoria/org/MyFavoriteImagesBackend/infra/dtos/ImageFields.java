@@ -0,0 +1,64 @@
+package factoria.org.MyFavoriteImagesBackend.infra.dtos;
+
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.InvalidArgumentException;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Sparse fieldset of an image response, parsed from {@code ?fields=id,title,url&expand=owner}. The id is always
+ * included. Without {@code fields} every image field is returned; the owner only when expanded.
+ */
+public record ImageFields(Set<String> fields,
+                          boolean expandOwner) {
+    public static final List<String> IMAGE_FIELDS = List.of("id", "title", "description", "url");
+    private static final String OWNER = "owner";
+
+    /**
+     * Returns null when neither parameter is given, so callers keep the full ImageDto response.
+     */
+    public static ImageFields parse(String fields, String expand) {
+        if (fields == null && expand == null) {
+            return null;
+        }
+        Set<String> selectedFields = new LinkedHashSet<>();
+        selectedFields.add("id");
+        boolean expandOwner = false;
+        for (String field : split(fields)) {
+            if (field.equals(OWNER)) {
+                expandOwner = true;
+            } else if (IMAGE_FIELDS.contains(field)) {
+                selectedFields.add(field);
+            } else {
+                throw new InvalidArgumentException("Unknown field " + field + ", expected some of " + IMAGE_FIELDS + " or owner");
+            }
+        }
+        if (fields == null || fields.isBlank()) {
+            selectedFields.addAll(IMAGE_FIELDS);
+        }
+        for (String expanded : split(expand)) {
+            if (!expanded.equals(OWNER)) {
+                throw new InvalidArgumentException("Unknown expansion " + expanded + ", only owner can be expanded");
+            }
+            expandOwner = true;
+        }
+        return new ImageFields(Set.copyOf(selectedFields), expandOwner);
+    }
+
+    public boolean includes(String field) {
+        return this.fields.contains(field);
+    }
+
+    private static List<String> split(String value) {
+        if (value == null) {
+            return List.of();
+        }
+        return Arrays.stream(value.split(","))
+                .map(part -> part.trim().toLowerCase(Locale.ROOT))
+                .filter(part -> !part.isEmpty())
+                .toList();
+    }
+}
@@ -0,0 +1,12 @@
+package factoria.org.MyFavoriteImagesBackend.infra.dtos;
+
+import java.util.List;
+
+/**
+ * Page of a keyset-paginated list; {@code next} is passed back as {@code after} to get the following page and is
+ * null on the last one.
+ */
+public record KeysetPageDto<T>(List<T> content,
+                               int size,
+                               Long next) {
+}
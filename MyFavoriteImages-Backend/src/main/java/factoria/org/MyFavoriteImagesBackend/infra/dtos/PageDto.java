@@ -0,0 +1,9 @@
+package factoria.org.MyFavoriteImagesBackend.infra.dtos;
+
+import java.util.List;
+
+public record PageDto<T>(List<T> content,
+                         int page,
+                         int size,
+                         boolean hasNext) {
+}
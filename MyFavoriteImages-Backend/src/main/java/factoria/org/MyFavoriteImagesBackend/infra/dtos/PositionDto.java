@@ -0,0 +1,5 @@
+package factoria.org.MyFavoriteImagesBackend.infra.dtos;
+
+public record PositionDto(Long after,
+                          Long before) {
+}
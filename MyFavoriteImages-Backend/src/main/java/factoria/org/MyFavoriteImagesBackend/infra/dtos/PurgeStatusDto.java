@@ -0,0 +1,9 @@
+package factoria.org.MyFavoriteImagesBackend.infra.dtos;
+
+import java.time.Instant;
+
+public record PurgeStatusDto(Long userId,
+                             Instant deletedAt,
+                             long purgedImages,
+                             long remainingImages) {
+}
@@ -0,0 +1,12 @@
+package factoria.org.MyFavoriteImagesBackend.infra.dtos;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.Collection;
+
+public record TagsDto(@NotNull(message = "tags are required")
+                      @Size(max = 32, message = "at most 32 tags are allowed")
+                      Collection<@NotBlank(message = "tag must not be blank") @Size(max = 64, message = "tag is too long") String> tags) {
+}
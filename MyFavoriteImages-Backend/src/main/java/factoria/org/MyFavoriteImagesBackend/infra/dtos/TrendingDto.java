@@ -0,0 +1,11 @@
+package factoria.org.MyFavoriteImagesBackend.infra.dtos;
+
+/**
+ * One ranked entry of a trending list. Ranking by adds counts URLs saved by any user, so those entries carry
+ * only the URL.
+ */
+public record TrendingDto(Long imageId,
+                          String title,
+                          String url,
+                          long count) {
+}
@@ -0,0 +1,7 @@
+package factoria.org.MyFavoriteImagesBackend.infra.dtos;
+
+/**
+ * {@code complete} is true when the upload finished without sending bytes because the content was already stored.
+ */
+public record UploadDto(String uploadId, Long imageId, String contentType, long offset, boolean complete) {
+}
@@ -2,9 +2,13 @@ package factoria.org.MyFavoriteImagesBackend.infra.dtos.converters;
 
 import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
 import factoria.org.MyFavoriteImagesBackend.infra.dtos.ImageDto;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.ImageFields;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.stereotype.Component;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 @Component
 public class ImageToImageDtoConverter implements Converter<FavoriteImage, ImageDto> {
     private final UserToUserDtoConverter userToUserDtoConverter;
@@ -21,4 +25,25 @@ public class ImageToImageDtoConverter implements Converter<FavoriteImage, ImageD
                 source.getUrl(),
                 source.getOwner() != null ? this.userToUserDtoConverter.convert(source.getOwner()) : null);
     }
+
+    /**
+     * Sparse variant: only the requested fields, and the owner is converted only when it is expanded.
+     */
+    public Map<String, Object> convert(FavoriteImage source, ImageFields fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("id", source.getId());
+        if (fields.includes("title")) {
+            values.put("title", source.getTitle());
+        }
+        if (fields.includes("description")) {
+            values.put("description", source.getDescription());
+        }
+        if (fields.includes("url")) {
+            values.put("url", source.getUrl());
+        }
+        if (fields.expandOwner()) {
+            values.put("owner", source.getOwner() != null ? this.userToUserDtoConverter.convert(source.getOwner()) : null);
+        }
+        return values;
+    }
 }
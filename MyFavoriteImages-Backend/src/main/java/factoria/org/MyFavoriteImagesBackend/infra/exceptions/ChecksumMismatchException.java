@@ -0,0 +1,7 @@
+package factoria.org.MyFavoriteImagesBackend.infra.exceptions;
+
+public class ChecksumMismatchException extends RuntimeException{
+    public ChecksumMismatchException(String expected, String actual) {
+        super("Checksum mismatch, expected " + expected + " but received content has " + actual);
+    }
+}
@@ -2,6 +2,7 @@ package factoria.org.MyFavoriteImagesBackend.infra.exceptions;
 
 import factoria.org.MyFavoriteImagesBackend.infra.results.Result;
 import factoria.org.MyFavoriteImagesBackend.infra.results.StatusCode;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.AccountStatusException;
@@ -12,6 +13,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 
 import java.util.HashMap;
 import java.util.List;
@@ -42,6 +44,46 @@ public class ExceptionHandlerAdvice {
         return new Result(false, StatusCode.INVALID_ARGUMENT, "Provided arguments are invalid, see data for details.", map);
     }
 
+    @ExceptionHandler(UnsupportedContentTypeException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    Result handleUnsupportedContentTypeException(UnsupportedContentTypeException exception){
+        return new Result(false, StatusCode.INVALID_ARGUMENT, exception.getMessage());
+    }
+
+    @ExceptionHandler(InvalidArgumentException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    Result handleInvalidArgumentException(InvalidArgumentException exception){
+        return new Result(false, StatusCode.INVALID_ARGUMENT, exception.getMessage());
+    }
+
+    @ExceptionHandler(ChecksumMismatchException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    Result handleChecksumMismatchException(ChecksumMismatchException exception){
+        return new Result(false, StatusCode.INVALID_ARGUMENT, exception.getMessage());
+    }
+
+    @ExceptionHandler(UploadConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    Result handleUploadConflictException(UploadConflictException exception){
+        return new Result(false, StatusCode.CONFLICT, exception.getMessage(), exception.getCurrentOffset());
+    }
+
+    /**
+     * A unique index refused the write, e.g. a username that is already taken. On H2 that includes the username of a
+     * deleted user whose purge has not finished; PostgreSQL only keeps it unique among live users.
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    Result handleDataIntegrityViolationException(DataIntegrityViolationException exception){
+        return new Result(false, StatusCode.CONFLICT, "The request conflicts with existing data");
+    }
+
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    @ResponseStatus(HttpStatus.PAYLOAD_TOO_LARGE)
+    Result handleMaxUploadSizeExceededException(MaxUploadSizeExceededException exception){
+        return new Result(false, StatusCode.INVALID_ARGUMENT, "Uploaded file is too large", exception.getMessage());
+    }
+
     @ExceptionHandler({UserNameNotFoundException.class, BadCredentialsException.class})
     @ResponseStatus(HttpStatus.UNAUTHORIZED)
     Result handleAuthenticationException(Exception exception){
@@ -0,0 +1,7 @@
+package factoria.org.MyFavoriteImagesBackend.infra.exceptions;
+
+public class InvalidArgumentException extends RuntimeException{
+    public InvalidArgumentException(String message) {
+        super(message);
+    }
+}
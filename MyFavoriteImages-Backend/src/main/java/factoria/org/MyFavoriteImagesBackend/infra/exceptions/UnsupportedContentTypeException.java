@@ -0,0 +1,7 @@
+package factoria.org.MyFavoriteImagesBackend.infra.exceptions;
+
+public class UnsupportedContentTypeException extends RuntimeException{
+    public UnsupportedContentTypeException(String contentType) {
+        super("Content type " + contentType + " is not supported, only PNG, JPEG, GIF, WebP and AVIF images can be uploaded");
+    }
+}
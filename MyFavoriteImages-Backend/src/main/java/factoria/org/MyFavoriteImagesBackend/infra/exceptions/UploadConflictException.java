@@ -0,0 +1,14 @@
+package factoria.org.MyFavoriteImagesBackend.infra.exceptions;
+
+public class UploadConflictException extends RuntimeException{
+    private final long currentOffset;
+
+    public UploadConflictException(String uploadId, long currentOffset) {
+        super("Upload " + uploadId + " expects the next chunk at offset " + currentOffset);
+        this.currentOffset = currentOffset;
+    }
+
+    public long getCurrentOffset() {
+        return currentOffset;
+    }
+}
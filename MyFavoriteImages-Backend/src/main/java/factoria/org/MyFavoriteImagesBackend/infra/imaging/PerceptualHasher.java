@@ -0,0 +1,95 @@
+package factoria.org.MyFavoriteImagesBackend.infra.imaging;
+
+import org.springframework.stereotype.Component;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 64-bit difference hash (dHash): the image is reduced to a 9x8 grid of average luminance and each bit
+ * records whether a cell is darker than its right neighbour. Visually similar images get hashes that differ
+ * in few bits. Averaging the grid is the only part that touches every pixel, so large images are split into
+ * bands of rows summed in parallel on the common fork-join pool.
+ */
+@Component
+public class PerceptualHasher {
+    private static final int GRID_WIDTH = 9;
+    private static final int GRID_HEIGHT = 8;
+    private static final int PIXELS_PER_TASK = 1 << 18;
+
+    public long hash(BufferedImage image) {
+        long[] sums = ForkJoinPool.commonPool().invoke(new GridSumTask(image, 0, image.getHeight()));
+        double[] averages = new double[GRID_WIDTH * GRID_HEIGHT];
+        for (int cell = 0; cell < averages.length; cell++) {
+            long count = sums[averages.length + cell];
+            averages[cell] = count == 0 ? 0 : (double) sums[cell] / count;
+        }
+        long hash = 0;
+        for (int row = 0; row < GRID_HEIGHT; row++) {
+            for (int column = 0; column < GRID_WIDTH - 1; column++) {
+                hash <<= 1;
+                if (averages[row * GRID_WIDTH + column] < averages[row * GRID_WIDTH + column + 1]) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    public static int distance(long first, long second) {
+        return Long.bitCount(first ^ second);
+    }
+
+    /**
+     * Returns luminance sums per grid cell followed by pixel counts per grid cell for a band of rows.
+     */
+    private static final class GridSumTask extends RecursiveTask<long[]> {
+        private final BufferedImage image;
+        private final int fromRow;
+        private final int toRow;
+
+        private GridSumTask(BufferedImage image, int fromRow, int toRow) {
+            this.image = image;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected long[] compute() {
+            int width = this.image.getWidth();
+            int rows = this.toRow - this.fromRow;
+            if ((long) rows * width > PIXELS_PER_TASK && rows > 1) {
+                int middle = this.fromRow + rows / 2;
+                GridSumTask top = new GridSumTask(this.image, this.fromRow, middle);
+                top.fork();
+                long[] bottom = new GridSumTask(this.image, middle, this.toRow).compute();
+                long[] sums = top.join();
+                for (int index = 0; index < sums.length; index++) {
+                    sums[index] += bottom[index];
+                }
+                return sums;
+            }
+            int cells = GRID_WIDTH * GRID_HEIGHT;
+            long[] sums = new long[2 * cells];
+            int height = this.image.getHeight();
+            int[] cellOfColumn = new int[width];
+            for (int x = 0; x < width; x++) {
+                cellOfColumn[x] = (int) ((long) x * GRID_WIDTH / width);
+            }
+            int[] pixels = new int[width];
+            for (int y = this.fromRow; y < this.toRow; y++) {
+                int rowOffset = (int) ((long) y * GRID_HEIGHT / height) * GRID_WIDTH;
+                this.image.getRGB(0, y, width, 1, pixels, 0, width);
+                for (int x = 0; x < width; x++) {
+                    int rgb = pixels[x];
+                    int luminance = (((rgb >> 16) & 0xFF) * 299 + ((rgb >> 8) & 0xFF) * 587 + (rgb & 0xFF) * 114) / 1000;
+                    int cell = rowOffset + cellOfColumn[x];
+                    sums[cell] += luminance;
+                    sums[cells + cell]++;
+                }
+            }
+            return sums;
+        }
+    }
+}
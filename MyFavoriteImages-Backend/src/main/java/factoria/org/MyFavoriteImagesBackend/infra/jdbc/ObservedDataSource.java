@@ -0,0 +1,122 @@
+package factoria.org.MyFavoriteImagesBackend.infra.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * JDK proxies around DataSource, Connection and Statement that time every execute call
+ * and hand the SQL, its bind parameters and the elapsed time to the registered listeners.
+ */
+final class ObservedDataSource {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ObservedDataSource.class);
+
+    private ObservedDataSource() {
+    }
+
+    static DataSource wrap(DataSource target, Supplier<List<StatementListener>> listeners) {
+        return proxy(DataSource.class, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof Connection connection && method.getName().equals("getConnection")) {
+                return wrapConnection(connection, listeners);
+            }
+            return result;
+        });
+    }
+
+    private static Connection wrapConnection(Connection target, Supplier<List<StatementListener>> listeners) {
+        return proxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                return proxy(method.getReturnType(), new StatementHandler(statement, sql, listeners));
+            }
+            return result;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(ObservedDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException exception) {
+            throw exception.getTargetException();
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private final Supplier<List<StatementListener>> listeners;
+        private final List<Object> parameters = new ArrayList<>();
+
+        StatementHandler(Statement target, String preparedSql, Supplier<List<StatementListener>> listeners) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.listeners = listeners;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                recordParameter(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                this.parameters.clear();
+            } else if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            return ObservedDataSource.invoke(this.target, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            List<StatementListener> currentListeners = this.listeners.get();
+            if (currentListeners.isEmpty()) {
+                return ObservedDataSource.invoke(this.target, method, args);
+            }
+            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : this.preparedSql;
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                Object result = ObservedDataSource.invoke(this.target, method, args);
+                failed = false;
+                return result;
+            } finally {
+                StatementExecution execution = new StatementExecution(sql,
+                        Collections.unmodifiableList(new ArrayList<>(this.parameters)),
+                        start,
+                        System.nanoTime() - start,
+                        failed);
+                for (StatementListener listener : currentListeners) {
+                    try {
+                        listener.afterExecute(execution);
+                    } catch (RuntimeException exception) {
+                        LOGGER.warn("Statement listener {} failed", listener.getClass().getSimpleName(), exception);
+                    }
+                }
+            }
+        }
+
+        private void recordParameter(int index, Object value) {
+            while (this.parameters.size() < index) {
+                this.parameters.add(null);
+            }
+            this.parameters.set(index - 1, value);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package factoria.org.MyFavoriteImagesBackend.infra.jdbc;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+@Component
+public class ObservedDataSourcePostProcessor implements BeanPostProcessor, SmartInitializingSingleton {
+    private final ObjectProvider<StatementListener> statementListeners;
+
+    // Empty until every singleton exists, so statements run during startup never trigger listener creation.
+    private volatile List<StatementListener> resolvedListeners = List.of();
+
+    public ObservedDataSourcePostProcessor(ObjectProvider<StatementListener> statementListeners) {
+        this.statementListeners = statementListeners;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource) {
+            return ObservedDataSource.wrap(dataSource, () -> this.resolvedListeners);
+        }
+        return bean;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        this.resolvedListeners = this.statementListeners.orderedStream().toList();
+    }
+}
@@ -0,0 +1,177 @@
+package factoria.org.MyFavoriteImagesBackend.infra.jdbc;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logs statements slower than jdbc.slow-query.threshold-ms together with the shape of their bind
+ * parameters and the service method that issued them. On PostgreSQL the plan of slow SELECTs is captured
+ * with EXPLAIN (ANALYZE, BUFFERS) on a background thread, at most once per statement and interval. The
+ * EXPLAIN itself is not reported, and at most 1000 statements are remembered; older ones are forgotten once
+ * their interval has passed. Fast statements only pay for a comparison.
+ */
+@Component
+public class SlowQueryLogger implements StatementListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger("factoria.slow-query");
+    private static final String SERVICES_PACKAGE = "factoria.org.MyFavoriteImagesBackend.domain.services";
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance();
+    private static final int MAX_TRACKED_STATEMENTS = 1000;
+    private static final ThreadLocal<Boolean> EXPLAINING = new ThreadLocal<>();
+
+    private final ObjectProvider<DataSource> dataSource;
+    private final boolean enabled;
+    private final long thresholdNanos;
+    private final boolean explainEnabled;
+    private final long explainIntervalMillis;
+    private final Map<String, Long> lastExplained = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor explainExecutor;
+    private volatile Boolean postgres;
+
+    public SlowQueryLogger(ObjectProvider<DataSource> dataSource,
+                           @Value("${jdbc.slow-query.enabled:true}") boolean enabled,
+                           @Value("${jdbc.slow-query.threshold-ms:100}") long thresholdMillis,
+                           @Value("${jdbc.slow-query.explain:true}") boolean explainEnabled,
+                           @Value("${jdbc.slow-query.explain-interval-ms:600000}") long explainIntervalMillis) {
+        this.dataSource = dataSource;
+        this.enabled = enabled;
+        this.thresholdNanos = thresholdMillis * 1_000_000;
+        this.explainEnabled = explainEnabled;
+        this.explainIntervalMillis = explainIntervalMillis;
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(16), runnable -> {
+            Thread thread = new Thread(runnable, "slow-query-explain");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void afterExecute(StatementExecution execution) {
+        //The EXPLAIN goes through the observed data source too and is slower than the statement it explains
+        if (!this.enabled || execution.elapsedNanos() < this.thresholdNanos || execution.sql() == null || EXPLAINING.get() != null) {
+            return;
+        }
+        String caller = findCaller().orElse("unknown");
+        LOGGER.warn("Slow query ({} ms) from {}: {} parameters={}",
+                execution.elapsedNanos() / 1_000_000, caller, execution.sql(), parameterShapes(execution.parameters()));
+        if (this.explainEnabled && isExplainable(execution.sql()) && shouldExplain(execution.sql())) {
+            try {
+                this.explainExecutor.execute(() -> explain(execution, caller));
+            } catch (RejectedExecutionException exception) {
+                LOGGER.debug("Explain queue full, skipping plan capture");
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.explainExecutor.shutdownNow();
+    }
+
+    int trackedStatements() {
+        return this.lastExplained.size();
+    }
+
+    static String parameterShapes(List<Object> parameters) {
+        StringJoiner shapes = new StringJoiner(", ", "[", "]");
+        for (Object parameter : parameters) {
+            if (parameter == null) {
+                shapes.add("null");
+            } else if (parameter instanceof CharSequence text) {
+                shapes.add("String(" + text.length() + ")");
+            } else if (parameter instanceof byte[] bytes) {
+                shapes.add("byte[" + bytes.length + "]");
+            } else {
+                shapes.add(parameter.getClass().getSimpleName());
+            }
+        }
+        return shapes.toString();
+    }
+
+    private Optional<String> findCaller() {
+        return STACK_WALKER.walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith(SERVICES_PACKAGE))
+                .map(frame -> frame.getClassName().substring(SERVICES_PACKAGE.length() + 1) + "." + frame.getMethodName())
+                .findFirst());
+    }
+
+    private boolean isExplainable(String sql) {
+        return sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("select");
+    }
+
+    private boolean shouldExplain(String sql) {
+        long now = System.currentTimeMillis();
+        if (this.lastExplained.size() >= MAX_TRACKED_STATEMENTS && !this.lastExplained.containsKey(sql)) {
+            this.lastExplained.values().removeIf(explainedAt -> now - explainedAt >= this.explainIntervalMillis);
+            if (this.lastExplained.size() >= MAX_TRACKED_STATEMENTS) {
+                return false;
+            }
+        }
+        Long previous = this.lastExplained.putIfAbsent(sql, now);
+        if (previous == null) {
+            return true;
+        }
+        return now - previous >= this.explainIntervalMillis && this.lastExplained.replace(sql, previous, now);
+    }
+
+    private void explain(StatementExecution execution, String caller) {
+        EXPLAINING.set(Boolean.TRUE);
+        try (Connection connection = this.dataSource.getObject().getConnection()) {
+            if (!isPostgres(connection)) {
+                return;
+            }
+            connection.setReadOnly(true);
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + execution.sql())) {
+                List<Object> parameters = execution.parameters();
+                for (int index = 0; index < parameters.size(); index++) {
+                    if (parameters.get(index) == null) {
+                        statement.setNull(index + 1, Types.NULL);
+                    } else {
+                        statement.setObject(index + 1, parameters.get(index));
+                    }
+                }
+                StringJoiner plan = new StringJoiner(System.lineSeparator());
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        plan.add(resultSet.getString(1));
+                    }
+                }
+                LOGGER.warn("Plan of slow query from {}:{}{}", caller, System.lineSeparator(), plan);
+            } finally {
+                connection.rollback();
+            }
+        } catch (SQLException exception) {
+            LOGGER.debug("Could not capture plan for {}", execution.sql(), exception);
+        } finally {
+            EXPLAINING.remove();
+        }
+    }
+
+    private boolean isPostgres(Connection connection) throws SQLException {
+        if (this.postgres == null) {
+            this.postgres = connection.getMetaData().getDatabaseProductName().equalsIgnoreCase("PostgreSQL");
+        }
+        return this.postgres;
+    }
+}
@@ -0,0 +1,10 @@
+package factoria.org.MyFavoriteImagesBackend.infra.jdbc;
+
+import java.util.List;
+
+public record StatementExecution(String sql,
+                                 List<Object> parameters,
+                                 long startNanos,
+                                 long elapsedNanos,
+                                 boolean failed) {
+}
@@ -0,0 +1,9 @@
+package factoria.org.MyFavoriteImagesBackend.infra.jdbc;
+
+/**
+ * Callback invoked after every JDBC statement executed through the application DataSource.
+ * Implementations run on the calling thread, so they must be cheap.
+ */
+public interface StatementListener {
+    void afterExecute(StatementExecution execution);
+}
@@ -0,0 +1,10 @@
+package factoria.org.MyFavoriteImagesBackend.infra.persistence;
+
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.UserDto;
+
+/**
+ * A directory row with the value it was sorted by, so the next page can continue after it.
+ */
+public record DirectoryEntry(UserDto user,
+                             Object sortValue) {
+}
@@ -1,9 +1,124 @@
 package factoria.org.MyFavoriteImagesBackend.infra.persistence;
 
 import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
-public interface FavoriteImageRepository extends JpaRepository<FavoriteImage, Long> {
+public interface FavoriteImageRepository extends JpaRepository<FavoriteImage, Long>, ImageProjectionRepository {
+    /**
+     * Images of a soft-deleted user stay until UserPurgeService gets to them. Lookups that are not scoped to a live
+     * owner leave them out with this condition; the user restriction keeps deleted users out of the subquery.
+     */
+    String OWNER_NOT_DELETED = "(i.owner.id is null or exists (select u.id from FavoriteImageUser u where u.id = i.owner.id))";
+
+    @Query("select i from FavoriteImage i where i.id = :id and " + OWNER_NOT_DELETED)
+    Optional<FavoriteImage> findVisibleById(@Param("id") Long id);
+
+    @Query("select i from FavoriteImage i where i.id in :ids and " + OWNER_NOT_DELETED)
+    List<FavoriteImage> findAllVisibleById(@Param("ids") Collection<Long> ids);
+
+    @Query("select i from FavoriteImage i where " + OWNER_NOT_DELETED)
+    List<FavoriteImage> findAllVisible();
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select new factoria.org.MyFavoriteImagesBackend.infra.persistence.ImageText(i.id, i.owner.id, i.title, i.description) from FavoriteImage i where " + OWNER_NOT_DELETED)
+    Stream<ImageText> streamAllText();
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select new factoria.org.MyFavoriteImagesBackend.infra.persistence.ImageHash(i.id, i.owner.id, i.perceptualHash) from FavoriteImage i where i.perceptualHash is not null")
+    Stream<ImageHash> streamAllHashes();
+
+    /**
+     * One row per image and tag, plus one row with a null tag for every untagged image.
+     */
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("select new factoria.org.MyFavoriteImagesBackend.infra.persistence.ImageTag(i.id, i.owner.id, t) from FavoriteImage i left join i.tags t")
+    Stream<ImageTag> streamAllTags();
+
+    /**
+     * Batch lookup: one IN query that also fetches the URL and owner instead of a select per image. As a fetch
+     * graph it leaves the owner's image list unloaded; the owner reports its stored image count instead.
+     */
+    @EntityGraph(attributePaths = {"imageUrl", "owner"}, type = EntityGraph.EntityGraphType.FETCH)
+    @Query("select i from FavoriteImage i where i.id in :ids and " + OWNER_NOT_DELETED)
+    List<FavoriteImage> findAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new factoria.org.MyFavoriteImagesBackend.infra.persistence.ImageHash(i.id, i.owner.id, i.perceptualHash) from FavoriteImage i where i.contentKey = :contentKey")
+    List<ImageHash> findHashesByContentKey(@Param("contentKey") String contentKey);
+
+    boolean existsByOwnerUsernameAndContentKey(String username, String contentKey);
+
+    @Query("select i.perceptualHash from FavoriteImage i where i.contentKey = :contentKey and i.perceptualHash is not null")
+    List<Long> findPerceptualHashesByContentKey(@Param("contentKey") String contentKey, Pageable pageable);
+
+    @Query("select i from FavoriteImage i where i.contentKey is not null and i.perceptualHash is null order by i.id")
+    List<FavoriteImage> findUnhashedContent(Pageable pageable);
+
+    /**
+     * The hash is a function of the bytes, so it is set on every image sharing them.
+     */
+    @Modifying
+    @Query("update FavoriteImage i set i.perceptualHash = :hash where i.contentKey = :contentKey")
+    int updatePerceptualHash(@Param("contentKey") String contentKey, @Param("hash") long hash);
+
+    @Query("select max(i.sortKey) from FavoriteImage i where i.owner.id = :ownerId")
+    String findLastSortKey(@Param("ownerId") Long ownerId);
+
+    @Query("select min(i.sortKey) from FavoriteImage i where i.owner.id = :ownerId and i.sortKey > :sortKey and i.id <> :excludedId")
+    String findSortKeyAfter(@Param("ownerId") Long ownerId, @Param("sortKey") String sortKey, @Param("excludedId") Long excludedId);
+
+    @Query("select max(i.sortKey) from FavoriteImage i where i.owner.id = :ownerId and i.sortKey < :sortKey and i.id <> :excludedId")
+    String findSortKeyBefore(@Param("ownerId") Long ownerId, @Param("sortKey") String sortKey, @Param("excludedId") Long excludedId);
+
+    @Query("select max(i.sortKey) from FavoriteImage i where i.owner.id = :ownerId and i.id <> :excludedId")
+    String findLastSortKeyExcluding(@Param("ownerId") Long ownerId, @Param("excludedId") Long excludedId);
+
+    @Query("select i.id from FavoriteImage i where i.owner.id = :ownerId order by i.sortKey, i.id")
+    List<Long> findIdsByOwnerInOrder(@Param("ownerId") Long ownerId);
+
+    @Query("select i.id from FavoriteImage i where i.owner.id = :ownerId and i.id in :ids order by i.sortKey, i.id")
+    List<Long> findIdsByOwnerInOrder(@Param("ownerId") Long ownerId, @Param("ids") Collection<Long> ids);
+
+    @Query("select i from FavoriteImage i where i.owner.id = :ownerId order by i.sortKey, i.id")
+    List<FavoriteImage> findOrderedByOwner(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    /**
+     * Keyset page: the row comparison continues from the last image of the previous page through the
+     * (owner_id, sort_key, id) index instead of skipping an offset.
+     */
+    @Query("select i from FavoriteImage i where i.owner.id = :ownerId and (i.sortKey, i.id) > (:sortKey, :id) order by i.sortKey, i.id")
+    List<FavoriteImage> findOrderedByOwnerAfter(@Param("ownerId") Long ownerId, @Param("sortKey") String sortKey, @Param("id") Long id,
+                                                Pageable pageable);
+
+    @Query("select i from FavoriteImage i where i.owner.id = :ownerId and i.id <> :imageId and (i.imageUrl.id = :urlId or i.contentKey = :contentKey)")
+    List<FavoriteImage> findSameSourceByOwner(@Param("ownerId") Long ownerId, @Param("imageId") Long imageId,
+                                              @Param("urlId") Long urlId, @Param("contentKey") String contentKey);
+
+    /**
+     * PostgreSQL only: ranked match against the generated search_vector column and its GIN index. Images of
+     * deleted users are left out, as in {@link #OWNER_NOT_DELETED}.
+     */
+    @Query(value = """
+            select i.id from favorite_image i
+            where i.search_vector @@ websearch_to_tsquery('simple', :query)
+            and (i.owner_id is null or exists (select 1 from favorite_image_user u where u.id = i.owner_id and u.deleted_at is null))
+            order by ts_rank(i.search_vector, websearch_to_tsquery('simple', :query)) desc, i.id
+            limit :limit offset :offset""", nativeQuery = true)
+    List<Long> searchIdsByText(@Param("query") String query, @Param("limit") int limit, @Param("offset") long offset);
 }
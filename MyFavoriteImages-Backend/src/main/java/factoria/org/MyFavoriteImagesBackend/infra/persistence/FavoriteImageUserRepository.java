@@ -1,12 +1,34 @@
 package factoria.org.MyFavoriteImagesBackend.infra.persistence;
 
 import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImageUser;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.UserDto;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface FavoriteImageUserRepository extends JpaRepository<FavoriteImageUser, Long> {
+public interface FavoriteImageUserRepository extends JpaRepository<FavoriteImageUser, Long>, UserDirectoryRepository {
     Optional<FavoriteImageUser> findByUsername(String username);
+
+    /**
+     * Counts soft-deleted users too, which the entity's restriction hides from {@code count()}.
+     */
+    @Query(value = "select count(*) from favorite_image_user", nativeQuery = true)
+    long countIncludingDeleted();
+
+    @Query("select new factoria.org.MyFavoriteImagesBackend.infra.dtos.UserDto(u.id, u.username, u.enabled, u.roles, u.imageCount) from FavoriteImageUser u where u.id in :ids")
+    List<UserDto> findDirectoryEntriesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Flushes first so a user persisted in the same transaction already has its row.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update favorite_image_user set image_count = image_count + :delta where id = :userId", nativeQuery = true)
+    int addToImageCount(@Param("userId") Long userId, @Param("delta") int delta);
 }
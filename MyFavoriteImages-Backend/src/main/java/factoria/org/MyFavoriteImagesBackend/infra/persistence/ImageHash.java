@@ -0,0 +1,4 @@
+package factoria.org.MyFavoriteImagesBackend.infra.persistence;
+
+public record ImageHash(Long id, Long ownerId, Long hash) {
+}
@@ -0,0 +1,14 @@
+package factoria.org.MyFavoriteImagesBackend.infra.persistence;
+
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.ImageFields;
+
+import java.util.List;
+import java.util.Map;
+
+public interface ImageProjectionRepository {
+    /**
+     * Selects only the columns of the requested fields, as maps shaped like ImageDto. With an owner id the images
+     * of that owner come back in gallery order, otherwise all images in id order.
+     */
+    List<Map<String, Object>> findProjected(ImageFields fields, Long ownerId);
+}
@@ -0,0 +1,95 @@
+package factoria.org.MyFavoriteImagesBackend.infra.persistence;
+
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImageUser;
+import factoria.org.MyFavoriteImagesBackend.domain.models.ImageUrl;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.ImageFields;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.UserDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.criteria.Subquery;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A tuple query over exactly the requested columns. No entity is materialized, so the eager URL, owner and the
+ * owner's image list are never loaded; the URL and owner tables are only joined when their fields are asked for.
+ */
+public class ImageProjectionRepositoryImpl implements ImageProjectionRepository {
+    private final EntityManager entityManager;
+
+    public ImageProjectionRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Map<String, Object>> findProjected(ImageFields fields, Long ownerId) {
+        CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<FavoriteImage> image = query.from(FavoriteImage.class);
+
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(image.get("id").alias("id"));
+        if (fields.includes("title")) {
+            selections.add(image.get("title").alias("title"));
+        }
+        if (fields.includes("description")) {
+            selections.add(image.get("description").alias("description"));
+        }
+        if (fields.includes("url")) {
+            Join<FavoriteImage, ImageUrl> imageUrl = image.join("imageUrl", JoinType.LEFT);
+            selections.add(imageUrl.get("url").alias("url"));
+        }
+        if (fields.expandOwner()) {
+            Join<FavoriteImage, FavoriteImageUser> owner = image.join("owner", JoinType.LEFT);
+            selections.add(owner.get("id").alias("ownerId"));
+            selections.add(owner.get("username").alias("ownerUsername"));
+            selections.add(owner.get("enabled").alias("ownerEnabled"));
+            selections.add(owner.get("roles").alias("ownerRoles"));
+            selections.add(owner.get("imageCount").alias("ownerImageCount"));
+        }
+        query.multiselect(selections);
+        if (ownerId != null) {
+            query.where(builder.equal(image.get("owner").get("id"), ownerId))
+                    .orderBy(builder.asc(image.get("sortKey")), builder.asc(image.get("id")));
+        } else {
+            //Same condition as FavoriteImageRepository.OWNER_NOT_DELETED
+            Subquery<Long> liveOwner = query.subquery(Long.class);
+            Root<FavoriteImageUser> user = liveOwner.from(FavoriteImageUser.class);
+            liveOwner.select(user.get("id")).where(builder.equal(user.get("id"), image.get("owner").get("id")));
+            query.where(builder.or(builder.isNull(image.get("owner").get("id")), builder.exists(liveOwner)))
+                    .orderBy(builder.asc(image.get("id")));
+        }
+
+        return this.entityManager.createQuery(query).getResultList().stream()
+                .map(tuple -> toValues(tuple, fields))
+                .toList();
+    }
+
+    private static Map<String, Object> toValues(Tuple tuple, ImageFields fields) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (String field : ImageFields.IMAGE_FIELDS) {
+            if (fields.includes(field)) {
+                values.put(field, tuple.get(field));
+            }
+        }
+        if (fields.expandOwner()) {
+            Long ownerId = tuple.get("ownerId", Long.class);
+            values.put("owner", ownerId == null ? null : new UserDto(ownerId,
+                    tuple.get("ownerUsername", String.class),
+                    Boolean.TRUE.equals(tuple.get("ownerEnabled", Boolean.class)),
+                    tuple.get("ownerRoles", String.class),
+                    tuple.get("ownerImageCount", Integer.class)));
+        }
+        return values;
+    }
+}
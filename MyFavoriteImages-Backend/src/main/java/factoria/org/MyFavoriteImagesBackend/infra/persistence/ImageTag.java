@@ -0,0 +1,6 @@
+package factoria.org.MyFavoriteImagesBackend.infra.persistence;
+
+public record ImageTag(Long imageId,
+                       Long ownerId,
+                       String tag) {
+}
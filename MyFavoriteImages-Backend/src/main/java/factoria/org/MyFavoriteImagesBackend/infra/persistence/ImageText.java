@@ -0,0 +1,7 @@
+package factoria.org.MyFavoriteImagesBackend.infra.persistence;
+
+public record ImageText(Long id,
+                        Long ownerId,
+                        String title,
+                        String description) {
+}
@@ -0,0 +1,12 @@
+package factoria.org.MyFavoriteImagesBackend.infra.persistence;
+
+import factoria.org.MyFavoriteImagesBackend.domain.models.ImageUrl;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ImageUrlRepository extends JpaRepository<ImageUrl, Long> {
+    Optional<ImageUrl> findByUrl(String url);
+}
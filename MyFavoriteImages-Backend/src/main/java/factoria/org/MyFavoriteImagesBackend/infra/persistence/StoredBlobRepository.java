@@ -0,0 +1,39 @@
+package factoria.org.MyFavoriteImagesBackend.infra.persistence;
+
+import factoria.org.MyFavoriteImagesBackend.domain.models.StoredBlob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Reference counts are only changed with single-statement updates, so concurrent uploads and deletes
+ * never lose an increment.
+ */
+@Repository
+public interface StoredBlobRepository extends JpaRepository<StoredBlob, String> {
+
+    @Transactional
+    @Modifying
+    @Query("update StoredBlob b set b.refCount = b.refCount + 1, b.unreferencedSince = null where b.blobKey = :blobKey")
+    int acquire(@Param("blobKey") String blobKey);
+
+    @Transactional
+    @Modifying
+    @Query("update StoredBlob b set b.refCount = b.refCount - 1, b.unreferencedSince = :now where b.blobKey = :blobKey")
+    int release(@Param("blobKey") String blobKey, @Param("now") Instant now);
+
+    @Query("select b.blobKey from StoredBlob b where b.refCount <= 0 and b.unreferencedSince < :cutoff")
+    List<String> findUnreferenced(@Param("cutoff") Instant cutoff, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("delete from StoredBlob b where b.blobKey = :blobKey and b.refCount <= 0 and b.unreferencedSince < :cutoff")
+    int deleteUnreferenced(@Param("blobKey") String blobKey, @Param("cutoff") Instant cutoff);
+}
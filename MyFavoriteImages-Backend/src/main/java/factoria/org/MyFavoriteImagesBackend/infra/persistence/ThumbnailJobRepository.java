@@ -0,0 +1,30 @@
+package factoria.org.MyFavoriteImagesBackend.infra.persistence;
+
+import factoria.org.MyFavoriteImagesBackend.domain.models.ThumbnailJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface ThumbnailJobRepository extends JpaRepository<ThumbnailJob, Long> {
+
+    List<ThumbnailJob> findByStatusOrderByUpdatedAt(ThumbnailJob.Status status, Pageable pageable);
+
+    /**
+     * Only finishes the job if it still refers to the content that was processed; a newer request keeps it pending.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            update ThumbnailJob j set j.status = :status, j.attempts = j.attempts + :failedAttempts, j.updatedAt = :now
+            where j.imageId = :imageId and j.contentKey = :contentKey""")
+    int finish(@Param("imageId") Long imageId, @Param("contentKey") String contentKey, @Param("status") ThumbnailJob.Status status,
+               @Param("failedAttempts") int failedAttempts, @Param("now") Instant now);
+}
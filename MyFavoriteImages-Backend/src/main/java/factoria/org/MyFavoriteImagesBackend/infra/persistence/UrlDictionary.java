@@ -0,0 +1,155 @@
+package factoria.org.MyFavoriteImagesBackend.infra.persistence;
+
+import factoria.org.MyFavoriteImagesBackend.domain.models.ImageUrl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns image URLs into the image_url table so each distinct URL is stored once. Known URLs are answered
+ * from a bounded LRU cache; a new URL is inserted inside the caller's transaction with an insert that skips
+ * existing rows, so a concurrent insert of the same URL neither fails the caller nor needs a second connection.
+ * A URL inserted by the caller is only cached once its transaction commits.
+ * <p>
+ * URLs no image points to any more are marked by a background sweep, evicted from the cache, and deleted by a
+ * later sweep when they are still unreferenced after the grace period. Interning a marked URL clears its mark;
+ * as that can be rolled back with the caller's transaction, a URL interned inside a transaction is only cached
+ * once it commits, and the sweep evicts every URL it deletes.
+ */
+@Component
+public class UrlDictionary {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UrlDictionary.class);
+    private static final String POSTGRES_INSERT_SQL = "insert into image_url (id, url) values (nextval('image_url_seq'), ?) on conflict (url) do nothing";
+    private static final String INSERT_SQL = "insert into image_url (id, url) select next value for image_url_seq, ? where not exists (select 1 from image_url where url = ?)";
+    private static final String UNMARK_SQL = "update image_url set orphaned_at = null where url = ? and orphaned_at is not null";
+    private static final String MARK_ORPHANS_SQL = """
+            update image_url set orphaned_at = ?
+            where orphaned_at is null
+              and not exists (select 1 from favorite_image i where i.url_id = image_url.id)""";
+    private static final String MARKED_URLS_SQL = "select url from image_url where orphaned_at = ?";
+    private static final String EXPIRED_ORPHANS_SQL = """
+            select id, url from image_url
+            where orphaned_at < ?
+              and not exists (select 1 from favorite_image i where i.url_id = image_url.id)""";
+    private static final String DELETE_ORPHAN_SQL = """
+            delete from image_url
+            where id = ? and orphaned_at < ?
+              and not exists (select 1 from favorite_image i where i.url_id = image_url.id)""";
+
+    private final ImageUrlRepository imageUrlRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean postgres;
+    private final Duration orphanGracePeriod;
+    private final Map<String, ImageUrl> cache;
+
+    public UrlDictionary(ImageUrlRepository imageUrlRepository, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                         @Value("${spring.datasource.url}") String datasourceUrl,
+                         @Value("${images.url-cache.max-entries:100000}") int maxCachedUrls,
+                         @Value("${images.url-cache.orphan-grace-period:PT1H}") Duration orphanGracePeriod) {
+        this.imageUrlRepository = imageUrlRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.postgres = DatabaseDriver.fromJdbcUrl(datasourceUrl) == DatabaseDriver.POSTGRESQL;
+        this.orphanGracePeriod = orphanGracePeriod;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ImageUrl> eldest) {
+                return size() > maxCachedUrls;
+            }
+        };
+    }
+
+    public ImageUrl intern(String url) {
+        if (url == null) {
+            return null;
+        }
+        ImageUrl imageUrl;
+        synchronized (this.cache) {
+            imageUrl = this.cache.get(url);
+        }
+        if (imageUrl != null) {
+            return imageUrl;
+        }
+        insertIfAbsent(url);
+        this.jdbcTemplate.update(UNMARK_SQL, url);
+        ImageUrl found = this.imageUrlRepository.findByUrl(url).orElseThrow();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            //A rollback takes the new row or the cleared mark with it, so neither may outlive the transaction in the cache
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache(url, found);
+                }
+            });
+        } else {
+            cache(url, found);
+        }
+        return found;
+    }
+
+    @Scheduled(fixedDelayString = "${images.url-cache.cleanup-interval-ms:3600000}", initialDelayString = "${images.url-cache.cleanup-interval-ms:3600000}")
+    public void removeOrphans() {
+        //Millisecond precision so the marked rows can be found again by their stamp on any database
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Timestamp expiredBefore = Timestamp.from(now.minus(this.orphanGracePeriod));
+        List<Map<String, Object>> expired = this.transactionTemplate.execute(status -> {
+            List<Map<String, Object>> rows = this.jdbcTemplate.queryForList(EXPIRED_ORPHANS_SQL, expiredBefore);
+            if (!rows.isEmpty()) {
+                this.jdbcTemplate.batchUpdate(DELETE_ORPHAN_SQL, rows.stream()
+                        .map(row -> new Object[]{row.get("id"), expiredBefore})
+                        .toList());
+            }
+            return rows;
+        });
+        int deleted = expired.size();
+        Timestamp markedAt = Timestamp.from(now);
+        List<String> marked = this.transactionTemplate.execute(status -> {
+            this.jdbcTemplate.update(MARK_ORPHANS_SQL, markedAt);
+            return this.jdbcTemplate.queryForList(MARKED_URLS_SQL, String.class, markedAt);
+        });
+        //Later uses go through the database and clear the mark, or insert the deleted URL again
+        synchronized (this.cache) {
+            expired.forEach(row -> this.cache.remove((String) row.get("url")));
+            marked.forEach(this.cache::remove);
+        }
+        if (deleted > 0 || !marked.isEmpty()) {
+            LOGGER.info("Deleted {} unreferenced image URLs and marked {} more", deleted, marked.size());
+        }
+    }
+
+    private void insertIfAbsent(String url) {
+        if (this.postgres) {
+            this.jdbcTemplate.update(POSTGRES_INSERT_SQL, url);
+            return;
+        }
+        try {
+            this.jdbcTemplate.update(INSERT_SQL, url, url);
+        } catch (DataIntegrityViolationException exception) {
+            //A concurrent insert won; only this statement failed, not the caller's transaction
+        }
+    }
+
+    private void cache(String url, ImageUrl imageUrl) {
+        synchronized (this.cache) {
+            this.cache.put(url, imageUrl);
+        }
+    }
+}
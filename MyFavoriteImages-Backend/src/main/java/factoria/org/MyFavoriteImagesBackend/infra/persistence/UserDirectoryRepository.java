@@ -0,0 +1,13 @@
+package factoria.org.MyFavoriteImagesBackend.infra.persistence;
+
+import java.util.List;
+
+public interface UserDirectoryRepository {
+    /**
+     * Returns users as projections, without touching their images. Null filters are left out of the query.
+     * {@code role} matches one of the space separated roles; results are ordered by {@code sortAttribute} then id and
+     * start right after the row with {@code afterSortValue} and {@code afterId}, or at the top when afterId is null.
+     */
+    List<DirectoryEntry> findDirectoryPage(String usernamePrefix, Boolean enabled, String role, String sortAttribute, boolean ascending,
+                                           Object afterSortValue, Long afterId, int limit);
+}
@@ -0,0 +1,82 @@
+package factoria.org.MyFavoriteImagesBackend.infra.persistence;
+
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImageUser;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.UserDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds only the predicates that are set, so each combination of filters gets its own plan instead of one
+ * generic plan full of {@code :param is null or ...} branches. Pages continue after the last (sort value, id)
+ * seen, so deep pages are read from the sort index instead of skipping over every earlier row.
+ */
+public class UserDirectoryRepositoryImpl implements UserDirectoryRepository {
+    private static final char ESCAPE = '\\';
+
+    private final EntityManager entityManager;
+
+    public UserDirectoryRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<DirectoryEntry> findDirectoryPage(String usernamePrefix, Boolean enabled, String role, String sortAttribute, boolean ascending,
+                                                  Object afterSortValue, Long afterId, int limit) {
+        CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<FavoriteImageUser> user = query.from(FavoriteImageUser.class);
+        Path<Comparable<Object>> sortPath = user.get(sortAttribute);
+        Path<Long> idPath = user.get("id");
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (usernamePrefix != null && !usernamePrefix.isEmpty()) {
+            predicates.add(builder.like(user.get("username"), escapeLike(usernamePrefix) + "%", ESCAPE));
+        }
+        if (enabled != null) {
+            predicates.add(builder.equal(user.get("enabled"), enabled));
+        }
+        if (role != null && !role.isEmpty()) {
+            predicates.add(builder.like(builder.concat(builder.concat(" ", user.get("roles")), " "), "% " + escapeLike(role) + " %", ESCAPE));
+        }
+        if (afterId != null) {
+            @SuppressWarnings("unchecked")
+            Comparable<Object> sortValue = (Comparable<Object>) afterSortValue;
+            predicates.add(ascending
+                    ? builder.or(builder.greaterThan(sortPath, sortValue),
+                            builder.and(builder.equal(sortPath, sortValue), builder.greaterThan(idPath, afterId)))
+                    : builder.or(builder.lessThan(sortPath, sortValue),
+                            builder.and(builder.equal(sortPath, sortValue), builder.lessThan(idPath, afterId))));
+        }
+        Order order = ascending ? builder.asc(sortPath) : builder.desc(sortPath);
+        Order tieBreaker = ascending ? builder.asc(idPath) : builder.desc(idPath);
+
+        query.multiselect(idPath,
+                        user.get("username"),
+                        user.get("enabled"),
+                        user.get("roles"),
+                        user.get("imageCount"),
+                        sortPath)
+                .where(predicates.toArray(Predicate[]::new))
+                .orderBy(order, tieBreaker);
+        return this.entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(row -> new DirectoryEntry(new UserDto(row.get(0, Long.class), row.get(1, String.class), row.get(2, Boolean.class),
+                        row.get(3, String.class), row.get(4, Integer.class)), row.get(5)))
+                .toList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,19 @@
+package factoria.org.MyFavoriteImagesBackend.infra.profiling;
+
+import jdk.jfr.Event;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base class of the application's JFR events. Usable in try-with-resources: closing the event ends it
+ * and commits it only when a recording has it enabled, so the cost is negligible otherwise.
+ */
+@StackTrace(false)
+public abstract class DomainEvent extends Event implements AutoCloseable {
+    @Override
+    public void close() {
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package factoria.org.MyFavoriteImagesBackend.infra.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("factoria.ImageOperation")
+@Label("Image Operation")
+@Category({"MyFavoriteImages", "Domain"})
+@Description("A FavoriteImageService call with the image it touched")
+public class ImageOperationEvent extends DomainEvent {
+    @Label("Operation")
+    String operation;
+
+    @Label("Image Id")
+    long imageId;
+
+    @Label("Result Count")
+    int resultCount;
+
+    public static ImageOperationEvent start(String operation, Long imageId) {
+        ImageOperationEvent event = new ImageOperationEvent();
+        event.operation = operation;
+        event.setImageId(imageId);
+        event.begin();
+        return event;
+    }
+
+    public void setImageId(Long imageId) {
+        this.imageId = imageId == null ? -1 : imageId;
+    }
+
+    public void setResultCount(int resultCount) {
+        this.resultCount = resultCount;
+    }
+}
@@ -0,0 +1,29 @@
+package factoria.org.MyFavoriteImagesBackend.infra.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("factoria.PasswordHash")
+@Label("Password Hash")
+@Category({"MyFavoriteImages", "Security"})
+@Description("A password encode or match performed by the application PasswordEncoder")
+public class PasswordHashEvent extends DomainEvent {
+    @Label("Operation")
+    String operation;
+
+    @Label("Matched")
+    boolean matched;
+
+    public static PasswordHashEvent start(String operation) {
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.operation = operation;
+        event.begin();
+        return event;
+    }
+
+    public void setMatched(boolean matched) {
+        this.matched = matched;
+    }
+}
@@ -0,0 +1,32 @@
+package factoria.org.MyFavoriteImagesBackend.infra.profiling;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+public class ProfiledPasswordEncoder implements PasswordEncoder {
+    private final PasswordEncoder delegate;
+
+    public ProfiledPasswordEncoder(PasswordEncoder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        try (PasswordHashEvent ignored = PasswordHashEvent.start("encode")) {
+            return this.delegate.encode(rawPassword);
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        try (PasswordHashEvent event = PasswordHashEvent.start("matches")) {
+            boolean matched = this.delegate.matches(rawPassword, encodedPassword);
+            event.setMatched(matched);
+            return matched;
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return this.delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,56 @@
+package factoria.org.MyFavoriteImagesBackend.infra.profiling;
+
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.infra.MyUserPrincipal;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Wraps the profiled calls in their JFR events, so the profiled classes themselves stay untouched.
+ */
+@Aspect
+@Component
+public class ProfilingAspect {
+
+    @Around("execution(public * factoria.org.MyFavoriteImagesBackend.domain.services.FavoriteImageService.*(..))")
+    public Object profileImageOperation(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object[] args = joinPoint.getArgs();
+        Object firstArg = args.length > 0 ? args[0] : null;
+        Long imageId = firstArg instanceof Long id ? id : firstArg instanceof FavoriteImage image ? image.getId() : null;
+        try (ImageOperationEvent event = ImageOperationEvent.start(joinPoint.getSignature().getName(), imageId)) {
+            Object result = joinPoint.proceed();
+            if (result instanceof FavoriteImage image) {
+                event.setImageId(image.getId());
+            } else if (result instanceof Collection<?> images) {
+                event.setResultCount(images.size());
+            } else if (result instanceof Map<?, ?> images) {
+                event.setResultCount(images.size());
+            }
+            return result;
+        }
+    }
+
+    @Around("execution(* factoria.org.MyFavoriteImagesBackend.domain.services.FavoriteImageUserService.loadUserByUsername(String)) && args(username)")
+    public Object profileUserLookup(ProceedingJoinPoint joinPoint, String username) throws Throwable {
+        try (UserLookupEvent event = UserLookupEvent.start(username)) {
+            Object result = joinPoint.proceed();
+            if (result instanceof MyUserPrincipal principal) {
+                event.setUserId(principal.getUser().getId());
+            }
+            return result;
+        }
+    }
+
+    @Around("execution(* factoria.org.MyFavoriteImagesBackend.config.security.JwtProvider.createToken(..)) && args(authentication)")
+    public Object profileTokenIssue(ProceedingJoinPoint joinPoint, Authentication authentication) throws Throwable {
+        try (TokenIssuedEvent ignored = TokenIssuedEvent.start(authentication.getName())) {
+            return joinPoint.proceed();
+        }
+    }
+}
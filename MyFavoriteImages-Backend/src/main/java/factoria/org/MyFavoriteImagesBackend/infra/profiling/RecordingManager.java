@@ -0,0 +1,164 @@
+package factoria.org.MyFavoriteImagesBackend.infra.profiling;
+
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Starts and stops on-demand Java Flight Recorder recordings. Recordings use the JDK "profile" settings,
+ * which together with the application events in this package is enough to line up CPU and allocation
+ * samples with domain operations.
+ * <p>
+ * Only running recordings are held open. Once one stops, by request or at its maximum duration, it is closed
+ * and just its description is kept, for the most recent few, so its file can still be downloaded. Its snapshot
+ * is deleted when it stops, and its file when it is pushed out of the most recent few.
+ */
+@Component
+public class RecordingManager {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RecordingManager.class);
+
+    private final Path recordingsDirectory;
+    private final Map<Long, Recording> recordings = new ConcurrentHashMap<>();
+    private final Map<Long, RecordingInfo> finishedRecordings;
+
+    public RecordingManager(@Value("${profiling.recordings-dir:recordings}") String recordingsDirectory,
+                            @Value("${profiling.max-finished-recordings:20}") int maxFinishedRecordings) {
+        this.recordingsDirectory = Path.of(recordingsDirectory);
+        this.finishedRecordings = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, RecordingInfo> eldest) {
+                if (size() <= maxFinishedRecordings) {
+                    return false;
+                }
+                delete(Path.of(eldest.getValue().file()));
+                return true;
+            }
+        };
+    }
+
+    public RecordingInfo start(Duration maxDuration) throws IOException, ParseException {
+        releaseFinished();
+        Files.createDirectories(this.recordingsDirectory);
+        Recording recording = new Recording(Configuration.getConfiguration("profile"));
+        recording.setName("on-demand-" + recording.getId() + "-" + System.currentTimeMillis());
+        recording.setToDisk(true);
+        recording.setDestination(this.recordingsDirectory.resolve(recording.getName() + ".jfr"));
+        if (maxDuration != null) {
+            recording.setDuration(maxDuration);
+        }
+        recording.start();
+        this.recordings.put(recording.getId(), recording);
+        return RecordingInfo.of(recording);
+    }
+
+    public RecordingInfo stop(Long recordingId) {
+        releaseFinished();
+        Recording recording = this.recordings.get(recordingId);
+        if (recording == null) {
+            return findFinished(recordingId);
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        return release(recording);
+    }
+
+    /**
+     * Returns the file of a finished recording, or a snapshot of what a running recording has collected so far.
+     */
+    public Path export(Long recordingId) throws IOException {
+        releaseFinished();
+        Recording recording = this.recordings.get(recordingId);
+        if (recording == null) {
+            return Path.of(findFinished(recordingId).file());
+        }
+        Path snapshot = snapshotOf(recording);
+        recording.dump(snapshot);
+        return snapshot;
+    }
+
+    public List<RecordingInfo> findAll() {
+        releaseFinished();
+        List<RecordingInfo> recordingInfos = new ArrayList<>();
+        this.recordings.values().forEach(recording -> recordingInfos.add(RecordingInfo.of(recording)));
+        synchronized (this.finishedRecordings) {
+            recordingInfos.addAll(this.finishedRecordings.values());
+        }
+        return recordingInfos;
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        this.recordings.values().forEach(Recording::close);
+        this.recordings.clear();
+    }
+
+    /**
+     * Closes the recordings that reached their maximum duration since the last call.
+     */
+    private void releaseFinished() {
+        this.recordings.values().stream()
+                .filter(recording -> recording.getState() != RecordingState.NEW && recording.getState() != RecordingState.RUNNING)
+                .forEach(this::release);
+    }
+
+    private RecordingInfo release(Recording recording) {
+        RecordingInfo recordingInfo = RecordingInfo.of(recording);
+        if (this.recordings.remove(recording.getId(), recording)) {
+            recording.close();
+            //The recording file now holds everything the snapshot had
+            delete(snapshotOf(recording));
+            synchronized (this.finishedRecordings) {
+                this.finishedRecordings.put(recordingInfo.id(), recordingInfo);
+            }
+        }
+        return recordingInfo;
+    }
+
+    private Path snapshotOf(Recording recording) {
+        return this.recordingsDirectory.resolve(recording.getName() + "-snapshot.jfr");
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException exception) {
+            LOGGER.warn("Could not delete recording file {}", file, exception);
+        }
+    }
+
+    private RecordingInfo findFinished(Long recordingId) {
+        RecordingInfo recordingInfo;
+        synchronized (this.finishedRecordings) {
+            recordingInfo = this.finishedRecordings.get(recordingId);
+        }
+        if (recordingInfo == null) {
+            throw new ObjectNotFoundException("recording", recordingId);
+        }
+        return recordingInfo;
+    }
+
+    public record RecordingInfo(long id, String name, String state, String file) {
+        static RecordingInfo of(Recording recording) {
+            return new RecordingInfo(recording.getId(), recording.getName(), recording.getState().name(),
+                    String.valueOf(recording.getDestination()));
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package factoria.org.MyFavoriteImagesBackend.infra.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("factoria.TokenIssued")
+@Label("Token Issued")
+@Category({"MyFavoriteImages", "Security"})
+@Description("JwtProvider.createToken signing a JSON Web Token")
+public class TokenIssuedEvent extends DomainEvent {
+    @Label("Subject")
+    String subject;
+
+    public static TokenIssuedEvent start(String subject) {
+        TokenIssuedEvent event = new TokenIssuedEvent();
+        event.subject = subject;
+        event.begin();
+        return event;
+    }
+}
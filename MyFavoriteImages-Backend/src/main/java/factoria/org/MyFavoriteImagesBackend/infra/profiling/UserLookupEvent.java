@@ -0,0 +1,33 @@
+package factoria.org.MyFavoriteImagesBackend.infra.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("factoria.UserLookup")
+@Label("User Lookup")
+@Category({"MyFavoriteImages", "Security"})
+@Description("FavoriteImageUserService.loadUserByUsername, including the EAGER image collection load")
+public class UserLookupEvent extends DomainEvent {
+    @Label("Username")
+    String username;
+
+    @Label("User Id")
+    long userId = -1;
+
+    @Label("Found")
+    boolean found;
+
+    public static UserLookupEvent start(String username) {
+        UserLookupEvent event = new UserLookupEvent();
+        event.username = username;
+        event.begin();
+        return event;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+        this.found = true;
+    }
+}
@@ -11,5 +11,9 @@ public class StatusCode {
 
     public static final int NOT_FOUND = 404; // Not found
 
+    public static final int CONFLICT = 409; // Request conflicts with the current state, e.g., wrong upload offset
+
+    public static final int FAILED_DEPENDENCY = 424; // Depended on an operation that failed, e.g., a rolled back atomic batch
+
     public static final int INTERNAL_SERVER_ERROR = 500; // Server internal error
 }
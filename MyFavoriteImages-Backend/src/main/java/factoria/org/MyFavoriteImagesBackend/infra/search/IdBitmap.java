@@ -0,0 +1,489 @@
+package factoria.org.MyFavoriteImagesBackend.infra.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compressed set of non-negative ids in the style of Roaring bitmaps. Ids are grouped by their high bits and the
+ * low 16 bits of each group are kept either as a sorted array (sparse groups, up to 4096 members, 2 bytes each) or
+ * as a 65536-bit bitmap (dense groups, 8 KB). Set operations walk both bitmaps group by group and pick the cheapest
+ * algorithm for each pair of representations, so intersecting a small set with a large one costs roughly the size
+ * of the small one. Not thread-safe.
+ */
+public final class IdBitmap {
+    private static final int ARRAY_LIMIT = 4096;
+
+    private long[] keys = new long[4];
+    private Container[] containers = new Container[4];
+    private int size;
+
+    public void add(long id) {
+        long key = id >>> 16;
+        int index = indexOf(key);
+        if (index >= 0) {
+            this.containers[index] = this.containers[index].add((char) id);
+        } else {
+            ArrayContainer container = new ArrayContainer(4);
+            container.add((char) id);
+            insert(-index - 1, key, container);
+        }
+    }
+
+    public void remove(long id) {
+        int index = indexOf(id >>> 16);
+        if (index < 0) {
+            return;
+        }
+        Container container = this.containers[index].remove((char) id);
+        if (container.cardinality() == 0) {
+            System.arraycopy(this.keys, index + 1, this.keys, index, this.size - index - 1);
+            System.arraycopy(this.containers, index + 1, this.containers, index, this.size - index - 1);
+            this.containers[--this.size] = null;
+        } else {
+            this.containers[index] = container;
+        }
+    }
+
+    public boolean contains(long id) {
+        int index = indexOf(id >>> 16);
+        return index >= 0 && this.containers[index].contains((char) id);
+    }
+
+    public long cardinality() {
+        long cardinality = 0;
+        for (int index = 0; index < this.size; index++) {
+            cardinality += this.containers[index].cardinality();
+        }
+        return cardinality;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    public IdBitmap and(IdBitmap other) {
+        IdBitmap result = new IdBitmap();
+        int left = 0;
+        int right = 0;
+        while (left < this.size && right < other.size) {
+            long leftKey = this.keys[left];
+            long rightKey = other.keys[right];
+            if (leftKey < rightKey) {
+                left++;
+            } else if (leftKey > rightKey) {
+                right++;
+            } else {
+                result.append(leftKey, this.containers[left++].and(other.containers[right++]));
+            }
+        }
+        return result;
+    }
+
+    public IdBitmap andNot(IdBitmap other) {
+        IdBitmap result = new IdBitmap();
+        int right = 0;
+        for (int left = 0; left < this.size; left++) {
+            long key = this.keys[left];
+            while (right < other.size && other.keys[right] < key) {
+                right++;
+            }
+            if (right < other.size && other.keys[right] == key) {
+                result.append(key, this.containers[left].andNot(other.containers[right]));
+            } else {
+                result.append(key, this.containers[left].copy());
+            }
+        }
+        return result;
+    }
+
+    public IdBitmap or(IdBitmap other) {
+        IdBitmap result = new IdBitmap();
+        int left = 0;
+        int right = 0;
+        while (left < this.size || right < other.size) {
+            if (right == other.size || (left < this.size && this.keys[left] < other.keys[right])) {
+                result.append(this.keys[left], this.containers[left++].copy());
+            } else if (left == this.size || other.keys[right] < this.keys[left]) {
+                result.append(other.keys[right], other.containers[right++].copy());
+            } else {
+                result.append(this.keys[left], this.containers[left++].or(other.containers[right++]));
+            }
+        }
+        return result;
+    }
+
+    public IdBitmap copy() {
+        IdBitmap result = new IdBitmap();
+        for (int index = 0; index < this.size; index++) {
+            result.append(this.keys[index], this.containers[index].copy());
+        }
+        return result;
+    }
+
+    /**
+     * Returns up to {@code limit} ids in ascending order, skipping the first {@code offset}. Whole groups are
+     * skipped by their cardinality without being expanded.
+     */
+    public List<Long> page(long offset, int limit) {
+        List<Long> ids = new ArrayList<>(Math.min(limit, 1024));
+        long skip = offset;
+        for (int index = 0; index < this.size && ids.size() < limit; index++) {
+            Container container = this.containers[index];
+            int cardinality = container.cardinality();
+            if (skip >= cardinality) {
+                skip -= cardinality;
+                continue;
+            }
+            container.appendTo(this.keys[index] << 16, (int) skip, limit, ids);
+            skip = 0;
+        }
+        return ids;
+    }
+
+    private int indexOf(long key) {
+        return Arrays.binarySearch(this.keys, 0, this.size, key);
+    }
+
+    private void insert(int index, long key, Container container) {
+        ensureCapacity();
+        System.arraycopy(this.keys, index, this.keys, index + 1, this.size - index);
+        System.arraycopy(this.containers, index, this.containers, index + 1, this.size - index);
+        this.keys[index] = key;
+        this.containers[index] = container;
+        this.size++;
+    }
+
+    private void append(long key, Container container) {
+        if (container.cardinality() == 0) {
+            return;
+        }
+        ensureCapacity();
+        this.keys[this.size] = key;
+        this.containers[this.size] = container;
+        this.size++;
+    }
+
+    private void ensureCapacity() {
+        if (this.size == this.keys.length) {
+            this.keys = Arrays.copyOf(this.keys, this.size * 2);
+            this.containers = Arrays.copyOf(this.containers, this.size * 2);
+        }
+    }
+
+    private abstract static class Container {
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int cardinality();
+
+        abstract Container and(Container other);
+
+        abstract Container andNot(Container other);
+
+        abstract Container or(Container other);
+
+        abstract Container copy();
+
+        abstract void appendTo(long high, int skip, int limit, List<Long> ids);
+    }
+
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+        private int size;
+
+        private ArrayContainer(int capacity) {
+            this.values = new char[capacity];
+        }
+
+        private ArrayContainer(char[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        Container add(char value) {
+            int index = Arrays.binarySearch(this.values, 0, this.size, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (this.size == ARRAY_LIMIT) {
+                return toBitmap().add(value);
+            }
+            if (this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values, Math.min(ARRAY_LIMIT, Math.max(4, this.size * 2)));
+            }
+            int insertion = -index - 1;
+            System.arraycopy(this.values, insertion, this.values, insertion + 1, this.size - insertion);
+            this.values[insertion] = value;
+            this.size++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int index = Arrays.binarySearch(this.values, 0, this.size, value);
+            if (index >= 0) {
+                System.arraycopy(this.values, index + 1, this.values, index, this.size - index - 1);
+                this.size--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(this.values, 0, this.size, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return this.size;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] result = new char[this.size];
+            int count = 0;
+            if (other instanceof ArrayContainer array) {
+                int left = 0;
+                int right = 0;
+                while (left < this.size && right < array.size) {
+                    char leftValue = this.values[left];
+                    char rightValue = array.values[right];
+                    if (leftValue < rightValue) {
+                        left++;
+                    } else if (leftValue > rightValue) {
+                        right++;
+                    } else {
+                        result[count++] = leftValue;
+                        left++;
+                        right++;
+                    }
+                }
+            } else {
+                for (int index = 0; index < this.size; index++) {
+                    if (other.contains(this.values[index])) {
+                        result[count++] = this.values[index];
+                    }
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        Container andNot(Container other) {
+            char[] result = new char[this.size];
+            int count = 0;
+            if (other instanceof ArrayContainer array) {
+                int right = 0;
+                for (int left = 0; left < this.size; left++) {
+                    char value = this.values[left];
+                    while (right < array.size && array.values[right] < value) {
+                        right++;
+                    }
+                    if (right == array.size || array.values[right] != value) {
+                        result[count++] = value;
+                    }
+                }
+            } else {
+                for (int index = 0; index < this.size; index++) {
+                    if (!other.contains(this.values[index])) {
+                        result[count++] = this.values[index];
+                    }
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer bitmap) {
+                return bitmap.or(this);
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            if (this.size + array.size > ARRAY_LIMIT) {
+                return toBitmap().or(array);
+            }
+            char[] result = new char[this.size + array.size];
+            int count = 0;
+            int left = 0;
+            int right = 0;
+            while (left < this.size || right < array.size) {
+                if (right == array.size || (left < this.size && this.values[left] < array.values[right])) {
+                    result[count++] = this.values[left++];
+                } else if (left == this.size || array.values[right] < this.values[left]) {
+                    result[count++] = array.values[right++];
+                } else {
+                    result[count++] = this.values[left++];
+                    right++;
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(this.values, Math.max(this.size, 1)), this.size);
+        }
+
+        @Override
+        void appendTo(long high, int skip, int limit, List<Long> ids) {
+            for (int index = skip; index < this.size && ids.size() < limit; index++) {
+                ids.add(high | this.values[index]);
+            }
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer(new long[1024], 0);
+            for (int index = 0; index < this.size; index++) {
+                bitmap.add(this.values[index]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+        private int cardinality;
+
+        private BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        Container add(char value) {
+            long mask = 1L << value;
+            if ((this.words[value >>> 6] & mask) == 0) {
+                this.words[value >>> 6] |= mask;
+                this.cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long mask = 1L << value;
+            if ((this.words[value >>> 6] & mask) != 0) {
+                this.words[value >>> 6] &= ~mask;
+                this.cardinality--;
+            }
+            return this.cardinality <= ARRAY_LIMIT ? toArray() : this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (this.words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return this.cardinality;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            long[] result = new long[1024];
+            int count = 0;
+            for (int index = 0; index < result.length; index++) {
+                result[index] = this.words[index] & otherWords[index];
+                count += Long.bitCount(result[index]);
+            }
+            return shrink(new BitmapContainer(result, count));
+        }
+
+        @Override
+        Container andNot(Container other) {
+            long[] result = this.words.clone();
+            int count = this.cardinality;
+            if (other instanceof ArrayContainer array) {
+                for (int index = 0; index < array.size; index++) {
+                    char value = array.values[index];
+                    long mask = 1L << value;
+                    if ((result[value >>> 6] & mask) != 0) {
+                        result[value >>> 6] &= ~mask;
+                        count--;
+                    }
+                }
+            } else {
+                long[] otherWords = ((BitmapContainer) other).words;
+                count = 0;
+                for (int index = 0; index < result.length; index++) {
+                    result[index] &= ~otherWords[index];
+                    count += Long.bitCount(result[index]);
+                }
+            }
+            return shrink(new BitmapContainer(result, count));
+        }
+
+        @Override
+        Container or(Container other) {
+            BitmapContainer result = new BitmapContainer(this.words.clone(), this.cardinality);
+            if (other instanceof ArrayContainer array) {
+                for (int index = 0; index < array.size; index++) {
+                    result.add(array.values[index]);
+                }
+                return result;
+            }
+            long[] otherWords = ((BitmapContainer) other).words;
+            int count = 0;
+            for (int index = 0; index < result.words.length; index++) {
+                result.words[index] |= otherWords[index];
+                count += Long.bitCount(result.words[index]);
+            }
+            result.cardinality = count;
+            return result;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(this.words.clone(), this.cardinality);
+        }
+
+        @Override
+        void appendTo(long high, int skip, int limit, List<Long> ids) {
+            int remaining = skip;
+            for (int index = 0; index < this.words.length && ids.size() < limit; index++) {
+                long word = this.words[index];
+                int bits = Long.bitCount(word);
+                if (remaining >= bits) {
+                    remaining -= bits;
+                    continue;
+                }
+                while (word != 0 && ids.size() < limit) {
+                    int bit = Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    if (remaining > 0) {
+                        remaining--;
+                    } else {
+                        ids.add(high | ((long) index << 6 | bit));
+                    }
+                }
+            }
+        }
+
+        private static Container shrink(BitmapContainer bitmap) {
+            return bitmap.cardinality <= ARRAY_LIMIT ? bitmap.toArray() : bitmap;
+        }
+
+        private ArrayContainer toArray() {
+            char[] values = new char[Math.max(this.cardinality, 1)];
+            int count = 0;
+            for (int index = 0; index < this.words.length; index++) {
+                long word = this.words[index];
+                while (word != 0) {
+                    values[count++] = (char) (index << 6 | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, count);
+        }
+    }
+}
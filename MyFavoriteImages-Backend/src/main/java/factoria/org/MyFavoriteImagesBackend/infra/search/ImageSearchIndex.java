@@ -0,0 +1,11 @@
+package factoria.org.MyFavoriteImagesBackend.infra.search;
+
+import java.util.List;
+
+public interface ImageSearchIndex {
+    /**
+     * Returns the ids of the images whose title or description match every term of the query,
+     * best match first.
+     */
+    List<Long> search(String query, long offset, int limit);
+}
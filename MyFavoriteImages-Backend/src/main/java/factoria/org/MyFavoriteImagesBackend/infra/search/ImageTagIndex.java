@@ -0,0 +1,175 @@
+package factoria.org.MyFavoriteImagesBackend.infra.search;
+
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageTagsChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.ImageTag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Inverted index from tag to a compressed bitmap of image ids, plus one bitmap of all images per owner.
+ * A filter such as "a AND b NOT c" for one user is the owner's bitmap intersected with the bitmaps of a and b,
+ * smallest first, minus the bitmap of c, instead of one join per tag in SQL.
+ */
+@Component
+public class ImageTagIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImageTagIndex.class);
+
+    private final FavoriteImageRepository imageRepository;
+    private final Map<String, IdBitmap> imagesByTag = new HashMap<>();
+    private final Map<Long, IdBitmap> imagesByOwner = new HashMap<>();
+    private final Map<Long, Set<String>> tagsByImage = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public ImageTagIndex(FavoriteImageRepository imageRepository) {
+        this.imageRepository = imageRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        this.lock.writeLock().lock();
+        try {
+            this.imagesByTag.clear();
+            this.imagesByOwner.clear();
+            this.tagsByImage.clear();
+            try (Stream<ImageTag> rows = this.imageRepository.streamAllTags()) {
+                rows.forEach(row -> {
+                    addImageUnlocked(row.ownerId(), row.imageId());
+                    if (row.tag() != null) {
+                        addTagUnlocked(row.imageId(), row.tag());
+                    }
+                });
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        LOGGER.info("Indexed {} tags of {} owners", this.imagesByTag.size(), this.imagesByOwner.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImageChanged(ImageChangedEvent event) {
+        if (event.imageId() == null || event.ownerId() == null) {
+            return;
+        }
+        this.lock.writeLock().lock();
+        try {
+            if (event.type() == ImageChangedEvent.ChangeType.DELETED) {
+                removeImageUnlocked(event.ownerId(), event.imageId());
+            } else {
+                addImageUnlocked(event.ownerId(), event.imageId());
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTagsChanged(ImageTagsChangedEvent event) {
+        this.lock.writeLock().lock();
+        try {
+            removeTagsUnlocked(event.imageId());
+            addImageUnlocked(event.ownerId(), event.imageId());
+            event.tags().forEach(tag -> addTagUnlocked(event.imageId(), tag));
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the owner's images carrying every tag of {@code allOf}, at least one of {@code anyOf} when it is
+     * not empty, and none of {@code noneOf}. The result is a private copy the caller may page through freely.
+     */
+    public IdBitmap filter(Long ownerId, Collection<String> allOf, Collection<String> anyOf, Collection<String> noneOf) {
+        this.lock.readLock().lock();
+        try {
+            IdBitmap ownerImages = this.imagesByOwner.get(ownerId);
+            if (ownerImages == null) {
+                return new IdBitmap();
+            }
+            List<IdBitmap> required = allOf.stream()
+                    .map(tag -> this.imagesByTag.getOrDefault(tag, new IdBitmap()))
+                    .sorted(Comparator.comparingLong(IdBitmap::cardinality))
+                    .toList();
+            IdBitmap result = ownerImages;
+            for (IdBitmap tagImages : required) {
+                result = result.and(tagImages);
+                if (result.isEmpty()) {
+                    return result;
+                }
+            }
+            if (!anyOf.isEmpty()) {
+                IdBitmap union = new IdBitmap();
+                for (String tag : anyOf) {
+                    IdBitmap tagImages = this.imagesByTag.get(tag);
+                    if (tagImages != null) {
+                        union = union.or(tagImages);
+                    }
+                }
+                result = result.and(union);
+            }
+            for (String tag : noneOf) {
+                IdBitmap tagImages = this.imagesByTag.get(tag);
+                if (tagImages != null) {
+                    result = result.andNot(tagImages);
+                }
+            }
+            return result == ownerImages ? result.copy() : result;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private void addImageUnlocked(Long ownerId, Long imageId) {
+        if (ownerId != null) {
+            this.imagesByOwner.computeIfAbsent(ownerId, id -> new IdBitmap()).add(imageId);
+        }
+    }
+
+    private void addTagUnlocked(Long imageId, String tag) {
+        this.imagesByTag.computeIfAbsent(tag, key -> new IdBitmap()).add(imageId);
+        this.tagsByImage.computeIfAbsent(imageId, id -> new HashSet<>(4)).add(tag);
+    }
+
+    private void removeImageUnlocked(Long ownerId, Long imageId) {
+        IdBitmap ownerImages = this.imagesByOwner.get(ownerId);
+        if (ownerImages != null) {
+            ownerImages.remove(imageId);
+            if (ownerImages.isEmpty()) {
+                this.imagesByOwner.remove(ownerId);
+            }
+        }
+        removeTagsUnlocked(imageId);
+    }
+
+    private void removeTagsUnlocked(Long imageId) {
+        Set<String> tags = this.tagsByImage.remove(imageId);
+        if (tags == null) {
+            return;
+        }
+        for (String tag : tags) {
+            IdBitmap tagImages = this.imagesByTag.get(tag);
+            tagImages.remove(imageId);
+            if (tagImages.isEmpty()) {
+                this.imagesByTag.remove(tag);
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package factoria.org.MyFavoriteImagesBackend.infra.search;
+
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.domain.events.UserChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.ImageText;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Inverted index over image titles and descriptions for databases without native full-text search.
+ * Postings are intersected starting from the rarest term and scored with BM25; only the requested page
+ * is ever kept in the ranking heap. Images of a deleted user leave the index with the user, so pages are
+ * not cut short by images that can no longer be shown.
+ */
+public class InMemoryImageSearchIndex implements ImageSearchIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(InMemoryImageSearchIndex.class);
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final FavoriteImageRepository imageRepository;
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, IndexedImage> documents = new HashMap<>();
+    private final Map<Long, Set<Long>> imagesByOwner = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long totalTerms;
+
+    public InMemoryImageSearchIndex(FavoriteImageRepository imageRepository) {
+        this.imageRepository = imageRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        try (Stream<ImageText> images = this.imageRepository.streamAllText()) {
+            images.forEach(image -> index(image.ownerId(), image.id(), image.title(), image.description()));
+        }
+        LOGGER.info("Indexed {} images for full-text search", this.documents.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImageChanged(ImageChangedEvent event) {
+        FavoriteImage image = event.image();
+        if (event.type() == ImageChangedEvent.ChangeType.DELETED) {
+            remove(image.getId());
+        } else {
+            index(event.ownerId(), image.getId(), image.getTitle(), image.getDescription());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.type() == ImageChangedEvent.ChangeType.DELETED) {
+            removeOwner(event.userId());
+        }
+    }
+
+    public void index(Long ownerId, Long imageId, String title, String description) {
+        String[] terms = TextTokenizer.tokenize((title == null ? "" : title) + " " + (description == null ? "" : description));
+        this.lock.writeLock().lock();
+        try {
+            removeLocked(imageId);
+            this.documents.put(imageId, new IndexedImage(ownerId, terms));
+            if (ownerId != null) {
+                this.imagesByOwner.computeIfAbsent(ownerId, key -> new HashSet<>()).add(imageId);
+            }
+            this.totalTerms += terms.length;
+            for (String term : terms) {
+                this.postings.computeIfAbsent(term, key -> new HashMap<>()).merge(imageId, 1, Integer::sum);
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long imageId) {
+        this.lock.writeLock().lock();
+        try {
+            removeLocked(imageId);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public void removeOwner(Long ownerId) {
+        this.lock.writeLock().lock();
+        try {
+            Set<Long> imageIds = this.imagesByOwner.remove(ownerId);
+            if (imageIds != null) {
+                List.copyOf(imageIds).forEach(this::removeLocked);
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Long> search(String query, long offset, int limit) {
+        String[] queryTerms = Arrays.stream(TextTokenizer.tokenize(query)).distinct().toArray(String[]::new);
+        if (queryTerms.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        this.lock.readLock().lock();
+        try {
+            List<Map<Long, Integer>> termPostings = new ArrayList<>(queryTerms.length);
+            for (String term : queryTerms) {
+                Map<Long, Integer> termPosting = this.postings.get(term);
+                if (termPosting == null) {
+                    return List.of();
+                }
+                termPostings.add(termPosting);
+            }
+            termPostings.sort(Comparator.comparingInt(Map::size));
+            return rank(termPostings, offset, limit);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private List<Long> rank(List<Map<Long, Integer>> termPostings, long offset, int limit) {
+        int documents = this.documents.size();
+        double averageLength = documents == 0 ? 0 : (double) this.totalTerms / documents;
+        long keep = offset + limit;
+        Comparator<ScoredImage> worstFirst = Comparator.comparingDouble(ScoredImage::score)
+                .thenComparing(ScoredImage::imageId, Comparator.reverseOrder());
+        PriorityQueue<ScoredImage> best = new PriorityQueue<>(worstFirst);
+
+        candidates:
+        for (Long imageId : termPostings.get(0).keySet()) {
+            double score = 0;
+            int length = this.documents.get(imageId).terms().length;
+            for (Map<Long, Integer> termPosting : termPostings) {
+                Integer frequency = termPosting.get(imageId);
+                if (frequency == null) {
+                    continue candidates;
+                }
+                double idf = Math.log(1 + (documents - termPosting.size() + 0.5) / (termPosting.size() + 0.5));
+                score += idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+            }
+            best.offer(new ScoredImage(imageId, score));
+            if (best.size() > keep) {
+                best.poll();
+            }
+        }
+
+        List<Long> ranked = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ranked.add(best.poll().imageId());
+        }
+        Collections.reverse(ranked);
+        return ranked.subList((int) Math.min(offset, ranked.size()), ranked.size());
+    }
+
+    private void removeLocked(Long imageId) {
+        IndexedImage document = this.documents.remove(imageId);
+        if (document == null) {
+            return;
+        }
+        if (document.ownerId() != null) {
+            Set<Long> ownerImages = this.imagesByOwner.get(document.ownerId());
+            if (ownerImages != null && ownerImages.remove(imageId) && ownerImages.isEmpty()) {
+                this.imagesByOwner.remove(document.ownerId());
+            }
+        }
+        this.totalTerms -= document.terms().length;
+        for (String term : document.terms()) {
+            Map<Long, Integer> termPosting = this.postings.get(term);
+            if (termPosting != null && termPosting.remove(imageId) != null && termPosting.isEmpty()) {
+                this.postings.remove(term);
+            }
+        }
+    }
+
+    private record IndexedImage(Long ownerId, String[] terms) {
+    }
+
+    private record ScoredImage(Long imageId, double score) {
+    }
+}
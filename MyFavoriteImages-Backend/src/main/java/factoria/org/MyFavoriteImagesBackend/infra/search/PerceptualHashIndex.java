@@ -0,0 +1,199 @@
+package factoria.org.MyFavoriteImagesBackend.infra.search;
+
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.infra.imaging.PerceptualHasher;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.ImageHash;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * BK-tree over perceptual hashes with Hamming distance. By the triangle inequality a query with radius r only
+ * descends into children whose edge distance is within r of the query's distance to the node, so small-radius
+ * lookups visit a small part of the tree. Images with the same hash share a node; removed images are dropped
+ * from their node and empty nodes stay in place as routing points.
+ */
+@Component
+public class PerceptualHashIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PerceptualHashIndex.class);
+
+    private final FavoriteImageRepository imageRepository;
+    private final Map<Long, ImageHash> hashesByImage = new ConcurrentHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Node root;
+
+    public PerceptualHashIndex(FavoriteImageRepository imageRepository) {
+        this.imageRepository = imageRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        this.lock.writeLock().lock();
+        try {
+            this.root = null;
+            this.hashesByImage.clear();
+            try (Stream<ImageHash> hashes = this.imageRepository.streamAllHashes()) {
+                hashes.forEach(this::insert);
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+        LOGGER.info("Indexed perceptual hashes of {} images", this.hashesByImage.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImageChanged(ImageChangedEvent event) {
+        if (event.type() == ImageChangedEvent.ChangeType.DELETED) {
+            remove(event.imageId());
+        }
+    }
+
+    public void add(Long imageId, Long ownerId, long hash) {
+        this.lock.writeLock().lock();
+        try {
+            removeUnlocked(imageId);
+            insert(new ImageHash(imageId, ownerId, hash));
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long imageId) {
+        this.lock.writeLock().lock();
+        try {
+            removeUnlocked(imageId);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns images whose hash is within {@code maxDistance} bits of the given one, closest first.
+     */
+    public List<Match> search(long hash, int maxDistance, int limit) {
+        List<Match> matches = new ArrayList<>();
+        this.lock.readLock().lock();
+        try {
+            Deque<Node> stack = new ArrayDeque<>();
+            if (this.root != null) {
+                stack.push(this.root);
+            }
+            while (!stack.isEmpty()) {
+                Node node = stack.pop();
+                int distance = PerceptualHasher.distance(hash, node.hash);
+                if (distance <= maxDistance) {
+                    for (ImageHash image : node.images) {
+                        matches.add(new Match(image.id(), image.ownerId(), distance));
+                    }
+                }
+                for (int child = 0; child < node.childCount; child++) {
+                    if (Math.abs(node.childDistances[child] - distance) <= maxDistance) {
+                        stack.push(node.children[child]);
+                    }
+                }
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+        matches.sort(Comparator.comparingInt(Match::distance).thenComparing(Match::imageId));
+        return matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    public ImageHash find(Long imageId) {
+        return this.hashesByImage.get(imageId);
+    }
+
+    private void insert(ImageHash image) {
+        this.hashesByImage.put(image.id(), image);
+        if (this.root == null) {
+            this.root = new Node(image.hash());
+            this.root.images.add(image);
+            return;
+        }
+        Node node = this.root;
+        while (true) {
+            int distance = PerceptualHasher.distance(image.hash(), node.hash);
+            if (distance == 0) {
+                node.images.add(image);
+                return;
+            }
+            Node child = node.child(distance);
+            if (child == null) {
+                Node created = new Node(image.hash());
+                created.images.add(image);
+                node.addChild(distance, created);
+                return;
+            }
+            node = child;
+        }
+    }
+
+    private void removeUnlocked(Long imageId) {
+        ImageHash image = this.hashesByImage.remove(imageId);
+        if (image == null) {
+            return;
+        }
+        Node node = this.root;
+        while (node != null) {
+            int distance = PerceptualHasher.distance(image.hash(), node.hash);
+            if (distance == 0) {
+                node.images.removeIf(candidate -> candidate.id().equals(imageId));
+                return;
+            }
+            node = node.child(distance);
+        }
+    }
+
+    public record Match(Long imageId, Long ownerId, int distance) {
+    }
+
+    private static final class Node {
+        private final long hash;
+        private final List<ImageHash> images = new ArrayList<>(1);
+        private byte[] childDistances = new byte[0];
+        private Node[] children = new Node[0];
+        private int childCount;
+
+        private Node(long hash) {
+            this.hash = hash;
+        }
+
+        private Node child(int distance) {
+            for (int index = 0; index < this.childCount; index++) {
+                if (this.childDistances[index] == distance) {
+                    return this.children[index];
+                }
+            }
+            return null;
+        }
+
+        private void addChild(int distance, Node child) {
+            if (this.childCount == this.children.length) {
+                int capacity = Math.max(2, this.childCount * 2);
+                this.children = Arrays.copyOf(this.children, capacity);
+                this.childDistances = Arrays.copyOf(this.childDistances, capacity);
+            }
+            this.children[this.childCount] = child;
+            this.childDistances[this.childCount] = (byte) distance;
+            this.childCount++;
+        }
+    }
+}
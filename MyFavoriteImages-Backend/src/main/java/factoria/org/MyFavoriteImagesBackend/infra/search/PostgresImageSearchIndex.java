@@ -0,0 +1,18 @@
+package factoria.org.MyFavoriteImagesBackend.infra.search;
+
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+
+import java.util.List;
+
+public class PostgresImageSearchIndex implements ImageSearchIndex {
+    private final FavoriteImageRepository imageRepository;
+
+    public PostgresImageSearchIndex(FavoriteImageRepository imageRepository) {
+        this.imageRepository = imageRepository;
+    }
+
+    @Override
+    public List<Long> search(String query, long offset, int limit) {
+        return this.imageRepository.searchIdsByText(query, limit, offset);
+    }
+}
@@ -0,0 +1,36 @@
+package factoria.org.MyFavoriteImagesBackend.infra.search;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Lower-cases, strips accents and splits on anything that is not a letter or a digit,
+ * so accented and unaccented spellings of a word produce the same term.
+ */
+public final class TextTokenizer {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private TextTokenizer() {
+    }
+
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    public static String[] tokenize(String text) {
+        String normalized = normalize(text);
+        if (normalized.isBlank()) {
+            return new String[0];
+        }
+        return Arrays.stream(SEPARATORS.split(normalized))
+                .filter(term -> !term.isEmpty())
+                .toArray(String[]::new);
+    }
+}
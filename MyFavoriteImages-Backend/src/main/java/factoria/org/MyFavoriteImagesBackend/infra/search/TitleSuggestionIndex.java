@@ -0,0 +1,158 @@
+package factoria.org.MyFavoriteImagesBackend.infra.search;
+
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.ImageText;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Type-ahead index over image titles, partitioned by owner. Every title is stored once per word,
+ * starting at that word ("hojas de otono", "de otono", "otono"), in a sorted map, so a prefix typed from
+ * the beginning of any word is a single range scan that never touches the database.
+ * <p>
+ * Only word starts are indexed: "oto" and "de oto" find "Hojas de otoño", but "toño" does not. Matching inside
+ * a word would need an n-gram index; full-text search covers the remaining cases.
+ * <p>
+ * A rebuild fills a new map while readers keep using the current one. Changes arriving meanwhile go to the
+ * current map and are replayed onto the new one right before it is swapped in.
+ */
+@Component
+public class TitleSuggestionIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TitleSuggestionIndex.class);
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final FavoriteImageRepository imageRepository;
+    private final Object changeLock = new Object();
+    private volatile Map<Long, OwnerTitles> titlesByOwner = new ConcurrentHashMap<>();
+    private List<Consumer<Map<Long, OwnerTitles>>> changesDuringRebuild;
+
+    public TitleSuggestionIndex(FavoriteImageRepository imageRepository) {
+        this.imageRepository = imageRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        synchronized (this.changeLock) {
+            this.changesDuringRebuild = new ArrayList<>();
+        }
+        Map<Long, OwnerTitles> rebuilt = new ConcurrentHashMap<>();
+        try (Stream<ImageText> images = this.imageRepository.streamAllText()) {
+            images.forEach(image -> index(rebuilt, image.ownerId(), image.id(), image.title()));
+            synchronized (this.changeLock) {
+                this.changesDuringRebuild.forEach(change -> change.accept(rebuilt));
+                this.titlesByOwner = rebuilt;
+            }
+        } finally {
+            synchronized (this.changeLock) {
+                this.changesDuringRebuild = null;
+            }
+        }
+        LOGGER.info("Indexed image titles of {} owners for suggestions", rebuilt.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onImageChanged(ImageChangedEvent event) {
+        if (event.type() == ImageChangedEvent.ChangeType.DELETED) {
+            remove(event.ownerId(), event.imageId());
+        } else {
+            index(event.ownerId(), event.imageId(), event.image().getTitle());
+        }
+    }
+
+    public void index(Long ownerId, Long imageId, String title) {
+        apply(titles -> index(titles, ownerId, imageId, title));
+    }
+
+    public void remove(Long ownerId, Long imageId) {
+        apply(titles -> {
+            OwnerTitles ownerTitles = ownerId == null ? null : titles.get(ownerId);
+            if (ownerTitles != null) {
+                ownerTitles.remove(imageId);
+            }
+        });
+    }
+
+    public void removeOwner(Long ownerId) {
+        apply(titles -> titles.remove(ownerId));
+    }
+
+    public List<Suggestion> suggest(Long ownerId, String prefix, int limit) {
+        OwnerTitles ownerTitles = this.titlesByOwner.get(ownerId);
+        String normalizedPrefix = String.join(" ", TextTokenizer.tokenize(prefix));
+        if (ownerTitles == null || normalizedPrefix.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        return ownerTitles.suggest(normalizedPrefix, limit);
+    }
+
+    private void apply(Consumer<Map<Long, OwnerTitles>> change) {
+        synchronized (this.changeLock) {
+            change.accept(this.titlesByOwner);
+            if (this.changesDuringRebuild != null) {
+                this.changesDuringRebuild.add(change);
+            }
+        }
+    }
+
+    private static void index(Map<Long, OwnerTitles> titles, Long ownerId, Long imageId, String title) {
+        if (ownerId == null || imageId == null) {
+            return;
+        }
+        titles.computeIfAbsent(ownerId, id -> new OwnerTitles()).put(imageId, title);
+    }
+
+    public record Suggestion(Long id, String title) {
+    }
+
+    private static final class OwnerTitles {
+        private final ConcurrentSkipListMap<String, Suggestion> keys = new ConcurrentSkipListMap<>();
+        private final Map<Long, List<String>> keysByImage = new ConcurrentHashMap<>();
+
+        synchronized void put(Long imageId, String title) {
+            remove(imageId);
+            String[] words = TextTokenizer.tokenize(title);
+            List<String> imageKeys = new ArrayList<>(words.length);
+            Suggestion suggestion = new Suggestion(imageId, title);
+            for (int start = 0; start < words.length; start++) {
+                String key = String.join(" ", List.of(words).subList(start, words.length)) + KEY_SEPARATOR + imageId;
+                this.keys.put(key, suggestion);
+                imageKeys.add(key);
+            }
+            this.keysByImage.put(imageId, imageKeys);
+        }
+
+        synchronized void remove(Long imageId) {
+            List<String> imageKeys = this.keysByImage.remove(imageId);
+            if (imageKeys != null) {
+                imageKeys.forEach(this.keys::remove);
+            }
+        }
+
+        List<Suggestion> suggest(String prefix, int limit) {
+            Map<Long, Suggestion> found = new LinkedHashMap<>();
+            for (Suggestion suggestion : this.keys.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+                found.putIfAbsent(suggestion.id(), suggestion);
+                if (found.size() == limit) {
+                    break;
+                }
+            }
+            return new ArrayList<>(found.values());
+        }
+    }
+}
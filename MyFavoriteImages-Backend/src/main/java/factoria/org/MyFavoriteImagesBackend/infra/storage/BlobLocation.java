@@ -0,0 +1,10 @@
+package factoria.org.MyFavoriteImagesBackend.infra.storage;
+
+import java.nio.file.Path;
+
+/**
+ * Where the bytes of a blob live: a region of a file, so callers can hand it to
+ * FileChannel.transferTo or the container's sendfile support without reading it.
+ */
+public record BlobLocation(Path file, long offset, long length) {
+}
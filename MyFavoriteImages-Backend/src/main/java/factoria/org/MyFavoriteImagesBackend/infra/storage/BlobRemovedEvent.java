@@ -0,0 +1,7 @@
+package factoria.org.MyFavoriteImagesBackend.infra.storage;
+
+/**
+ * Published after the garbage collector removed an unreferenced blob, so data derived from it can go too.
+ */
+public record BlobRemovedEvent(String key) {
+}
@@ -0,0 +1,29 @@
+package factoria.org.MyFavoriteImagesBackend.infra.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+public interface BlobStore {
+    /**
+     * Returns a new empty file on the same filesystem as the store, to be filled and then passed to {@link #put}.
+     */
+    Path createTempFile() throws IOException;
+
+    /**
+     * Takes ownership of a fully written file and makes it readable under the given key.
+     */
+    void put(String key, Path source) throws IOException;
+
+    Optional<BlobLocation> locate(String key) throws IOException;
+
+    /**
+     * Opens the blob for reading inside the application, e.g. to decode it. Responses should use {@link #locate}.
+     */
+    InputStream open(String key) throws IOException;
+
+    boolean contains(String key);
+
+    void delete(String key) throws IOException;
+}
@@ -0,0 +1,69 @@
+package factoria.org.MyFavoriteImagesBackend.infra.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+
+/**
+ * Copies a stream into a file through one reusable direct buffer per thread, updating a digest on the way,
+ * so memory use per copy is fixed whatever the size of the content.
+ */
+public final class ChannelCopier {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final ThreadLocal<ByteBuffer> BUFFERS = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+
+    private ChannelCopier() {
+    }
+
+    /**
+     * Appends everything readable from the source at the target's current position and returns the number of bytes copied.
+     */
+    public static long copy(ReadableByteChannel source, FileChannel target, MessageDigest digest) throws IOException {
+        return copy(source, target, digest, Long.MAX_VALUE);
+    }
+
+    /**
+     * Same as {@link #copy(ReadableByteChannel, FileChannel, MessageDigest)} but stops once {@code limit} bytes
+     * have been copied, leaving the rest of the source unread.
+     */
+    public static long copy(ReadableByteChannel source, FileChannel target, MessageDigest digest, long limit) throws IOException {
+        ByteBuffer buffer = BUFFERS.get();
+        long copied = 0;
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), limit));
+        while (copied < limit && source.read(buffer) >= 0) {
+            buffer.flip();
+            if (digest != null) {
+                digest.update(buffer.duplicate());
+            }
+            while (buffer.hasRemaining()) {
+                copied += target.write(buffer);
+            }
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), limit - copied));
+        }
+        return copied;
+    }
+
+    /**
+     * Feeds a region of a file into a digest, for rebuilding digest state after a restart.
+     */
+    public static void digest(FileChannel source, long length, MessageDigest digest) throws IOException {
+        ByteBuffer buffer = BUFFERS.get();
+        long position = 0;
+        buffer.clear();
+        while (position < length) {
+            buffer.limit((int) Math.min(buffer.capacity(), length - position));
+            int read = source.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            position += read;
+            buffer.flip();
+            digest.update(buffer);
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package factoria.org.MyFavoriteImagesBackend.infra.storage;
+
+import factoria.org.MyFavoriteImagesBackend.domain.models.StoredBlob;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.StoredBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reference-counted, content-addressed layer over the {@link BlobStore}. Storing bytes that are already
+ * present only increments a counter and throws the new copy away. Blobs whose count dropped to zero are
+ * removed by a background sweep after a grace period.
+ * Adding a blob and sweeping it are serialised per key with striped locks, which assumes a single instance
+ * writes to the store.
+ */
+@Component
+public class ContentAddressedStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ContentAddressedStore.class);
+    private static final int LOCK_STRIPES = 64;
+    private static final int GC_BATCH_SIZE = 500;
+
+    private final BlobStore blobStore;
+    private final StoredBlobRepository storedBlobRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration gracePeriod;
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public ContentAddressedStore(BlobStore blobStore, StoredBlobRepository storedBlobRepository, ApplicationEventPublisher eventPublisher,
+                                 @Value("${images.storage.gc-grace-period:PT1H}") Duration gracePeriod) {
+        this.blobStore = blobStore;
+        this.storedBlobRepository = storedBlobRepository;
+        this.eventPublisher = eventPublisher;
+        this.gracePeriod = gracePeriod;
+        for (int index = 0; index < LOCK_STRIPES; index++) {
+            this.locks[index] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Takes one reference to an existing blob, or returns empty when there is no such blob.
+     */
+    public Optional<StoredBlob> acquire(String key) {
+        if (this.storedBlobRepository.acquire(key) == 0) {
+            return Optional.empty();
+        }
+        if (!this.blobStore.contains(key)) {
+            release(key);
+            return Optional.empty();
+        }
+        return this.storedBlobRepository.findById(key);
+    }
+
+    /**
+     * Stores a fully written file under its SHA-256 and takes one reference to it. When the content is
+     * already present the file is deleted instead of written again.
+     */
+    public void store(String sha256, Path file, long length) throws IOException {
+        ReentrantLock lock = lockFor(sha256);
+        lock.lock();
+        try {
+            boolean known = this.storedBlobRepository.acquire(sha256) == 1;
+            if (!known) {
+                this.storedBlobRepository.save(new StoredBlob(sha256, sha256, length));
+            }
+            if (known && this.blobStore.contains(sha256)) {
+                Files.deleteIfExists(file);
+            } else {
+                this.blobStore.put(sha256, file);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops one reference. Joins the caller's transaction, so it commits or rolls back with the change that
+     * dropped the reference.
+     */
+    public void release(String key) {
+        this.storedBlobRepository.release(key, Instant.now());
+    }
+
+    public Optional<BlobLocation> locate(String key) throws IOException {
+        return this.blobStore.locate(key);
+    }
+
+    @Scheduled(fixedDelayString = "${images.storage.gc-interval-ms:600000}")
+    public void collectGarbage() {
+        Instant cutoff = Instant.now().minus(this.gracePeriod);
+        List<String> keys = this.storedBlobRepository.findUnreferenced(cutoff, PageRequest.of(0, GC_BATCH_SIZE));
+        int removed = 0;
+        for (String key : keys) {
+            ReentrantLock lock = lockFor(key);
+            lock.lock();
+            try {
+                if (this.storedBlobRepository.deleteUnreferenced(key, cutoff) == 1) {
+                    this.blobStore.delete(key);
+                    this.eventPublisher.publishEvent(new BlobRemovedEvent(key));
+                    removed++;
+                }
+            } catch (IOException exception) {
+                LOGGER.warn("Could not delete blob {}", key, exception);
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (removed > 0) {
+            LOGGER.info("Removed {} unreferenced blobs", removed);
+        }
+    }
+
+    private ReentrantLock lockFor(String key) {
+        return this.locks[Math.floorMod(key.hashCode(), LOCK_STRIPES)];
+    }
+}
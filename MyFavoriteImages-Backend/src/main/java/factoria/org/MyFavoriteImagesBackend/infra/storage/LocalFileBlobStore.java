@@ -0,0 +1,71 @@
+package factoria.org.MyFavoriteImagesBackend.infra.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * One file per blob, fanned out into two levels of directories named after the key's first characters
+ * so that no directory grows too large.
+ */
+public class LocalFileBlobStore implements BlobStore {
+    private final Path root;
+    private final Path tempDirectory;
+
+    public LocalFileBlobStore(Path root) throws IOException {
+        this.root = root;
+        this.tempDirectory = root.resolve("tmp");
+        Files.createDirectories(this.tempDirectory);
+    }
+
+    @Override
+    public Path createTempFile() throws IOException {
+        return Files.createTempFile(this.tempDirectory, "upload-", ".part");
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        Path target = pathOf(key);
+        Files.createDirectories(target.getParent());
+        if (!source.startsWith(this.tempDirectory)) {
+            Path staged = createTempFile();
+            Files.move(source, staged, StandardCopyOption.REPLACE_EXISTING);
+            source = staged;
+        }
+        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public Optional<BlobLocation> locate(String key) throws IOException {
+        Path file = pathOf(key);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        return Optional.of(new BlobLocation(file, 0, Files.size(file)));
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return Files.newInputStream(pathOf(key));
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return Files.isRegularFile(pathOf(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(pathOf(key));
+    }
+
+    private Path pathOf(String key) {
+        if (key.length() < 4 || !key.matches("[A-Za-z0-9-]+")) {
+            throw new IllegalArgumentException("Invalid blob key: " + key);
+        }
+        return this.root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+}
@@ -0,0 +1,536 @@
+package factoria.org.MyFavoriteImagesBackend.infra.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * Stores many small blobs in a few large append-only segment files instead of one file each.
+ * <p>
+ * Every record is {@code magic, type, key, length, crc32, data}; deletes append a tombstone record.
+ * When a segment reaches its size limit it is sealed by appending a footer listing its live keys and
+ * tombstones, so startup only reads footers and scans the single unsealed segment. Sealed segments are
+ * memory-mapped for reads. Segments whose live bytes drop below a threshold are compacted by copying their
+ * live records into the active segment; the old file is deleted after a grace period so that responses
+ * already handed to sendfile can finish.
+ */
+public class PackFileBlobStore implements BlobStore, Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(PackFileBlobStore.class);
+    private static final int RECORD_MAGIC = 0x424C4F42;
+    private static final int FOOTER_MAGIC = 0x5041434B;
+    private static final byte TYPE_BLOB = 1;
+    private static final byte TYPE_TOMBSTONE = 2;
+    private static final int FIXED_HEADER_SIZE = Integer.BYTES + Byte.BYTES + Short.BYTES + Long.BYTES + Integer.BYTES;
+    private static final int TRAILER_SIZE = Long.BYTES + Integer.BYTES + Integer.BYTES;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".pack";
+    private static final Duration RETIRE_GRACE_PERIOD = Duration.ofMinutes(5);
+
+    private final Path directory;
+    private final Path tempDirectory;
+    private final long segmentSize;
+    private final double compactionThreshold;
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Integer, Segment> segments = new ConcurrentSkipListMap<>();
+    private final ConcurrentLinkedQueue<Retired> retired = new ConcurrentLinkedQueue<>();
+    private final Object writeLock = new Object();
+    private volatile Segment active;
+
+    public PackFileBlobStore(Path directory, long segmentSize, double compactionThreshold) throws IOException {
+        if (segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segments are memory-mapped and cannot exceed 2 GB");
+        }
+        this.directory = directory;
+        this.tempDirectory = directory.resolve("tmp");
+        this.segmentSize = segmentSize;
+        this.compactionThreshold = compactionThreshold;
+        Files.createDirectories(this.tempDirectory);
+        load();
+    }
+
+    @Override
+    public Path createTempFile() throws IOException {
+        return Files.createTempFile(this.tempDirectory, "upload-", ".part");
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        byte[] keyBytes = keyBytes(key);
+        try (FileChannel sourceChannel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long length = sourceChannel.size();
+            int crc = crc(sourceChannel, 0, length);
+            synchronized (this.writeLock) {
+                Entry entry = append(TYPE_BLOB, keyBytes, sourceChannel, 0, length, crc);
+                index(key, entry);
+            }
+        }
+        Files.deleteIfExists(source);
+    }
+
+    @Override
+    public Optional<BlobLocation> locate(String key) {
+        Entry entry = this.index.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new BlobLocation(entry.segment().file, entry.offset(), entry.length()));
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        Entry entry = this.index.get(key);
+        if (entry == null) {
+            throw new NoSuchFileException(key);
+        }
+        Segment segment = entry.segment();
+        if (segment.sealed) {
+            return new ByteBufferInputStream(segment.mapped().slice((int) entry.offset(), (int) entry.length()));
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) entry.length());
+        readFully(segment.channel, buffer, entry.offset());
+        return new ByteArrayInputStream(buffer.array());
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return this.index.containsKey(key);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        synchronized (this.writeLock) {
+            Entry entry = this.index.remove(key);
+            if (entry == null) {
+                return;
+            }
+            entry.segment().liveBytes.addAndGet(-entry.length());
+            appendTombstone(key);
+        }
+    }
+
+    /**
+     * Rewrites sealed segments whose share of live bytes dropped below the threshold.
+     */
+    @Scheduled(fixedDelayString = "${images.storage.pack.compaction-interval-ms:900000}")
+    public void compact() {
+        deleteRetired(false);
+        for (Segment segment : this.segments.values()) {
+            long dataSize = segment.dataEnd;
+            if (!segment.sealed || dataSize == 0 || (double) segment.liveBytes.get() / dataSize >= this.compactionThreshold) {
+                continue;
+            }
+            try {
+                compact(segment);
+            } catch (IOException exception) {
+                LOGGER.warn("Could not compact {}", segment.file, exception);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this.writeLock) {
+            for (Segment segment : this.segments.values()) {
+                segment.channel.close();
+            }
+            deleteRetired(true);
+        }
+    }
+
+    private void compact(Segment segment) throws IOException {
+        int moved = 0;
+        long movedBytes = 0;
+        for (Map.Entry<String, Entry> indexed : List.copyOf(this.index.entrySet())) {
+            Entry entry = indexed.getValue();
+            if (entry.segment() != segment) {
+                continue;
+            }
+            int crc = crc(segment.channel, entry.offset(), entry.length());
+            synchronized (this.writeLock) {
+                if (this.index.get(indexed.getKey()) != entry) {
+                    continue;
+                }
+                Entry copy = append(TYPE_BLOB, keyBytes(indexed.getKey()), segment.channel, entry.offset(), entry.length(), crc);
+                index(indexed.getKey(), copy);
+                moved++;
+                movedBytes += entry.length();
+            }
+        }
+        synchronized (this.writeLock) {
+            boolean olderSegmentsRemain = !this.segments.headMap(segment.id).isEmpty();
+            if (olderSegmentsRemain) {
+                for (String key : segment.tombstones) {
+                    if (!this.index.containsKey(key)) {
+                        appendTombstone(key);
+                    }
+                }
+            }
+            this.segments.remove(segment.id);
+        }
+        this.retired.add(new Retired(segment, Instant.now()));
+        LOGGER.info("Compacted {}: moved {} live blobs, reclaiming {} bytes", segment.file.getFileName(), moved, segment.dataEnd - movedBytes);
+    }
+
+    private void deleteRetired(boolean all) {
+        Instant cutoff = Instant.now().minus(RETIRE_GRACE_PERIOD);
+        this.retired.removeIf(retiredSegment -> {
+            if (!all && retiredSegment.retiredAt().isAfter(cutoff)) {
+                return false;
+            }
+            try {
+                retiredSegment.segment().channel.close();
+                Files.deleteIfExists(retiredSegment.segment().file);
+            } catch (IOException exception) {
+                LOGGER.warn("Could not delete compacted segment {}", retiredSegment.segment().file, exception);
+            }
+            return true;
+        });
+    }
+
+    private void index(String key, Entry entry) {
+        entry.segment().liveBytes.addAndGet(entry.length());
+        Entry previous = this.index.put(key, entry);
+        if (previous != null) {
+            previous.segment().liveBytes.addAndGet(-previous.length());
+        }
+    }
+
+    private void appendTombstone(String key) throws IOException {
+        append(TYPE_TOMBSTONE, keyBytes(key), null, 0, 0, 0);
+        this.active.tombstones.add(key);
+    }
+
+    /**
+     * Appends one record to the active segment, rolling over to a new segment first if it would not fit.
+     * Must be called while holding the write lock.
+     */
+    private Entry append(byte type, byte[] key, FileChannel source, long sourceOffset, long length, int crc) throws IOException {
+        int headerSize = FIXED_HEADER_SIZE + key.length;
+        if (this.active.dataEnd > 0 && this.active.dataEnd + headerSize + length > this.segmentSize) {
+            seal(this.active);
+            this.active = createSegment(this.segments.isEmpty() ? 1 : this.segments.lastKey() + 1);
+        }
+        Segment segment = this.active;
+        long position = segment.dataEnd;
+        ByteBuffer header = ByteBuffer.allocate(headerSize);
+        header.putInt(RECORD_MAGIC).put(type).putShort((short) key.length).put(key).putLong(length).putInt(crc).flip();
+        writeFully(segment.channel, header, position);
+        long dataOffset = position + headerSize;
+        long copied = 0;
+        while (copied < length) {
+            long transferred = source.transferTo(sourceOffset + copied, length - copied, segment.channel.position(dataOffset + copied));
+            if (transferred <= 0) {
+                throw new IOException("Source ended before " + length + " bytes were copied");
+            }
+            copied += transferred;
+        }
+        segment.channel.force(false);
+        segment.dataEnd = dataOffset + length;
+        return new Entry(segment, dataOffset, length);
+    }
+
+    private void seal(Segment segment) throws IOException {
+        List<byte[]> keys = new ArrayList<>();
+        List<long[]> locations = new ArrayList<>();
+        this.index.forEach((key, entry) -> {
+            if (entry.segment() == segment) {
+                keys.add(keyBytes(key));
+                locations.add(new long[]{entry.offset(), entry.length()});
+            }
+        });
+        for (String tombstone : segment.tombstones) {
+            keys.add(keyBytes(tombstone));
+            locations.add(new long[]{0, -1});
+        }
+        int footerSize = TRAILER_SIZE;
+        for (byte[] key : keys) {
+            footerSize += Short.BYTES + key.length + 2 * Long.BYTES;
+        }
+        ByteBuffer footer = ByteBuffer.allocate(footerSize);
+        for (int index = 0; index < keys.size(); index++) {
+            footer.putShort((short) keys.get(index).length).put(keys.get(index)).putLong(locations.get(index)[0]).putLong(locations.get(index)[1]);
+        }
+        footer.putLong(segment.dataEnd).putInt(keys.size()).putInt(FOOTER_MAGIC).flip();
+        writeFully(segment.channel, footer, segment.dataEnd);
+        segment.channel.force(true);
+        segment.sealed = true;
+    }
+
+    private void load() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            int id = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+            Segment segment = new Segment(id, file, FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE));
+            this.segments.put(id, segment);
+            if (!readFooter(segment)) {
+                scan(segment);
+                if (this.active != null) {
+                    seal(this.active);
+                }
+                this.active = segment;
+            }
+        }
+        if (this.active == null) {
+            this.active = createSegment(this.segments.isEmpty() ? 1 : this.segments.lastKey() + 1);
+        }
+        LOGGER.info("Loaded {} blobs from {} pack segments", this.index.size(), this.segments.size());
+    }
+
+    /**
+     * Loads the index of a sealed segment from its footer. Returns false when there is no footer or it does not
+     * parse completely, in which case nothing is indexed and the segment is scanned instead.
+     */
+    private boolean readFooter(Segment segment) throws IOException {
+        long size = segment.channel.size();
+        if (size < TRAILER_SIZE) {
+            return false;
+        }
+        ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+        readFully(segment.channel, trailer, size - TRAILER_SIZE);
+        trailer.flip();
+        long footerOffset = trailer.getLong();
+        int count = trailer.getInt();
+        if (trailer.getInt() != FOOTER_MAGIC || footerOffset < 0 || footerOffset > size - TRAILER_SIZE || count < 0) {
+            return false;
+        }
+        ByteBuffer footer = ByteBuffer.allocate((int) (size - TRAILER_SIZE - footerOffset));
+        readFully(segment.channel, footer, footerOffset);
+        footer.flip();
+        List<String> keys = new ArrayList<>();
+        List<Entry> entries = new ArrayList<>();
+        for (int index = 0; index < count; index++) {
+            if (footer.remaining() < Short.BYTES) {
+                return corruptFooter(segment);
+            }
+            int keyLength = footer.getShort();
+            if (keyLength <= 0 || footer.remaining() < keyLength + 2 * Long.BYTES) {
+                return corruptFooter(segment);
+            }
+            byte[] key = new byte[keyLength];
+            footer.get(key);
+            long offset = footer.getLong();
+            long length = footer.getLong();
+            boolean tombstone = length == -1;
+            if (!tombstone && (length < 0 || offset < 0 || offset > footerOffset - length)) {
+                return corruptFooter(segment);
+            }
+            keys.add(new String(key, StandardCharsets.US_ASCII));
+            entries.add(tombstone ? null : new Entry(segment, offset, length));
+        }
+        if (footer.hasRemaining()) {
+            return corruptFooter(segment);
+        }
+        segment.dataEnd = footerOffset;
+        segment.sealed = true;
+        for (int index = 0; index < keys.size(); index++) {
+            apply(keys.get(index), entries.get(index));
+        }
+        return true;
+    }
+
+    private static boolean corruptFooter(Segment segment) {
+        LOGGER.warn("Ignoring the corrupt footer of {}, scanning its records instead", segment.file);
+        return false;
+    }
+
+    /**
+     * Replays the records of an unsealed segment, verifying checksums, and truncates a torn record at the end.
+     */
+    private void scan(Segment segment) throws IOException {
+        long size = segment.channel.size();
+        long position = 0;
+        ByteBuffer fixed = ByteBuffer.allocate(FIXED_HEADER_SIZE);
+        while (position + FIXED_HEADER_SIZE <= size) {
+            fixed.clear().limit(Integer.BYTES + Byte.BYTES + Short.BYTES);
+            readFully(segment.channel, fixed, position);
+            fixed.flip();
+            if (fixed.getInt() != RECORD_MAGIC) {
+                break;
+            }
+            byte type = fixed.get();
+            byte[] key = new byte[fixed.getShort()];
+            long dataOffset = position + FIXED_HEADER_SIZE + key.length;
+            if (dataOffset > size) {
+                break;
+            }
+            ByteBuffer rest = ByteBuffer.allocate(key.length + Long.BYTES + Integer.BYTES);
+            readFully(segment.channel, rest, position + Integer.BYTES + Byte.BYTES + Short.BYTES);
+            rest.flip();
+            rest.get(key);
+            long length = rest.getLong();
+            int crc = rest.getInt();
+            if (length < 0 || dataOffset + length > size || crc(segment.channel, dataOffset, length) != crc) {
+                break;
+            }
+            String keyText = new String(key, StandardCharsets.US_ASCII);
+            if (type == TYPE_TOMBSTONE) {
+                segment.tombstones.add(keyText);
+                apply(keyText, null);
+            } else {
+                apply(keyText, new Entry(segment, dataOffset, length));
+            }
+            position = dataOffset + length;
+        }
+        if (position < size) {
+            LOGGER.warn("Truncating {} incomplete bytes at the end of {}", size - position, segment.file);
+            segment.channel.truncate(position);
+        }
+        segment.dataEnd = position;
+    }
+
+    private void apply(String key, Entry entry) {
+        if (entry == null) {
+            Entry removed = this.index.remove(key);
+            if (removed != null) {
+                removed.segment().liveBytes.addAndGet(-removed.length());
+            }
+        } else {
+            index(key, entry);
+        }
+    }
+
+    private Segment createSegment(int id) throws IOException {
+        Path file = this.directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        Segment segment = new Segment(id, file, FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE));
+        this.segments.put(id, segment);
+        return segment;
+    }
+
+    private static int crc(FileChannel channel, long offset, long length) throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(64 * 1024, Math.max(length, 1)));
+        long position = offset;
+        long end = offset + length;
+        while (position < end) {
+            buffer.clear().limit((int) Math.min(buffer.capacity(), end - position));
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                return ~(int) crc.getValue();
+            }
+            buffer.flip();
+            crc.update(buffer);
+            position += read;
+        }
+        return (int) crc.getValue();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of pack segment");
+            }
+            position += read;
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static byte[] keyBytes(String key) {
+        byte[] bytes = key.getBytes(StandardCharsets.US_ASCII);
+        if (bytes.length == 0 || bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid blob key: " + key);
+        }
+        return bytes;
+    }
+
+    private record Entry(Segment segment, long offset, long length) {
+    }
+
+    private record Retired(Segment segment, Instant retiredAt) {
+    }
+
+    private static final class Segment {
+        private final int id;
+        private final Path file;
+        private final FileChannel channel;
+        private final AtomicLong liveBytes = new AtomicLong();
+        private final Set<String> tombstones = ConcurrentHashMap.newKeySet();
+        private volatile long dataEnd;
+        private volatile boolean sealed;
+        private volatile MappedByteBuffer mapped;
+
+        private Segment(int id, Path file, FileChannel channel) {
+            this.id = id;
+            this.file = file;
+            this.channel = channel;
+        }
+
+        private MappedByteBuffer mapped() throws IOException {
+            MappedByteBuffer buffer = this.mapped;
+            if (buffer == null) {
+                synchronized (this) {
+                    buffer = this.mapped;
+                    if (buffer == null) {
+                        buffer = this.channel.map(FileChannel.MapMode.READ_ONLY, 0, this.dataEnd);
+                        this.mapped = buffer;
+                    }
+                }
+            }
+            return buffer;
+        }
+    }
+
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!this.buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, this.buffer.remaining());
+            this.buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return this.buffer.remaining();
+        }
+    }
+}
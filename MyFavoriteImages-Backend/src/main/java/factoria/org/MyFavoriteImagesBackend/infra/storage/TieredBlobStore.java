@@ -0,0 +1,59 @@
+package factoria.org.MyFavoriteImagesBackend.infra.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Sends blobs up to a size limit to the pack store and larger ones to one file each, so thumbnails
+ * do not cost an inode apiece while full-size images stay easy to serve and remove.
+ */
+public class TieredBlobStore implements BlobStore {
+    private final BlobStore smallBlobs;
+    private final BlobStore largeBlobs;
+    private final long maxSmallBlobSize;
+
+    public TieredBlobStore(BlobStore smallBlobs, BlobStore largeBlobs, long maxSmallBlobSize) {
+        this.smallBlobs = smallBlobs;
+        this.largeBlobs = largeBlobs;
+        this.maxSmallBlobSize = maxSmallBlobSize;
+    }
+
+    @Override
+    public Path createTempFile() throws IOException {
+        return this.largeBlobs.createTempFile();
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        if (Files.size(source) <= this.maxSmallBlobSize) {
+            this.smallBlobs.put(key, source);
+        } else {
+            this.largeBlobs.put(key, source);
+        }
+    }
+
+    @Override
+    public Optional<BlobLocation> locate(String key) throws IOException {
+        Optional<BlobLocation> location = this.smallBlobs.locate(key);
+        return location.isPresent() ? location : this.largeBlobs.locate(key);
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        return this.smallBlobs.contains(key) ? this.smallBlobs.open(key) : this.largeBlobs.open(key);
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return this.smallBlobs.contains(key) || this.largeBlobs.contains(key);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        this.smallBlobs.delete(key);
+        this.largeBlobs.delete(key);
+    }
+}
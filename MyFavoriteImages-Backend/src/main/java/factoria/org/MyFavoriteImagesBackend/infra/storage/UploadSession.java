@@ -0,0 +1,171 @@
+package factoria.org.MyFavoriteImagesBackend.infra.storage;
+
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A partially received upload. Bytes are appended to a file on disk and the SHA-256 is carried along
+ * incrementally; after a restart or an interrupted chunk the digest is rebuilt from the file once, on demand.
+ * A session is sealed while it is being completed, so no chunk can change the file between its checksum
+ * being taken and the file being attached.
+ */
+public class UploadSession {
+    private final String id;
+    private final Long imageId;
+    private final String contentType;
+    private final Instant createdAt;
+    private final Path directory;
+    private final Path dataFile;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long size;
+    private boolean sealed;
+    private MessageDigest digest;
+    private volatile Instant lastActivity;
+
+    UploadSession(String id, Long imageId, String contentType, Instant createdAt, Path directory, long size, Instant lastActivity) {
+        this.id = id;
+        this.imageId = imageId;
+        this.contentType = contentType;
+        this.createdAt = createdAt;
+        this.directory = directory;
+        this.dataFile = directory.resolve("data.part");
+        this.size = size;
+        this.lastActivity = lastActivity;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getImageId() {
+        return imageId;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Instant getLastActivity() {
+        return lastActivity;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    Path getDirectory() {
+        return directory;
+    }
+
+    public Path getDataFile() {
+        return dataFile;
+    }
+
+    /**
+     * Appends a chunk that must start at the current size. Returns false without touching the file when the
+     * offset does not match, another chunk for this upload is being written or the upload is sealed. Bytes received before a dropped
+     * connection are kept, so the client can resume from {@link #getSize()}.
+     */
+    public boolean append(long offset, InputStream chunk, long maxSize) throws IOException {
+        if (!this.lock.tryLock()) {
+            return false;
+        }
+        try {
+            if (this.sealed || offset != this.size) {
+                return false;
+            }
+            this.lastActivity = Instant.now();
+            long previousSize = this.size;
+            MessageDigest currentDigest = digest();
+            boolean copied = false;
+            try (FileChannel target = FileChannel.open(this.dataFile, StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+                try {
+                    target.position(previousSize);
+                    long received = ChannelCopier.copy(Channels.newChannel(chunk), target, currentDigest, maxSize - previousSize + 1);
+                    if (previousSize + received > maxSize) {
+                        target.truncate(previousSize);
+                        this.digest = null;
+                        throw new MaxUploadSizeExceededException(maxSize);
+                    }
+                    target.force(false);
+                    this.size = previousSize + received;
+                    copied = true;
+                } finally {
+                    if (!copied) {
+                        this.digest = null;
+                        this.size = target.size();
+                    }
+                }
+            }
+            return true;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting chunks and returns the hex SHA-256 of everything received, or null when the upload is
+     * already sealed by another completion. Waits for a chunk that is being written.
+     */
+    public String seal() throws IOException {
+        this.lock.lock();
+        try {
+            if (this.sealed) {
+                return null;
+            }
+            MessageDigest copy = (MessageDigest) digest().clone();
+            this.sealed = true;
+            return HexFormat.of().formatHex(copy.digest());
+        } catch (CloneNotSupportedException exception) {
+            throw new IllegalStateException(exception);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Accepts chunks again after a completion that failed.
+     */
+    public void unseal() {
+        this.lock.lock();
+        try {
+            this.sealed = false;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private MessageDigest digest() throws IOException {
+        if (this.digest == null) {
+            MessageDigest rebuilt = newDigest();
+            try (FileChannel source = FileChannel.open(this.dataFile, StandardOpenOption.READ)) {
+                ChannelCopier.digest(source, this.size, rebuilt);
+            }
+            this.digest = rebuilt;
+        }
+        return this.digest;
+    }
+
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
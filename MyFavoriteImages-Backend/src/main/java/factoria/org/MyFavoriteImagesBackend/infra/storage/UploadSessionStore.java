@@ -0,0 +1,128 @@
+package factoria.org.MyFavoriteImagesBackend.infra.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps upload sessions on disk, one directory each with a small properties file and the received bytes,
+ * so an upload survives both a dropped connection and a restart. Open sessions are cached in memory.
+ */
+@Component
+public class UploadSessionStore {
+    private static final Logger LOGGER = LoggerFactory.getLogger(UploadSessionStore.class);
+    private static final String METADATA_FILE = "session.properties";
+
+    private final Path root;
+    private final Duration expiry;
+    private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+    public UploadSessionStore(@Value("${images.uploads.path:data/uploads}") String uploadsPath,
+                              @Value("${images.uploads.expiry:PT24H}") Duration expiry) throws IOException {
+        this.root = Path.of(uploadsPath);
+        this.expiry = expiry;
+        Files.createDirectories(this.root);
+    }
+
+    public UploadSession create(Long imageId, String contentType) {
+        String id = UUID.randomUUID().toString();
+        Path directory = this.root.resolve(id);
+        Instant createdAt = Instant.now();
+        Properties metadata = new Properties();
+        metadata.setProperty("imageId", imageId.toString());
+        metadata.setProperty("contentType", contentType);
+        metadata.setProperty("createdAt", createdAt.toString());
+        try {
+            Files.createDirectories(directory);
+            try (OutputStream out = Files.newOutputStream(directory.resolve(METADATA_FILE))) {
+                metadata.store(out, null);
+            }
+            UploadSession session = new UploadSession(id, imageId, contentType, createdAt, directory, 0, createdAt);
+            Files.createFile(session.getDataFile());
+            this.sessions.put(id, session);
+            return session;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    public Optional<UploadSession> find(String uploadId) {
+        if (!isValidId(uploadId)) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(this.sessions.computeIfAbsent(uploadId, this::load));
+    }
+
+    public void discard(UploadSession session) {
+        this.sessions.remove(session.getId());
+        try {
+            FileSystemUtils.deleteRecursively(session.getDirectory());
+        } catch (IOException exception) {
+            LOGGER.warn("Could not delete upload session {}", session.getId(), exception);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${images.uploads.cleanup-interval-ms:3600000}")
+    public void purgeExpired() {
+        Instant cutoff = Instant.now().minus(this.expiry);
+        try (DirectoryStream<Path> directories = Files.newDirectoryStream(this.root)) {
+            for (Path directory : directories) {
+                String id = directory.getFileName().toString();
+                find(id).filter(session -> session.getLastActivity().isBefore(cutoff)).ifPresent(session -> {
+                    LOGGER.info("Discarding expired upload session {}", id);
+                    discard(session);
+                });
+            }
+        } catch (IOException exception) {
+            LOGGER.warn("Could not scan upload sessions in {}", this.root, exception);
+        }
+    }
+
+    private UploadSession load(String uploadId) {
+        Path directory = this.root.resolve(uploadId);
+        Path metadataFile = directory.resolve(METADATA_FILE);
+        if (!Files.isRegularFile(metadataFile)) {
+            return null;
+        }
+        Properties metadata = new Properties();
+        try (InputStream in = Files.newInputStream(metadataFile)) {
+            metadata.load(in);
+            Path dataFile = directory.resolve("data.part");
+            if (!Files.exists(dataFile)) {
+                Files.createFile(dataFile);
+            }
+            return new UploadSession(uploadId, Long.valueOf(metadata.getProperty("imageId")), metadata.getProperty("contentType"),
+                    Instant.parse(metadata.getProperty("createdAt")), directory, Files.size(dataFile),
+                    Files.getLastModifiedTime(dataFile).toInstant());
+        } catch (IOException | RuntimeException exception) {
+            LOGGER.warn("Could not load upload session {}", uploadId, exception);
+            return null;
+        }
+    }
+
+    private static boolean isValidId(String uploadId) {
+        try {
+            return UUID.fromString(uploadId).toString().equals(uploadId);
+        } catch (IllegalArgumentException exception) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package factoria.org.MyFavoriteImagesBackend.infra.tracing;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+public record RecordedTrace(String traceId,
+                            String name,
+                            Instant startedAt,
+                            long durationMicros,
+                            int droppedSpans,
+                            List<RecordedSpan> spans) {
+
+    public record RecordedSpan(int id,
+                               Integer parentId,
+                               String name,
+                               long offsetMicros,
+                               long durationMicros,
+                               Map<String, String> attributes) {
+    }
+}
@@ -0,0 +1,62 @@
+package factoria.org.MyFavoriteImagesBackend.infra.tracing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class Span {
+    private final int id;
+    private final Integer parentId;
+    private final String name;
+    private final long startNanos;
+    private long endNanos = -1;
+    private Map<String, String> attributes;
+
+    Span(int id, Integer parentId, String name, long startNanos) {
+        this.id = id;
+        this.parentId = parentId;
+        this.name = name;
+        this.startNanos = startNanos;
+    }
+
+    public Span tag(String key, String value) {
+        if (this.attributes == null) {
+            this.attributes = new LinkedHashMap<>();
+        }
+        this.attributes.put(key, value);
+        return this;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public Integer getParentId() {
+        return parentId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public boolean isEnded() {
+        return this.endNanos >= 0;
+    }
+
+    public long getDurationNanos() {
+        return isEnded() ? this.endNanos - this.startNanos : System.nanoTime() - this.startNanos;
+    }
+
+    public Map<String, String> getAttributes() {
+        return this.attributes == null ? Map.of() : this.attributes;
+    }
+
+    void end(long endNanos) {
+        if (!isEnded()) {
+            this.endNanos = endNanos;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package factoria.org.MyFavoriteImagesBackend.infra.tracing;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spans collected for a single request thread. Not thread-safe: a trace lives in a ThreadLocal.
+ */
+class Trace {
+    private final String traceId;
+    private final Instant startedAt = Instant.now();
+    private final int maxSpans;
+    private final List<Span> spans = new ArrayList<>();
+    private final Deque<Span> openSpans = new ArrayDeque<>();
+    private int nextId = 1;
+    private int droppedSpans;
+
+    Trace(String traceId, int maxSpans) {
+        this.traceId = traceId;
+        this.maxSpans = maxSpans;
+    }
+
+    Span open(String name) {
+        Span span = newSpan(name, System.nanoTime());
+        if (span != null) {
+            this.openSpans.push(span);
+        }
+        return span;
+    }
+
+    Span record(String name, long startNanos, long durationNanos) {
+        Span span = newSpan(name, startNanos);
+        if (span != null) {
+            span.end(startNanos + durationNanos);
+        }
+        return span;
+    }
+
+    void close(Span span) {
+        span.end(System.nanoTime());
+        this.openSpans.removeFirstOccurrence(span);
+    }
+
+    Span root() {
+        return this.spans.isEmpty() ? null : this.spans.get(0);
+    }
+
+    RecordedTrace toRecordedTrace() {
+        Span root = root();
+        long now = System.nanoTime();
+        List<RecordedTrace.RecordedSpan> recordedSpans = new ArrayList<>(this.spans.size());
+        for (Span span : this.spans) {
+            span.end(now);
+            recordedSpans.add(new RecordedTrace.RecordedSpan(span.getId(),
+                    span.getParentId(),
+                    span.getName(),
+                    (span.getStartNanos() - root.getStartNanos()) / 1_000,
+                    span.getDurationNanos() / 1_000,
+                    Map.copyOf(span.getAttributes())));
+        }
+        return new RecordedTrace(this.traceId, root.getName(), this.startedAt, root.getDurationNanos() / 1_000,
+                this.droppedSpans, recordedSpans);
+    }
+
+    private Span newSpan(String name, long startNanos) {
+        if (this.spans.size() >= this.maxSpans) {
+            this.droppedSpans++;
+            return null;
+        }
+        Span parent = this.openSpans.peek();
+        Span span = new Span(this.nextId++, parent == null ? null : parent.getId(), name, startNanos);
+        this.spans.add(span);
+        return span;
+    }
+}
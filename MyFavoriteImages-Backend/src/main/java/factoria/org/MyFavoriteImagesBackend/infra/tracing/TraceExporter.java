@@ -0,0 +1,74 @@
+package factoria.org.MyFavoriteImagesBackend.infra.tracing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the most recent sampled traces in memory and, when tracing.export-file is set,
+ * appends each of them as one JSON line to that file.
+ */
+@Component
+public class TraceExporter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TraceExporter.class);
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final Path exportFile;
+    private final Deque<RecordedTrace> recentTraces = new ArrayDeque<>();
+
+    public TraceExporter(ObjectMapper objectMapper,
+                         @Value("${tracing.buffer-size:100}") int bufferSize,
+                         @Value("${tracing.export-file:}") String exportFile) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.exportFile = StringUtils.hasText(exportFile) ? Path.of(exportFile) : null;
+    }
+
+    public void export(RecordedTrace trace) {
+        synchronized (this.recentTraces) {
+            if (this.recentTraces.size() == this.bufferSize) {
+                this.recentTraces.removeLast();
+            }
+            this.recentTraces.addFirst(trace);
+        }
+        LOGGER.info("Slow request '{}' took {} ms (trace {})", trace.name(), trace.durationMicros() / 1_000, trace.traceId());
+        if (this.exportFile != null) {
+            writeToFile(trace);
+        }
+    }
+
+    public List<RecordedTrace> recentTraces() {
+        synchronized (this.recentTraces) {
+            return new ArrayList<>(this.recentTraces);
+        }
+    }
+
+    private synchronized void writeToFile(RecordedTrace trace) {
+        try {
+            String line = this.objectMapper.writeValueAsString(trace) + System.lineSeparator();
+            Path parent = this.exportFile.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Files.writeString(this.exportFile, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (JsonProcessingException exception) {
+            LOGGER.warn("Could not serialize trace {}", trace.traceId(), exception);
+        } catch (IOException exception) {
+            LOGGER.warn("Could not write trace {} to {}", trace.traceId(), this.exportFile, exception);
+        }
+    }
+}
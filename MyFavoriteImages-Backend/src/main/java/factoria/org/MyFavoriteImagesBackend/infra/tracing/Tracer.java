@@ -0,0 +1,74 @@
+package factoria.org.MyFavoriteImagesBackend.infra.tracing;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HexFormat;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Minimal in-process tracer. A trace is opened per HTTP request and every nested span is kept in memory
+ * until the request finishes; only traces slower than the threshold are handed to the exporter
+ * (tail-based sampling), so fast requests cost a few allocations and nothing else.
+ */
+@Component
+public class Tracer {
+    private final ThreadLocal<Trace> currentTrace = new ThreadLocal<>();
+    private final TraceExporter exporter;
+    private final boolean enabled;
+    private final long slowThresholdNanos;
+    private final int maxSpansPerTrace;
+
+    public Tracer(TraceExporter exporter,
+                  @Value("${tracing.enabled:true}") boolean enabled,
+                  @Value("${tracing.slow-threshold-ms:250}") long slowThresholdMillis,
+                  @Value("${tracing.max-spans-per-trace:1000}") int maxSpansPerTrace) {
+        this.exporter = exporter;
+        this.enabled = enabled;
+        this.slowThresholdNanos = slowThresholdMillis * 1_000_000;
+        this.maxSpansPerTrace = maxSpansPerTrace;
+    }
+
+    public Span startTrace(String name) {
+        if (!this.enabled || this.currentTrace.get() != null) {
+            return null;
+        }
+        Trace trace = new Trace(HexFormat.of().toHexDigits(ThreadLocalRandom.current().nextLong()), this.maxSpansPerTrace);
+        this.currentTrace.set(trace);
+        return trace.open(name);
+    }
+
+    public Span startSpan(String name) {
+        Trace trace = this.currentTrace.get();
+        return trace == null ? null : trace.open(name);
+    }
+
+    public void recordSpan(String name, long startNanos, long durationNanos, String attributeKey, String attributeValue) {
+        Trace trace = this.currentTrace.get();
+        if (trace == null) {
+            return;
+        }
+        Span span = trace.record(name, startNanos, durationNanos);
+        if (span != null && attributeKey != null) {
+            span.tag(attributeKey, attributeValue);
+        }
+    }
+
+    public void endSpan(Span span) {
+        Trace trace = this.currentTrace.get();
+        if (span == null || trace == null) {
+            return;
+        }
+        trace.close(span);
+        if (span == trace.root()) {
+            this.currentTrace.remove();
+            if (span.getDurationNanos() >= this.slowThresholdNanos) {
+                this.exporter.export(trace.toRecordedTrace());
+            }
+        }
+    }
+
+    public boolean isTracing() {
+        return this.currentTrace.get() != null;
+    }
+}
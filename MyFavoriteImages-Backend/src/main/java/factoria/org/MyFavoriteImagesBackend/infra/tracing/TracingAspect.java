@@ -0,0 +1,51 @@
+package factoria.org.MyFavoriteImagesBackend.infra.tracing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+@Aspect
+@Component
+public class TracingAspect {
+    private final Tracer tracer;
+
+    public TracingAspect(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Around("within(factoria.org.MyFavoriteImagesBackend.controllers..*)")
+    public Object traceController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, "controller");
+    }
+
+    @Around("within(factoria.org.MyFavoriteImagesBackend.domain.services..*)")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, "service");
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object traceRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace(joinPoint, "repository");
+    }
+
+    private Object trace(ProceedingJoinPoint joinPoint, String kind) throws Throwable {
+        if (!this.tracer.isTracing()) {
+            return joinPoint.proceed();
+        }
+        Span span = this.tracer.startSpan(joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName());
+        if (span != null) {
+            span.tag("kind", kind);
+        }
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable throwable) {
+            if (span != null) {
+                span.tag("error", throwable.getClass().getSimpleName());
+            }
+            throw throwable;
+        } finally {
+            this.tracer.endSpan(span);
+        }
+    }
+}
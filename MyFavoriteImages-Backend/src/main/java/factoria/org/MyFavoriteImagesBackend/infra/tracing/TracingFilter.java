@@ -0,0 +1,65 @@
+package factoria.org.MyFavoriteImagesBackend.infra.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Opens the root span of every request. Registered again right before and right after Spring Security's
+ * filter chain, it measures the time spent authenticating and authorizing the request.
+ */
+public class TracingFilter extends OncePerRequestFilter {
+    private static final String SECURITY_SPAN_ATTRIBUTE = TracingFilter.class.getName() + ".securitySpan";
+    private final Tracer tracer;
+    private final Stage stage;
+
+    public TracingFilter(Tracer tracer, Stage stage) {
+        this.tracer = tracer;
+        this.stage = stage;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        switch (this.stage) {
+            case REQUEST -> traceRequest(request, response, filterChain);
+            case BEFORE_SECURITY -> traceSecurityChain(request, response, filterChain);
+            case AFTER_SECURITY -> {
+                this.tracer.endSpan((Span) request.getAttribute(SECURITY_SPAN_ATTRIBUTE));
+                filterChain.doFilter(request, response);
+            }
+        }
+    }
+
+    private void traceRequest(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        Span root = this.tracer.startTrace(request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (root != null) {
+                root.tag("status", String.valueOf(response.getStatus()));
+                this.tracer.endSpan(root);
+            }
+        }
+    }
+
+    private void traceSecurityChain(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        Span span = this.tracer.startSpan("security.filterChain");
+        request.setAttribute(SECURITY_SPAN_ATTRIBUTE, span);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // Already ended by the AFTER_SECURITY stage unless the chain rejected the request.
+            this.tracer.endSpan(span);
+        }
+    }
+
+    public enum Stage {
+        REQUEST,
+        BEFORE_SECURITY,
+        AFTER_SECURITY
+    }
+}
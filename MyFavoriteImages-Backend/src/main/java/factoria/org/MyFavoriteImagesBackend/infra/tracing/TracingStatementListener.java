@@ -0,0 +1,27 @@
+package factoria.org.MyFavoriteImagesBackend.infra.tracing;
+
+import factoria.org.MyFavoriteImagesBackend.infra.jdbc.StatementExecution;
+import factoria.org.MyFavoriteImagesBackend.infra.jdbc.StatementListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TracingStatementListener implements StatementListener {
+    private static final int MAX_SQL_LENGTH = 300;
+    private final Tracer tracer;
+
+    public TracingStatementListener(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    @Override
+    public void afterExecute(StatementExecution execution) {
+        if (!this.tracer.isTracing()) {
+            return;
+        }
+        String sql = execution.sql();
+        if (sql != null && sql.length() > MAX_SQL_LENGTH) {
+            sql = sql.substring(0, MAX_SQL_LENGTH) + "...";
+        }
+        this.tracer.recordSpan("jdbc.execute", execution.startNanos(), execution.elapsedNanos(), "sql", sql);
+    }
+}
@@ -0,0 +1,50 @@
+package factoria.org.MyFavoriteImagesBackend.infra.trending;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-Min sketch over long keys: {@code depth} rows of {@code width} counters, each key incrementing one
+ * counter per row. The estimate is the smallest of its counters, which never undercounts and overcounts by at
+ * most about e/width of the total with high probability. Counters are atomic, so concurrent adds need no lock.
+ */
+public final class CountMinSketch {
+    private final int depth;
+    private final int mask;
+    private final AtomicLongArray counters;
+
+    public CountMinSketch(int width, int depth) {
+        if (Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Sketch width must be a power of two: " + width);
+        }
+        this.depth = depth;
+        this.mask = width - 1;
+        this.counters = new AtomicLongArray(width * depth);
+    }
+
+    /**
+     * Counts one occurrence of the key and returns its new estimate.
+     */
+    public long add(long key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < this.depth; row++) {
+            estimate = Math.min(estimate, this.counters.incrementAndGet(index(key, row)));
+        }
+        return estimate;
+    }
+
+    public long estimate(long key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < this.depth; row++) {
+            estimate = Math.min(estimate, this.counters.get(index(key, row)));
+        }
+        return estimate;
+    }
+
+    private int index(long key, int row) {
+        long hash = (key + row) * 0x9E3779B97F4A7C15L;
+        hash ^= hash >>> 31;
+        hash *= 0xBF58476D1CE4E5B9L + 2L * row;
+        hash ^= hash >>> 29;
+        return row * (this.mask + 1) + (int) (hash & this.mask);
+    }
+}
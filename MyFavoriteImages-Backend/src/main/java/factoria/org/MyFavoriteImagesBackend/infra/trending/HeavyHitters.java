@@ -0,0 +1,65 @@
+package factoria.org.MyFavoriteImagesBackend.infra.trending;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Frequent keys of one time bucket: every key is counted in a Count-Min sketch, and the keys with the highest
+ * estimates are kept as candidates in a summary of fixed capacity, Space-Saving style. Keys estimated below the
+ * weakest candidate only touch the sketch and a volatile threshold, so the common path is lock-free; entering
+ * the summary evicts the weakest candidate under a lock.
+ */
+final class HeavyHitters {
+    private final long epoch;
+    private final CountMinSketch sketch;
+    private final int capacity;
+    private final Map<Long, Long> candidates;
+    private volatile long threshold;
+
+    HeavyHitters(long epoch, int width, int depth, int capacity) {
+        this.epoch = epoch;
+        this.sketch = new CountMinSketch(width, depth);
+        this.capacity = capacity;
+        this.candidates = new ConcurrentHashMap<>(capacity * 2);
+    }
+
+    long epoch() {
+        return this.epoch;
+    }
+
+    void add(long key) {
+        long estimate = this.sketch.add(key);
+        if (estimate < this.threshold || this.candidates.replace(key, estimate) != null) {
+            return;
+        }
+        synchronized (this) {
+            this.candidates.put(key, estimate);
+            while (this.candidates.size() > this.capacity) {
+                evictWeakest();
+            }
+            if (this.candidates.size() == this.capacity) {
+                this.threshold = this.candidates.values().stream().mapToLong(Long::longValue).min().orElse(0);
+            }
+        }
+    }
+
+    long estimate(long key) {
+        return this.sketch.estimate(key);
+    }
+
+    Iterable<Long> candidates() {
+        return this.candidates.keySet();
+    }
+
+    private void evictWeakest() {
+        Long weakestKey = null;
+        long weakestCount = Long.MAX_VALUE;
+        for (Map.Entry<Long, Long> candidate : this.candidates.entrySet()) {
+            if (candidate.getValue() < weakestCount) {
+                weakestKey = candidate.getKey();
+                weakestCount = candidate.getValue();
+            }
+        }
+        this.candidates.remove(weakestKey);
+    }
+}
@@ -0,0 +1,88 @@
+package factoria.org.MyFavoriteImagesBackend.infra.trending;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Approximate top-K keys over a sliding window, kept as a ring of fixed-duration buckets each holding its own
+ * {@link HeavyHitters}. A bucket whose time has passed is replaced by a fresh one with a compare-and-set on first
+ * use, so memory stays fixed at the ring size. A query merges the candidates of the buckets covering the window
+ * and ranks them by their summed sketch estimates, so its cost depends on the window and summary capacity and
+ * not on the number of events.
+ */
+public final class SlidingTopK {
+    private final Clock clock;
+    private final long bucketMillis;
+    private final int width;
+    private final int depth;
+    private final int capacity;
+    private final AtomicReferenceArray<HeavyHitters> buckets;
+
+    public SlidingTopK(Clock clock, Duration bucketDuration, int bucketCount, int width, int depth, int capacity) {
+        this.clock = clock;
+        this.bucketMillis = bucketDuration.toMillis();
+        this.width = width;
+        this.depth = depth;
+        this.capacity = capacity;
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+    }
+
+    public void add(long key) {
+        long epoch = this.clock.millis() / this.bucketMillis;
+        int slot = (int) (epoch % this.buckets.length());
+        HeavyHitters bucket = this.buckets.get(slot);
+        while (bucket == null || bucket.epoch() < epoch) {
+            HeavyHitters fresh = new HeavyHitters(epoch, this.width, this.depth, this.capacity);
+            if (this.buckets.compareAndSet(slot, bucket, fresh)) {
+                bucket = fresh;
+            } else {
+                bucket = this.buckets.get(slot);
+            }
+        }
+        if (bucket.epoch() == epoch) {
+            bucket.add(key);
+        }
+    }
+
+    public Duration maxWindow() {
+        return Duration.ofMillis(this.bucketMillis * this.buckets.length());
+    }
+
+    /**
+     * Returns up to {@code limit} keys with the highest estimated counts in the last {@code window}, rounded up to
+     * whole buckets, highest first.
+     */
+    public List<Entry> top(Duration window, int limit) {
+        long currentEpoch = this.clock.millis() / this.bucketMillis;
+        int bucketsInWindow = (int) Math.min(this.buckets.length(),
+                Math.max(1, (window.toMillis() + this.bucketMillis - 1) / this.bucketMillis));
+        List<HeavyHitters> covered = new ArrayList<>(bucketsInWindow);
+        for (long epoch = currentEpoch; epoch > currentEpoch - bucketsInWindow && epoch >= 0; epoch--) {
+            HeavyHitters bucket = this.buckets.get((int) (epoch % this.buckets.length()));
+            if (bucket != null && bucket.epoch() == epoch) {
+                covered.add(bucket);
+            }
+        }
+        Set<Long> keys = new HashSet<>();
+        covered.forEach(bucket -> bucket.candidates().forEach(keys::add));
+        List<Entry> entries = new ArrayList<>(keys.size());
+        for (Long key : keys) {
+            long count = 0;
+            for (HeavyHitters bucket : covered) {
+                count += bucket.estimate(key);
+            }
+            entries.add(new Entry(key, count));
+        }
+        entries.sort(Comparator.comparingLong(Entry::count).reversed().thenComparingLong(Entry::key));
+        return entries.size() > limit ? entries.subList(0, limit) : entries;
+    }
+
+    public record Entry(long key, long count) {
+    }
+}
@@ -0,0 +1,5 @@
+-- Deleted users are hidden at once and their images purged in batches by UserPurgeService.
+alter table favorite_image_user add column deleted_at timestamp with time zone;
+alter table favorite_image_user add column purged_images bigint default 0 not null;
+
+create index ix_favorite_image_user_deleted_at on favorite_image_user (deleted_at);
@@ -0,0 +1,7 @@
+alter table favorite_image_user add column created_at timestamp with time zone default current_timestamp not null;
+
+alter table favorite_image_user add column image_count integer default 0 not null;
+update favorite_image_user u set image_count = (select count(*) from favorite_image i where i.owner_id = u.id);
+
+create index ix_favorite_image_user_created_at on favorite_image_user (created_at, id);
+create index ix_favorite_image_user_image_count on favorite_image_user (image_count, id);
@@ -0,0 +1,21 @@
+-- Append-only feed of image and user changes, written by ChangeLogService in the transaction of the change.
+create table change_log (
+    id          bigint generated by default as identity primary key,
+    entity_type varchar(16)  not null,
+    entity_id   bigint       not null,
+    owner_id    bigint,
+    change_type varchar(16)  not null,
+    changed_at  timestamp with time zone not null
+);
+
+create index ix_change_log_owner_id_id on change_log (owner_id, id);
+create index ix_change_log_entity on change_log (entity_type, entity_id, id);
+create index ix_change_log_changed_at on change_log (changed_at);
+
+-- Cursors at or below the horizon may have missed purged deletions and must resync.
+create table change_log_state (
+    id      integer not null primary key,
+    horizon bigint  not null
+);
+
+insert into change_log_state (id, horizon) values (1, 0);
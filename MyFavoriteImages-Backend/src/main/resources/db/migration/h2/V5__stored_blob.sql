@@ -0,0 +1,18 @@
+-- Reference-counted blobs. New blobs are keyed by their SHA-256; blobs uploaded before keep their random key.
+create table stored_blob (
+    blob_key           varchar(128) not null primary key,
+    sha256             varchar(64),
+    length             bigint       not null,
+    ref_count          integer      not null,
+    unreferenced_since timestamp with time zone
+);
+
+create index ix_stored_blob_unreferenced on stored_blob (ref_count, unreferenced_since);
+
+insert into stored_blob (blob_key, sha256, length, ref_count)
+select content_key, max(content_sha256), max(content_length), count(*)
+from favorite_image
+where content_key is not null
+group by content_key;
+
+create index ix_favorite_image_content_key on favorite_image (content_key);
@@ -0,0 +1,2 @@
+-- 64-bit difference hash of the decoded image, filled in by the thumbnail pipeline; compared by Hamming distance in memory.
+alter table favorite_image add column perceptual_hash bigint;
@@ -0,0 +1,8 @@
+-- Tags are normalized to lower case by ImageTagService; filtering is served by the in-memory bitmap index,
+-- so the table is only read in full at startup and per image when tags are edited.
+create table image_tag (
+    image_id bigint      not null,
+    tag      varchar(64) not null,
+    primary key (image_id, tag),
+    constraint fk_image_tag_image foreign key (image_id) references favorite_image (id) on delete cascade
+);
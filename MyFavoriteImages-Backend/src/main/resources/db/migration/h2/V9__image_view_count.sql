@@ -0,0 +1,2 @@
+-- Incremented only by ImageViewService's batched flush, never written through the entity.
+alter table favorite_image add column view_count bigint default 0 not null;
@@ -0,0 +1,10 @@
+-- Fractional base-62 keys are compared byte by byte, so the column must not use a linguistic collation.
+alter table favorite_image add column sort_key varchar(64) collate "C";
+
+-- Existing images keep their id order; the digits are valid keys and the trailing 1 keeps room before each one.
+update favorite_image set sort_key = lpad(cast(id as varchar), 12, '0') || '1';
+
+alter table favorite_image alter column sort_key set not null;
+
+-- Serves the keyset-paged gallery of one owner.
+create index ix_favorite_image_owner_id_sort_key on favorite_image (owner_id, sort_key, id);
@@ -0,0 +1,12 @@
+alter table favorite_image_user add column created_at timestamp with time zone default current_timestamp not null;
+
+-- Kept up to date by UserDirectoryService so the directory can sort by it without counting images.
+alter table favorite_image_user add column image_count integer default 0 not null;
+update favorite_image_user u set image_count = (select count(*) from favorite_image i where i.owner_id = u.id);
+
+-- The directory only lists live users; each sort order is served by an index scan stopped at the page limit.
+create index ix_favorite_image_user_created_at on favorite_image_user (created_at, id) where deleted_at is null;
+create index ix_favorite_image_user_image_count on favorite_image_user (image_count, id) where deleted_at is null;
+
+-- The unique username index uses the database collation, which cannot serve like 'prefix%'.
+create index ix_favorite_image_user_username_prefix on favorite_image_user (username varchar_pattern_ops) where deleted_at is null;
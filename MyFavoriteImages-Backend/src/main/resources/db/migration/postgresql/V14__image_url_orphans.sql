@@ -0,0 +1,4 @@
+-- URLs no image references are marked first and deleted by UrlDictionary once the mark has aged.
+alter table image_url add column orphaned_at timestamp with time zone;
+
+create index ix_favorite_image_url_id on favorite_image (url_id);
@@ -0,0 +1,3 @@
+-- A soft-deleted user keeps its row until the purge finishes; its username can be taken again right away.
+drop index ux_favorite_image_user_username;
+create unique index ux_favorite_image_user_username on favorite_image_user (username) where deleted_at is null;
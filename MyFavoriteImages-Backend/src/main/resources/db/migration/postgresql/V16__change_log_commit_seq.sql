@@ -0,0 +1,12 @@
+-- Entries are numbered when their transaction commits (ChangeLogService), so the feed follows commit order.
+-- Existing entries keep their id as number, which keeps the cursors clients already hold valid.
+alter table change_log add column commit_seq bigint;
+update change_log set commit_seq = id;
+alter table change_log alter column commit_seq set not null;
+
+alter table change_log_state add column commit_seq bigint default 0 not null;
+update change_log_state set commit_seq = (select coalesce(max(id), 0) from change_log) where id = 1;
+
+create unique index ux_change_log_commit_seq on change_log (commit_seq);
+drop index ix_change_log_owner_id_id;
+create index ix_change_log_owner_id_commit_seq on change_log (owner_id, commit_seq);
@@ -0,0 +1,25 @@
+create sequence favorite_image_user_seq start with 1 increment by 50;
+create sequence favorite_image_seq start with 1 increment by 50;
+
+create table favorite_image_user (
+    id       bigint       not null primary key,
+    username varchar(255) not null,
+    password varchar(255),
+    enabled  boolean      not null,
+    roles    varchar(255)
+);
+
+-- findByUsername runs on every login and every addImage
+create unique index ux_favorite_image_user_username on favorite_image_user (username);
+
+create table favorite_image (
+    id          bigint not null primary key,
+    title       varchar(255),
+    description varchar(255),
+    url         varchar(255),
+    owner_id    bigint references favorite_image_user (id) on delete cascade
+);
+
+-- Leading owner_id serves the per-owner image load and the cascade from favorite_image_user;
+-- the trailing id lets a user's images be paged by id without a sort.
+create index ix_favorite_image_owner_id_id on favorite_image (owner_id, id);
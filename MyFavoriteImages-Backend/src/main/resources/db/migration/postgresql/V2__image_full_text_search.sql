@@ -0,0 +1,6 @@
+-- 'simple' keeps terms unstemmed because titles and descriptions mix languages.
+alter table favorite_image
+    add column search_vector tsvector
+        generated always as (to_tsvector('simple', coalesce(title, '') || ' ' || coalesce(description, ''))) stored;
+
+create index ix_favorite_image_search_vector on favorite_image using gin (search_vector);
@@ -0,0 +1,21 @@
+-- Each distinct URL is stored once and referenced by id from favorite_image.
+create sequence image_url_seq start with 1 increment by 50;
+
+create table image_url (
+    id  bigint        not null primary key,
+    url varchar(2048) not null
+);
+
+create unique index ux_image_url_url on image_url (url);
+
+insert into image_url (id, url)
+select nextval('image_url_seq'), url
+from (select distinct url from favorite_image where url is not null) distinct_urls;
+
+alter table favorite_image add column url_id bigint;
+alter table favorite_image add constraint fk_favorite_image_url foreign key (url_id) references image_url (id);
+
+update favorite_image
+set url_id = (select u.id from image_url u where u.url = favorite_image.url);
+
+alter table favorite_image drop column url;
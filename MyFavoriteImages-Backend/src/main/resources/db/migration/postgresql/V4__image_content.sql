@@ -0,0 +1,5 @@
+-- Uploaded image bytes live in the blob store; the row keeps the key and what is needed to serve them.
+alter table favorite_image add column content_key varchar(128);
+alter table favorite_image add column content_type varchar(255);
+alter table favorite_image add column content_length bigint;
+alter table favorite_image add column content_sha256 varchar(64);
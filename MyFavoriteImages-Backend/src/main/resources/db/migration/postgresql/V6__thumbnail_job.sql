@@ -0,0 +1,11 @@
+-- One row per image whose thumbnails are being or have been generated, so pending work survives restarts.
+create table thumbnail_job (
+    image_id    bigint       not null primary key,
+    content_key varchar(128),
+    status      varchar(16),
+    attempts    integer      not null,
+    updated_at  timestamp with time zone,
+    constraint fk_thumbnail_job_image foreign key (image_id) references favorite_image (id) on delete cascade
+);
+
+create index ix_thumbnail_job_status on thumbnail_job (status, updated_at);
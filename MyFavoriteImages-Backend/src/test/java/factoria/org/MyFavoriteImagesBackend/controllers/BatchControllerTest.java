@@ -0,0 +1,196 @@
+package factoria.org.MyFavoriteImagesBackend.controllers;
+
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.domain.services.FavoriteImageService;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
+import factoria.org.MyFavoriteImagesBackend.infra.results.StatusCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class BatchControllerTest {
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockBean
+    FavoriteImageService imageService;
+
+    @Value("/api/v1/batch")
+    String baseUrl;
+
+    FavoriteImage image;
+
+    @BeforeEach
+    void setUp() {
+        this.image = new FavoriteImage();
+        this.image.setId(1L);
+        this.image.setTitle("Image 1");
+        this.image.setDescription("Description image 1");
+        this.image.setUrl("image1 URL");
+    }
+
+    @Test
+    @WithMockUser(authorities = { "ROLE_user" })
+    void shouldDenyOperationsTheCallerCannotMakeAlone() throws Exception {
+        //Given
+        given(this.imageService.findById(1L)).willReturn(this.image);
+        String json = """
+                {"operations": [
+                    {"method": "GET", "path": "/api/v1/images/1"},
+                    {"method": "GET", "path": "/api/v1/users"}
+                ]}""";
+
+        //When and then
+        this.mockMvc.perform(post(this.baseUrl).contentType(MediaType.APPLICATION_JSON).content(json).accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.data.results[0].status").value(200))
+                .andExpect(jsonPath("$.data.results[1].status").value(403))
+                .andExpect(jsonPath("$.data.results[1].body.message").value("Access denied"));
+    }
+
+    @Test
+    @WithMockUser(authorities = { "ROLE_admin", "ROLE_user" })
+    void shouldRollBackAtomicBatchAtFirstFailure() throws Exception {
+        //Given
+        given(this.imageService.findById(1L)).willReturn(this.image);
+        given(this.imageService.findById(2L)).willThrow(new ObjectNotFoundException("image", 2L));
+        String json = """
+                {"atomic": true, "operations": [
+                    {"method": "GET", "path": "/api/v1/images/1"},
+                    {"method": "GET", "path": "/api/v1/images/2"},
+                    {"method": "GET", "path": "/api/v1/images/3"}
+                ]}""";
+
+        //When and then
+        this.mockMvc.perform(post(this.baseUrl).contentType(MediaType.APPLICATION_JSON).content(json).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isFailedDependency())
+                .andExpect(jsonPath("$.flag").value(false))
+                .andExpect(jsonPath("$.code").value(StatusCode.FAILED_DEPENDENCY))
+                .andExpect(jsonPath("$.message").value("Batch Rolled Back"))
+                .andExpect(jsonPath("$.data.committed").value(false))
+                .andExpect(jsonPath("$.data.results[0].status").value(424))
+                .andExpect(jsonPath("$.data.results[0].body.message").value("Rolled back with the batch"))
+                .andExpect(jsonPath("$.data.results[1].status").value(404))
+                .andExpect(jsonPath("$.data.results[2].status").value(424));
+        verify(this.imageService, never()).findById(3L);
+    }
+
+    @Test
+    @WithMockUser(authorities = { "ROLE_admin", "ROLE_user" })
+    void shouldKeepRequestOrderForParallelReads() throws Exception {
+        //Given
+        FavoriteImage image3 = new FavoriteImage();
+        image3.setId(3L);
+        image3.setTitle("Image 3");
+        image3.setUrl("image3 URL");
+        //The first read finishes last
+        given(this.imageService.findById(1L)).willAnswer(invocation -> {
+            Thread.sleep(200);
+            return this.image;
+        });
+        given(this.imageService.findById(2L)).willThrow(new ObjectNotFoundException("image", 2L));
+        given(this.imageService.findById(3L)).willReturn(image3);
+        String json = """
+                {"parallel": true, "operations": [
+                    {"method": "GET", "path": "/api/v1/images/1"},
+                    {"method": "GET", "path": "/api/v1/images/2"},
+                    {"method": "GET", "path": "/api/v1/images/3"}
+                ]}""";
+
+        //When and then
+        this.mockMvc.perform(post(this.baseUrl).contentType(MediaType.APPLICATION_JSON).content(json).accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.data.results[0].status").value(200))
+                .andExpect(jsonPath("$.data.results[0].body.data.title").value("Image 1"))
+                .andExpect(jsonPath("$.data.results[1].status").value(404))
+                .andExpect(jsonPath("$.data.results[2].status").value(200))
+                .andExpect(jsonPath("$.data.results[2].body.data.title").value("Image 3"));
+    }
+
+    @Test
+    @WithMockUser(authorities = { "ROLE_admin", "ROLE_user" })
+    void shouldDispatchOperationsInOrder() throws Exception {
+        //Given
+        given(this.imageService.findById(1L)).willReturn(this.image);
+        given(this.imageService.findById(2L)).willThrow(new ObjectNotFoundException("image", 2L));
+        String json = """
+                {"operations": [
+                    {"method": "GET", "path": "/api/v1/images/1"},
+                    {"method": "GET", "path": "/api/v1/images/2"}
+                ]}""";
+
+        //When and then
+        this.mockMvc.perform(post(this.baseUrl).contentType(MediaType.APPLICATION_JSON).content(json).accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS))
+                .andExpect(jsonPath("$.message").value("Batch Success"))
+                .andExpect(jsonPath("$.data.results[0].status").value(200))
+                .andExpect(jsonPath("$.data.results[0].body.data.title").value("Image 1"))
+                .andExpect(jsonPath("$.data.results[1].status").value(404))
+                .andExpect(jsonPath("$.data.results[1].body.message").value("Could not find image with id: 2"));
+    }
+
+    @Test
+    @WithMockUser(authorities = { "ROLE_admin", "ROLE_user" })
+    void shouldThrownErrorWhenOperationTargetsOtherRoutes() throws Exception {
+        //Given
+        String json = """
+                {"operations": [
+                    {"method": "POST", "path": "/api/v1/login"},
+                    {"method": "POST", "path": "/api/v1/batch"}
+                ]}""";
+
+        //When and then
+        this.mockMvc.perform(post(this.baseUrl).contentType(MediaType.APPLICATION_JSON).content(json).accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(false))
+                .andExpect(jsonPath("$.code").value(StatusCode.INVALID_ARGUMENT));
+    }
+
+    @Test
+    @WithMockUser(authorities = { "ROLE_admin", "ROLE_user" })
+    void shouldThrownErrorWhenOperationTargetsBinaryContent() throws Exception {
+        //Given
+        String json = """
+                {"operations": [
+                    {"method": "GET", "path": "/api/v1/images/1"},
+                    {"method": "GET", "path": "/api/v1/images/1/content"}
+                ]}""";
+
+        //When and then
+        this.mockMvc.perform(post(this.baseUrl).contentType(MediaType.APPLICATION_JSON).content(json).accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(false))
+                .andExpect(jsonPath("$.code").value(StatusCode.INVALID_ARGUMENT))
+                .andExpect(jsonPath("$.message").value("Image content, thumbnails and uploads cannot be batched, got /api/v1/images/1/content"));
+        verify(this.imageService, never()).findById(1L);
+    }
+
+    @Test
+    @WithMockUser(authorities = { "ROLE_admin", "ROLE_user" })
+    void shouldThrownErrorWhenAtomicBatchIsParallel() throws Exception {
+        //Given
+        String json = """
+                {"atomic": true, "parallel": true, "operations": [{"method": "GET", "path": "/api/v1/images/1"}]}""";
+
+        //When and then
+        this.mockMvc.perform(post(this.baseUrl).contentType(MediaType.APPLICATION_JSON).content(json).accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(false))
+                .andExpect(jsonPath("$.code").value(StatusCode.INVALID_ARGUMENT))
+                .andExpect(jsonPath("$.message").value("An atomic batch runs in one transaction and cannot be parallel"));
+    }
+}
@@ -0,0 +1,95 @@
+package factoria.org.MyFavoriteImagesBackend.controllers;
+
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImageUser;
+import factoria.org.MyFavoriteImagesBackend.domain.services.ChangeLogService;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.ChangeFeedDto;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageUserRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.results.StatusCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ChangeControllerTest {
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockBean
+    ChangeLogService changeLogService;
+
+    @MockBean
+    FavoriteImageUserRepository userRepository;
+
+    @Value("/api/v1/changes")
+    String baseUrl;
+
+    @BeforeEach
+    void setUp() {
+        FavoriteImageUser user = new FavoriteImageUser();
+        user.setId(7L);
+        user.setUsername("john");
+        given(this.userRepository.findByUsername("john")).willReturn(Optional.of(user));
+        given(this.changeLogService.findChanges(anyLong(), any(), anyInt())).willReturn(new ChangeFeedDto(List.of(), 0L, false, false));
+    }
+
+    @Test
+    @WithMockUser(authorities = { "ROLE_admin" })
+    void shouldServeWholeFeedToAdmins() throws Exception {
+        //When and then
+        this.mockMvc.perform(get(this.baseUrl).accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS));
+    }
+
+    @Test
+    @WithMockUser(username = "john", authorities = { "ROLE_user" })
+    void shouldDenyWholeFeedToUsers() throws Exception {
+        //When and then
+        this.mockMvc.perform(get(this.baseUrl).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isForbidden());
+        this.mockMvc.perform(get(this.baseUrl).param("userId", "").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isForbidden());
+        verify(this.changeLogService, never()).findChanges(anyLong(), any(), anyInt());
+    }
+
+    @Test
+    @WithMockUser(username = "john", authorities = { "ROLE_user" })
+    void shouldServeOwnFeedToUsers() throws Exception {
+        //When and then
+        this.mockMvc.perform(get(this.baseUrl).param("userId", "7").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS));
+        verify(this.changeLogService).findChanges(0L, 7L, 100);
+    }
+
+    @Test
+    @WithMockUser(username = "john", authorities = { "ROLE_user" })
+    void shouldDenyFeedOfOtherUsers() throws Exception {
+        //When and then
+        this.mockMvc.perform(get(this.baseUrl).param("userId", "8").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(false))
+                .andExpect(jsonPath("$.code").value(StatusCode.FORBIDDEN));
+        verify(this.changeLogService, never()).findChanges(anyLong(), any(), anyInt());
+    }
+}
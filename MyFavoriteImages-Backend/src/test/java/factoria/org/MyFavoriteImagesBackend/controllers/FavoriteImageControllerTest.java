@@ -1,9 +1,13 @@
 package factoria.org.MyFavoriteImagesBackend.controllers;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
 import factoria.org.MyFavoriteImagesBackend.domain.services.FavoriteImageService;
 import factoria.org.MyFavoriteImagesBackend.infra.dtos.ImageDto;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.ImageFields;
 import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
 import factoria.org.MyFavoriteImagesBackend.infra.results.StatusCode;
 import org.hamcrest.Matchers;
@@ -17,12 +21,18 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
@@ -32,6 +42,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@TestPropertySource(properties = "images.response-cache.capacity=0")
 class FavoriteImageControllerTest {
     @Autowired
     MockMvc mockMvc;
@@ -127,6 +138,117 @@ class FavoriteImageControllerTest {
                 .andExpect(jsonPath("$.data[1].title").value("Image 2"));
     }
 
+    @Test
+    @WithMockUser(authorities = { "ADMIN", "USER" })
+    void shouldEncodeImagesAsCborWhenAccepted() throws Exception {
+        //Given
+        given(this.imageService.findAll()).willReturn(this.images);
+        MediaType cbor = MediaType.valueOf("application/cbor");
+
+        //When
+        MvcResult result = this.mockMvc.perform(get(this.baseUrl).accept(cbor)).andReturn();
+
+        //Then
+        assertThat(MediaType.valueOf(result.getResponse().getContentType()).isCompatibleWith(cbor)).isTrue();
+        JsonNode body = new ObjectMapper(new CBORFactory()).readTree(result.getResponse().getContentAsByteArray());
+        assertThat(body.get("code").asInt()).isEqualTo(StatusCode.SUCCESS);
+        assertThat(body.get("data").size()).isEqualTo(this.images.size());
+        assertThat(body.get("data").get(1).get("title").asText()).isEqualTo("Image 2");
+    }
+
+    @Test
+    @WithMockUser(authorities = { "ADMIN", "USER" })
+    void shouldEncodeImageAsSmileWhenAccepted() throws Exception {
+        //Given
+        given(this.imageService.findById(1L)).willReturn(this.images.get(0));
+        MediaType smile = MediaType.valueOf("application/x-jackson-smile");
+
+        //When
+        MvcResult result = this.mockMvc.perform(get(this.baseUrl + "/1").accept(smile)).andReturn();
+
+        //Then
+        assertThat(MediaType.valueOf(result.getResponse().getContentType()).isCompatibleWith(smile)).isTrue();
+        JsonNode body = new ObjectMapper(new SmileFactory()).readTree(result.getResponse().getContentAsByteArray());
+        assertThat(body.get("data").get("title").asText()).isEqualTo("Image 1");
+    }
+
+    @Test
+    @WithMockUser(authorities = { "ADMIN", "USER" })
+    void shouldDefaultToJsonWithoutAcceptHeader() throws Exception {
+        //Given
+        given(this.imageService.findById(1L)).willReturn(this.images.get(0));
+
+        //When
+        MvcResult result = this.mockMvc.perform(get(this.baseUrl + "/1")).andReturn();
+
+        //Then
+        assertThat(MediaType.valueOf(result.getResponse().getContentType()).isCompatibleWith(MediaType.APPLICATION_JSON)).isTrue();
+    }
+
+    @Test
+    @WithMockUser(authorities = { "ADMIN", "USER" })
+    void shouldReturnOnlyRequestedFieldsOfImage() throws Exception {
+        //Given
+        given(this.imageService.findById(1L)).willReturn(this.images.get(0));
+
+        //When and then
+        this.mockMvc.perform(get(this.baseUrl + "/1").param("fields", "title").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS))
+                .andExpect(jsonPath("$.data.id").value(1L))
+                .andExpect(jsonPath("$.data.title").value("Image 1"))
+                .andExpect(jsonPath("$.data.description").doesNotExist())
+                .andExpect(jsonPath("$.data.url").doesNotExist())
+                .andExpect(jsonPath("$.data.owner").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(authorities = { "ADMIN", "USER" })
+    void shouldFindAllImagesProjectedWhenFieldsGiven() throws Exception {
+        //Given
+        given(this.imageService.findProjected(eq(new ImageFields(Set.of("id", "url"), false)), isNull()))
+                .willReturn(List.of(Map.of("id", 1L, "url", "image1 URL"), Map.of("id", 2L, "url", "image2 URL")));
+
+        //When and then
+        this.mockMvc.perform(get(this.baseUrl).param("fields", "url").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.message").value("Find All Success"))
+                .andExpect(jsonPath("$.data", Matchers.hasSize(2)))
+                .andExpect(jsonPath("$.data[1].url").value("image2 URL"))
+                .andExpect(jsonPath("$.data[1].title").doesNotExist());
+    }
+
+    @Test
+    @WithMockUser(authorities = { "ADMIN", "USER" })
+    void shouldRejectUnknownField() throws Exception {
+        //When and then
+        this.mockMvc.perform(get(this.baseUrl + "/1").param("fields", "title,password").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(false))
+                .andExpect(jsonPath("$.code").value(StatusCode.INVALID_ARGUMENT))
+                .andExpect(jsonPath("$.message").value("Unknown field password, expected some of [id, title, description, url] or owner"));
+    }
+
+    @Test
+    @WithMockUser(authorities = { "ADMIN", "USER" })
+    void shouldFindImagesByIdsInRequestOrder() throws Exception {
+        //Given
+        given(this.imageService.findAllById(List.of(2L, 3L, 1L))).willReturn(Map.of(1L, this.images.get(0), 2L, this.images.get(1)));
+
+        //When and then
+        this.mockMvc.perform(get(this.baseUrl).param("ids", "2,3,1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS))
+                .andExpect(jsonPath("$.message").value("Find All Success"))
+                .andExpect(jsonPath("$.data", Matchers.hasSize(3)))
+                .andExpect(jsonPath("$.data[0].id").value(2L))
+                .andExpect(jsonPath("$.data[0].data.title").value("Image 2"))
+                .andExpect(jsonPath("$.data[1].id").value(3L))
+                .andExpect(jsonPath("$.data[1].found").value(false))
+                .andExpect(jsonPath("$.data[1].data").isEmpty())
+                .andExpect(jsonPath("$.data[2].id").value(1L))
+                .andExpect(jsonPath("$.data[2].found").value(true));
+    }
+
     @Test
     @WithMockUser(authorities = { "ADMIN", "USER" })
     void shouldSaveImageSuccessfully() throws Exception {
@@ -5,6 +5,8 @@ import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
 import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImageUser;
 import factoria.org.MyFavoriteImagesBackend.domain.services.FavoriteImageService;
 import factoria.org.MyFavoriteImagesBackend.domain.services.FavoriteImageUserService;
+import factoria.org.MyFavoriteImagesBackend.domain.services.UserDirectoryService;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.CursorPageDto;
 import factoria.org.MyFavoriteImagesBackend.infra.dtos.UserDto;
 import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
 import factoria.org.MyFavoriteImagesBackend.infra.results.StatusCode;
@@ -17,8 +19,10 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.ArrayList;
@@ -35,6 +39,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @SpringBootTest
 @AutoConfigureMockMvc
+@TestPropertySource(properties = "images.response-cache.capacity=0")
 class FavoriteImageUserControllerTest {
     @Autowired
     MockMvc mockMvc;
@@ -43,6 +48,9 @@ class FavoriteImageUserControllerTest {
 
     @MockBean
     FavoriteImageService imageService;
+
+    @MockBean
+    UserDirectoryService userDirectoryService;
     @Autowired
     ObjectMapper objectMapper;
     List<FavoriteImageUser> users;
@@ -123,18 +131,37 @@ class FavoriteImageUserControllerTest {
     @WithMockUser(authorities = { "ADMIN" })
     void shouldFindAllUsersSuccessfully() throws Exception {
         //Given
-        given(this.userService.findAll()).willReturn(this.users);
+        List<UserDto> usersDto = List.of(new UserDto(1L, "User1", true, "user", 2), new UserDto(2L, "User2", true, "admin", 0));
+        given(this.userDirectoryService.search(null, null, null, "createdAt", "desc", null, 20)).willReturn(new CursorPageDto<>(usersDto, 20, null));
 
         //When and then
         this.mockMvc.perform(get(this.baseUrl).accept(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.flag").value(true))
                 .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS))
                 .andExpect(jsonPath("$.message").value("Find All Success"))
-                .andExpect(jsonPath("$.data", Matchers.hasSize(this.users.size())))
-                .andExpect(jsonPath("$.data[0].id").value(1L))
-                .andExpect(jsonPath("$.data[0].username").value("User1"))
-                .andExpect(jsonPath("$.data[1].id").value(2l))
-                .andExpect(jsonPath("$.data[1].username").value("User2"));
+                .andExpect(jsonPath("$.data.content", Matchers.hasSize(this.users.size())))
+                .andExpect(jsonPath("$.data.content[0].id").value(1L))
+                .andExpect(jsonPath("$.data.content[0].username").value("User1"))
+                .andExpect(jsonPath("$.data.content[1].id").value(2l))
+                .andExpect(jsonPath("$.data.content[1].username").value("User2"))
+                .andExpect(jsonPath("$.data.next").isEmpty());
+    }
+
+    @Test
+    @WithMockUser(authorities = { "ADMIN" })
+    void shouldFindUsersPageFilteredByUsernamePrefix() throws Exception {
+        //Given
+        List<UserDto> usersDto = List.of(new UserDto(2L, "User2", true, "admin", 0));
+        given(this.userDirectoryService.search("User", true, null, "imageCount", "asc", "cursor1", 1))
+                .willReturn(new CursorPageDto<>(usersDto, 1, "cursor2"));
+
+        //When and then
+        this.mockMvc.perform(get(this.baseUrl).param("username", "User").param("enabled", "true").param("sort", "imageCount")
+                        .param("direction", "asc").param("after", "cursor1").param("size", "1").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.data.content", Matchers.hasSize(1)))
+                .andExpect(jsonPath("$.data.content[0].id").value(2L))
+                .andExpect(jsonPath("$.data.next").value("cursor2"));
     }
 
     @Test
@@ -167,6 +194,27 @@ class FavoriteImageUserControllerTest {
                 .andExpect(jsonPath("$.data.roles").value(savedUser.getRoles()));
     }
 
+    @Test
+    @WithMockUser(authorities = { "ADMIN" })
+    void shouldReportConflictWhenUsernameIsTaken() throws Exception {
+        //Given
+        UserDto userDto = new UserDto(null,
+                "Taken User",
+                true,
+                "user",
+                null);
+        String json = this.objectMapper.writeValueAsString(userDto);
+
+        given(this.userService.save(any(FavoriteImageUser.class)))
+                .willThrow(new DataIntegrityViolationException("ux_favorite_image_user_username"));
+
+        //When and then
+        this.mockMvc.perform(post(this.baseUrl).contentType(MediaType.APPLICATION_JSON).content(json).accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(false))
+                .andExpect(jsonPath("$.code").value(StatusCode.CONFLICT))
+                .andExpect(jsonPath("$.message").value("The request conflicts with existing data"));
+    }
+
     @Test
     @WithMockUser(authorities = { "ADMIN" })
     void shouldUpdateUserSuccessfully() throws Exception {
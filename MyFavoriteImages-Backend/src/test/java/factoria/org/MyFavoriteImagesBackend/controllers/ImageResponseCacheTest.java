@@ -0,0 +1,138 @@
+package factoria.org.MyFavoriteImagesBackend.controllers;
+
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.domain.events.UserChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImageUser;
+import factoria.org.MyFavoriteImagesBackend.domain.services.FavoriteImageService;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
+import factoria.org.MyFavoriteImagesBackend.infra.results.StatusCode;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+
+/**
+ * The cache lives as long as the application context, so every test works on its own image ids.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ImageResponseCacheTest {
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockBean
+    FavoriteImageService imageService;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Value("/api/v1/images")
+    String baseUrl;
+
+    @Test
+    @WithMockUser(authorities = { "ROLE_admin", "ROLE_user" })
+    void shouldServeRepeatedRequestsFromCache() throws Exception {
+        //Given
+        given(this.imageService.findById(41L)).willReturn(image(41L, "Image 41", null));
+
+        //When and then
+        for (int request = 0; request < 3; request++) {
+            this.mockMvc.perform(get(this.baseUrl + "/41").accept(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS))
+                    .andExpect(jsonPath("$.data.title").value("Image 41"));
+        }
+        verify(this.imageService, times(1)).findById(41L);
+    }
+
+    @Test
+    @WithMockUser(authorities = { "ROLE_admin", "ROLE_user" })
+    void shouldRebuildResponseAfterImageChanged() throws Exception {
+        //Given
+        FavoriteImage image = image(42L, "Image 42", null);
+        given(this.imageService.findById(42L)).willReturn(image);
+        this.mockMvc.perform(get(this.baseUrl + "/42").accept(MediaType.APPLICATION_JSON));
+
+        //When
+        image.setTitle("Image 42 updated");
+        this.eventPublisher.publishEvent(ImageChangedEvent.updated(image));
+
+        //Then
+        this.mockMvc.perform(get(this.baseUrl + "/42").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data.title").value("Image 42 updated"));
+        verify(this.imageService, times(2)).findById(42L);
+    }
+
+    @Test
+    @WithMockUser(authorities = { "ROLE_admin", "ROLE_user" })
+    void shouldRebuildResponseAfterOwnerChanged() throws Exception {
+        //Given
+        FavoriteImageUser owner = new FavoriteImageUser();
+        owner.setId(43L);
+        owner.setUsername("owner");
+        owner.setRoles("user");
+        given(this.imageService.findById(43L)).willReturn(image(43L, "Image 43", owner));
+        this.mockMvc.perform(get(this.baseUrl + "/43").accept(MediaType.APPLICATION_JSON));
+
+        //When
+        owner.setUsername("owner renamed");
+        this.eventPublisher.publishEvent(UserChangedEvent.updated(43L));
+
+        //Then
+        this.mockMvc.perform(get(this.baseUrl + "/43").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data.owner.username").value("owner renamed"));
+        verify(this.imageService, times(2)).findById(43L);
+    }
+
+    @Test
+    @WithMockUser(authorities = { "ROLE_admin", "ROLE_user" })
+    void shouldNotCacheRequestsWithParameters() throws Exception {
+        //Given
+        given(this.imageService.findById(44L)).willReturn(image(44L, "Image 44", null));
+
+        //When
+        this.mockMvc.perform(get(this.baseUrl + "/44").param("fields", "title").accept(MediaType.APPLICATION_JSON));
+        this.mockMvc.perform(get(this.baseUrl + "/44").param("fields", "title").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data.title").value("Image 44"));
+
+        //Then
+        verify(this.imageService, times(2)).findById(44L);
+    }
+
+    @Test
+    @WithMockUser(authorities = { "ROLE_admin", "ROLE_user" })
+    void shouldNotCacheErrorResponses() throws Exception {
+        //Given
+        given(this.imageService.findById(45L)).willThrow(new ObjectNotFoundException("image", 45L));
+
+        //When
+        this.mockMvc.perform(get(this.baseUrl + "/45").accept(MediaType.APPLICATION_JSON));
+        this.mockMvc.perform(get(this.baseUrl + "/45").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.code").value(StatusCode.NOT_FOUND));
+
+        //Then
+        verify(this.imageService, times(2)).findById(45L);
+    }
+
+    private static FavoriteImage image(Long id, String title, FavoriteImageUser owner) {
+        FavoriteImage image = new FavoriteImage();
+        image.setId(id);
+        image.setTitle(title);
+        image.setDescription("Description " + title);
+        image.setUrl(title + " URL");
+        image.setOwner(owner);
+        return image;
+    }
+}
@@ -0,0 +1,137 @@
+package factoria.org.MyFavoriteImagesBackend.controllers;
+
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
+import factoria.org.MyFavoriteImagesBackend.infra.profiling.RecordingManager;
+import factoria.org.MyFavoriteImagesBackend.infra.results.StatusCode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RecordingControllerTest {
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockBean
+    RecordingManager recordingManager;
+
+    @Value("/api/v1/admin/recordings")
+    String baseUrl;
+
+    @Test
+    @WithMockUser(authorities = "ROLE_admin")
+    void shouldStartRecordingWithIsoDuration() throws Exception {
+        //Given
+        given(this.recordingManager.start(Duration.ofSeconds(30)))
+                .willReturn(new RecordingManager.RecordingInfo(1L, "on-demand-1", "RUNNING", "recordings/on-demand-1.jfr"));
+
+        //When and then
+        this.mockMvc.perform(post(this.baseUrl).param("maxDuration", "PT30S").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(true))
+                .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS))
+                .andExpect(jsonPath("$.data.id").value(1))
+                .andExpect(jsonPath("$.data.state").value("RUNNING"));
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_admin")
+    void shouldStartRecordingWithoutDuration() throws Exception {
+        //Given
+        given(this.recordingManager.start(null))
+                .willReturn(new RecordingManager.RecordingInfo(2L, "on-demand-2", "RUNNING", "recordings/on-demand-2.jfr"));
+
+        //When and then
+        this.mockMvc.perform(post(this.baseUrl).accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS))
+                .andExpect(jsonPath("$.data.id").value(2));
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_admin")
+    void shouldListRecordings() throws Exception {
+        //Given
+        given(this.recordingManager.findAll()).willReturn(List.of(
+                new RecordingManager.RecordingInfo(1L, "on-demand-1", "RUNNING", "recordings/on-demand-1.jfr"),
+                new RecordingManager.RecordingInfo(2L, "on-demand-2", "STOPPED", "recordings/on-demand-2.jfr")));
+
+        //When and then
+        this.mockMvc.perform(get(this.baseUrl).accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS))
+                .andExpect(jsonPath("$.data.length()").value(2))
+                .andExpect(jsonPath("$.data[1].state").value("STOPPED"));
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_admin")
+    void shouldStopRecording() throws Exception {
+        //Given
+        given(this.recordingManager.stop(1L))
+                .willReturn(new RecordingManager.RecordingInfo(1L, "on-demand-1", "STOPPED", "recordings/on-demand-1.jfr"));
+
+        //When and then
+        this.mockMvc.perform(post(this.baseUrl + "/1/stop").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.code").value(StatusCode.SUCCESS))
+                .andExpect(jsonPath("$.data.state").value("STOPPED"));
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_admin")
+    void shouldReturnNotFoundForUnknownRecording() throws Exception {
+        //Given
+        given(this.recordingManager.stop(9L)).willThrow(new ObjectNotFoundException("recording", 9L));
+
+        //When and then
+        this.mockMvc.perform(post(this.baseUrl + "/9/stop").accept(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.flag").value(false))
+                .andExpect(jsonPath("$.code").value(StatusCode.NOT_FOUND));
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_admin")
+    void shouldDownloadRecordingAsAttachment(@TempDir Path directory) throws Exception {
+        //Given
+        Path file = Files.write(directory.resolve("on-demand-1.jfr"), new byte[]{1, 2, 3});
+        given(this.recordingManager.export(1L)).willReturn(file);
+
+        //When and then
+        this.mockMvc.perform(get(this.baseUrl + "/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("on-demand-1.jfr")))
+                .andExpect(content().bytes(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    @WithMockUser(authorities = "ROLE_user")
+    void shouldForbidRecordingsToUsers() throws Exception {
+        //When and then
+        this.mockMvc.perform(post(this.baseUrl).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isForbidden());
+        verify(this.recordingManager, never()).start(any());
+    }
+}
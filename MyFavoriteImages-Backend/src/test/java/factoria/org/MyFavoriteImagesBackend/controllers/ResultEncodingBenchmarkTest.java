@@ -0,0 +1,82 @@
+package factoria.org.MyFavoriteImagesBackend.controllers;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.ImageDto;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.UserDto;
+import factoria.org.MyFavoriteImagesBackend.infra.results.Result;
+import factoria.org.MyFavoriteImagesBackend.infra.results.StatusCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Size and encode time of a findAllImages payload per wire format. Excluded from the regular test run; run it with
+ * {@code ./gradlew benchmark}.
+ */
+@Tag("benchmark")
+class ResultEncodingBenchmarkTest {
+    private static final int IMAGES = 1000;
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int MEASURED_ITERATIONS = 500;
+
+    Map<String, ObjectMapper> mappers;
+    Result result;
+
+    @BeforeEach
+    void setUp() {
+        //Same factories as BinaryFormatsConfig
+        this.mappers = new LinkedHashMap<>();
+        this.mappers.put("json", Jackson2ObjectMapperBuilder.json().factory(new JsonFactory()).build());
+        this.mappers.put("cbor", Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build());
+        this.mappers.put("smile", Jackson2ObjectMapperBuilder.json()
+                .factory(new SmileFactory().configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, true)).build());
+
+        List<ImageDto> images = new ArrayList<>();
+        for (long id = 1; id <= IMAGES; id++) {
+            UserDto owner = new UserDto(id % 10, "user" + id % 10, true, "user", 100);
+            images.add(new ImageDto(id, "Image " + id, "Description of image " + id,
+                    "https://images.example.org/" + id + ".jpg", owner));
+        }
+        this.result = new Result(true, StatusCode.SUCCESS, "Find All Success", images);
+    }
+
+    @Test
+    void shouldCompareSizeAndEncodeTimePerFormat() throws Exception {
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        ObjectMapper json = this.mappers.get("json");
+        JsonNode expected = json.readTree(json.writeValueAsBytes(this.result));
+        for (Map.Entry<String, ObjectMapper> entry : this.mappers.entrySet()) {
+            ObjectMapper mapper = entry.getValue();
+            for (int iteration = 0; iteration < WARMUP_ITERATIONS; iteration++) {
+                mapper.writeValueAsBytes(this.result);
+            }
+            int size = 0;
+            long start = System.nanoTime();
+            for (int iteration = 0; iteration < MEASURED_ITERATIONS; iteration++) {
+                size = mapper.writeValueAsBytes(this.result).length;
+            }
+            long micros = (System.nanoTime() - start) / MEASURED_ITERATIONS / 1000;
+            sizes.put(entry.getKey(), size);
+            System.out.printf("%-6s %8d bytes %8d us/encode%n", entry.getKey(), size, micros);
+
+            byte[] encoded = mapper.writeValueAsBytes(this.result);
+            assertThat(mapper.readTree(encoded)).isEqualTo(expected);
+        }
+
+        assertThat(sizes.get("cbor")).isLessThan(sizes.get("json"));
+        assertThat(sizes.get("smile")).isLessThan(sizes.get("json"));
+    }
+}
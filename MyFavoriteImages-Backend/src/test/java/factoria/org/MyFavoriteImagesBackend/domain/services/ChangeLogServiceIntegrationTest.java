@@ -0,0 +1,87 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImageUser;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.ChangeDto;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.ChangeFeedDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against the configured database. Every test logs under an owner of its own, so the feed it reads only holds
+ * its own entries.
+ */
+@SpringBootTest
+class ChangeLogServiceIntegrationTest {
+    @Autowired
+    ChangeLogService changeLogService;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void shouldNotSkipChangesOfATransactionThatCommitsLast() throws Exception {
+        //Given
+        FavoriteImageUser owner = new FavoriteImageUser();
+        owner.setId(ThreadLocalRandom.current().nextLong(1_000_000_000L, 2_000_000_000L));
+        TransactionTemplate transactionTemplate = new TransactionTemplate(this.transactionManager);
+        long since = this.changeLogService.findChanges(0L, owner.getId(), 100).cursor();
+        CountDownLatch logged = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            //Starts first and stays open while another transaction commits
+            Future<?> longTransaction = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                this.changeLogService.onImageChanged(ImageChangedEvent.created(image(1L, owner)));
+                logged.countDown();
+                await(commit);
+            }));
+            assertThat(logged.await(10, TimeUnit.SECONDS)).isTrue();
+
+            //When
+            transactionTemplate.executeWithoutResult(status ->
+                    this.changeLogService.onImageChanged(ImageChangedEvent.created(image(2L, owner))));
+            ChangeFeedDto first = this.changeLogService.findChanges(since, owner.getId(), 100);
+            commit.countDown();
+            longTransaction.get(10, TimeUnit.SECONDS);
+            ChangeFeedDto second = this.changeLogService.findChanges(first.cursor(), owner.getId(), 100);
+
+            //Then
+            assertThat(first.changes()).extracting(ChangeDto::id).containsExactly(2L);
+            assertThat(second.changes()).extracting(ChangeDto::id).containsExactly(1L);
+            assertThat(second.cursor()).isGreaterThan(first.cursor());
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private static FavoriteImage image(Long id, FavoriteImageUser owner) {
+        FavoriteImage image = new FavoriteImage();
+        image.setId(id);
+        image.setOwner(owner);
+        return image;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.domain.events.UserChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImageUser;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.ChangeDto;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.ChangeFeedDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ChangeLogServiceTest {
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    ChangeLogService changeLogService;
+
+    @BeforeEach
+    void setUp() {
+        this.changeLogService = new ChangeLogService(jdbcTemplate, transactionManager, Duration.ofMinutes(10), Duration.ofDays(30), 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void shouldAppendImageChange() {
+        //Given
+        FavoriteImageUser owner = new FavoriteImageUser();
+        owner.setId(7L);
+        FavoriteImage image = new FavoriteImage();
+        image.setId(3L);
+        image.setOwner(owner);
+        given(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).willReturn(12L);
+
+        //When
+        changeLogService.onImageChanged(ImageChangedEvent.created(image));
+
+        //Then
+        List<Object[]> rows = insertedRows();
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0)).startsWith("image", 3L, 7L, "CREATED");
+        assertThat(rows.get(0)[5]).isEqualTo(12L);
+        verify(jdbcTemplate, times(1)).update(anyString(), eq(1));
+    }
+
+    @Test
+    void shouldAppendUserChangeUnderItsOwnId() {
+        //Given
+        given(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).willReturn(1L);
+
+        //When
+        changeLogService.onUserChanged(UserChangedEvent.deleted(7L));
+
+        //Then
+        assertThat(insertedRows().get(0)).startsWith("user", 7L, 7L, "DELETED");
+    }
+
+    @Test
+    void shouldNumberEntriesOfATransactionWhenItCommits() {
+        //Given
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        FavoriteImage image = new FavoriteImage();
+        image.setId(3L);
+        given(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).willReturn(21L);
+
+        //When
+        changeLogService.onImageChanged(ImageChangedEvent.created(image));
+        changeLogService.onImageChanged(ImageChangedEvent.updated(image));
+        verifyNoInteractions(jdbcTemplate);
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.beforeCommit(false));
+
+        //Then
+        verify(jdbcTemplate, times(1)).update(anyString(), eq(2));
+        List<Object[]> rows = insertedRows();
+        assertThat(rows).extracting(row -> row[3]).containsExactly("CREATED", "UPDATED");
+        assertThat(rows).extracting(row -> row[5]).containsExactly(20L, 21L);
+        assertThat(rows.get(0)[4]).isInstanceOf(Timestamp.class);
+    }
+
+    @Test
+    void shouldCollapseChangesOfTheSameEntity() {
+        //Given
+        Instant changedAt = Instant.now();
+        given(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).willReturn(0L);
+        given(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<ChangeDto>>any(), eq(0L), eq(11)))
+                .willReturn(List.of(
+                        change(1L, 3L, "CREATED", changedAt),
+                        change(2L, 4L, "CREATED", changedAt),
+                        change(3L, 3L, "UPDATED", changedAt),
+                        change(4L, 5L, "CREATED", changedAt)));
+
+        //When
+        ChangeFeedDto feed = changeLogService.findChanges(0L, null, 10);
+
+        //Then
+        assertThat(feed.changes()).extracting(ChangeDto::cursor).containsExactly(2L, 3L, 4L);
+        assertThat(feed.changes().get(1).type()).isEqualTo("UPDATED");
+        assertThat(feed.cursor()).isEqualTo(4L);
+        assertThat(feed.hasMore()).isFalse();
+        assertThat(feed.reset()).isFalse();
+    }
+
+    @Test
+    void shouldReportMoreChangesWhenPageIsFull() {
+        //Given
+        given(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).willReturn(0L);
+        given(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<ChangeDto>>any(), eq(7L), eq(5L), eq(3)))
+                .willReturn(List.of(
+                        change(6L, 3L, "CREATED", Instant.now()),
+                        change(8L, 4L, "CREATED", Instant.now()),
+                        change(9L, 5L, "CREATED", Instant.now())));
+
+        //When
+        ChangeFeedDto feed = changeLogService.findChanges(5L, 7L, 2);
+
+        //Then
+        assertThat(feed.changes()).hasSize(2);
+        assertThat(feed.cursor()).isEqualTo(8L);
+        assertThat(feed.hasMore()).isTrue();
+    }
+
+    @Test
+    void shouldAskForResetWhenCursorIsBehindHorizon() {
+        //Given
+        given(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).willReturn(50L);
+
+        //When
+        ChangeFeedDto feed = changeLogService.findChanges(10L, null, 100);
+
+        //Then
+        assertThat(feed.reset()).isTrue();
+        assertThat(feed.changes()).isEmpty();
+        assertThat(feed.cursor()).isEqualTo(50L);
+        verify(jdbcTemplate, never()).query(anyString(), ArgumentMatchers.<RowMapper<ChangeDto>>any(), eq(10L), eq(101));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> insertedRows() {
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), rows.capture());
+        return rows.getValue();
+    }
+
+    private static ChangeDto change(long cursor, Long imageId, String type, Instant changedAt) {
+        return new ChangeDto(cursor, "image", imageId, 7L, type, changedAt);
+    }
+}
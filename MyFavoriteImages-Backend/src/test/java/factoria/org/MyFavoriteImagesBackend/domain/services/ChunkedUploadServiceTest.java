@@ -0,0 +1,124 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ChecksumMismatchException;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.InvalidArgumentException;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.UploadConflictException;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.storage.UploadSession;
+import factoria.org.MyFavoriteImagesBackend.infra.storage.UploadSessionStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ChunkedUploadServiceTest {
+    @Mock
+    FavoriteImageRepository imageRepository;
+
+    @Mock
+    UploadSessionStore sessionStore;
+
+    @Mock
+    ImageContentService contentService;
+
+    @Mock
+    UploadSession session;
+
+    ChunkedUploadService uploadService;
+
+    @BeforeEach
+    void setUp() {
+        this.uploadService = new ChunkedUploadService(imageRepository, sessionStore, contentService, DataSize.ofMegabytes(10));
+    }
+
+    @Test
+    void shouldThrownConflictWhenChunkOffsetDoesNotMatch() throws Exception {
+        //Given
+        InputStream chunk = new ByteArrayInputStream(new byte[16]);
+        given(sessionStore.find("upload-1")).willReturn(Optional.of(session));
+        given(session.getImageId()).willReturn(1L);
+        given(session.append(eq(32L), any(InputStream.class), anyLong())).willReturn(false);
+        given(session.getSize()).willReturn(16L);
+
+        //When
+        Throwable thrown = catchThrowable(() -> uploadService.appendChunk(1L, "upload-1", 32L, chunk));
+
+        //Then
+        assertThat(thrown).isInstanceOf(UploadConflictException.class);
+        assertThat(((UploadConflictException) thrown).getCurrentOffset()).isEqualTo(16L);
+    }
+
+    @Test
+    void shouldThrownErrorWhenUploadBelongsToAnotherImage() {
+        //Given
+        given(sessionStore.find("upload-1")).willReturn(Optional.of(session));
+        given(session.getImageId()).willReturn(2L);
+
+        //When
+        Throwable thrown = catchThrowable(() -> uploadService.findUpload(1L, "upload-1"));
+
+        //Then
+        assertThat(thrown).isInstanceOf(ObjectNotFoundException.class).hasMessage("Could not find upload with id: upload-1");
+    }
+
+    @Test
+    void shouldRejectCompletionWhenChecksumDiffers() throws Exception {
+        //Given
+        given(sessionStore.find("upload-1")).willReturn(Optional.of(session));
+        given(session.getImageId()).willReturn(1L);
+        given(session.seal()).willReturn("aaaa");
+
+        //When
+        Throwable thrown = catchThrowable(() -> uploadService.complete(1L, "upload-1", "bbbb"));
+
+        //Then
+        assertThat(thrown).isInstanceOf(ChecksumMismatchException.class);
+        verify(contentService, never()).attachContent(any(), any(), any(), anyLong(), any());
+        verify(sessionStore, never()).discard(any());
+        verify(session).unseal();
+    }
+
+    @Test
+    void shouldThrownConflictWhenUploadIsAlreadyBeingCompleted() throws Exception {
+        //Given
+        given(sessionStore.find("upload-1")).willReturn(Optional.of(session));
+        given(session.getImageId()).willReturn(1L);
+        given(session.seal()).willReturn(null);
+        given(session.getSize()).willReturn(16L);
+
+        //When
+        Throwable thrown = catchThrowable(() -> uploadService.complete(1L, "upload-1", null));
+
+        //Then
+        assertThat(thrown).isInstanceOf(UploadConflictException.class);
+        verify(contentService, never()).attachContent(any(), any(), any(), anyLong(), any());
+        verify(session, never()).unseal();
+    }
+
+    @Test
+    void shouldRejectAnnouncedChecksumThatIsNotSha256() {
+        //When
+        Throwable thrown = catchThrowable(() -> uploadService.attachIfStored(1L, "image/png", "abc123", "john"));
+
+        //Then
+        assertThat(thrown).isInstanceOf(InvalidArgumentException.class);
+        verify(contentService, never()).attachExistingContent(any(), any(), any(), any());
+    }
+}
@@ -2,8 +2,10 @@ package factoria.org.MyFavoriteImagesBackend.domain.services;
 
 import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
 import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImageUser;
+import factoria.org.MyFavoriteImagesBackend.domain.models.ImageUrl;
 import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
 import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.UrlDictionary;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,10 +14,13 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.catchThrowable;
@@ -28,6 +33,15 @@ class FavoriteImageServiceTest {
     @Mock
     FavoriteImageRepository imageRepository;
 
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    UrlDictionary urlDictionary;
+
+    @Mock
+    ImageOrderService orderService;
+
     @InjectMocks
     FavoriteImageService imageService;
 
@@ -56,6 +70,20 @@ class FavoriteImageServiceTest {
     void tearDown() {
     }
 
+    @Test
+    void shouldFindAllByIdWithOneQuery() {
+        //Given
+        given(imageRepository.findAllByIdIn(Set.of(1L, 2L, 3L))).willReturn(this.images);
+
+        //When
+        Map<Long, FavoriteImage> foundImages = imageService.findAllById(List.of(3L, 1L, 2L, 1L));
+
+        //Then
+        assertThat(foundImages).containsOnlyKeys(1L, 2L);
+        assertThat(foundImages.get(2L).getTitle()).isEqualTo("Image 2");
+        verify(imageRepository, times(1)).findAllByIdIn(Set.of(1L, 2L, 3L));
+    }
+
     @Test
     void shouldFindByIdSuccessfully() {
         FavoriteImage image = new FavoriteImage();
@@ -69,7 +97,7 @@ class FavoriteImageServiceTest {
 
         image.setOwner(user);
 
-        given(imageRepository.findById(1L)).willReturn(Optional.of(image));
+        given(imageRepository.findVisibleById(1L)).willReturn(Optional.of(image));
 
         //When
         FavoriteImage returnedImage = imageService.findById(1L);
@@ -80,13 +108,13 @@ class FavoriteImageServiceTest {
         assertThat(returnedImage.getDescription()).isEqualTo("Image 1 description");
         assertThat(returnedImage.getUrl()).isEqualTo("Image 1 url");
         assertThat(returnedImage.getOwner().getUsername()).isEqualTo("User1");
-        verify(imageRepository, times(1)).findById(1L);
+        verify(imageRepository, times(1)).findVisibleById(1L);
     }
 
     @Test
     void shouldThrownErrorWhenImageNotFound() {
         //Given
-        given(imageRepository.findById(Mockito.any(Long.class))).willReturn(Optional.empty());
+        given(imageRepository.findVisibleById(Mockito.any(Long.class))).willReturn(Optional.empty());
 
         //When
         Throwable thrown = catchThrowable(()-> {
@@ -95,20 +123,20 @@ class FavoriteImageServiceTest {
 
         //Then
         assertThat(thrown).isInstanceOf(ObjectNotFoundException.class).hasMessage("Could not find image with id: 1");
-        verify(imageRepository, times(1)).findById(1L);
+        verify(imageRepository, times(1)).findVisibleById(1L);
     }
 
     @Test
     void shouldFindAllSuccessfully() {
         //Given
-        given(imageRepository.findAll()).willReturn(this.images);
+        given(imageRepository.findAllVisible()).willReturn(this.images);
 
         //When
         List<FavoriteImage> actualImages = imageService.findAll();
 
         //Then
         assertThat(actualImages.size()).isEqualTo(this.images.size());
-        verify(imageRepository, times(1)).findAll();
+        verify(imageRepository, times(1)).findAllVisible();
     }
 
     @Test
@@ -131,6 +159,46 @@ class FavoriteImageServiceTest {
         verify(imageRepository, times(1)).save(newImage);
     }
 
+    @Test
+    void shouldReferenceInternedUrlWhenSave() {
+        //Given
+        FavoriteImage newImage = new FavoriteImage();
+        newImage.setTitle("New Image 1");
+        newImage.setUrl("src/assets/images/hojas.jpg");
+
+        ImageUrl imageUrl = new ImageUrl("src/assets/images/hojas.jpg");
+        given(urlDictionary.intern("src/assets/images/hojas.jpg")).willReturn(imageUrl);
+        given(imageRepository.save(newImage)).willReturn(newImage);
+
+        //When
+        FavoriteImage savedImage = imageService.save(newImage);
+
+        //Then
+        assertThat(savedImage.getImageUrl()).isSameAs(imageUrl);
+        assertThat(savedImage.getUrl()).isEqualTo("src/assets/images/hojas.jpg");
+        verify(urlDictionary, times(1)).intern("src/assets/images/hojas.jpg");
+    }
+
+    @Test
+    void shouldAppendToOwnerGalleryWhenSave() {
+        //Given
+        FavoriteImageUser owner = new FavoriteImageUser();
+        owner.setId(1L);
+        FavoriteImage newImage = new FavoriteImage();
+        newImage.setUrl("New Image URL");
+        newImage.setOwner(owner);
+
+        given(orderService.keyAtEnd(1L)).willReturn("V");
+        given(imageRepository.save(newImage)).willReturn(newImage);
+
+        //When
+        FavoriteImage savedImage = imageService.save(newImage);
+
+        //Then
+        assertThat(savedImage.getSortKey()).isEqualTo("V");
+        verify(imageRepository, never()).findLastSortKey(1L);
+    }
+
     @Test
     void shouldUpdateSuccessfully() {
         //Given
@@ -1,9 +1,12 @@
 package factoria.org.MyFavoriteImagesBackend.domain.services;
 
+import factoria.org.MyFavoriteImagesBackend.domain.events.UserChangedEvent;
 import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
 import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImageUser;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.ImageFields;
 import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
 import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageUserRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.UrlDictionary;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,10 +16,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -36,6 +41,12 @@ class FavoriteImageUserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    UrlDictionary urlDictionary;
+
     @InjectMocks
     FavoriteImageUserService userService;
 
@@ -189,6 +200,7 @@ class FavoriteImageUserServiceTest {
         assertThat(result.getUsername()).isEqualTo(updatedUser.getUsername());
         verify(userRepository, times(1)).findById(1L);
         verify(userRepository, times(1)).save(oldUser);
+        verify(eventPublisher, times(1)).publishEvent(UserChangedEvent.updated(1L));
     }
 
     @Test
@@ -259,6 +271,7 @@ class FavoriteImageUserServiceTest {
 
         //Then
         verify(userRepository, times(1)).deleteById(Long.valueOf("1"));
+        verify(eventPublisher, times(1)).publishEvent(UserChangedEvent.deleted(1L));
     }
 
     @Test
@@ -323,4 +336,33 @@ class FavoriteImageUserServiceTest {
         //Then
         verify(userRepository, times(1)).findById(1L);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldGetProjectedUserImages() {
+        //Given
+        ImageFields fields = ImageFields.parse("title", null);
+        List<Map<String, Object>> projected = List.of(Map.of("id", 1L, "title", "Image 1"));
+        given(userRepository.existsById(1L)).willReturn(true);
+        given(imageService.findProjected(fields, 1L)).willReturn(projected);
+
+        //When
+        List<Map<String, Object>> images = userService.getUserImages(1L, fields);
+
+        //Then
+        assertThat(images).isEqualTo(projected);
+        verify(userRepository, never()).findById(1L);
+    }
+
+    @Test
+    void shouldThrownErrorWithNonExistentIdWhenGetProjectedUserImages() {
+        //Given
+        given(userRepository.existsById(1L)).willReturn(false);
+
+        //When
+        Throwable thrown = catchThrowable(() -> userService.getUserImages(1L, ImageFields.parse("title", null)));
+
+        //Then
+        assertThat(thrown).isInstanceOf(ObjectNotFoundException.class).hasMessage("Could not find user with id: 1");
+        verify(imageService, never()).findProjected(any(), any());
+    }
+}
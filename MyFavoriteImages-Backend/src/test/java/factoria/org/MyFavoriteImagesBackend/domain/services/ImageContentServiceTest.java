@@ -0,0 +1,178 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.UnsupportedContentTypeException;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.storage.BlobLocation;
+import factoria.org.MyFavoriteImagesBackend.infra.storage.BlobStore;
+import factoria.org.MyFavoriteImagesBackend.infra.storage.ContentAddressedStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ImageContentServiceTest {
+    @Mock
+    FavoriteImageRepository imageRepository;
+
+    @Mock
+    BlobStore blobStore;
+
+    @Mock
+    ContentAddressedStore contentStore;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    ImageContentService contentService;
+
+    @Test
+    void shouldRejectContentThatIsNotAnImage() throws Exception {
+        //When
+        Throwable thrown = catchThrowable(() -> contentService.storeContent(1L, "text/html", new ByteArrayInputStream(new byte[0])));
+
+        //Then
+        assertThat(thrown).isInstanceOf(UnsupportedContentTypeException.class);
+        verify(blobStore, never()).createTempFile();
+    }
+
+    @Test
+    void shouldRejectSvgImages() throws Exception {
+        //When
+        Throwable thrown = catchThrowable(() -> contentService.storeContent(1L, "image/svg+xml", new ByteArrayInputStream(new byte[0])));
+
+        //Then
+        assertThat(thrown).isInstanceOf(UnsupportedContentTypeException.class);
+        verify(blobStore, never()).createTempFile();
+    }
+
+    @Test
+    void shouldAcceptRasterImageTypesWithoutParameters() {
+        //When and then
+        assertThat(ImageContentService.requireImageContentType("image/png")).isEqualTo("image/png");
+        assertThat(ImageContentService.requireImageContentType("Image/JPEG; charset=binary")).isEqualTo("image/jpeg");
+        assertThat(ImageContentService.requireImageContentType("image/avif")).isEqualTo("image/avif");
+    }
+
+    @Test
+    void shouldServeLegacyContentTypesAsPlainBytes() throws Exception {
+        //Given
+        FavoriteImage image = new FavoriteImage();
+        image.setId(1L);
+        image.setContentKey("0a1b2c3d");
+        image.setContentType("image/svg+xml");
+        image.setContentSha256("abc123");
+        BlobLocation location = new BlobLocation(Path.of("blobs/0a/1b/0a1b2c3d"), 0, 42);
+
+        given(imageRepository.findVisibleById(1L)).willReturn(Optional.of(image));
+        given(contentStore.locate("0a1b2c3d")).willReturn(Optional.of(location));
+
+        //When
+        ImageContentService.Content content = contentService.findContent(1L);
+
+        //Then
+        assertThat(content.contentType()).isEqualTo("application/octet-stream");
+    }
+
+    @Test
+    void shouldLocateStoredContentWithStrongEtag() throws Exception {
+        //Given
+        FavoriteImage image = new FavoriteImage();
+        image.setId(1L);
+        image.setContentKey("0a1b2c3d");
+        image.setContentType("image/png");
+        image.setContentSha256("abc123");
+        BlobLocation location = new BlobLocation(Path.of("blobs/0a/1b/0a1b2c3d"), 0, 42);
+
+        given(imageRepository.findVisibleById(1L)).willReturn(Optional.of(image));
+        given(contentStore.locate("0a1b2c3d")).willReturn(Optional.of(location));
+
+        //When
+        ImageContentService.Content content = contentService.findContent(1L);
+
+        //Then
+        assertThat(content.location()).isEqualTo(location);
+        assertThat(content.contentType()).isEqualTo("image/png");
+        assertThat(content.etag()).isEqualTo("\"abc123\"");
+    }
+
+    @Test
+    void shouldThrownErrorWhenImageHasNoContent() {
+        //Given
+        FavoriteImage image = new FavoriteImage();
+        image.setId(1L);
+        given(imageRepository.findVisibleById(any(Long.class))).willReturn(Optional.of(image));
+
+        //When
+        Throwable thrown = catchThrowable(() -> contentService.findContent(1L));
+
+        //Then
+        assertThat(thrown).isInstanceOf(ObjectNotFoundException.class).hasMessage("Could not find image content with id: 1");
+    }
+
+    @Test
+    void shouldReleaseContentWhenImageIsDeleted() {
+        //Given
+        FavoriteImage image = new FavoriteImage();
+        image.setId(1L);
+        image.setContentKey("0a1b2c3d");
+
+        //When
+        contentService.onImageChanged(ImageChangedEvent.deleted(image));
+
+        //Then
+        verify(contentStore, times(1)).release("0a1b2c3d");
+    }
+
+    @Test
+    void shouldNotAttachUnknownContent() {
+        //Given
+        given(imageRepository.existsById(1L)).willReturn(true);
+        given(imageRepository.existsByOwnerUsernameAndContentKey("john", "abc123")).willReturn(true);
+        given(contentStore.acquire("abc123")).willReturn(Optional.empty());
+
+        //When
+        Optional<FavoriteImage> attached = contentService.attachExistingContent(1L, "ABC123", "image/png", "john");
+
+        //Then
+        assertThat(attached).isEmpty();
+        verify(imageRepository, never()).save(any(FavoriteImage.class));
+    }
+
+    @Test
+    void shouldNotAttachContentTheUserDoesNotOwn() {
+        //Given
+        given(imageRepository.existsById(1L)).willReturn(true);
+        given(imageRepository.existsByOwnerUsernameAndContentKey("john", "abc123")).willReturn(false);
+
+        //When
+        Optional<FavoriteImage> attached = contentService.attachExistingContent(1L, "abc123", "image/png", "john");
+
+        //Then
+        assertThat(attached).isEmpty();
+        verify(contentStore, never()).acquire(any());
+        verify(imageRepository, never()).save(any(FavoriteImage.class));
+    }
+}
@@ -0,0 +1,209 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImageUser;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.InvalidArgumentException;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageUserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ImageOrderServiceTest {
+    @Mock
+    FavoriteImageRepository imageRepository;
+
+    @Mock
+    FavoriteImageUserRepository userRepository;
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    ImageOrderService orderService;
+
+    FavoriteImageUser owner;
+
+    @BeforeEach
+    void setUp() {
+        this.orderService = new ImageOrderService(imageRepository, userRepository, jdbcTemplate, transactionManager, eventPublisher, 24);
+        this.owner = new FavoriteImageUser();
+        this.owner.setId(1L);
+    }
+
+    @Test
+    void shouldMoveImageBetweenNeighboursSuccessfully() {
+        //Given
+        FavoriteImage moved = image(3L, "x");
+        given(imageRepository.findById(3L)).willReturn(Optional.of(moved));
+        given(imageRepository.findById(1L)).willReturn(Optional.of(image(1L, "A")));
+        given(imageRepository.findSortKeyAfter(1L, "A", 3L)).willReturn("B");
+        given(imageRepository.save(moved)).willReturn(moved);
+
+        //When
+        FavoriteImage result = orderService.move(1L, 3L, 1L, null);
+
+        //Then
+        assertThat(result.getSortKey()).isGreaterThan("A").isLessThan("B");
+        verify(imageRepository, times(1)).save(moved);
+        verify(eventPublisher, times(1)).publishEvent(ImageChangedEvent.updated(moved));
+    }
+
+    @Test
+    void shouldMoveImageToTheEndWithoutNeighbours() {
+        //Given
+        FavoriteImage moved = image(3L, "A");
+        given(imageRepository.findById(3L)).willReturn(Optional.of(moved));
+        given(imageRepository.findLastSortKeyExcluding(1L, 3L)).willReturn("x");
+        given(imageRepository.save(moved)).willReturn(moved);
+
+        //When
+        FavoriteImage result = orderService.move(1L, 3L, null, null);
+
+        //Then
+        assertThat(result.getSortKey()).isGreaterThan("x");
+    }
+
+    @Test
+    void shouldThrownErrorWhenNeighboursAreOutOfOrder() {
+        //Given
+        given(imageRepository.findById(3L)).willReturn(Optional.of(image(3L, "x")));
+        given(imageRepository.findById(1L)).willReturn(Optional.of(image(1L, "B")));
+        given(imageRepository.findById(2L)).willReturn(Optional.of(image(2L, "A")));
+
+        //When
+        Throwable thrown = catchThrowable(() -> orderService.move(1L, 3L, 1L, 2L));
+
+        //Then
+        assertThat(thrown).isInstanceOf(InvalidArgumentException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldSpreadKeysRightAwayWhenNeighboursShareAKey() {
+        //Given
+        FavoriteImage moved = image(3L, "x");
+        given(imageRepository.findById(3L)).willReturn(Optional.of(moved));
+        given(imageRepository.findById(1L)).willReturn(Optional.of(image(1L, "B")));
+        given(imageRepository.findById(2L)).willReturn(Optional.of(image(2L, "B")));
+        given(imageRepository.findIdsByOwnerInOrder(1L)).willReturn(List.of(1L, 2L, 3L));
+        given(imageRepository.save(moved)).willReturn(moved);
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+
+        //When
+        FavoriteImage result = orderService.move(1L, 3L, 1L, 2L);
+
+        //Then
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture());
+        List<Object[]> updates = batch.getValue();
+        assertThat(updates).extracting(update -> update[1]).containsExactly(1L, 3L, 2L);
+        assertThat(result.getSortKey()).isEqualTo(updates.get(1)[0]);
+    }
+
+    @Test
+    void shouldLockGalleryBeforeReadingLastKey() {
+        //Given
+        given(imageRepository.findLastSortKey(1L)).willReturn("V");
+
+        //When
+        String sortKey = orderService.keyAtEnd(1L);
+
+        //Then
+        assertThat(sortKey).isGreaterThan("V");
+        InOrder inOrder = inOrder(jdbcTemplate, imageRepository);
+        inOrder.verify(jdbcTemplate).queryForList(startsWith("select id from favorite_image_user"), eq(Long.class), eq(1L));
+        inOrder.verify(imageRepository).findLastSortKey(1L);
+    }
+
+    @Test
+    void shouldThrownErrorWhenImageBelongsToAnotherUser() {
+        //Given
+        given(imageRepository.findById(3L)).willReturn(Optional.of(image(3L, "x")));
+
+        //When
+        Throwable thrown = catchThrowable(() -> orderService.move(2L, 3L, null, null));
+
+        //Then
+        assertThat(thrown).isInstanceOf(ObjectNotFoundException.class).hasMessage("Could not find image with id: 3");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldRebalanceKeysInCurrentOrder() {
+        //Given
+        given(imageRepository.findIdsByOwnerInOrder(1L)).willReturn(List.of(5L, 2L, 9L));
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+
+        //When
+        orderService.rebalance(1L);
+
+        //Then
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture());
+        List<Object[]> updates = batch.getValue();
+        assertThat(updates).extracting(update -> update[1]).containsExactly(5L, 2L, 9L);
+        assertThat((String) updates.get(0)[0]).isLessThan((String) updates.get(1)[0]);
+        assertThat((String) updates.get(1)[0]).isLessThan((String) updates.get(2)[0]);
+        verify(jdbcTemplate, times(1)).queryForList(startsWith("select id from favorite_image_user"), eq(Long.class), eq(1L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldRebalanceRightAwayWhenKeyWouldNotFitTheColumn() {
+        //Given
+        String lower = "1" + "0".repeat(62) + "1";
+        String upper = "1" + "0".repeat(62) + "2";
+        FavoriteImage moved = image(3L, "x");
+        given(imageRepository.findById(3L)).willReturn(Optional.of(moved));
+        given(imageRepository.findById(1L)).willReturn(Optional.of(image(1L, lower)));
+        given(imageRepository.findById(2L)).willReturn(Optional.of(image(2L, upper)));
+        given(imageRepository.findIdsByOwnerInOrder(1L)).willReturn(List.of(3L, 1L, 2L));
+        given(imageRepository.save(moved)).willReturn(moved);
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+
+        //When
+        FavoriteImage result = orderService.move(1L, 3L, 1L, 2L);
+
+        //Then
+        verify(jdbcTemplate, times(1)).queryForList(startsWith("select id from favorite_image_user"), eq(Long.class), eq(1L));
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture());
+        List<Object[]> updates = batch.getValue();
+        assertThat(updates).extracting(update -> update[1]).containsExactly(1L, 3L, 2L);
+        assertThat(result.getSortKey()).isEqualTo(updates.get(1)[0]).hasSizeLessThanOrEqualTo(64);
+    }
+
+    private FavoriteImage image(Long id, String sortKey) {
+        FavoriteImage image = new FavoriteImage();
+        image.setId(id);
+        image.setOwner(this.owner);
+        image.setSortKey(sortKey);
+        return image;
+    }
+}
@@ -0,0 +1,67 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.search.ImageSearchIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ImageSearchServiceTest {
+    @Mock
+    ImageSearchIndex searchIndex;
+
+    @Mock
+    FavoriteImageRepository imageRepository;
+
+    @InjectMocks
+    ImageSearchService imageSearchService;
+
+    @Test
+    void shouldReturnImagesInRankOrder() {
+        //Given
+        FavoriteImage image1 = new FavoriteImage();
+        image1.setId(1L);
+        image1.setTitle("Hojas");
+
+        FavoriteImage image2 = new FavoriteImage();
+        image2.setId(2L);
+        image2.setTitle("Hojas y arbol");
+
+        given(searchIndex.search("hojas", 0, 20)).willReturn(List.of(2L, 1L));
+        given(imageRepository.findAllVisibleById(List.of(2L, 1L))).willReturn(List.of(image1, image2));
+
+        //When
+        List<FavoriteImage> foundImages = imageSearchService.search("hojas", 0, 20);
+
+        //Then
+        assertThat(foundImages).containsExactly(image2, image1);
+        verify(searchIndex, times(1)).search("hojas", 0, 20);
+    }
+
+    @Test
+    void shouldSkipImagesDeletedSinceIndexing() {
+        //Given
+        FavoriteImage image1 = new FavoriteImage();
+        image1.setId(1L);
+
+        given(searchIndex.search("hojas", 0, 20)).willReturn(List.of(3L, 1L));
+        given(imageRepository.findAllVisibleById(List.of(3L, 1L))).willReturn(List.of(image1));
+
+        //When
+        List<FavoriteImage> foundImages = imageSearchService.search("hojas", 0, 20);
+
+        //Then
+        assertThat(foundImages).containsExactly(image1);
+    }
+}
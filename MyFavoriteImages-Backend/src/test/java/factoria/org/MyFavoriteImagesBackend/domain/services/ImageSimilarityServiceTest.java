@@ -0,0 +1,128 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImageUser;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.ImageHash;
+import factoria.org.MyFavoriteImagesBackend.infra.search.PerceptualHashIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ImageSimilarityServiceTest {
+    @Mock
+    FavoriteImageRepository imageRepository;
+
+    @Mock
+    PerceptualHashIndex hashIndex;
+
+    ImageSimilarityService similarityService;
+
+    FavoriteImageUser owner;
+
+    @BeforeEach
+    void setUp() {
+        this.similarityService = new ImageSimilarityService(imageRepository, hashIndex, 4);
+        this.owner = new FavoriteImageUser();
+        this.owner.setId(1L);
+    }
+
+    @Test
+    void shouldFindSimilarImagesClosestFirst() {
+        //Given
+        FavoriteImage image = image(1L);
+        FavoriteImage closest = image(3L);
+        FavoriteImage further = image(2L);
+
+        given(imageRepository.findVisibleById(1L)).willReturn(Optional.of(image));
+        given(hashIndex.find(1L)).willReturn(new ImageHash(1L, 1L, 0xF0F0L));
+        given(hashIndex.search(0xF0F0L, 10, 3)).willReturn(List.of(
+                new PerceptualHashIndex.Match(1L, 1L, 0),
+                new PerceptualHashIndex.Match(3L, 1L, 1),
+                new PerceptualHashIndex.Match(2L, 2L, 5)));
+        given(imageRepository.findAllVisibleById(List.of(3L, 2L))).willReturn(List.of(further, closest));
+
+        //When
+        List<FavoriteImage> similarImages = similarityService.findSimilar(1L, 10, 2);
+
+        //Then
+        assertThat(similarImages).containsExactly(closest, further);
+    }
+
+    @Test
+    void shouldFindNoSimilarImagesWhenContentIsNotHashed() {
+        //Given
+        given(imageRepository.findVisibleById(1L)).willReturn(Optional.of(image(1L)));
+
+        //When
+        List<FavoriteImage> similarImages = similarityService.findSimilar(1L, 10, 20);
+
+        //Then
+        assertThat(similarImages).isEmpty();
+    }
+
+    @Test
+    void shouldThrownErrorWhenImageNotFound() {
+        //Given
+        given(imageRepository.findVisibleById(1L)).willReturn(Optional.empty());
+
+        //When
+        Throwable thrown = catchThrowable(() -> similarityService.findSimilar(1L, 10, 20));
+
+        //Then
+        assertThat(thrown).isInstanceOf(ObjectNotFoundException.class).hasMessage("Could not find image with id: 1");
+    }
+
+    @Test
+    void shouldFindDuplicatesOfTheSameOwnerOnly() {
+        //Given
+        FavoriteImage image = image(1L);
+        image.setContentKey("abc123");
+        image.setPerceptualHash(0xFFL);
+
+        given(imageRepository.findSameSourceByOwner(1L, 1L, null, "abc123")).willReturn(List.of(image(5L)));
+        given(hashIndex.search(0xFFL, 4, Integer.MAX_VALUE)).willReturn(List.of(
+                new PerceptualHashIndex.Match(1L, 1L, 0),
+                new PerceptualHashIndex.Match(7L, 2L, 1),
+                new PerceptualHashIndex.Match(4L, 1L, 2)));
+
+        //When
+        List<Long> duplicateIds = similarityService.findDuplicates(image);
+
+        //Then
+        assertThat(duplicateIds).containsExactly(4L, 5L);
+    }
+
+    @Test
+    void shouldFindNoDuplicatesWithoutOwner() {
+        //Given
+        FavoriteImage image = new FavoriteImage();
+        image.setId(1L);
+
+        //When
+        List<Long> duplicateIds = similarityService.findDuplicates(image);
+
+        //Then
+        assertThat(duplicateIds).isEmpty();
+        verifyNoInteractions(imageRepository, hashIndex);
+    }
+
+    private FavoriteImage image(Long id) {
+        FavoriteImage image = new FavoriteImage();
+        image.setId(id);
+        image.setOwner(this.owner);
+        return image;
+    }
+}
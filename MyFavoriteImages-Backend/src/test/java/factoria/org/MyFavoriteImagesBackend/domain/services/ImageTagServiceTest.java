@@ -0,0 +1,140 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageTagsChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImageUser;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageUserRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.search.IdBitmap;
+import factoria.org.MyFavoriteImagesBackend.infra.search.ImageTagIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ImageTagServiceTest {
+    @Mock
+    FavoriteImageRepository imageRepository;
+
+    @Mock
+    FavoriteImageUserRepository userRepository;
+
+    @Mock
+    ImageTagIndex tagIndex;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    ImageTagService tagService;
+
+    @Test
+    void shouldUpdateTagsSuccessfully() {
+        //Given
+        FavoriteImageUser owner = new FavoriteImageUser();
+        owner.setId(2L);
+        FavoriteImage image = new FavoriteImage();
+        image.setId(1L);
+        image.setOwner(owner);
+        image.getTags().add("old");
+
+        given(imageRepository.findById(1L)).willReturn(Optional.of(image));
+
+        //When
+        Set<String> tags = tagService.updateTags(1L, List.of(" Beach ", "sunset", "beach", ""));
+
+        //Then
+        assertThat(tags).containsExactly("beach", "sunset");
+        assertThat(image.getTags()).containsExactlyInAnyOrder("beach", "sunset");
+        verify(imageRepository, times(1)).save(image);
+        verify(eventPublisher, times(1)).publishEvent(new ImageTagsChangedEvent(1L, 2L, Set.of("beach", "sunset")));
+    }
+
+    @Test
+    void shouldThrownErrorWhenImageNotFound() {
+        //Given
+        given(imageRepository.findById(1L)).willReturn(Optional.empty());
+
+        //When
+        Throwable thrown = catchThrowable(() -> tagService.updateTags(1L, List.of("beach")));
+
+        //Then
+        assertThat(thrown).isInstanceOf(ObjectNotFoundException.class).hasMessage("Could not find image with id: 1");
+    }
+
+    @Test
+    void shouldFilterOwnerImagesInGalleryOrder() {
+        //Given
+        IdBitmap matches = new IdBitmap();
+        matches.add(3L);
+        matches.add(7L);
+        matches.add(9L);
+        FavoriteImage image3 = new FavoriteImage();
+        image3.setId(3L);
+        FavoriteImage image7 = new FavoriteImage();
+        image7.setId(7L);
+
+        given(userRepository.existsById(2L)).willReturn(true);
+        given(tagIndex.filter(2L, Set.of("beach"), Set.of(), Set.of("night"))).willReturn(matches);
+        given(imageRepository.findIdsByOwnerInOrder(2L, List.of(3L, 7L, 9L))).willReturn(List.of(9L, 3L, 7L));
+        given(imageRepository.findAllById(List.of(3L, 7L))).willReturn(List.of(image7, image3));
+
+        //When
+        List<FavoriteImage> images = tagService.filterOwnerImages(2L, List.of("Beach"), null, List.of("night"), 1, 2);
+
+        //Then
+        assertThat(images).containsExactly(image3, image7);
+        verify(imageRepository, never()).findIdsByOwnerInOrder(2L);
+    }
+
+    @Test
+    void shouldScanGalleryOrderWhenManyImagesMatch() {
+        //Given
+        IdBitmap matches = new IdBitmap();
+        LongStream.rangeClosed(1, 2000).filter(id -> id % 2 == 0).forEach(matches::add);
+        matches.add(5001L);
+        FavoriteImage image5001 = new FavoriteImage();
+        image5001.setId(5001L);
+        FavoriteImage image2 = new FavoriteImage();
+        image2.setId(2L);
+
+        given(userRepository.existsById(2L)).willReturn(true);
+        given(tagIndex.filter(2L, Set.of("beach"), Set.of(), Set.of())).willReturn(matches);
+        given(imageRepository.findIdsByOwnerInOrder(2L)).willReturn(List.of(5001L, 1L, 2L, 3L, 4L));
+        given(imageRepository.findAllById(List.of(5001L, 2L))).willReturn(List.of(image2, image5001));
+
+        //When
+        List<FavoriteImage> images = tagService.filterOwnerImages(2L, List.of("beach"), null, null, 0, 2);
+
+        //Then
+        assertThat(images).containsExactly(image5001, image2);
+    }
+
+    @Test
+    void shouldThrownErrorWhenFilteringImagesOfUnknownUser() {
+        //Given
+        given(userRepository.existsById(2L)).willReturn(false);
+
+        //When
+        Throwable thrown = catchThrowable(() -> tagService.filterOwnerImages(2L, List.of("beach"), null, null, 0, 20));
+
+        //Then
+        assertThat(thrown).isInstanceOf(ObjectNotFoundException.class).hasMessage("Could not find user with id: 2");
+    }
+}
@@ -0,0 +1,136 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageViewServiceTest {
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    ImageViewService viewService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldFlushOneIncrementPerViewedImage() {
+        //Given
+        viewService.recordView(2L);
+        viewService.recordView(1L);
+        viewService.recordView(2L);
+        viewService.recordView(2L);
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+
+        //When
+        viewService.flush();
+
+        //Then
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), batch.capture());
+        assertThat(batch.getValue()).containsExactly(new Object[]{1L, 1L}, new Object[]{3L, 2L});
+    }
+
+    @Test
+    void shouldNotWriteWhenNothingWasViewed() {
+        //Given
+        viewService.recordView(1L);
+        viewService.flush();
+
+        //When
+        viewService.flush();
+
+        //Then
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldKeepViewsWhenFlushFails() {
+        //Given
+        viewService.recordView(1L);
+        given(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .willThrow(new DataAccessResourceFailureException("down"))
+                .willReturn(new int[]{1});
+        viewService.flush();
+        viewService.recordView(1L);
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+
+        //When
+        viewService.flush();
+
+        //Then
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), batch.capture());
+        assertThat(batch.getValue()).containsExactly(new Object[]{2L, 1L});
+    }
+
+    @Test
+    void shouldCountStoredAndPendingViews() {
+        //Given
+        FavoriteImage image = new FavoriteImage();
+        image.setId(1L);
+        viewService.recordView(1L);
+        viewService.recordView(1L);
+
+        //When
+        long views = viewService.countViews(image);
+
+        //Then
+        assertThat(views).isEqualTo(2L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldNotLoseViewsRecordedWhileIdleCountersAreDropped() throws Exception {
+        //Given
+        AtomicLong written = new AtomicLong();
+        given(jdbcTemplate.batchUpdate(anyString(), anyList())).willAnswer(invocation -> {
+            List<Object[]> batch = invocation.getArgument(1);
+            batch.forEach(row -> written.addAndGet((Long) row[0]));
+            return new int[batch.size()];
+        });
+        int threads = 4;
+        int viewsPerThread = 20000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        //When
+        for (int thread = 0; thread < threads; thread++) {
+            executor.execute(() -> {
+                for (int view = 0; view < viewsPerThread; view++) {
+                    viewService.recordView((long) (view / 100 % 50));
+                    if (view % 1000 == 0) {
+                        Thread.yield();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        while (!done.await(1, TimeUnit.MILLISECONDS)) {
+            viewService.flush();
+        }
+        viewService.flush();
+        executor.shutdown();
+
+        //Then
+        assertThat(written.get()).isEqualTo((long) threads * viewsPerThread);
+    }
+}
@@ -0,0 +1,180 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageContentChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.domain.models.ThumbnailJob;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
+import factoria.org.MyFavoriteImagesBackend.infra.imaging.ImageResizer;
+import factoria.org.MyFavoriteImagesBackend.infra.imaging.PerceptualHasher;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.ImageHash;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.ThumbnailJobRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.search.PerceptualHashIndex;
+import factoria.org.MyFavoriteImagesBackend.infra.storage.BlobLocation;
+import factoria.org.MyFavoriteImagesBackend.infra.storage.BlobStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ThumbnailServiceTest {
+    @Mock
+    FavoriteImageRepository imageRepository;
+
+    @Mock
+    ThumbnailJobRepository jobRepository;
+
+    @Mock
+    BlobStore blobStore;
+
+    @Mock
+    ImageResizer imageResizer;
+
+    @Mock
+    PerceptualHasher perceptualHasher;
+
+    @Mock
+    PerceptualHashIndex hashIndex;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    ThumbnailService thumbnailService;
+
+    @BeforeEach
+    void setUp() {
+        this.thumbnailService = new ThumbnailService(imageRepository, jobRepository, blobStore, imageResizer, perceptualHasher, hashIndex, transactionManager,
+                new int[]{512, 128, 256}, 1, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.thumbnailService.shutdown();
+    }
+
+    @Test
+    void shouldSnapRequestedSizeToConfiguredSize() {
+        //When //Then
+        assertThat(thumbnailService.snapSize(100)).isEqualTo(128);
+        assertThat(thumbnailService.snapSize(256)).isEqualTo(256);
+        assertThat(thumbnailService.snapSize(2000)).isEqualTo(512);
+    }
+
+    @Test
+    void shouldFindGeneratedThumbnail() throws Exception {
+        //Given
+        FavoriteImage image = new FavoriteImage();
+        image.setId(1L);
+        image.setContentKey("abc123");
+        BlobLocation location = new BlobLocation(Path.of("packs/segment-000001.pack"), 100, 2048);
+
+        given(imageRepository.findVisibleById(1L)).willReturn(Optional.of(image));
+        given(blobStore.locate("thumb-abc123-256-jpeg")).willReturn(Optional.of(location));
+
+        //When
+        ThumbnailService.Thumbnail thumbnail = thumbnailService.findThumbnail(1L, 200);
+
+        //Then
+        assertThat(thumbnail.location()).isEqualTo(location);
+        assertThat(thumbnail.contentType()).isEqualTo("image/jpeg");
+        assertThat(thumbnail.etag()).isEqualTo("\"thumb-abc123-256-jpeg\"");
+    }
+
+    @Test
+    void shouldThrownErrorWhenImageHasNoContent() {
+        //Given
+        FavoriteImage image = new FavoriteImage();
+        image.setId(1L);
+        given(imageRepository.findVisibleById(1L)).willReturn(Optional.of(image));
+
+        //When
+        Throwable thrown = catchThrowable(() -> thumbnailService.findThumbnail(1L, 128));
+
+        //Then
+        assertThat(thrown).isInstanceOf(ObjectNotFoundException.class).hasMessage("Could not find image content with id: 1");
+    }
+
+    @Test
+    void shouldPersistJobInItsOwnTransaction() {
+        //Given
+        given(jobRepository.findById(1L)).willReturn(Optional.empty());
+
+        //When
+        thumbnailService.onContentChanged(new ImageContentChangedEvent(1L, "abc123"));
+
+        //Then
+        verify(transactionManager).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        verify(jobRepository).save(argThat(job -> job.getImageId().equals(1L) && job.getContentKey().equals("abc123")
+                && job.getStatus() == ThumbnailJob.Status.PENDING && job.getAttempts() == 0));
+    }
+
+    @Test
+    void shouldGenerateOnlyLatestContentOfImageQueuedSeveralTimes() throws Exception {
+        //Given
+        CountDownLatch workerBusy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        given(jobRepository.findById(any())).willReturn(Optional.empty());
+        given(imageRepository.findHashesByContentKey("busy")).willAnswer(invocation -> {
+            workerBusy.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(new ImageHash(1L, 7L, 42L));
+        });
+        given(imageRepository.findHashesByContentKey("second")).willReturn(List.of(new ImageHash(2L, 7L, 42L)));
+        given(blobStore.contains(anyString())).willReturn(true);
+        thumbnailService.schedule(1L, "busy");
+        assertThat(workerBusy.await(5, TimeUnit.SECONDS)).isTrue();
+
+        //When
+        thumbnailService.schedule(2L, "first");
+        thumbnailService.schedule(2L, "second");
+        release.countDown();
+
+        //Then
+        verify(jobRepository, timeout(5000)).finish(eq(2L), eq("second"), eq(ThumbnailJob.Status.DONE), eq(0), any(Instant.class));
+        verify(imageRepository, never()).findHashesByContentKey("first");
+    }
+
+    @Test
+    void shouldFailJobAfterLastAttempt() throws Exception {
+        //Given
+        ThumbnailJob job = new ThumbnailJob(1L);
+        job.setContentKey("abc123");
+        job.setStatus(ThumbnailJob.Status.PENDING);
+        job.setAttempts(3);
+        given(jobRepository.findById(1L)).willReturn(Optional.empty(), Optional.of(job));
+        given(imageRepository.findHashesByContentKey("abc123")).willReturn(List.of(new ImageHash(1L, 7L, null)));
+        given(blobStore.open("abc123")).willThrow(new NoSuchFileException("abc123"));
+
+        //When
+        thumbnailService.schedule(1L, "abc123");
+
+        //Then
+        verify(jobRepository, timeout(5000)).finish(eq(1L), eq("abc123"), eq(ThumbnailJob.Status.PENDING), eq(1), any(Instant.class));
+        verify(jobRepository, timeout(5000)).finish(eq(1L), eq("abc123"), eq(ThumbnailJob.Status.FAILED), eq(0), any(Instant.class));
+    }
+}
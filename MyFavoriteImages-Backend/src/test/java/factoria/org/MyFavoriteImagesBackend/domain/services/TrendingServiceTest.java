@@ -0,0 +1,91 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.domain.models.ImageUrl;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.TrendingDto;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.InvalidArgumentException;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.ImageUrlRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class TrendingServiceTest {
+    @Mock
+    FavoriteImageRepository imageRepository;
+
+    @Mock
+    ImageUrlRepository urlRepository;
+
+    TrendingService trendingService;
+
+    @BeforeEach
+    void setUp() {
+        this.trendingService = new TrendingService(imageRepository, urlRepository, Duration.ofMinutes(5), 12, 256, 4, 8);
+    }
+
+    @Test
+    void shouldRankImagesByViews() {
+        //Given
+        FavoriteImage image1 = new FavoriteImage();
+        image1.setId(1L);
+        image1.setTitle("Image 1");
+        FavoriteImage image2 = new FavoriteImage();
+        image2.setId(2L);
+        image2.setTitle("Image 2");
+        for (int view = 0; view < 5; view++) {
+            trendingService.recordView(2L);
+        }
+        trendingService.recordView(1L);
+        trendingService.recordView(3L);
+
+        given(imageRepository.findAllVisibleById(anyCollection())).willReturn(List.of(image1, image2));
+
+        //When
+        List<TrendingDto> trending = trendingService.findTrending(TrendingService.Metric.VIEWS, Duration.ofHours(1), 2);
+
+        //Then
+        assertThat(trending).extracting(TrendingDto::imageId).containsExactly(2L, 1L);
+        assertThat(trending.get(0).count()).isEqualTo(5L);
+    }
+
+    @Test
+    void shouldRankUrlsByAdds() {
+        //Given
+        ImageUrl imageUrl = new ImageUrl("image URL");
+        ReflectionTestUtils.setField(imageUrl, "id", 7L);
+        FavoriteImage image = new FavoriteImage();
+        image.setImageUrl(imageUrl);
+        trendingService.recordAdd(image);
+        trendingService.recordAdd(image);
+
+        given(urlRepository.findAllById(List.of(7L))).willReturn(List.of(imageUrl));
+
+        //When
+        List<TrendingDto> trending = trendingService.findTrending(TrendingService.Metric.ADDS, Duration.ofMinutes(30), 10);
+
+        //Then
+        assertThat(trending).containsExactly(new TrendingDto(null, null, "image URL", 2L));
+    }
+
+    @Test
+    void shouldThrownErrorWhenWindowIsTooLong() {
+        //When
+        Throwable thrown = catchThrowable(() -> trendingService.findTrending(TrendingService.Metric.VIEWS, Duration.ofDays(1), 10));
+
+        //Then
+        assertThat(thrown).isInstanceOf(InvalidArgumentException.class);
+    }
+}
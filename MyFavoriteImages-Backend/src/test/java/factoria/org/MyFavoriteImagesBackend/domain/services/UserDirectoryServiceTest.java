@@ -0,0 +1,155 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImageUser;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.CursorPageDto;
+import factoria.org.MyFavoriteImagesBackend.infra.dtos.UserDto;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.InvalidArgumentException;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.DirectoryEntry;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageUserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class UserDirectoryServiceTest {
+    @Mock
+    FavoriteImageUserRepository userRepository;
+
+    @InjectMocks
+    UserDirectoryService directoryService;
+
+    FavoriteImage image;
+
+    @BeforeEach
+    void setUp() {
+        FavoriteImageUser owner = new FavoriteImageUser();
+        owner.setId(1L);
+        this.image = new FavoriteImage();
+        this.image.setId(10L);
+        this.image.setOwner(owner);
+    }
+
+    @Test
+    void shouldSearchDirectorySuccessfully() {
+        //Given
+        UserDto user = new UserDto(1L, "User1", true, "user", 2);
+        given(userRepository.findDirectoryPage("Us", true, "admin", "imageCount", true, null, null, 11))
+                .willReturn(List.of(new DirectoryEntry(user, 2)));
+
+        //When
+        CursorPageDto<UserDto> result = directoryService.search("Us", true, " admin ", "imageCount", "ASC", null, 10);
+
+        //Then
+        assertThat(result.content()).containsExactly(user);
+        assertThat(result.next()).isNull();
+    }
+
+    @Test
+    void shouldContinueAfterCursorOfPreviousPage() {
+        //Given
+        Instant createdAt = Instant.parse("2024-03-01T10:15:30.123456Z");
+        UserDto user1 = new UserDto(7L, "User7", true, "user", 0);
+        UserDto user2 = new UserDto(3L, "User3", true, "user", 0);
+        given(userRepository.findDirectoryPage(null, null, null, "createdAt", false, null, null, 2))
+                .willReturn(List.of(new DirectoryEntry(user1, createdAt), new DirectoryEntry(user2, createdAt)));
+        given(userRepository.findDirectoryPage(null, null, null, "createdAt", false, createdAt, 7L, 2))
+                .willReturn(List.of(new DirectoryEntry(user2, createdAt)));
+
+        //When
+        CursorPageDto<UserDto> firstPage = directoryService.search(null, null, null, "createdAt", "desc", null, 1);
+        CursorPageDto<UserDto> secondPage = directoryService.search(null, null, null, "createdAt", "desc", firstPage.next(), 1);
+
+        //Then
+        assertThat(firstPage.content()).containsExactly(user1);
+        assertThat(firstPage.next()).isNotNull();
+        assertThat(secondPage.content()).containsExactly(user2);
+        assertThat(secondPage.next()).isNull();
+    }
+
+    @Test
+    void shouldThrownErrorWithCursorOfAnotherSort() {
+        //Given
+        UserDto user = new UserDto(7L, "User7", true, "user", 4);
+        given(userRepository.findDirectoryPage(null, null, null, "imageCount", true, null, null, 2))
+                .willReturn(List.of(new DirectoryEntry(user, 4), new DirectoryEntry(user, 4)));
+        String cursor = directoryService.search(null, null, null, "imageCount", "asc", null, 1).next();
+
+        //When
+        Throwable thrown = catchThrowable(() -> directoryService.search(null, null, null, "createdAt", "asc", cursor, 1));
+
+        //Then
+        assertThat(thrown).isInstanceOf(InvalidArgumentException.class);
+    }
+
+    @Test
+    void shouldThrownErrorWithMalformedCursor() {
+        //When
+        Throwable thrown = catchThrowable(() -> directoryService.search(null, null, null, "createdAt", "asc", "not a cursor", 10));
+
+        //Then
+        assertThat(thrown).isInstanceOf(InvalidArgumentException.class).hasMessage("Invalid cursor not a cursor");
+    }
+
+    @Test
+    void shouldThrownErrorWithUnknownSort() {
+        //When
+        Throwable thrown = catchThrowable(() -> directoryService.search(null, null, null, "password", "asc", null, 10));
+
+        //Then
+        assertThat(thrown).isInstanceOf(InvalidArgumentException.class);
+        verify(userRepository, never()).findDirectoryPage(null, null, null, "password", true, null, null, 11);
+    }
+
+    @Test
+    void shouldFindAllByIdWithOneQuery() {
+        //Given
+        UserDto user = new UserDto(1L, "User1", true, "user", 2);
+        given(userRepository.findDirectoryEntriesByIdIn(Set.of(1L, 5L))).willReturn(List.of(user));
+
+        //When
+        Map<Long, UserDto> foundUsers = directoryService.findAllById(List.of(5L, 1L));
+
+        //Then
+        assertThat(foundUsers).containsOnlyKeys(1L);
+        assertThat(foundUsers.get(1L)).isEqualTo(user);
+    }
+
+    @Test
+    void shouldCountCreatedAndDeletedImages() {
+        //When
+        directoryService.onImageChanged(ImageChangedEvent.created(this.image));
+        directoryService.onImageChanged(ImageChangedEvent.deleted(this.image));
+
+        //Then
+        verify(userRepository, times(1)).addToImageCount(1L, 1);
+        verify(userRepository, times(1)).addToImageCount(1L, -1);
+    }
+
+    @Test
+    void shouldIgnoreUpdatedImages() {
+        //When
+        directoryService.onImageChanged(ImageChangedEvent.updated(this.image));
+
+        //Then
+        verify(userRepository, never()).addToImageCount(anyLong(), anyInt());
+    }
+}
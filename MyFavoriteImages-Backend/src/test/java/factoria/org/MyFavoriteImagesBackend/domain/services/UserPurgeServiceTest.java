@@ -0,0 +1,97 @@
+package factoria.org.MyFavoriteImagesBackend.domain.services;
+
+import factoria.org.MyFavoriteImagesBackend.domain.events.ImageChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.domain.models.FavoriteImage;
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class UserPurgeServiceTest {
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    UserPurgeService purgeService;
+
+    @BeforeEach
+    void setUp() {
+        this.purgeService = new UserPurgeService(jdbcTemplate, eventPublisher, transactionManager, 500);
+    }
+
+    @Test
+    void shouldPurgeOneBatchOfImagesSuccessfully() {
+        //Given
+        FavoriteImage image1 = new FavoriteImage();
+        image1.setId(1L);
+        image1.setContentKey("0a1b2c3d");
+        FavoriteImage image2 = new FavoriteImage();
+        image2.setId(2L);
+        given(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<FavoriteImage>>any(), eq(7L), eq(500)))
+                .willReturn(List.of(image1, image2));
+
+        //When
+        int purged = purgeService.purgeBatch(7L);
+
+        //Then
+        assertThat(purged).isEqualTo(2);
+        verify(eventPublisher, times(2)).publishEvent(any(ImageChangedEvent.class));
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+        verify(jdbcTemplate, times(1)).update(anyString(), eq(2), eq(7L));
+    }
+
+    @Test
+    void shouldDeleteUserWhenNoImagesAreLeft() {
+        //Given
+        given(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<FavoriteImage>>any(), eq(7L), eq(500)))
+                .willReturn(List.of());
+        given(jdbcTemplate.update(anyString(), eq(7L))).willReturn(1);
+
+        //When
+        int purged = purgeService.purgeBatch(7L);
+
+        //Then
+        assertThat(purged).isZero();
+        verify(jdbcTemplate, times(1)).update(anyString(), eq(7L));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(eventPublisher, never()).publishEvent(any(ImageChangedEvent.class));
+    }
+
+    @Test
+    void shouldThrownErrorWhenUserIsNotBeingPurged() {
+        //Given
+        given(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<Object>>any(), eq(7L))).willReturn(List.of());
+
+        //When
+        Throwable thrown = catchThrowable(() -> purgeService.findStatus(7L));
+
+        //Then
+        assertThat(thrown).isInstanceOf(ObjectNotFoundException.class).hasMessage("Could not find deleted user with id: 7");
+    }
+}
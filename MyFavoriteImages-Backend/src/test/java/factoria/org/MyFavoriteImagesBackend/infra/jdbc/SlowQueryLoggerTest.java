@@ -0,0 +1,125 @@
+package factoria.org.MyFavoriteImagesBackend.infra.jdbc;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class SlowQueryLoggerTest {
+    private static final String SQL = "select * from favorite_image where owner_id = ? and title = ?";
+
+    @Mock
+    ObjectProvider<DataSource> dataSource;
+
+    Logger logger;
+
+    ListAppender<ILoggingEvent> appender;
+
+    @BeforeEach
+    void setUp() {
+        this.logger = (Logger) LoggerFactory.getLogger("factoria.slow-query");
+        this.appender = new ListAppender<>();
+        this.appender.start();
+        this.logger.addAppender(this.appender);
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.logger.detachAppender(this.appender);
+    }
+
+    @Test
+    void shouldLogStatementsAboveThresholdWithParameterShapes() {
+        //Given
+        SlowQueryLogger slowQueryLogger = new SlowQueryLogger(this.dataSource, true, 100, false, 600_000);
+
+        //When
+        slowQueryLogger.afterExecute(execution(150, 7L, "sunset"));
+
+        //Then
+        assertThat(this.appender.list).hasSize(1);
+        ILoggingEvent event = this.appender.list.get(0);
+        assertThat(event.getLevel()).isEqualTo(Level.WARN);
+        assertThat(event.getFormattedMessage())
+                .contains("150 ms")
+                .contains(SQL)
+                .contains("[Long, String(6)]")
+                .doesNotContain("sunset");
+        verifyNoInteractions(this.dataSource);
+        slowQueryLogger.shutdown();
+    }
+
+    @Test
+    void shouldIgnoreStatementsBelowThreshold() {
+        //Given
+        SlowQueryLogger slowQueryLogger = new SlowQueryLogger(this.dataSource, true, 100, true, 600_000);
+
+        //When
+        slowQueryLogger.afterExecute(execution(99, 7L, "sunset"));
+
+        //Then
+        assertThat(this.appender.list).isEmpty();
+        verifyNoInteractions(this.dataSource);
+        slowQueryLogger.shutdown();
+    }
+
+    @Test
+    void shouldStaySilentWhenDisabled() {
+        //Given
+        SlowQueryLogger slowQueryLogger = new SlowQueryLogger(this.dataSource, false, 100, true, 600_000);
+
+        //When
+        slowQueryLogger.afterExecute(execution(5_000, 7L, "sunset"));
+
+        //Then
+        assertThat(this.appender.list).isEmpty();
+        slowQueryLogger.shutdown();
+    }
+
+    @Test
+    void shouldRememberBoundedNumberOfExplainedStatements() throws Exception {
+        //Given
+        DataSource target = mock(DataSource.class);
+        lenient().when(target.getConnection()).thenThrow(new SQLException("unavailable"));
+        lenient().when(this.dataSource.getObject()).thenReturn(target);
+        SlowQueryLogger slowQueryLogger = new SlowQueryLogger(this.dataSource, true, 100, true, 600_000);
+
+        //When
+        for (int index = 0; index < 1_100; index++) {
+            slowQueryLogger.afterExecute(new StatementExecution(SQL + " and id > " + index, List.of(), System.nanoTime(), 150_000_000, false));
+        }
+
+        //Then
+        assertThat(slowQueryLogger.trackedStatements()).isEqualTo(1_000);
+        slowQueryLogger.shutdown();
+    }
+
+    @Test
+    void shouldDescribeParameterShapes() {
+        assertThat(SlowQueryLogger.parameterShapes(Arrays.asList(null, "abc", new byte[4], 1)))
+                .isEqualTo("[null, String(3), byte[4], Integer]");
+    }
+
+    private static StatementExecution execution(long elapsedMillis, Object... parameters) {
+        return new StatementExecution(SQL, List.of(parameters), System.nanoTime(), elapsedMillis * 1_000_000, false);
+    }
+}
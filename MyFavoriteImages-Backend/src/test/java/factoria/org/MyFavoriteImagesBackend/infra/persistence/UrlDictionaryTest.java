@@ -0,0 +1,167 @@
+package factoria.org.MyFavoriteImagesBackend.infra.persistence;
+
+import factoria.org.MyFavoriteImagesBackend.domain.models.ImageUrl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class UrlDictionaryTest {
+    @Mock
+    ImageUrlRepository imageUrlRepository;
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void shouldAnswerKnownUrlsFromCache() {
+        //Given
+        UrlDictionary urlDictionary = urlDictionary(10);
+        ImageUrl imageUrl = new ImageUrl("hojas.jpg");
+        given(this.imageUrlRepository.findByUrl("hojas.jpg")).willReturn(Optional.of(imageUrl));
+
+        //When
+        ImageUrl first = urlDictionary.intern("hojas.jpg");
+        ImageUrl second = urlDictionary.intern("hojas.jpg");
+
+        //Then
+        assertThat(first).isSameAs(imageUrl);
+        assertThat(second).isSameAs(imageUrl);
+        verify(this.jdbcTemplate, times(1)).update(startsWith("insert"), eq("hojas.jpg"));
+        verify(this.imageUrlRepository, times(1)).findByUrl("hojas.jpg");
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedUrls() {
+        //Given
+        UrlDictionary urlDictionary = urlDictionary(2);
+        given(this.imageUrlRepository.findByUrl(any())).willAnswer(invocation -> Optional.of(new ImageUrl(invocation.getArgument(0))));
+
+        //When
+        urlDictionary.intern("a.jpg");
+        urlDictionary.intern("b.jpg");
+        urlDictionary.intern("a.jpg");
+        urlDictionary.intern("c.jpg");
+        urlDictionary.intern("a.jpg");
+        urlDictionary.intern("b.jpg");
+
+        //Then
+        verify(this.imageUrlRepository, times(1)).findByUrl("a.jpg");
+        verify(this.imageUrlRepository, times(2)).findByUrl("b.jpg");
+        verify(this.imageUrlRepository, times(1)).findByUrl("c.jpg");
+    }
+
+    @Test
+    void shouldCacheInsertedUrlOnlyAfterCommit() {
+        //Given
+        UrlDictionary urlDictionary = urlDictionary(10);
+        given(this.jdbcTemplate.update(startsWith("insert"), eq("new.jpg"))).willReturn(1);
+        given(this.imageUrlRepository.findByUrl("new.jpg")).willReturn(Optional.of(new ImageUrl("new.jpg")));
+        TransactionSynchronizationManager.initSynchronization();
+
+        //When
+        urlDictionary.intern("new.jpg");
+        urlDictionary.intern("new.jpg");
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        urlDictionary.intern("new.jpg");
+
+        //Then
+        assertThat(synchronizations).hasSize(2);
+        verify(this.imageUrlRepository, times(2)).findByUrl("new.jpg");
+    }
+
+    @Test
+    void shouldEvictMarkedOrphansFromCache() {
+        //Given
+        UrlDictionary urlDictionary = urlDictionary(10);
+        given(this.imageUrlRepository.findByUrl("old.jpg")).willReturn(Optional.of(new ImageUrl("old.jpg")));
+        urlDictionary.intern("old.jpg");
+        given(this.jdbcTemplate.queryForList(startsWith("select url"), eq(String.class), any(Timestamp.class)))
+                .willReturn(List.of("old.jpg"));
+
+        //When
+        urlDictionary.removeOrphans();
+        urlDictionary.intern("old.jpg");
+
+        //Then
+        verify(this.jdbcTemplate, times(1)).queryForList(startsWith("select id, url"), any(Timestamp.class));
+        verify(this.jdbcTemplate, times(1)).update(startsWith("update image_url set orphaned_at = ?"), any(Timestamp.class));
+        verify(this.jdbcTemplate, times(2)).update(startsWith("update image_url set orphaned_at = null"), eq("old.jpg"));
+        verify(this.imageUrlRepository, times(2)).findByUrl("old.jpg");
+    }
+
+    @Test
+    void shouldNotCacheExistingUrlWhenTransactionRollsBack() {
+        //Given
+        UrlDictionary urlDictionary = urlDictionary(10);
+        given(this.imageUrlRepository.findByUrl("marked.jpg")).willReturn(Optional.of(new ImageUrl("marked.jpg")));
+        TransactionSynchronizationManager.initSynchronization();
+
+        //When
+        urlDictionary.intern("marked.jpg");
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+        urlDictionary.intern("marked.jpg");
+
+        //Then
+        verify(this.imageUrlRepository, times(2)).findByUrl("marked.jpg");
+        verify(this.jdbcTemplate, times(2)).update(startsWith("update image_url set orphaned_at = null"), eq("marked.jpg"));
+    }
+
+    @Test
+    void shouldEvictDeletedOrphansFromCache() {
+        //Given
+        UrlDictionary urlDictionary = urlDictionary(10);
+        given(this.imageUrlRepository.findByUrl("gone.jpg")).willReturn(Optional.of(new ImageUrl("gone.jpg")));
+        urlDictionary.intern("gone.jpg");
+        given(this.jdbcTemplate.queryForList(startsWith("select id, url"), any(Timestamp.class)))
+                .willReturn(List.of(Map.of("id", 5L, "url", "gone.jpg")));
+
+        //When
+        urlDictionary.removeOrphans();
+        urlDictionary.intern("gone.jpg");
+
+        //Then
+        verify(this.jdbcTemplate, times(1)).batchUpdate(startsWith("delete"), ArgumentMatchers.<List<Object[]>>any());
+        verify(this.imageUrlRepository, times(2)).findByUrl("gone.jpg");
+    }
+
+    private UrlDictionary urlDictionary(int maxCachedUrls) {
+        return new UrlDictionary(this.imageUrlRepository, this.jdbcTemplate, this.transactionManager,
+                "jdbc:postgresql://localhost:5432/images", maxCachedUrls, Duration.ofHours(1));
+    }
+}
@@ -0,0 +1,76 @@
+package factoria.org.MyFavoriteImagesBackend.infra.profiling;
+
+import factoria.org.MyFavoriteImagesBackend.infra.exceptions.ObjectNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class RecordingManagerTest {
+    @TempDir
+    Path directory;
+
+    RecordingManager recordingManager;
+
+    @BeforeEach
+    void setUp() {
+        this.recordingManager = new RecordingManager(this.directory.toString(), 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.recordingManager.closeAll();
+    }
+
+    @Test
+    void shouldKeepStoppedRecordingDownloadable() throws Exception {
+        //Given
+        RecordingManager.RecordingInfo started = this.recordingManager.start(null);
+
+        //When
+        RecordingManager.RecordingInfo stopped = this.recordingManager.stop(started.id());
+
+        //Then
+        assertThat(stopped.state()).isEqualTo("STOPPED");
+        assertThat(this.recordingManager.findAll()).containsExactly(stopped);
+        assertThat(this.recordingManager.export(started.id())).isEqualTo(Path.of(started.file())).exists();
+        assertThat(this.recordingManager.stop(started.id())).isEqualTo(stopped);
+    }
+
+    @Test
+    void shouldForgetOldestFinishedRecordings() throws Exception {
+        //Given
+        RecordingManager.RecordingInfo first = this.recordingManager.start(null);
+        this.recordingManager.stop(first.id());
+        RecordingManager.RecordingInfo second = this.recordingManager.start(null);
+
+        //When
+        this.recordingManager.stop(second.id());
+
+        //Then
+        assertThat(this.recordingManager.findAll()).extracting(RecordingManager.RecordingInfo::id).containsExactly(second.id());
+        Throwable thrown = catchThrowable(() -> this.recordingManager.export(first.id()));
+        assertThat(thrown).isInstanceOf(ObjectNotFoundException.class);
+        assertThat(Path.of(first.file())).doesNotExist();
+        assertThat(Path.of(second.file())).exists();
+    }
+
+    @Test
+    void shouldDeleteSnapshotWhenRecordingStops() throws Exception {
+        //Given
+        RecordingManager.RecordingInfo started = this.recordingManager.start(null);
+        Path snapshot = this.recordingManager.export(started.id());
+
+        //When
+        this.recordingManager.stop(started.id());
+
+        //Then
+        assertThat(snapshot).doesNotExist();
+        assertThat(Path.of(started.file())).exists();
+    }
+}
@@ -0,0 +1,167 @@
+package factoria.org.MyFavoriteImagesBackend.infra.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.LongPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A group switches from a sorted array to a bitmap above 4096 members, so the sets here are sized around that
+ * limit and spread over several 65536-id groups. Every result is checked against a TreeSet.
+ */
+class IdBitmapTest {
+    private static final long GROUP = 1 << 16;
+
+    @Test
+    void shouldKeepIdsOfSeveralGroupsInOrder() {
+        //Given
+        IdBitmap bitmap = bitmap(LongStream.of(5 * GROUP + 1, 3, GROUP, 70, 5 * GROUP, 3));
+
+        //When
+        List<Long> ids = all(bitmap);
+
+        //Then
+        assertThat(ids).containsExactly(3L, 70L, GROUP, 5 * GROUP, 5 * GROUP + 1);
+        assertThat(bitmap.cardinality()).isEqualTo(5);
+        assertThat(bitmap.contains(GROUP)).isTrue();
+        assertThat(bitmap.contains(GROUP + 1)).isFalse();
+        assertThat(bitmap.page(2, 2)).containsExactly(GROUP, 5 * GROUP);
+    }
+
+    @Test
+    void shouldSwitchToBitmapAboveArrayLimitAndBack() {
+        //Given
+        IdBitmap bitmap = bitmap(LongStream.range(0, 5000).map(value -> value * 3));
+
+        //When
+        long denseCardinality = bitmap.cardinality();
+        List<Long> densePage = bitmap.page(4095, 3);
+        LongStream.range(4000, 5000).forEach(value -> bitmap.remove(value * 3));
+
+        //Then
+        assertThat(denseCardinality).isEqualTo(5000);
+        assertThat(densePage).containsExactly(4095L * 3, 4096L * 3, 4097L * 3);
+        assertThat(all(bitmap)).isEqualTo(LongStream.range(0, 4000).map(value -> value * 3).boxed().toList());
+        assertThat(bitmap.contains(3999 * 3)).isTrue();
+        assertThat(bitmap.contains(4000 * 3)).isFalse();
+    }
+
+    @Test
+    void shouldDropGroupOnceItIsEmpty() {
+        //Given
+        IdBitmap bitmap = bitmap(LongStream.of(1, 2, GROUP + 1));
+
+        //When
+        bitmap.remove(1);
+        bitmap.remove(2);
+        bitmap.remove(99);
+
+        //Then
+        assertThat(all(bitmap)).containsExactly(GROUP + 1);
+        bitmap.remove(GROUP + 1);
+        assertThat(bitmap.isEmpty()).isTrue();
+    }
+
+    @Test
+    void shouldCombineArrayAndBitmapGroups() {
+        //Given: dense and sparse groups on both sides, with groups only one side has
+        LongPredicate leftMembers = id -> id < 2 * GROUP ? id % 2 == 0 : id % 97 == 0;
+        LongPredicate rightMembers = id -> id < GROUP ? id % 41 == 0 : id % 3 == 0;
+        IdBitmap left = bitmap(LongStream.range(0, 3 * GROUP).filter(leftMembers));
+        IdBitmap right = bitmap(LongStream.range(GROUP / 2, 4 * GROUP).filter(rightMembers));
+        TreeSet<Long> leftSet = set(LongStream.range(0, 3 * GROUP).filter(leftMembers));
+        TreeSet<Long> rightSet = set(LongStream.range(GROUP / 2, 4 * GROUP).filter(rightMembers));
+
+        //When
+        IdBitmap and = left.and(right);
+        IdBitmap or = left.or(right);
+        IdBitmap andNot = left.andNot(right);
+        IdBitmap reverseAndNot = right.andNot(left);
+
+        //Then
+        assertThat(all(and)).isEqualTo(List.copyOf(intersection(leftSet, rightSet)));
+        assertThat(all(or)).isEqualTo(List.copyOf(union(leftSet, rightSet)));
+        assertThat(all(andNot)).isEqualTo(List.copyOf(difference(leftSet, rightSet)));
+        assertThat(all(reverseAndNot)).isEqualTo(List.copyOf(difference(rightSet, leftSet)));
+        assertThat(and.cardinality()).isEqualTo(intersection(leftSet, rightSet).size());
+        assertThat(or.cardinality()).isEqualTo(union(leftSet, rightSet).size());
+    }
+
+    @Test
+    void shouldTurnUnionOfTwoArraysIntoBitmapAndIntersectionOfBitmapsIntoArray() {
+        //Given
+        IdBitmap evens = bitmap(LongStream.range(0, 3000).map(value -> value * 2));
+        IdBitmap odds = bitmap(LongStream.range(0, 3000).map(value -> value * 2 + 1));
+        IdBitmap denseEvens = bitmap(LongStream.range(0, 5000).map(value -> value * 2));
+        IdBitmap denseThirds = bitmap(LongStream.range(0, 5000).map(value -> value * 3));
+
+        //When
+        IdBitmap union = evens.or(odds);
+        IdBitmap intersection = denseEvens.and(denseThirds);
+        union.remove(5);
+        intersection.add(1);
+
+        //Then
+        assertThat(union.cardinality()).isEqualTo(5999);
+        assertThat(union.page(4, 3)).containsExactly(4L, 6L, 7L);
+        assertThat(all(intersection)).startsWith(0L, 1L, 6L, 12L).hasSize(1 + 1667);
+    }
+
+    @Test
+    void shouldLeaveOperandsUnchanged() {
+        //Given
+        IdBitmap left = bitmap(LongStream.range(0, 5000));
+        IdBitmap right = bitmap(LongStream.of(1, 2, GROUP));
+
+        //When
+        IdBitmap or = left.or(right);
+        IdBitmap andNot = left.andNot(right);
+        IdBitmap copy = left.copy();
+        or.remove(0);
+        andNot.add(GROUP + 7);
+        copy.remove(4999);
+
+        //Then
+        assertThat(left.cardinality()).isEqualTo(5000);
+        assertThat(left.contains(0)).isTrue();
+        assertThat(left.contains(4999)).isTrue();
+        assertThat(all(right)).containsExactly(1L, 2L, GROUP);
+    }
+
+    private static IdBitmap bitmap(LongStream ids) {
+        IdBitmap bitmap = new IdBitmap();
+        ids.forEach(bitmap::add);
+        return bitmap;
+    }
+
+    private static List<Long> all(IdBitmap bitmap) {
+        return bitmap.page(0, Integer.MAX_VALUE);
+    }
+
+    private static TreeSet<Long> set(LongStream ids) {
+        return ids.boxed().collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private static TreeSet<Long> intersection(TreeSet<Long> left, TreeSet<Long> right) {
+        TreeSet<Long> result = new TreeSet<>(left);
+        result.retainAll(right);
+        return result;
+    }
+
+    private static TreeSet<Long> union(TreeSet<Long> left, TreeSet<Long> right) {
+        TreeSet<Long> result = new TreeSet<>(left);
+        result.addAll(right);
+        return result;
+    }
+
+    private static TreeSet<Long> difference(TreeSet<Long> left, TreeSet<Long> right) {
+        TreeSet<Long> result = new TreeSet<>(left);
+        result.removeAll(right);
+        return result;
+    }
+}
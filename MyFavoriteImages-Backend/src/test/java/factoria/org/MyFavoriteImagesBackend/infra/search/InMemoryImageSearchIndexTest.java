@@ -0,0 +1,114 @@
+package factoria.org.MyFavoriteImagesBackend.infra.search;
+
+import factoria.org.MyFavoriteImagesBackend.domain.events.UserChangedEvent;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryImageSearchIndexTest {
+    @Mock
+    FavoriteImageRepository imageRepository;
+
+    InMemoryImageSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        this.searchIndex = new InMemoryImageSearchIndex(imageRepository);
+    }
+
+    @Test
+    void shouldNotIndexMissingTitleAsTerm() {
+        //Given
+        this.searchIndex.index(1L, 1L, null, "Autumn leaves");
+        this.searchIndex.index(1L, 2L, "Null island", null);
+
+        //When and then
+        assertThat(this.searchIndex.search("null", 0, 10)).containsExactly(2L);
+        assertThat(this.searchIndex.search("leaves", 0, 10)).containsExactly(1L);
+    }
+
+    @Test
+    void shouldRankMoreFrequentTermInShorterTextFirst() {
+        //Given
+        this.searchIndex.index(1L, 1L, "Forest", "A long walk through a forest at dawn with fog over the river");
+        this.searchIndex.index(1L, 2L, "Forest forest", "Forest");
+        this.searchIndex.index(1L, 3L, "Forest", "Trees");
+        this.searchIndex.index(1L, 4L, "Beach", "Sand");
+
+        //When and then
+        assertThat(this.searchIndex.search("forest", 0, 10)).containsExactly(2L, 3L, 1L);
+    }
+
+    @Test
+    void shouldWeighRareTermsAboveCommonOnes() {
+        //Given
+        this.searchIndex.index(1L, 1L, "Sunset sunset", "Lighthouse");
+        this.searchIndex.index(1L, 2L, "Sunset lighthouse", "Lighthouse");
+        this.searchIndex.index(1L, 3L, "Sunset", "Lake");
+        this.searchIndex.index(1L, 4L, "Sunset", "Mountains");
+
+        //When and then
+        assertThat(this.searchIndex.search("sunset lighthouse", 0, 10)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void shouldMatchEveryQueryTermIgnoringCaseAndAccents() {
+        //Given
+        this.searchIndex.index(1L, 1L, "Árbol en otoño", "Hojas secas");
+        this.searchIndex.index(1L, 2L, "Arbol", "Verano");
+
+        //When and then
+        assertThat(this.searchIndex.search("ARBOL otono", 0, 10)).containsExactly(1L);
+        assertThat(this.searchIndex.search("arbol playa", 0, 10)).isEmpty();
+    }
+
+    @Test
+    void shouldPageThroughRankedResults() {
+        //Given
+        this.searchIndex.index(1L, 1L, "Cat cat cat", "");
+        this.searchIndex.index(1L, 2L, "Cat cat", "Sleeping");
+        this.searchIndex.index(1L, 3L, "Cat", "Sleeping on the sofa all day");
+
+        //When and then
+        assertThat(this.searchIndex.search("cat", 0, 2)).containsExactly(1L, 2L);
+        assertThat(this.searchIndex.search("cat", 2, 2)).containsExactly(3L);
+        assertThat(this.searchIndex.search("cat", 5, 2)).isEmpty();
+    }
+
+    @Test
+    void shouldForgetImagesOfDeletedUser() {
+        //Given
+        this.searchIndex.index(1L, 1L, "Snowy peak", "");
+        this.searchIndex.index(2L, 2L, "Snowy road", "");
+        this.searchIndex.index(2L, 3L, "Snowy field", "");
+
+        //When
+        this.searchIndex.onUserChanged(UserChangedEvent.deleted(2L));
+
+        //Then
+        assertThat(this.searchIndex.search("snowy", 0, 10)).containsExactly(1L);
+    }
+
+    @Test
+    void shouldForgetRemovedAndReplacedText() {
+        //Given
+        this.searchIndex.index(1L, 1L, "Red car", "Parked");
+        this.searchIndex.index(1L, 2L, "Red bike", "Parked");
+
+        //When
+        this.searchIndex.remove(1L);
+        this.searchIndex.index(1L, 2L, "Blue bike", "Parked");
+
+        //Then
+        assertThat(this.searchIndex.search("red", 0, 10)).isEmpty();
+        assertThat(this.searchIndex.search("car", 0, 10)).isEmpty();
+        assertThat(this.searchIndex.search("parked", 0, 10)).containsExactly(2L);
+        assertThat(this.searchIndex.search("blue bike", 0, 10)).containsExactly(2L);
+    }
+}
@@ -0,0 +1,124 @@
+package factoria.org.MyFavoriteImagesBackend.infra.search;
+
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.FavoriteImageRepository;
+import factoria.org.MyFavoriteImagesBackend.infra.persistence.ImageText;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+
+@ExtendWith(MockitoExtension.class)
+class TitleSuggestionIndexTest {
+    @Mock
+    FavoriteImageRepository imageRepository;
+
+    TitleSuggestionIndex suggestionIndex;
+
+    @BeforeEach
+    void setUp() {
+        this.suggestionIndex = new TitleSuggestionIndex(imageRepository);
+    }
+
+    @Test
+    void shouldSuggestByPrefixOfAnyWord() {
+        //Given
+        this.suggestionIndex.index(1L, 10L, "Hojas de otoño");
+        this.suggestionIndex.index(1L, 11L, "Otoño en el parque");
+        this.suggestionIndex.index(1L, 12L, "Playa");
+
+        //When and then
+        assertThat(this.suggestionIndex.suggest(1L, "oto", 10)).extracting(TitleSuggestionIndex.Suggestion::id)
+                .containsExactlyInAnyOrder(10L, 11L);
+        assertThat(this.suggestionIndex.suggest(1L, "DE OTO", 10)).extracting(TitleSuggestionIndex.Suggestion::title)
+                .containsExactly("Hojas de otoño");
+        assertThat(this.suggestionIndex.suggest(1L, "parques", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldNotMatchInsideWords() {
+        //Given
+        this.suggestionIndex.index(1L, 10L, "Hojas de otoño");
+
+        //When and then
+        assertThat(this.suggestionIndex.suggest(1L, "toño", 10)).isEmpty();
+        assertThat(this.suggestionIndex.suggest(1L, "jas de", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldSuggestEachImageOnceUpToLimit() {
+        //Given
+        this.suggestionIndex.index(1L, 10L, "Sol sol sol");
+        this.suggestionIndex.index(1L, 11L, "Solo");
+        this.suggestionIndex.index(1L, 12L, "Soltero");
+
+        //When and then
+        assertThat(this.suggestionIndex.suggest(1L, "sol", 10)).extracting(TitleSuggestionIndex.Suggestion::id)
+                .containsExactlyInAnyOrder(10L, 11L, 12L);
+        assertThat(this.suggestionIndex.suggest(1L, "sol", 2)).hasSize(2);
+    }
+
+    @Test
+    void shouldKeepOwnersApart() {
+        //Given
+        this.suggestionIndex.index(1L, 10L, "Montaña");
+        this.suggestionIndex.index(2L, 20L, "Montaña nevada");
+
+        //When and then
+        assertThat(this.suggestionIndex.suggest(1L, "mon", 10)).extracting(TitleSuggestionIndex.Suggestion::id).containsExactly(10L);
+        assertThat(this.suggestionIndex.suggest(3L, "mon", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldForgetRemovedAndRenamedTitles() {
+        //Given
+        this.suggestionIndex.index(1L, 10L, "Gato negro");
+        this.suggestionIndex.index(1L, 11L, "Gato blanco");
+        this.suggestionIndex.index(2L, 20L, "Gato gris");
+
+        //When
+        this.suggestionIndex.remove(1L, 10L);
+        this.suggestionIndex.index(1L, 11L, "Perro blanco");
+        this.suggestionIndex.removeOwner(2L);
+
+        //Then
+        assertThat(this.suggestionIndex.suggest(1L, "gato", 10)).isEmpty();
+        assertThat(this.suggestionIndex.suggest(1L, "blan", 10)).extracting(TitleSuggestionIndex.Suggestion::title)
+                .containsExactly("Perro blanco");
+        assertThat(this.suggestionIndex.suggest(2L, "gato", 10)).isEmpty();
+    }
+
+    @Test
+    void shouldServeOldTitlesDuringRebuildAndKeepConcurrentChanges() {
+        //Given
+        this.suggestionIndex.index(1L, 10L, "Antiguo");
+        List<List<TitleSuggestionIndex.Suggestion>> seenDuringRebuild = new ArrayList<>();
+        given(this.imageRepository.streamAllText()).willReturn(Stream.of(
+                        new ImageText(11L, 1L, "Bosque", null),
+                        new ImageText(12L, 1L, "Borrado", null))
+                .peek(image -> {
+                    if (image.id() == 11L) {
+                        seenDuringRebuild.add(this.suggestionIndex.suggest(1L, "antiguo", 10));
+                        //Events committed while the rows are streamed
+                        this.suggestionIndex.index(1L, 13L, "Bosque nuevo");
+                        this.suggestionIndex.remove(1L, 12L);
+                    }
+                }));
+
+        //When
+        this.suggestionIndex.rebuild();
+
+        //Then
+        assertThat(seenDuringRebuild.get(0)).extracting(TitleSuggestionIndex.Suggestion::id).containsExactly(10L);
+        assertThat(this.suggestionIndex.suggest(1L, "antiguo", 10)).isEmpty();
+        assertThat(this.suggestionIndex.suggest(1L, "bo", 10)).extracting(TitleSuggestionIndex.Suggestion::id)
+                .containsExactlyInAnyOrder(11L, 13L);
+    }
+}
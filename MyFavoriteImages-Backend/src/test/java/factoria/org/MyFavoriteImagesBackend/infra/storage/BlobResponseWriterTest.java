@@ -0,0 +1,56 @@
+package factoria.org.MyFavoriteImagesBackend.infra.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BlobResponseWriterTest {
+    @TempDir
+    Path directory;
+
+    BlobResponseWriter writer = new BlobResponseWriter();
+
+    @Test
+    void shouldServeBlobSandboxedAndUnsniffed() throws Exception {
+        //Given
+        Path file = Files.writeString(this.directory.resolve("blob"), "..image bytes..", StandardCharsets.UTF_8);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/images/1/content");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //When
+        this.writer.write(request, response, new BlobLocation(file, 2, 11), "image/png", "\"abc123\"");
+
+        //Then
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsString()).isEqualTo("image bytes");
+        assertThat(response.getContentType()).isEqualTo("image/png");
+        assertThat(response.getHeader("X-Content-Type-Options")).isEqualTo("nosniff");
+        assertThat(response.getHeader("Content-Security-Policy")).isEqualTo("default-src 'none'; sandbox");
+    }
+
+    @Test
+    void shouldKeepSecurityHeadersOnPartialContent() throws Exception {
+        //Given
+        Path file = Files.writeString(this.directory.resolve("blob"), "image bytes", StandardCharsets.UTF_8);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/images/1/content");
+        request.addHeader(HttpHeaders.RANGE, "bytes=6-");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        //When
+        this.writer.write(request, response, new BlobLocation(file, 0, 11), "image/png", "\"abc123\"");
+
+        //Then
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsString()).isEqualTo("bytes");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 6-10/11");
+        assertThat(response.getHeader("Content-Security-Policy")).isEqualTo("default-src 'none'; sandbox");
+    }
+}
@@ -0,0 +1,157 @@
+package factoria.org.MyFavoriteImagesBackend.infra.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Records here are 19 bytes of header plus a one-byte key plus 100 bytes of data, so a 250 byte segment holds two
+ * blobs and the third one seals it.
+ */
+class PackFileBlobStoreTest {
+    private static final long SEGMENT_SIZE = 250;
+    private static final double COMPACTION_THRESHOLD = 0.5;
+
+    @TempDir
+    Path directory;
+
+    PackFileBlobStore store;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (this.store != null) {
+            this.store.close();
+        }
+    }
+
+    @Test
+    void shouldReadBlobsBackAfterReopening() throws Exception {
+        //Given
+        this.store = open();
+        put("a", 'a');
+        put("b", 'b');
+        put("c", 'c');
+        this.store.delete("b");
+
+        //When
+        reopen();
+
+        //Then
+        assertThat(read("a")).isEqualTo(content('a'));
+        assertThat(read("c")).isEqualTo(content('c'));
+        assertThat(this.store.contains("b")).isFalse();
+        assertThat(this.store.locate("a")).get().extracting(BlobLocation::length).isEqualTo(100L);
+    }
+
+    @Test
+    void shouldTruncateTornRecordAtTheEndOfTheActiveSegment() throws Exception {
+        //Given
+        this.store = open();
+        put("a", 'a');
+        this.store.close();
+        Path segment = segment(1);
+        long intactSize = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer torn = ByteBuffer.allocate(19 + 1 + 10);
+            torn.putInt(0x424C4F42).put((byte) 1).putShort((short) 1).put((byte) 'b').putLong(100).putInt(0).put(new byte[10]).flip();
+            channel.write(torn);
+        }
+
+        //When
+        this.store = open();
+        put("c", 'c');
+
+        //Then
+        assertThat(this.store.contains("b")).isFalse();
+        assertThat(read("a")).isEqualTo(content('a'));
+        assertThat(read("c")).isEqualTo(content('c'));
+        assertThat(this.store.locate("c")).get().extracting(BlobLocation::offset).isEqualTo(intactSize + 20);
+    }
+
+    @Test
+    void shouldScanSegmentWhoseFooterIsCorrupt() throws Exception {
+        //Given
+        this.store = open();
+        put("a", 'a');
+        put("b", 'b');
+        put("c", 'c');
+        this.store.close();
+        Path segment = segment(1);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ByteBuffer count = ByteBuffer.allocate(Integer.BYTES).putInt(Integer.MAX_VALUE).flip();
+            channel.write(count, Files.size(segment) - 2 * Integer.BYTES);
+        }
+
+        //When
+        this.store = open();
+
+        //Then
+        assertThat(read("a")).isEqualTo(content('a'));
+        assertThat(read("b")).isEqualTo(content('b'));
+        assertThat(read("c")).isEqualTo(content('c'));
+    }
+
+    @Test
+    void shouldMoveLiveBlobsOutOfSparseSegment() throws Exception {
+        //Given
+        this.store = open();
+        put("a", 'a');
+        put("b", 'b');
+        put("c", 'c');
+        this.store.delete("a");
+
+        //When
+        this.store.compact();
+
+        //Then
+        assertThat(this.store.locate("b")).get().extracting(BlobLocation::file).isNotEqualTo(segment(1));
+        assertThat(read("b")).isEqualTo(content('b'));
+        reopen();
+        assertThat(Files.exists(segment(1))).isFalse();
+        assertThat(this.store.contains("a")).isFalse();
+        assertThat(read("b")).isEqualTo(content('b'));
+        assertThat(read("c")).isEqualTo(content('c'));
+    }
+
+    private PackFileBlobStore open() throws IOException {
+        return new PackFileBlobStore(this.directory, SEGMENT_SIZE, COMPACTION_THRESHOLD);
+    }
+
+    private void reopen() throws IOException {
+        this.store.close();
+        this.store = open();
+    }
+
+    private void put(String key, char fill) throws IOException {
+        Path source = this.store.createTempFile();
+        Files.write(source, content(fill));
+        this.store.put(key, source);
+    }
+
+    private byte[] read(String key) throws IOException {
+        try (InputStream in = this.store.open(key)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private Path segment(int id) {
+        return this.directory.resolve(String.format("segment-%06d.pack", id));
+    }
+
+    private static byte[] content(char fill) {
+        byte[] bytes = new byte[100];
+        Arrays.fill(bytes, (byte) fill);
+        return bytes;
+    }
+}
@@ -0,0 +1,167 @@
+package factoria.org.MyFavoriteImagesBackend.infra.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class UploadSessionTest {
+    private static final long MAX_SIZE = 1024;
+
+    @TempDir
+    Path directory;
+
+    UploadSession session;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        this.session = newSession(0);
+        Files.createFile(this.session.getDataFile());
+    }
+
+    @Test
+    void shouldAppendChunksAtTheCurrentSize() throws Exception {
+        //When
+        boolean first = this.session.append(0, chunk("hello "), MAX_SIZE);
+        boolean second = this.session.append(6, chunk("world"), MAX_SIZE);
+
+        //Then
+        assertThat(first).isTrue();
+        assertThat(second).isTrue();
+        assertThat(this.session.getSize()).isEqualTo(11);
+        assertThat(Files.readString(this.session.getDataFile())).isEqualTo("hello world");
+        assertThat(this.session.seal()).isEqualTo(sha256("hello world"));
+    }
+
+    @Test
+    void shouldRejectChunkAtAnotherOffsetWithoutTouchingTheFile() throws Exception {
+        //Given
+        this.session.append(0, chunk("hello "), MAX_SIZE);
+
+        //When
+        boolean ahead = this.session.append(10, chunk("world"), MAX_SIZE);
+        boolean behind = this.session.append(0, chunk("HELLO "), MAX_SIZE);
+
+        //Then
+        assertThat(ahead).isFalse();
+        assertThat(behind).isFalse();
+        assertThat(this.session.getSize()).isEqualTo(6);
+        assertThat(Files.readString(this.session.getDataFile())).isEqualTo("hello ");
+    }
+
+    @Test
+    void shouldKeepBytesOfInterruptedChunkAndResumeAfterThem() throws Exception {
+        //Given
+        this.session.append(0, chunk("hello "), MAX_SIZE);
+
+        //When
+        Throwable thrown = catchThrowable(() -> this.session.append(6, brokenChunk("wor"), MAX_SIZE));
+        boolean resumed = this.session.append(this.session.getSize(), chunk("ld"), MAX_SIZE);
+
+        //Then
+        assertThat(thrown).isInstanceOf(IOException.class);
+        assertThat(resumed).isTrue();
+        assertThat(Files.readString(this.session.getDataFile())).isEqualTo("hello world");
+        assertThat(this.session.seal()).isEqualTo(sha256("hello world"));
+    }
+
+    @Test
+    void shouldTruncateChunkThatExceedsTheMaximumSize() throws Exception {
+        //Given
+        this.session.append(0, chunk("hello "), 8);
+
+        //When
+        Throwable thrown = catchThrowable(() -> this.session.append(6, chunk("world"), 8));
+
+        //Then
+        assertThat(thrown).isInstanceOf(MaxUploadSizeExceededException.class);
+        assertThat(this.session.getSize()).isEqualTo(6);
+        assertThat(Files.size(this.session.getDataFile())).isEqualTo(6);
+        assertThat(this.session.seal()).isEqualTo(sha256("hello "));
+    }
+
+    @Test
+    void shouldRebuildChecksumOfSessionLoadedFromDisk() throws Exception {
+        //Given
+        this.session.append(0, chunk("hello "), MAX_SIZE);
+        UploadSession reloaded = newSession(Files.size(this.session.getDataFile()));
+
+        //When
+        boolean resumed = reloaded.append(6, chunk("world"), MAX_SIZE);
+
+        //Then
+        assertThat(resumed).isTrue();
+        assertThat(reloaded.seal()).isEqualTo(sha256("hello world"));
+    }
+
+    @Test
+    void shouldRejectChunksWhileSealed() throws Exception {
+        //Given
+        this.session.append(0, chunk("hello "), MAX_SIZE);
+        this.session.seal();
+
+        //When
+        boolean whileSealed = this.session.append(6, chunk("world"), MAX_SIZE);
+        String sealedAgain = this.session.seal();
+        this.session.unseal();
+        boolean afterUnseal = this.session.append(6, chunk("world"), MAX_SIZE);
+
+        //Then
+        assertThat(whileSealed).isFalse();
+        assertThat(sealedAgain).isNull();
+        assertThat(afterUnseal).isTrue();
+        assertThat(Files.readString(this.session.getDataFile())).isEqualTo("hello world");
+    }
+
+    private UploadSession newSession(long size) {
+        Instant now = Instant.now();
+        return new UploadSession("upload-1", 1L, "image/png", now, this.directory, size, now);
+    }
+
+    private static InputStream chunk(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Delivers the given bytes and then fails, like a connection dropped in the middle of a chunk.
+     */
+    private static InputStream brokenChunk(String content) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        return new InputStream() {
+            private boolean delivered;
+
+            @Override
+            public int read() throws IOException {
+                throw new IOException("Connection reset");
+            }
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (this.delivered) {
+                    throw new IOException("Connection reset");
+                }
+                this.delivered = true;
+                System.arraycopy(bytes, 0, buffer, offset, bytes.length);
+                return bytes.length;
+            }
+        };
+    }
+
+    private static String sha256(String content) {
+        MessageDigest digest = UploadSession.newDigest();
+        return HexFormat.of().formatHex(digest.digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
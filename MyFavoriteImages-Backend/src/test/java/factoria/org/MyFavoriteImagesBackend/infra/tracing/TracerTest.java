@@ -0,0 +1,145 @@
+package factoria.org.MyFavoriteImagesBackend.infra.tracing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockFilterConfig;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TracerTest {
+    @Mock
+    TraceExporter exporter;
+
+    @Test
+    void shouldNestSpansUnderTheOpenSpanAndExportSlowTraces() {
+        //Given
+        Tracer tracer = new Tracer(this.exporter, true, 0, 1000);
+
+        //When
+        Span root = tracer.startTrace("GET /api/v1/images");
+        Span service = tracer.startSpan("service");
+        tracer.recordSpan("jdbc.query", System.nanoTime(), 1_000, "sql", "select 1");
+        tracer.endSpan(service);
+        Span converter = tracer.startSpan("converter");
+        tracer.endSpan(converter);
+        tracer.endSpan(root);
+
+        //Then
+        ArgumentCaptor<RecordedTrace> captor = ArgumentCaptor.forClass(RecordedTrace.class);
+        verify(this.exporter, times(1)).export(captor.capture());
+        RecordedTrace trace = captor.getValue();
+        assertThat(trace.name()).isEqualTo("GET /api/v1/images");
+        assertThat(trace.spans()).extracting(RecordedTrace.RecordedSpan::name)
+                .containsExactly("GET /api/v1/images", "service", "jdbc.query", "converter");
+        assertThat(trace.spans()).extracting(RecordedTrace.RecordedSpan::parentId)
+                .containsExactly(null, root.getId(), service.getId(), root.getId());
+        assertThat(trace.spans().get(2).attributes()).isEqualTo(Map.of("sql", "select 1"));
+        assertThat(tracer.isTracing()).isFalse();
+    }
+
+    @Test
+    void shouldDropFastTracesOnExit() {
+        //Given
+        Tracer tracer = new Tracer(this.exporter, true, 60_000, 1000);
+
+        //When
+        Span root = tracer.startTrace("GET /api/v1/images");
+        tracer.endSpan(tracer.startSpan("service"));
+        tracer.endSpan(root);
+
+        //Then
+        verify(this.exporter, never()).export(any());
+        assertThat(tracer.isTracing()).isFalse();
+        assertThat(tracer.startSpan("outside a request")).isNull();
+    }
+
+    @Test
+    void shouldNotOpenNestedTraces() {
+        //Given
+        Tracer tracer = new Tracer(this.exporter, true, 0, 1000);
+        Span root = tracer.startTrace("outer");
+
+        //When
+        Span nested = tracer.startTrace("inner");
+        tracer.endSpan(root);
+
+        //Then
+        assertThat(nested).isNull();
+        verify(this.exporter, times(1)).export(any());
+    }
+
+    @Test
+    void shouldCountSpansBeyondTheLimitAsDropped() {
+        //Given
+        Tracer tracer = new Tracer(this.exporter, true, 0, 2);
+
+        //When
+        Span root = tracer.startTrace("root");
+        tracer.endSpan(tracer.startSpan("kept"));
+        tracer.endSpan(tracer.startSpan("dropped"));
+        tracer.recordSpan("dropped too", System.nanoTime(), 1_000, null, null);
+        tracer.endSpan(root);
+
+        //Then
+        ArgumentCaptor<RecordedTrace> captor = ArgumentCaptor.forClass(RecordedTrace.class);
+        verify(this.exporter).export(captor.capture());
+        assertThat(captor.getValue().spans()).hasSize(2);
+        assertThat(captor.getValue().droppedSpans()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldTraceRequestAndSecurityChainThroughFilters() throws Exception {
+        //Given
+        Tracer tracer = new Tracer(this.exporter, true, 0, 1000);
+        TracingFilter requestFilter = filter(tracer, TracingFilter.Stage.REQUEST);
+        TracingFilter securityEntryFilter = filter(tracer, TracingFilter.Stage.BEFORE_SECURITY);
+        TracingFilter securityExitFilter = filter(tracer, TracingFilter.Stage.AFTER_SECURITY);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/images/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest servletRequest, HttpServletResponse servletResponse) {
+                tracer.endSpan(tracer.startSpan("controller"));
+                servletResponse.setStatus(HttpServletResponse.SC_OK);
+            }
+        }, requestFilter, securityEntryFilter, securityExitFilter);
+
+        //When
+        chain.doFilter(request, response);
+
+        //Then
+        ArgumentCaptor<RecordedTrace> captor = ArgumentCaptor.forClass(RecordedTrace.class);
+        verify(this.exporter).export(captor.capture());
+        RecordedTrace trace = captor.getValue();
+        assertThat(trace.name()).isEqualTo("GET /api/v1/images/1");
+        assertThat(trace.spans()).extracting(RecordedTrace.RecordedSpan::name)
+                .containsExactly("GET /api/v1/images/1", "security.filterChain", "controller");
+        //The security span closes before the controller runs, so the controller hangs off the root
+        assertThat(trace.spans().get(2).parentId()).isEqualTo(trace.spans().get(0).id());
+        assertThat(trace.spans().get(0).attributes()).containsEntry("status", "200");
+        assertThat(tracer.isTracing()).isFalse();
+    }
+
+    //Distinct names, as the registration beans give them, so OncePerRequestFilter runs each stage
+    private static TracingFilter filter(Tracer tracer, TracingFilter.Stage stage) throws Exception {
+        TracingFilter filter = new TracingFilter(tracer, stage);
+        filter.init(new MockFilterConfig("tracingFilter" + stage.name()));
+        return filter;
+    }
+}